@@ -197,6 +197,316 @@ static int convertNjCharToString( JNIEnv* env, jstring* dstJ, NJ_CHAR* src, int
 	return ( *dstJ == NULL ) ? NJ_SET_ERR_VAL(NJ_FUNC_JNI_CONVERT_NJC_TO_STR, NJ_ERR_JNI_FUNC_FAILED) : 0;
 }
 
+static NJ_CHARSET* compileApproxPattern( NJ_APPROX_CACHE** cacheRef, const PREDEF_APPROX_PATTERN* pattern )
+{
+	NJ_APPROX_CACHE*    cache = *cacheRef;
+
+	if( cache == NULL ) {
+		int     i, j;
+
+		/* Allocate the area only for the strings of the pattern */
+		cache = ( NJ_APPROX_CACHE* )malloc( sizeof( NJ_APPROX_CACHE ) + sizeof( NJ_CHAR ) * ( NJ_APPROXSTORE_SIZE * pattern->size ) );
+		if( cache == NULL ) {
+			return NULL;
+		}
+		memset( &( cache->charset ), 0x00, sizeof( NJ_CHARSET ) );
+
+		for( i = 0 ; i < pattern->size ; i++ ) {
+			NJ_CHAR*    from;
+			NJ_CHAR*    to;
+
+			/* Set pointers of string to store approximate informations */
+			from = cache->str + NJ_APPROXSTORE_SIZE * i;
+			to   = cache->str + NJ_APPROXSTORE_SIZE * i + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN;
+			cache->charset.from[ i ] = from;
+			cache->charset.to[ i ]   = to;
+
+			/* Set approximate pattern */
+			from[ 0 ] = convertUTFCharToNjChar( pattern->from + i * 2 );    /* "2" means the size of UTF-16BE */
+			from[ 1 ] = 0x0000;
+
+			for( j = 0 ; j < pattern->toLength ; j++ ) {
+				to[ j ] = convertUTFCharToNjChar( pattern->to + ( i * pattern->toLength + j ) * 2 );   /* "2" means the size of UTF-16BE */
+			}
+			to[ pattern->toLength ] = 0x0000;
+		}
+		cache->charset.charset_count = pattern->size;
+		*cacheRef = cache;
+	}
+	return &( cache->charset );
+}
+
+static int findApproxStr( NJ_JNIWORK* work, NJ_CHAR* from, NJ_CHAR* to )
+{
+	int     i;
+
+	for( i = 0 ; i < work->approxStrCount ; i++ ) {
+		NJ_CHAR*	f = work->approxStr + NJ_APPROXSTORE_SIZE * i;
+		NJ_CHAR*	t = work->approxStr + NJ_APPROXSTORE_SIZE * i + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN;
+
+		if( nj_strcmp( from, f ) == 0 && nj_strcmp( to, t ) == 0 ) {
+			return i;
+		}
+	}
+	return -1;
+}
+
+static int allocApproxStr( NJ_JNIWORK* work )
+{
+	int     i, j;
+	int     oldest;
+
+	if( work->approxStrCount < NJ_MAX_CHARSET ) {
+		return work->approxStrCount++;
+	}
+
+	/* Replace the least recently used pattern which the active pattern set does not refer to */
+	oldest = -1;
+	for( i = 0 ; i < work->approxStrCount ; i++ ) {
+		NJ_CHAR*	f = work->approxStr + NJ_APPROXSTORE_SIZE * i;
+
+		if( oldest >= 0 && work->approxStrUsed[ i ] >= work->approxStrUsed[ oldest ] ) {
+			continue;
+		}
+		for( j = 0 ; j < work->approxActive->charset_count ; j++ ) {
+			if( work->approxActive->from[ j ] == f ) {
+				break;
+			}
+		}
+		if( j == work->approxActive->charset_count ) {
+			oldest = i;
+		}
+	}
+	return oldest;
+}
+
+static NJ_CHARSET* prepareApproxSet( NJ_JNIWORK* work )
+{
+	/* Copy the references of the active patterns to the work set before adding a pattern to it */
+	if( work->approxActive != &( work->approxSet ) ) {
+		int     i;
+
+		for( i = 0 ; i < work->approxActive->charset_count ; i++ ) {
+			work->approxSet.from[ i ] = work->approxActive->from[ i ];
+			work->approxSet.to[ i ]   = work->approxActive->to[ i ];
+		}
+		work->approxSet.charset_count = work->approxActive->charset_count;
+		work->approxActive = &( work->approxSet );
+	}
+	return &( work->approxSet );
+}
+
+static NJ_CHAR toLowerNjChar( NJ_CHAR c )
+{
+    NJ_UINT8*   p;
+
+    /* Convert "A"-"Z" to "a"-"z" (UTF-16BE) */
+    p = ( NJ_UINT8* )&c;
+    if( p[ 0 ] == 0x00 && p[ 1 ] >= 0x41 && p[ 1 ] <= 0x5a ) {
+        p[ 1 ] += 0x20;
+    }
+    return c;
+}
+
+static jint searchCommonPrefixWords( NJ_JNIWORK* work )
+{
+	jint    result;
+
+	/*
+	 * Search the shortest prefix once; the words of all the longer prefixes are found
+	 * by the same cursor, and the others are skipped by matchCommonPrefix().
+	 */
+	memcpy( work->keyString, work->commonPrefixKey, sizeof( NJ_CHAR ) * work->commonPrefixMinLength );
+	work->keyString[ work->commonPrefixMinLength ] = NJ_CHAR_NUL;
+
+	memset( &( work->cursor ), 0x00, sizeof( NJ_CURSOR ) );
+	work->cursor.cond.operation	= com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_PREFIX;
+	work->cursor.cond.mode		= work->commonPrefixOrder;
+	work->cursor.cond.ds		= &( work->dicSet );
+	work->cursor.cond.yomi		= work->keyString;
+	work->cursor.cond.charset	= work->approxActive;
+
+	memcpy( &( work->wnnClass.dic_set ), &( work->dicSet ), sizeof( NJ_DIC_SET ) );
+	result = ( jint )njx_search_word( &( work->wnnClass ), &( work->cursor ) );
+	if( result == 1 ) {
+		work->flag |= NJ_JNI_FLAG_ENABLE_CURSOR;
+	} else {
+		work->flag &= ~NJ_JNI_FLAG_ENABLE_CURSOR;
+		work->flag &= ~NJ_JNI_FLAG_COMMON_PREFIX;
+	}
+	return result;
+}
+
+static int matchApproxPrefix( NJ_JNIWORK* work, int keyPos, NJ_CHAR* stroke, int strokePos )
+{
+	NJ_CHAR     c;
+	int         i;
+
+	if( stroke[ strokePos ] == NJ_CHAR_NUL ) {
+		/* The stroke is a prefix of the key which is long enough */
+		return ( keyPos >= work->commonPrefixMinLength ) ? 1 : 0;
+	}
+	if( keyPos >= work->commonPrefixLength ) {
+		return 0;
+	}
+
+	c = work->commonPrefixKey[ keyPos ];
+	if( toLowerNjChar( c ) == toLowerNjChar( stroke[ strokePos ] ) &&
+		matchApproxPrefix( work, keyPos + 1, stroke, strokePos + 1 ) ) {
+		return 1;
+	}
+
+	/* A character of the key may be replaced with a string by the approximate patterns */
+	for( i = 0 ; i < work->approxActive->charset_count ; i++ ) {
+		NJ_CHAR*    to = work->approxActive->to[ i ];
+		int         len;
+
+		if( work->approxActive->from[ i ][ 0 ] != c ) {
+			continue;
+		}
+		for( len = 0 ; to[ len ] != NJ_CHAR_NUL && to[ len ] == stroke[ strokePos + len ] ; len++ ) {
+		}
+		if( len > 0 && to[ len ] == NJ_CHAR_NUL &&
+			matchApproxPrefix( work, keyPos + 1, stroke, strokePos + len ) ) {
+			return 1;
+		}
+	}
+	return 0;
+}
+
+static int matchCommonPrefix( NJ_JNIWORK* work )
+{
+	NJ_CHAR     stroke[ NJ_MAX_LEN + NJ_TERM_LEN ];
+
+	if( njx_get_stroke( &( work->wnnClass ), &( work->result ), stroke, sizeof( NJ_CHAR ) * ( NJ_MAX_LEN + NJ_TERM_LEN ) ) < 0 ) {
+		return 0;
+	}
+	return matchApproxPrefix( work, 0, stroke, 0 );
+}
+
+static int findKeyLayout( NJ_JNIWORK* work, NJ_CHAR c )
+{
+    int     i;
+
+    c = toLowerNjChar( c );
+    for( i = 0 ; i < work->keyLayoutCount ; i++ ) {
+        if( work->keyLayoutChar[ i ] == c ) {
+            return i;
+        }
+    }
+    return -1;
+}
+
+static NJ_INT32 getKeyDistancePenalty( NJ_JNIWORK* work, NJ_CHAR* key, NJ_CHAR* stroke, const jint* touchX, const jint* touchY, int touchCount )
+{
+    NJ_INT32    penalty = 0;
+    NJ_INT32    limit   = work->keyWidth * 8;
+    int         i;
+
+    for( i = 0 ; key[ i ] != NJ_CHAR_NUL && stroke[ i ] != NJ_CHAR_NUL ; i++ ) {
+        NJ_INT32    px, py;
+        int         typed, target;
+
+        typed  = findKeyLayout( work, key[ i ] );
+        target = findKeyLayout( work, stroke[ i ] );
+
+        /* The point where the key was touched (or the center of the typed key) */
+        if( i < touchCount ) {
+            px = touchX[ i ];
+            py = touchY[ i ];
+        } else if( typed >= 0 ) {
+            px = work->keyLayoutX[ typed ];
+            py = work->keyLayoutY[ typed ];
+        } else {
+            target = -1;
+        }
+
+        if( target < 0 ) {
+            /* The distance is unknown; the same character costs nothing, the others cost as two keys away */
+            if( toLowerNjChar( key[ i ] ) != toLowerNjChar( stroke[ i ] ) ) {
+                penalty += NJ_JNI_KEY_DISTANCE_WEIGHT * 4;
+            }
+        } else {
+            NJ_INT32    dx, dy;
+
+            dx = px - work->keyLayoutX[ target ];
+            dy = py - work->keyLayoutY[ target ];
+            if( dx >  limit ) { dx =  limit; }
+            if( dx < -limit ) { dx = -limit; }
+            if( dy >  limit ) { dy =  limit; }
+            if( dy < -limit ) { dy = -limit; }
+
+            /* The square of the distance; one key away costs NJ_JNI_KEY_DISTANCE_WEIGHT */
+            penalty += NJ_JNI_KEY_DISTANCE_WEIGHT * ( dx * dx + dy * dy ) / ( work->keyWidth * work->keyWidth );
+        }
+    }
+    return penalty;
+}
+
+static int getTouchPoints( JNIEnv *env, jintArray xJ, jintArray yJ, jint* touchX, jint* touchY )
+{
+    int     touchCount = 0;
+
+    /* The touch points are optional */
+    if( xJ != NULL && yJ != NULL ) {
+        touchCount = ( *env )->GetArrayLength( env, xJ );
+        if( ( *env )->GetArrayLength( env, yJ ) < touchCount ) {
+            touchCount = ( *env )->GetArrayLength( env, yJ );
+        }
+        if( touchCount > NJ_MAX_LEN ) {
+            touchCount = NJ_MAX_LEN;
+        }
+        ( *env )->GetIntArrayRegion( env, xJ, 0, touchCount, touchX );
+        ( *env )->GetIntArrayRegion( env, yJ, 0, touchCount, touchY );
+    }
+    return touchCount;
+}
+
+static int isCaseMatched( NJ_JNIWORK* work, NJ_RESULT* result )
+{
+    NJ_CHAR     candidate[ NJ_MAX_RESULT_LEN + NJ_TERM_LEN ];
+    NJ_UINT8*   p;
+
+    if( work->caseFilter == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_NONE ) {
+        return 1;
+    }
+
+    if( njx_get_candidate( &( work->wnnClass ), result, candidate, sizeof( NJ_CHAR ) * ( NJ_MAX_RESULT_LEN + NJ_TERM_LEN ) ) <= 0 ) {
+        return 1;
+    }
+
+    /* Only the ASCII characters are checked here (UTF-16BE); the others are checked by the caller */
+    p = ( NJ_UINT8* )&( candidate[ 0 ] );
+    if( p[ 0 ] != 0x00 || p[ 1 ] >= 0x80 ) {
+        return 1;
+    }
+    return ( p[ 1 ] >= 0x61 && p[ 1 ] <= 0x7a ) ? 1 : 0;
+}
+
+static void addKeyDistanceResult( NJ_JNIWORK* work, NJ_INT32 score, int maxCount )
+{
+    int     pos;
+
+    /* Insert the result in descending order of the score, and drop the last one if full */
+    if( work->distanceCount < maxCount ) {
+        pos = work->distanceCount++;
+    } else if( score > work->distanceScore[ maxCount - 1 ] ) {
+        pos = maxCount - 1;
+    } else {
+        return;
+    }
+    while( pos > 0 && work->distanceScore[ pos - 1 ] < score ) {
+        work->distanceScore[ pos ]  = work->distanceScore[ pos - 1 ];
+        memcpy( &( work->distanceResult[ pos ] ), &( work->distanceResult[ pos - 1 ] ), sizeof( NJ_RESULT ) );
+        pos--;
+    }
+    work->distanceScore[ pos ] = score;
+    memcpy( &( work->distanceResult[ pos ] ), &( work->result ), sizeof( NJ_RESULT ) );
+
+    /* The score is output as the frequency of the word */
+    work->distanceResult[ pos ].word.stem.hindo = ( NJ_HINDO )( ( score > 0 ) ? score : 0 );
+}
+
 /*
  * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
  * Method:    createWnnWork
@@ -220,6 +530,7 @@ JNIEXPORT jlong JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImpl
 
 		/* Initialize the work area */
 		memset( work, 0x00, sizeof( NJ_JNIWORK ) );
+		work->approxActive = &( work->approxSet );
 
 		/* Load the dictionary library which is specified by dicLibPathJ */
 		if( dicLibPathJ == NULL ||
@@ -288,10 +599,17 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 
 	work = *( NJ_JNIWORK** )&wnnWork;
 	if( work != NULL ) {
+		int     i;
+
 		/* If the internal work area was not yet released, remove that */ 
         if( work->dicLibHandle != NULL ) {
         	dlclose( work->dicLibHandle );
             work->dicLibHandle = NULL;
+        }
+        for( i = 0 ; i < NJ_JNI_PREDEF_APPROX_PATTERN_COUNT ; i++ ) {
+            if( work->approxCache[ i ] != NULL ) {
+                free( work->approxCache[ i ] );
+            }
         }
 		free( work );
 
@@ -402,19 +720,24 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
             /* If too long key string was specified, return "No result is found" */
             work->flag &= ~NJ_JNI_FLAG_ENABLE_CURSOR;
             work->flag &= ~NJ_JNI_FLAG_ENABLE_RESULT;
+            work->flag &= ~NJ_JNI_FLAG_COMMON_PREFIX;
+            work->flag &= ~NJ_JNI_FLAG_KEY_DISTANCE;
             return 0;
         }
 
 		if( convertStringToNjChar( env, work->keyString, keyString, NJ_MAX_LEN ) >= 0 ) {
             jint    result;
 
+            work->flag &= ~NJ_JNI_FLAG_COMMON_PREFIX;
+            work->flag &= ~NJ_JNI_FLAG_KEY_DISTANCE;
+
 			/* Set the structure for search */
 			memset( &( work->cursor ), 0x00, sizeof( NJ_CURSOR ) );
 			work->cursor.cond.operation	= operation;
 			work->cursor.cond.mode		= order;
 			work->cursor.cond.ds		= &( work->dicSet );
 			work->cursor.cond.yomi		= work->keyString;
-   			work->cursor.cond.charset	= &( work->approxSet );
+   			work->cursor.cond.charset	= work->approxActive;
 
             /* If the link search feature is specified, set the predict search information to structure */
             if( operation == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_LINK ) {
@@ -444,6 +767,294 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_WORD, NJ_ERR_NOT_ALLOCATED);
 }
 
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    searchCommonPrefix
+ * Signature: (JILjava/lang/String;I)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_searchCommonPrefix
+  (JNIEnv *env, jclass obj, jlong wnnWork, jint order, jstring keyString, jint minLength)
+{
+	NJ_JNIWORK*	work;
+
+	if( !( order == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_FREQUENCY ||
+           order == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_KEY ) ||
+		   keyString == NULL ) {
+		/* If a invalid parameter was specified, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_COMMON_PREFIX, NJ_ERR_INVALID_PARAM);
+	}
+
+	work = *( NJ_JNIWORK** )&wnnWork;
+	if( work != NULL ) {
+        work->flag &= ~NJ_JNI_FLAG_ENABLE_CURSOR;
+        work->flag &= ~NJ_JNI_FLAG_ENABLE_RESULT;
+        work->flag &= ~NJ_JNI_FLAG_COMMON_PREFIX;
+        work->flag &= ~NJ_JNI_FLAG_KEY_DISTANCE;
+
+        if( ( *env )->GetStringLength( env, keyString ) > NJ_MAX_LEN ) {
+            /* If too long key string was specified, return "No result is found" */
+            return 0;
+        }
+
+		if( convertStringToNjChar( env, work->commonPrefixKey, keyString, NJ_MAX_LEN ) >= 0 ) {
+            NJ_UINT16   length;
+
+            for( length = 0 ; work->commonPrefixKey[ length ] != NJ_CHAR_NUL ; length++ ) {
+            }
+
+            if( minLength < 1 ) {
+                minLength = 1;
+            }
+            if( minLength > length ) {
+                /* No prefix is long enough */
+                return 0;
+            }
+
+            /* Set the condition; all the prefixes are searched by one cursor */
+            work->commonPrefixLength    = length;
+            work->commonPrefixMinLength = ( NJ_UINT16 )minLength;
+            work->commonPrefixOrder     = ( NJ_UINT8 )order;
+            work->flag |= NJ_JNI_FLAG_COMMON_PREFIX;
+
+            return searchCommonPrefixWords( work );
+		}
+		/* If converting the string failed, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_COMMON_PREFIX, NJ_ERR_INTERNAL);
+	}
+
+	/* If the internal work area was already released, return an error code */
+	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_COMMON_PREFIX, NJ_ERR_NOT_ALLOCATED);
+}
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    setKeyLayout
+ * Signature: (JLjava/lang/String;[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_setKeyLayout
+  (JNIEnv *env, jclass obj, jlong wnnWork, jstring keys, jintArray xJ, jintArray yJ, jint keyWidth)
+{
+	NJ_JNIWORK*	work;
+    int         count;
+
+	if( keys == NULL || xJ == NULL || yJ == NULL || keyWidth <= 0 ) {
+		/* If a invalid parameter was specified, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_KEY_LAYOUT, NJ_ERR_INVALID_PARAM);
+	}
+    count = ( *env )->GetStringLength( env, keys );
+    if( count > NJ_JNI_KEY_LAYOUT_SIZE ||
+        ( *env )->GetArrayLength( env, xJ ) < count || ( *env )->GetArrayLength( env, yJ ) < count ) {
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_KEY_LAYOUT, NJ_ERR_INVALID_PARAM);
+    }
+
+	work = *( NJ_JNIWORK** )&wnnWork;
+	if( work != NULL ) {
+        NJ_CHAR     chars[ NJ_JNI_KEY_LAYOUT_SIZE + NJ_TERM_LEN ];
+        jint        x[ NJ_JNI_KEY_LAYOUT_SIZE ];
+        jint        y[ NJ_JNI_KEY_LAYOUT_SIZE ];
+        int         i;
+
+        if( convertStringToNjChar( env, chars, keys, NJ_JNI_KEY_LAYOUT_SIZE ) < 0 ) {
+    		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_KEY_LAYOUT, NJ_ERR_INTERNAL);
+        }
+        ( *env )->GetIntArrayRegion( env, xJ, 0, count, x );
+        ( *env )->GetIntArrayRegion( env, yJ, 0, count, y );
+
+        /* Set the centers of the keys */
+        for( i = 0 ; i < count && chars[ i ] != NJ_CHAR_NUL ; i++ ) {
+            work->keyLayoutChar[ i ] = toLowerNjChar( chars[ i ] );
+            work->keyLayoutX[ i ]    = x[ i ];
+            work->keyLayoutY[ i ]    = y[ i ];
+        }
+        work->keyLayoutCount = ( NJ_UINT16 )i;
+        work->keyWidth       = keyWidth;
+        return 0;
+	}
+
+	/* If the internal work area was already released, return an error code */
+	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_KEY_LAYOUT, NJ_ERR_NOT_ALLOCATED);
+}
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    searchWordByKeyDistance
+ * Signature: (JLjava/lang/String;[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_searchWordByKeyDistance
+  (JNIEnv *env, jclass obj, jlong wnnWork, jstring keyString, jintArray xJ, jintArray yJ, jint maxCount)
+{
+	NJ_JNIWORK*	work;
+
+	if( keyString == NULL || maxCount <= 0 ) {
+		/* If a invalid parameter was specified, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_INVALID_PARAM);
+	}
+    if( maxCount > NJ_JNI_KEY_DISTANCE_MAX_RESULT ) {
+        maxCount = NJ_JNI_KEY_DISTANCE_MAX_RESULT;
+    }
+
+	work = *( NJ_JNIWORK** )&wnnWork;
+	if( work != NULL ) {
+        jint    touchX[ NJ_MAX_LEN ];
+        jint    touchY[ NJ_MAX_LEN ];
+        int     touchCount;
+
+        work->flag &= ~NJ_JNI_FLAG_ENABLE_CURSOR;
+        work->flag &= ~NJ_JNI_FLAG_ENABLE_RESULT;
+        work->flag &= ~NJ_JNI_FLAG_COMMON_PREFIX;
+        work->flag &= ~NJ_JNI_FLAG_KEY_DISTANCE;
+        work->distanceCount = 0;
+        work->distanceIndex = 0;
+
+        if( ( *env )->GetStringLength( env, keyString ) > NJ_MAX_LEN || work->keyLayoutCount == 0 ) {
+            /* If too long key string was specified or no layout is set, return "No result is found" */
+            return 0;
+        }
+
+        touchCount = getTouchPoints( env, xJ, yJ, touchX, touchY );
+
+		if( convertStringToNjChar( env, work->keyString, keyString, NJ_MAX_LEN ) >= 0 ) {
+            jint    result;
+            int     count;
+
+			/* Set the structure for search (the approximate patterns give the neighbor keys) */
+			memset( &( work->cursor ), 0x00, sizeof( NJ_CURSOR ) );
+			work->cursor.cond.operation	= com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_PREFIX;
+			work->cursor.cond.mode		= com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_FREQUENCY;
+			work->cursor.cond.ds		= &( work->dicSet );
+			work->cursor.cond.yomi		= work->keyString;
+   			work->cursor.cond.charset	= work->approxActive;
+
+            memcpy( &( work->wnnClass.dic_set ), &( work->dicSet ), sizeof( NJ_DIC_SET ) );
+			result = ( jint )njx_search_word( &( work->wnnClass ), &( work->cursor ) );
+            if( result != 1 ) {
+                return result;
+            }
+
+            /* Score the words and keep the best ones */
+            for( count = 0 ; count < NJ_JNI_KEY_DISTANCE_SEARCH_LIMIT ; count++ ) {
+                NJ_CHAR     stroke[ NJ_MAX_LEN + NJ_TERM_LEN ];
+                NJ_INT32    score;
+
+                if( njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) ) <= 0 ) {
+                    break;
+                }
+
+                /* The words come in descending order of frequency, so the rest cannot be better */
+                score = work->result.word.stem.hindo;
+                if( work->distanceCount >= maxCount && score <= work->distanceScore[ maxCount - 1 ] ) {
+                    break;
+                }
+
+                if( njx_get_stroke( &( work->wnnClass ), &( work->result ), stroke, sizeof( NJ_CHAR ) * ( NJ_MAX_LEN + NJ_TERM_LEN ) ) < 0 ) {
+                    continue;
+                }
+                if( !isCaseMatched( work, &( work->result ) ) ) {
+                    continue;
+                }
+                score -= getKeyDistancePenalty( work, work->keyString, stroke, touchX, touchY, touchCount );
+                addKeyDistanceResult( work, score, maxCount );
+            }
+
+            work->flag |= NJ_JNI_FLAG_KEY_DISTANCE;
+            if( work->distanceCount > 0 ) {
+                work->flag |= NJ_JNI_FLAG_ENABLE_CURSOR;
+                return 1;
+            }
+            return 0;
+		}
+		/* If converting the string failed, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_INTERNAL);
+	}
+
+	/* If the internal work area was already released, return an error code */
+	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_NOT_ALLOCATED);
+}
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    getKeyDistancePenalty
+ * Signature: (JLjava/lang/String;Ljava/lang/String;[I[I)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_getKeyDistancePenalty
+  (JNIEnv *env, jclass obj, jlong wnnWork, jstring keyString, jstring stroke, jintArray xJ, jintArray yJ)
+{
+	NJ_JNIWORK*	work;
+
+	if( keyString == NULL || stroke == NULL ) {
+		/* If a invalid parameter was specified, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_INVALID_PARAM);
+	}
+
+	work = *( NJ_JNIWORK** )&wnnWork;
+	if( work != NULL ) {
+        NJ_CHAR key[ NJ_MAX_LEN + NJ_TERM_LEN ];
+        NJ_CHAR str[ NJ_MAX_LEN + NJ_TERM_LEN ];
+        jint    touchX[ NJ_MAX_LEN ];
+        jint    touchY[ NJ_MAX_LEN ];
+        int     touchCount;
+
+        if( ( *env )->GetStringLength( env, keyString ) > NJ_MAX_LEN
+            || ( *env )->GetStringLength( env, stroke ) > NJ_MAX_LEN ) {
+            /* If too long string was specified, return an error code */
+            return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_INVALID_PARAM);
+        }
+        touchCount = getTouchPoints( env, xJ, yJ, touchX, touchY );
+
+		if( convertStringToNjChar( env, key, keyString, NJ_MAX_LEN ) >= 0
+            && convertStringToNjChar( env, str, stroke, NJ_MAX_LEN ) >= 0 ) {
+            /* The same penalty as the words of the fixed dictionary */
+            return ( jint )getKeyDistancePenalty( work, key, str, touchX, touchY, touchCount );
+		}
+		/* If converting the string failed, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_INTERNAL);
+	}
+
+	/* If the internal work area was already released, return an error code */
+	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE, NJ_ERR_NOT_ALLOCATED);
+}
+
+static jint getNextResult( NJ_JNIWORK* work, jint length )
+{
+    jint    result;
+
+    if( work->flag & NJ_JNI_FLAG_KEY_DISTANCE ) {
+        /* Get the next word of the best ones kept by searchWordByKeyDistance() */
+        while( work->distanceIndex < work->distanceCount ) {
+            memcpy( &( work->result ), &( work->distanceResult[ work->distanceIndex++ ] ), sizeof( NJ_RESULT ) );
+            if( length <= 0 ||
+                length == ( NJ_GET_YLEN_FROM_STEM( &( work->result.word ) ) + NJ_GET_YLEN_FROM_FZK( &( work->result.word ) ) ) ) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    if( work->flag & NJ_JNI_FLAG_COMMON_PREFIX ) {
+        /* Get a word whose stroke is a prefix of the key (the words of all the prefixes come in one order) */
+        do {
+            result = ( jint )njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) );
+            if( result > 0 && matchCommonPrefix( work ) ) {
+                break;
+            }
+        } while( result > 0 );
+        return result;
+    }
+
+    /* Get a specified word and search a next word */
+    if( length <= 0 ) {
+        result = ( jint )njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) );
+    } else {
+        do {
+            result = ( jint )njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) );
+            if( length == ( NJ_GET_YLEN_FROM_STEM( &( work->result.word ) ) + NJ_GET_YLEN_FROM_FZK( &( work->result.word ) ) ) ) {
+                break;
+            }
+        } while( result > 0 );
+    }
+    return result;
+}
+
 /*
  * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
  * Method:    getNextWord
@@ -459,17 +1070,10 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
         if( work->flag & NJ_JNI_FLAG_ENABLE_CURSOR ) {
             jint    result;
 
-       		/* Get a specified word and search a next word */
-            if( length <= 0 ) {
-        		result = ( jint )njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) );
-            } else {
-                do {
-            		result = ( jint )njx_get_word( &( work->wnnClass ), &( work->cursor ), &( work->result ) );
-                    if( length == ( NJ_GET_YLEN_FROM_STEM( &( work->result.word ) ) + NJ_GET_YLEN_FROM_FZK( &( work->result.word ) ) ) ) {
-                        break;
-                    }
-                } while( result > 0 );
-            }
+            /* Skip the words which do not match the case filter without returning to Java */
+            do {
+                result = getNextResult( work, length );
+            } while( result > 0 && !isCaseMatched( work, &( work->result ) ) );
 
             /* If a result is found, enable getStroke, getCandidate, getFrequency methods */
             if( result > 0 ) {
@@ -488,6 +1092,32 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_GET_WORD, NJ_ERR_NOT_ALLOCATED);
 }
 
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    setCaseFilter
+ * Signature: (JI)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_setCaseFilter
+  (JNIEnv *env, jclass obj, jlong wnnWork, jint filter)
+{
+	NJ_JNIWORK*	work;
+
+	if( filter != com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_NONE &&
+        filter != com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_LOWER ) {
+		/* If a invalid parameter was specified, return an error code */
+		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_CASE_FILTER, NJ_ERR_INVALID_PARAM);
+	}
+
+	work = *( NJ_JNIWORK** )&wnnWork;
+	if( work != NULL ) {
+        work->caseFilter = ( NJ_UINT8 )filter;
+        return 0;
+	}
+
+	/* If the internal work area was already released, return an error code */
+	return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_CASE_FILTER, NJ_ERR_NOT_ALLOCATED);
+}
+
 /*
  * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
  * Method:    getStroke
@@ -601,6 +1231,9 @@ JNIEXPORT void JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 			work->approxSet.from[ i ] = NULL;
 			work->approxSet.to[ i ]   = NULL;
 		}
+		work->approxActive = &( work->approxSet );
+
+        /* The stored user patterns are kept, so the same patterns set again are not stored again */
 
         /* Clear the cache information */
         memset( work->dicSet.keyword, 0x00, sizeof( work->dicSet.keyword ) );
@@ -625,31 +1258,46 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 
 	work = *( NJ_JNIWORK** )&wnnWork;
 	if( work != NULL ) {
-		if( work->approxSet.charset_count < NJ_MAX_CHARSET ) {
-			NJ_CHAR*		from;
-			NJ_CHAR*		to;
-
-			/* Set pointers of string to store approximate informations */
-			from = work->approxStr + NJ_APPROXSTORE_SIZE * work->approxSet.charset_count;
-			to   = work->approxStr + NJ_APPROXSTORE_SIZE * work->approxSet.charset_count + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN;
-			work->approxSet.from[ work->approxSet.charset_count ] = from;
-			work->approxSet.to[ work->approxSet.charset_count ]   = to;
+		if( work->approxActive->charset_count < NJ_MAX_CHARSET ) {
+			NJ_CHARSET*		set;
+			NJ_CHAR			from[ NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN ];
+			NJ_CHAR			to[ NJ_MAX_CHARSET_TO_LEN + NJ_TERM_LEN ];
+			NJ_CHAR*		fromStore;
+			NJ_CHAR*		toStore;
+			int				index;
 
 			/* Convert approximate informations to internal format */
-			if( convertStringToNjChar( env, from, srcJ, NJ_MAX_CHARSET_FROM_LEN ) >= 0 &&
-				convertStringToNjChar( env, to, dstJ, NJ_MAX_CHARSET_TO_LEN )   >= 0 ) {
-				work->approxSet.charset_count++;
-
-                /* Reset search state because the seach condition was changed */
-                work->flag = NJ_JNI_FLAG_NONE;
+			if( convertStringToNjChar( env, from, srcJ, NJ_MAX_CHARSET_FROM_LEN ) < 0 ||
+				convertStringToNjChar( env, to, dstJ, NJ_MAX_CHARSET_TO_LEN )   < 0 ) {
+				return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_INTERNAL);
+			}
 
-				return 0;
+			/* Look for the same pattern which was stored already */
+			index = findApproxStr( work, from, to );
+			if( index < 0 ) {
+				/* Store the new pattern (replace the least recently used one if full) */
+				index = allocApproxStr( work );
+				if( index < 0 ) {
+					/* If the compiled pattern area was full, return an error code */
+					return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_APPROX_PATTERN_IS_FULL);
+				}
+				nj_strcpy( work->approxStr + NJ_APPROXSTORE_SIZE * index, from );
+				nj_strcpy( work->approxStr + NJ_APPROXSTORE_SIZE * index + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN, to );
 			}
+			work->approxStrUsed[ index ] = ++work->approxStrClock;
+			fromStore = work->approxStr + NJ_APPROXSTORE_SIZE * index;
+			toStore   = work->approxStr + NJ_APPROXSTORE_SIZE * index + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN;
+
+			/* Add the reference of the pattern to the approximate pattern set */
+			set = prepareApproxSet( work );
+			set->from[ set->charset_count ] = fromStore;
+			set->to[ set->charset_count ]   = toStore;
+			set->charset_count++;
 
-			/* If converting informations failed, reset pointers, and return an error code */
-			work->approxSet.from[ work->approxSet.charset_count ] = NULL;
-			work->approxSet.to[ work->approxSet.charset_count ]   = NULL;
-			return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_INTERNAL);
+            /* Reset search state because the seach condition was changed */
+            work->flag = NJ_JNI_FLAG_NONE;
+
+			return 0;
 		}
 		/* If the approx pattern registration area was full, return an error code */
 		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_APPROX_PATTERN_IS_FULL);
@@ -673,7 +1321,12 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_EN_TOLOWER ||
 		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_EN_QWERTY_NEAR ||
 		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_EN_QWERTY_NEAR_UPPER ||
-		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_JAJP_12KEY_NORMAL ) ) {
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_JAJP_12KEY_NORMAL ||
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_Z_ZH ||
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_C_CH ||
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_S_SH ||
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_N_L ||
+		   approxPattern == com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_NG ) ) {
 		/* If a invalid parameter was specified, return an error code */
 		return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_INVALID_PARAM);
 	}
@@ -681,29 +1334,31 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 	work = *( NJ_JNIWORK** )&wnnWork;
 	if( work != NULL ) {
 		const PREDEF_APPROX_PATTERN*	pattern;
+		NJ_CHARSET*						compiled;
 
         pattern = predefinedApproxPatterns[ approxPattern ];
-		if( work->approxSet.charset_count + pattern->size <= NJ_MAX_CHARSET ) {
-			int     i;
-
-			for( i = 0 ; i < pattern->size ; i++ ) {
-				NJ_CHAR*    from;
-				NJ_CHAR*    to;
-
-				/* Set pointers of string to store approximate informations */
-				from = work->approxStr + NJ_APPROXSTORE_SIZE * ( work->approxSet.charset_count + i );
-				to   = work->approxStr + NJ_APPROXSTORE_SIZE * ( work->approxSet.charset_count + i ) + NJ_MAX_CHARSET_FROM_LEN + NJ_TERM_LEN;
-				work->approxSet.from[ work->approxSet.charset_count + i ] = from;
-				work->approxSet.to[ work->approxSet.charset_count + i ]   = to;
-
-				/* Set approximate pattern */
-				from[ 0 ] = convertUTFCharToNjChar( pattern->from + i * 2 );    /* "2" means the size of UTF-16BE */
-				from[ 1 ] = 0x0000;
+		if( work->approxActive->charset_count + pattern->size <= NJ_MAX_CHARSET ) {
+			/* Compile the pattern only at the first time */
+			compiled = compileApproxPattern( &( work->approxCache[ approxPattern ] ), pattern );
+			if( compiled == NULL ) {
+				return NJ_SET_ERR_VAL(NJ_FUNC_JNI_SET_APPROX_PATTERN, NJ_ERR_INTERNAL);
+			}
 
-				to[ 0 ] = convertUTFCharToNjChar( pattern->to + i * 2 );        /* "2" means the size of UTF-16BE */
-				to[ 1 ] = 0x0000;
+			if( work->approxActive->charset_count == 0 ) {
+				/* Activate the compiled pattern by reference */
+				work->approxActive = compiled;
+			} else {
+				NJ_CHARSET*		set;
+				int				i;
+
+				/* Add the references of the compiled pattern to the approximate pattern set */
+				set = prepareApproxSet( work );
+				for( i = 0 ; i < compiled->charset_count ; i++ ) {
+					set->from[ set->charset_count + i ] = compiled->from[ i ];
+					set->to[ set->charset_count + i ]   = compiled->to[ i ];
+				}
+				set->charset_count += compiled->charset_count;
 			}
-			work->approxSet.charset_count += pattern->size;
 
             /* Reset search state because the seach condition was changed */
             work->flag = NJ_JNI_FLAG_NONE;
@@ -1189,8 +1844,8 @@ JNIEXPORT jobjectArray JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDiction
 
         if( convertStringToNjChar( env, from, srcJ, NJ_MAX_CHARSET_FROM_LEN ) >= 0 ) {
             outCount = 0;
-            for( i = 0 ; i < work->approxSet.charset_count ; i++ ) {
-                if( nj_strcmp( from, work->approxSet.from[ i ] ) == 0 ) {
+            for( i = 0 ; i < work->approxActive->charset_count ; i++ ) {
+                if( nj_strcmp( from, work->approxActive->from[ i ] ) == 0 ) {
                     outCount++;
                 }
             }
@@ -1201,11 +1856,11 @@ JNIEXPORT jobjectArray JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDiction
                 jobjectArray retJ = ( *env )->NewObjectArray( env, outCount, strC, NULL );
 
                 if( retJ != NULL ) {
-                    for( i = outIndex = 0 ; i < work->approxSet.charset_count ; i++ ) {
-                        if( nj_strcmp( from, work->approxSet.from[ i ] ) == 0 ) {
+                    for( i = outIndex = 0 ; i < work->approxActive->charset_count ; i++ ) {
+                        if( nj_strcmp( from, work->approxActive->from[ i ] ) == 0 ) {
                             jstring dstJ;
 
-                            if( convertNjCharToString( env, &dstJ, work->approxSet.to[ i ], NJ_MAX_CHARSET_TO_LEN ) < 0 ) {
+                            if( convertNjCharToString( env, &dstJ, work->approxActive->to[ i ], NJ_MAX_CHARSET_TO_LEN ) < 0 ) {
                                 return NULL;
                             }
 
@@ -1261,8 +1916,8 @@ JNIEXPORT jobjectArray JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDiction
                     for( queryLen = 0 ; queryLen < maxBindsOfQuery && keyString[ queryLen ] != NJ_CHAR_NUL ; queryLen++ ) {
                         int i;
 
-                        for( i = -1, approxPattern = -1 ; i < work->approxSet.charset_count ; i++ ) {
-                            if( i == -1 || keyString[ queryLen ] == work->approxSet.from[ i ][ 0 ] ) {
+                        for( i = -1, approxPattern = -1 ; i < work->approxActive->charset_count ; i++ ) {
+                            if( i == -1 || keyString[ queryLen ] == work->approxActive->from[ i ][ 0 ] ) {
                                 int tailOffset = 0;
 
                                 if( i == -1 ) {
@@ -1279,8 +1934,8 @@ JNIEXPORT jobjectArray JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDiction
                                         tailOffset = 1;
                                     }
                                 } else {
-                                    nj_strcpy( &baseStr[ queryLen ], work->approxSet.to[ i ] );
-                                    tailOffset = nj_strlen( work->approxSet.to[ i ] );
+                                    nj_strcpy( &baseStr[ queryLen ], work->approxActive->to[ i ] );
+                                    tailOffset = nj_strlen( work->approxActive->to[ i ] );
                                 }
 
                                 *( ( NJ_UINT8* )( &baseStr[ queryLen + tailOffset     ] ) + 0 ) = 0x00;
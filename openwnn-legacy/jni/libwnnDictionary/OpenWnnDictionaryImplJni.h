@@ -32,12 +32,28 @@ extern "C" {
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_EN_QWERTY_NEAR_UPPER 3L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_JAJP_12KEY_NORMAL
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_JAJP_12KEY_NORMAL 4L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_Z_ZH
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_Z_ZH 5L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_C_CH
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_C_CH 6L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_S_SH
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_S_SH 7L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_N_L
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_N_L 8L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_NG
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_APPROX_PATTERN_ZH_FUZZY_NG 9L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_NONE
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_NONE 0L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_LOWER
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_CASE_FILTER_LOWER 1L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_EXACT
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_EXACT 0L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_PREFIX
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_PREFIX 1L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_LINK
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_LINK 2L
+#undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_COMMON_PREFIX
+#define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_SEARCH_COMMON_PREFIX 3L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_FREQUENCY
 #define com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_FREQUENCY 0L
 #undef com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_ORDER_BY_KEY
@@ -102,6 +118,46 @@ JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJ
 JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_searchWord
   (JNIEnv *, jclass, jlong, jint, jint, jstring);
 
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    searchCommonPrefix
+ * Signature: (JILjava/lang/String;I)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_searchCommonPrefix
+  (JNIEnv *, jclass, jlong, jint, jstring, jint);
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    setKeyLayout
+ * Signature: (JLjava/lang/String;[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_setKeyLayout
+  (JNIEnv *, jclass, jlong, jstring, jintArray, jintArray, jint);
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    searchWordByKeyDistance
+ * Signature: (JLjava/lang/String;[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_searchWordByKeyDistance
+  (JNIEnv *, jclass, jlong, jstring, jintArray, jintArray, jint);
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    getKeyDistancePenalty
+ * Signature: (JLjava/lang/String;Ljava/lang/String;[I[I)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_getKeyDistancePenalty
+  (JNIEnv *, jclass, jlong, jstring, jstring, jintArray, jintArray);
+
+/*
+ * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
+ * Method:    setCaseFilter
+ * Signature: (JI)I
+ */
+JNIEXPORT jint JNICALL Java_com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni_setCaseFilter
+  (JNIEnv *, jclass, jlong, jint);
+
 /*
  * Class:     com_googlecode_openwnn_legacy_OpenWnnDictionaryImplJni
  * Method:    getNextWord
@@ -39,6 +39,10 @@
 #define NJ_FUNC_JNI_GET_RIGHT_PART_OF_SPEECH_SPECIFIED_TYPE (0x00ED)
 #define NJ_FUNC_JNI_GET_NUMBER_OF_LEFT_POS                  (0x00EC)
 #define NJ_FUNC_JNI_GET_NUMBER_OF_RIGHT_POS                 (0x00EB)
+#define NJ_FUNC_JNI_SEARCH_COMMON_PREFIX                    (0x00EA)
+#define NJ_FUNC_JNI_SET_KEY_LAYOUT                          (0x00E9)
+#define NJ_FUNC_JNI_SEARCH_BY_KEY_DISTANCE                  (0x00E8)
+#define NJ_FUNC_JNI_SET_CASE_FILTER                         (0x00E7)
 
 #define NJ_ERR_JNI_FUNC_FAILED						        (0x7E00)
 #define NJ_ERR_ALLOC_FAILED							        (0x7D00)
@@ -57,6 +61,24 @@
 #define NJ_JNI_FLAG_NONE                            (0x00)
 #define NJ_JNI_FLAG_ENABLE_CURSOR                   (0x01)
 #define NJ_JNI_FLAG_ENABLE_RESULT                   (0x02)
+#define NJ_JNI_FLAG_COMMON_PREFIX                   (0x04)
+#define NJ_JNI_FLAG_KEY_DISTANCE                    (0x08)
+
+#define NJ_JNI_PREDEF_APPROX_PATTERN_COUNT          10
+
+#define NJ_JNI_KEY_LAYOUT_SIZE                      64
+#define NJ_JNI_KEY_DISTANCE_MAX_RESULT              64
+#define NJ_JNI_KEY_DISTANCE_SEARCH_LIMIT            2000
+#define NJ_JNI_KEY_DISTANCE_WEIGHT                  60
+
+/**
+ * Structure of compiled approx pattern
+ * (allocated when the pattern is set first, with the strings of the pattern's size)
+ */
+typedef struct {
+	NJ_CHARSET			charset;
+	NJ_CHAR				str[ 1 ];
+} NJ_APPROX_CACHE;
 
 typedef struct {
 	void*				dicLibHandle;
@@ -71,8 +93,27 @@ typedef struct {
 	NJ_CLASS			wnnClass;
 	NJ_CHARSET			approxSet;
 	NJ_CHAR				approxStr[ NJ_MAX_CHARSET * NJ_APPROXSTORE_SIZE ];
+	NJ_UINT32			approxStrUsed[ NJ_MAX_CHARSET ];
+	NJ_UINT32			approxStrClock;
+	NJ_UINT16			approxStrCount;
+	NJ_CHARSET*			approxActive;
+	NJ_APPROX_CACHE*	approxCache[ NJ_JNI_PREDEF_APPROX_PATTERN_COUNT ];
     NJ_CHAR             previousStroke[ NJ_MAX_LEN + NJ_TERM_LEN ];
     NJ_CHAR             previousCandidate[ NJ_MAX_RESULT_LEN + NJ_TERM_LEN ];
+    NJ_CHAR             commonPrefixKey[ NJ_MAX_LEN + NJ_TERM_LEN ];
+    NJ_UINT16           commonPrefixLength;
+    NJ_UINT16           commonPrefixMinLength;
+    NJ_UINT8            commonPrefixOrder;
+    NJ_CHAR             keyLayoutChar[ NJ_JNI_KEY_LAYOUT_SIZE ];
+    NJ_INT32            keyLayoutX[ NJ_JNI_KEY_LAYOUT_SIZE ];
+    NJ_INT32            keyLayoutY[ NJ_JNI_KEY_LAYOUT_SIZE ];
+    NJ_UINT16           keyLayoutCount;
+    NJ_INT32            keyWidth;
+    NJ_RESULT           distanceResult[ NJ_JNI_KEY_DISTANCE_MAX_RESULT ];
+    NJ_INT32            distanceScore[ NJ_JNI_KEY_DISTANCE_MAX_RESULT ];
+    NJ_UINT16           distanceCount;
+    NJ_UINT16           distanceIndex;
+    NJ_UINT8            caseFilter;
     NJ_UINT8            flag;
 } NJ_JNIWORK;
 
@@ -81,6 +122,7 @@ typedef struct {
  */
 typedef struct {
     int         size;
+    int         toLength;
     NJ_UINT8*   from;
     NJ_UINT8*   to;
 } PREDEF_APPROX_PATTERN;
@@ -19,6 +19,8 @@
 static const PREDEF_APPROX_PATTERN approxPatternEnToUpper = {
 	/* size */
 	26,
+	/* length of "to" */
+	1,
 	/* from */
 	( NJ_UINT8* )
 	"\x00\x61\x00\x62\x00\x63\x00\x64\x00\x65\x00\x66\x00\x67\x00\x68"
@@ -39,6 +41,8 @@ static const PREDEF_APPROX_PATTERN approxPatternEnToUpper = {
 static const PREDEF_APPROX_PATTERN approxPatternEnToLower = {
 	/* size */
 	26,
+	/* length of "to" */
+	1,
 	/* from */
 	( NJ_UINT8* )
 	"\x00\x41\x00\x42\x00\x43\x00\x44\x00\x45\x00\x46\x00\x47\x00\x48"
@@ -59,6 +63,8 @@ static const PREDEF_APPROX_PATTERN approxPatternEnToLower = {
 static const PREDEF_APPROX_PATTERN approxPatternEnQwertyNear = {
 	/* size */
 	110,
+	/* length of "to" */
+	1,
 	/* from */
 	( NJ_UINT8* )
 	"\x00\x61\x00\x61\x00\x61\x00\x61\x00\x62\x00\x62\x00\x62\x00\x62"
@@ -99,6 +105,8 @@ static const PREDEF_APPROX_PATTERN approxPatternEnQwertyNear = {
 static const PREDEF_APPROX_PATTERN approxPatternEnQwertyNearUpper = {
 	/* size */
 	110,
+	/* length of "to" */
+	1,
 	/* from */
 	( NJ_UINT8* )
 	"\x00\x61\x00\x61\x00\x61\x00\x61\x00\x62\x00\x62\x00\x62\x00\x62"
@@ -139,6 +147,8 @@ static const PREDEF_APPROX_PATTERN approxPatternEnQwertyNearUpper = {
 static const PREDEF_APPROX_PATTERN approxPatternJAJP12keyNormal = {
 	/* size */
 	37,
+	/* length of "to" */
+	1,
 	/* from */
 	( NJ_UINT8* )
 	"\x30\x42\x30\x44\x30\x46\x30\x48\x30\x4a\x30\x4b\x30\x4d\x30\x4f"
@@ -155,9 +165,95 @@ static const PREDEF_APPROX_PATTERN approxPatternJAJP12keyNormal = {
 	"\x30\x85\x30\x87\x30\x8e\x30\x9c\x30\x9b"
 };
 
+/**
+ * approxPatternZHFuzzyZZh
+ * ("z" to the initial "zh")
+ */
+static const PREDEF_APPROX_PATTERN approxPatternZHFuzzyZZh = {
+	/* size */
+	1,
+	/* length of "to" */
+	2,
+	/* from */
+	( NJ_UINT8* )
+	"\x00\x7a",
+	/* to */
+	( NJ_UINT8* )
+	"\x00\x5a\x00\x68"
+};
+
+/**
+ * approxPatternZHFuzzyCCh
+ * ("c" to the initial "ch")
+ */
+static const PREDEF_APPROX_PATTERN approxPatternZHFuzzyCCh = {
+	/* size */
+	1,
+	/* length of "to" */
+	2,
+	/* from */
+	( NJ_UINT8* )
+	"\x00\x63",
+	/* to */
+	( NJ_UINT8* )
+	"\x00\x43\x00\x68"
+};
+
+/**
+ * approxPatternZHFuzzySSh
+ * ("s" to the initial "sh")
+ */
+static const PREDEF_APPROX_PATTERN approxPatternZHFuzzySSh = {
+	/* size */
+	1,
+	/* length of "to" */
+	2,
+	/* from */
+	( NJ_UINT8* )
+	"\x00\x73",
+	/* to */
+	( NJ_UINT8* )
+	"\x00\x53\x00\x68"
+};
+
+/**
+ * approxPatternZHFuzzyNL
+ * (the initials "n" and "l")
+ */
+static const PREDEF_APPROX_PATTERN approxPatternZHFuzzyNL = {
+	/* size */
+	2,
+	/* length of "to" */
+	1,
+	/* from */
+	( NJ_UINT8* )
+	"\x00\x6e\x00\x6c",
+	/* to */
+	( NJ_UINT8* )
+	"\x00\x4c\x00\x4e"
+};
+
+/**
+ * approxPatternZHFuzzyNg
+ * ("n" to the final "ng")
+ */
+static const PREDEF_APPROX_PATTERN approxPatternZHFuzzyNg = {
+	/* size */
+	1,
+	/* length of "to" */
+	2,
+	/* from */
+	( NJ_UINT8* )
+	"\x00\x6e",
+	/* to */
+	( NJ_UINT8* )
+	"\x00\x6e\x00\x67"
+};
+
 /**
  * tables
  */
 static const PREDEF_APPROX_PATTERN* predefinedApproxPatterns[] = {
-	&approxPatternEnToUpper, &approxPatternEnToLower, &approxPatternEnQwertyNear, &approxPatternEnQwertyNearUpper, &approxPatternJAJP12keyNormal, NULL
+	&approxPatternEnToUpper, &approxPatternEnToLower, &approxPatternEnQwertyNear, &approxPatternEnQwertyNearUpper, &approxPatternJAJP12keyNormal,
+	&approxPatternZHFuzzyZZh, &approxPatternZHFuzzyCCh, &approxPatternZHFuzzySSh, &approxPatternZHFuzzyNL, &approxPatternZHFuzzyNg, NULL
 };
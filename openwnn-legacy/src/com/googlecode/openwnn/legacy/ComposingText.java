@@ -28,6 +28,10 @@ import android.util.Log;
  * input string, the converted string and its decoration.
  * {@link LetterConverter} and {@link WnnEngine} get the input string from it, and
  * store the converted string into it.
+ * <br>
+ * A snapshot of the text ({@link #createSnapshot()}) shares the layers with the text
+ * until either of them is modified, so an engine can convert the snapshot on another
+ * thread while the user keeps typing.
  *
  * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
  */
@@ -62,6 +66,22 @@ public class ComposingText {
     /** Cursor position */
     protected int[] mCursor;
 
+    /** Cached strings of the layers ({@code null} if the layer is modified after caching) */
+    private String[] mLayerString;
+    /** Start offsets of the segments in the cached strings (the last element is the length) */
+    private int[][] mLayerOffset;
+    /** Work area for making the string of segments */
+    private StringBuffer mWorkBuffer;
+
+    /** Whether the layers are shared with a snapshot (or the text of a snapshot) */
+    private boolean[] mShared;
+    /** The number of modifications */
+    private int mVersion = 0;
+    /** The text which this snapshot is created from ({@code null} if this is not a snapshot) */
+    private ComposingText mSnapshotSource = null;
+    /** The number of modifications of the source text when this snapshot is created */
+    private int mSnapshotVersion = 0;
+
     /**
      * Constructor
      */
@@ -72,6 +92,10 @@ public class ComposingText {
             mStringLayer[i] = new ArrayList<StrSegment>();
             mCursor[i] = 0;
         }
+        mLayerString = new String[MAX_LAYER];
+        mLayerOffset = new int[MAX_LAYER][];
+        mWorkBuffer = new StringBuffer();
+        mShared = new boolean[MAX_LAYER];
     }
 
     /**
@@ -115,6 +139,8 @@ public class ComposingText {
 
     /**
      * Convert the range of segments to a string.
+     * <br>
+     * The string is cut out from the cached string of the layer.
      *
      * @param layer     Layer
      * @param from      Convert range from
@@ -123,14 +149,16 @@ public class ComposingText {
      */
     public String toString(int layer, int from, int to) {
         try {
-            StringBuffer buf = new StringBuffer();
             ArrayList<StrSegment> strLayer = mStringLayer[layer];
-            
-            for (int i = from; i <= to; i++) {
-                StrSegment ss = strLayer.get(i);
-                buf.append(ss.string);
+            if (from > to) {
+                return "";
             }
-            return buf.toString();
+            if (from < 0 || to >= strLayer.size()) {
+                return null;
+            }
+            String str = getLayerString(layer);
+            int[] offset = mLayerOffset[layer];
+            return str.substring(offset[from], offset[to + 1]);
         } catch (Exception ex) {
             return null;
         }
@@ -138,12 +166,117 @@ public class ComposingText {
 
     /**
      * Convert segments of the layer to a string.
+     * <br>
+     * The string is cached until the layer is modified.
      *
      * @param layer     Layer
      * @return          The string converted; {@code null} if error occurs.
      */
     public String toString(int layer) {
-        return this.toString(layer, 0, mStringLayer[layer].size() - 1);
+        if (mStringLayer[layer].size() == 0) {
+            return "";
+        }
+        return getLayerString(layer);
+    }
+
+    /**
+     * Get the cached string of the layer (made if the layer is modified).
+     *
+     * @param layer     Layer
+     * @return          The string of the layer
+     */
+    private String getLayerString(int layer) {
+        String str = mLayerString[layer];
+        if (str == null) {
+            ArrayList<StrSegment> strLayer = mStringLayer[layer];
+            int size = strLayer.size();
+            /* a new array, because the old one may be shared with a snapshot */
+            int[] offset = new int[size + 1];
+            StringBuffer buf = mWorkBuffer;
+            buf.setLength(0);
+            for (int i = 0; i < size; i++) {
+                offset[i] = buf.length();
+                buf.append(strLayer.get(i).string);
+            }
+            offset[size] = buf.length();
+            str = buf.toString();
+            mLayerOffset[layer] = offset;
+            mLayerString[layer] = str;
+        }
+        return str;
+    }
+
+    /**
+     * Prepare the layer to be modified.
+     * <br>
+     * If the layer is shared with a snapshot, the segments are copied (copy-on-write).
+     * The cached string of the layer is discarded.
+     *
+     * @param layer     Layer
+     */
+    private void modifyLayer(int layer) {
+        if (mShared[layer]) {
+            ArrayList<StrSegment> strLayer = mStringLayer[layer];
+            ArrayList<StrSegment> copy = new ArrayList<StrSegment>(strLayer.size());
+            for (int i = 0; i < strLayer.size(); i++) {
+                copy.add(strLayer.get(i).copy());
+            }
+            mStringLayer[layer] = copy;
+            mShared[layer] = false;
+        }
+        mLayerString[layer] = null;
+        mVersion++;
+    }
+
+    /**
+     * Make the string of the range of segments (without the cache).
+     * <br>
+     * This is used while the layers are being updated, so only the segments
+     * in the range are visited.
+     *
+     * @param layer     Layer
+     * @param from      Range from
+     * @param to        Range to
+     * @return          The string; {@code null} if error occurs.
+     */
+    private String makeString(int layer, int from, int to) {
+        try {
+            StringBuffer buf = mWorkBuffer;
+            buf.setLength(0);
+            ArrayList<StrSegment> strLayer = mStringLayer[layer];
+            for (int i = from; i <= to; i++) {
+                buf.append(strLayer.get(i).string);
+            }
+            return buf.toString();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Find the last segment which starts at or before the position.
+     * <br>
+     * The segments of a layer are sorted intervals of the lower layer,
+     * so they are searched by the binary search.
+     *
+     * @param strLayer  The segments of the layer
+     * @param pos       Position in the lower layer
+     * @return          Index of the segment; -1 if there is no such segment.
+     */
+    private static int findSegment(ArrayList<StrSegment> strLayer, int pos) {
+        int low = 0;
+        int high = strLayer.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (strLayer.get(mid).from <= pos) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
     }
 
     /**
@@ -161,13 +294,15 @@ public class ComposingText {
         }
 
         int uplayer = layer + 1;
+        modifyLayer(uplayer);
         ArrayList<StrSegment> strUplayer = mStringLayer[uplayer];
         if (strUplayer.size() <= 0) {
             /* 
              * if there is no element on above layer,
              * add a element includes whole elements of the lower layer.
              */
-            strUplayer.add(new StrSegment(toString(layer), 0, mStringLayer[layer].size() - 1));
+            int size = mStringLayer[layer].size();
+            strUplayer.add(new StrSegment(makeString(layer, 0, size - 1), 0, size - 1));
             modifyUpper(uplayer, 0, 1, 0);
             return;
         }
@@ -178,14 +313,20 @@ public class ComposingText {
         if (last.to < mod_from) {
             /* add at the tail */
             last.to = mod_to;
-            last.string = toString(layer, last.from, last.to);
+            last.string = makeString(layer, last.from, last.to);
             modifyUpper(uplayer, strUplayer.size()-1, 1, 1);
             return;
         }
 
         int uplayer_mod_from = -1;
         int uplayer_org_to = -1;
-        for (int i = 0; i < strUplayer.size(); i++) {
+        /* the segments before the one including mod_from are not affected */
+        int start = findSegment(strUplayer, mod_from);
+        if (start < 0 || (start > 0 && strUplayer.get(start - 1).to >= mod_from)) {
+            /* the segments overlap; search from the head */
+            start = 0;
+        }
+        for (int i = start; i < strUplayer.size(); i++) {
             StrSegment ss = strUplayer.get(i);
             if (ss.from > mod_from) {
                 if (ss.to <= org_to) {
@@ -231,7 +372,7 @@ public class ComposingText {
             }
             ss.to = (last_to < mod_to)? mod_to : (last_to + diff);
             
-            ss.string = toString(layer, ss.from, ss.to);
+            ss.string = makeString(layer, ss.from, ss.to);
             
             for (int i = next; i < strUplayer.size(); i++) {
                 ss = strUplayer.get(i);
@@ -242,7 +383,7 @@ public class ComposingText {
             modifyUpper(uplayer, uplayer_mod_from, 1, uplayer_org_to - uplayer_mod_from + 1);
         } else {
             /* add an element at the head */
-            StrSegment ss = new StrSegment(toString(layer, mod_from, mod_to),
+            StrSegment ss = new StrSegment(makeString(layer, mod_from, mod_to),
                                            mod_from, mod_to); 
             strUplayer.add(0, ss);
             for (int i = 1; i < strUplayer.size(); i++) {
@@ -264,6 +405,7 @@ public class ComposingText {
      **/
     public void insertStrSegment(int layer, StrSegment str) {
         int cursor = mCursor[layer];
+        modifyLayer(layer);
         mStringLayer[layer].add(cursor, str);
         modifyUpper(layer, cursor, 1, 0);
         setCursor(layer, cursor + 1);
@@ -277,12 +419,14 @@ public class ComposingText {
      * @param str           String
      **/
     public void insertStrSegment(int layer1, int layer2, StrSegment str) {
+        modifyLayer(layer1);
         mStringLayer[layer1].add(mCursor[layer1], str);
         mCursor[layer1]++;
         
         for (int i = layer1 + 1; i <= layer2; i++) {
             int pos = mCursor[i-1] - 1;
             StrSegment tmp = new StrSegment(str.string, pos, pos);
+            modifyLayer(i);
             ArrayList<StrSegment> strLayer = mStringLayer[i];
             strLayer.add(mCursor[i], tmp);
             mCursor[i]++;
@@ -306,6 +450,7 @@ public class ComposingText {
      * @param to        Replace to
      **/
     protected void replaceStrSegment0(int layer, StrSegment[] str, int from, int to) {
+        modifyLayer(layer);
         ArrayList<StrSegment> strLayer = mStringLayer[layer];
 
         if (from < 0 || from > strLayer.size()) {
@@ -433,6 +578,7 @@ public class ComposingText {
      * @param diff      Differential
      **/
     private void deleteStrSegment0(int layer, int from, int to, int diff) {
+        modifyLayer(layer);
         ArrayList<StrSegment> strLayer = mStringLayer[layer];
         if (diff != 0) {
             for (int i = to + 1; i < strLayer.size(); i++) {
@@ -455,26 +601,33 @@ public class ComposingText {
      **/
     public int delete(int layer, boolean rightside) {
         int cursor = mCursor[layer];
-        ArrayList<StrSegment> strLayer = mStringLayer[layer];
 
         if (!rightside && cursor > 0) {
             deleteStrSegment(layer, cursor-1, cursor-1);
             setCursor(layer, cursor - 1);
-        } else if (rightside && cursor < strLayer.size()) {
+        } else if (rightside && cursor < mStringLayer[layer].size()) {
             deleteStrSegment(layer, cursor, cursor);
             setCursor(layer, cursor);
         }
-        return strLayer.size();
+        /* the layer may be copied by deleting */
+        return mStringLayer[layer].size();
     }
 
     /**
      * Get the string layer.
+     * <br>
+     * The layer is treated as modified at every call, because the caller can modify it:
+     * the segments shared with a snapshot are copied, the cached string of the layer
+     * is discarded, and the snapshots created before are out of date
+     * ({@link #applySnapshot} rejects them).  To read the text, use
+     * {@link #getStrSegment}, {@link #size} or {@link #toString(int)} instead.
      *
      * @param layer     Layer
      * @return          {@link ArrayList} of {@link StrSegment}; {@code null} if error.
      **/
     public ArrayList<StrSegment> getStringLayer(int layer) {
         try {
+            modifyLayer(layer);
             return mStringLayer[layer];
         } catch (Exception ex) {
             return null;
@@ -493,8 +646,14 @@ public class ComposingText {
             return 0;
         }
         int uplayer = layer + 1;
-        int i;
         ArrayList<StrSegment> strLayer = mStringLayer[uplayer];
+        int i = findSegment(strLayer, pos);
+        if (i >= 0 && pos <= strLayer.get(i).to
+            && (i == 0 || strLayer.get(i - 1).to < pos)) {
+            return i;
+        }
+
+        /* not found or the segments overlap; search from the head */
         for (i = 0; i < strLayer.size(); i++) {
             StrSegment ss = strLayer.get(i);
             if (ss.from <= pos && pos <= ss.to) {
@@ -518,6 +677,7 @@ public class ComposingText {
         if (pos < 0) {
             pos = 0;
         }
+        mVersion++;
         if (layer == 0) {
             mCursor[0] = pos;
             mCursor[1] = included(0, pos);
@@ -572,8 +732,83 @@ public class ComposingText {
      */
     public void clear() {
         for (int i = 0; i < MAX_LAYER; i++) {
-            mStringLayer[i].clear();
+            if (mShared[i]) {
+                /* do not clear the layer of the snapshot */
+                mStringLayer[i] = new ArrayList<StrSegment>();
+                mShared[i] = false;
+            } else {
+                mStringLayer[i].clear();
+            }
             mCursor[i] = 0;
+            mLayerString[i] = null;
+        }
+        mVersion++;
+    }
+
+    /**
+     * Create a snapshot of the text.
+     * <br>
+     * The snapshot shares the segments with this text, and the layer is copied
+     * when either of them modifies it first (copy-on-write), so creating a snapshot is cheap.
+     * The snapshot can be modified (ex. converted by {@link WnnEngine#convert})
+     * without affecting this text, and vice versa.
+     * <br>
+     * The segments got from the text must not be modified directly.
+     *
+     * @return          The snapshot
+     */
+    public ComposingText createSnapshot() {
+        ComposingText snapshot = new ComposingText();
+        copyLayers(this, snapshot);
+        snapshot.mSnapshotSource = this;
+        snapshot.mSnapshotVersion = mVersion;
+        return snapshot;
+    }
+
+    /**
+     * Whether this text is not modified after the snapshot was created.
+     *
+     * @param snapshot  The snapshot created by {@link #createSnapshot()}
+     * @return          {@code true} if the snapshot is current; {@code false} if not.
+     */
+    public boolean isSnapshotCurrent(ComposingText snapshot) {
+        return snapshot != null && snapshot.mSnapshotSource == this
+            && snapshot.mSnapshotVersion == mVersion;
+    }
+
+    /**
+     * Apply the snapshot to this text.
+     * <br>
+     * The layers and the cursor of the snapshot (ex. the result of a conversion) replace
+     * the ones of this text, only if this text is not modified after the snapshot was created.
+     * This method must be called on the thread which modifies this text.
+     *
+     * @param snapshot  The snapshot created by {@link #createSnapshot()}
+     * @return          {@code true} if applied; {@code false} if the snapshot is out of date.
+     */
+    public boolean applySnapshot(ComposingText snapshot) {
+        if (!isSnapshotCurrent(snapshot)) {
+            return false;
+        }
+        copyLayers(snapshot, this);
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * Make a text share the layers of another text.
+     *
+     * @param src       The source text
+     * @param dst       The destination text
+     */
+    private static void copyLayers(ComposingText src, ComposingText dst) {
+        for (int i = 0; i < MAX_LAYER; i++) {
+            dst.mStringLayer[i] = src.mStringLayer[i];
+            dst.mCursor[i] = src.mCursor[i];
+            dst.mLayerString[i] = src.mLayerString[i];
+            dst.mLayerOffset[i] = src.mLayerOffset[i];
+            src.mShared[i] = true;
+            dst.mShared[i] = true;
         }
     }
 }
@@ -20,6 +20,7 @@ import com.googlecode.openwnn.legacy.*;
 import android.content.SharedPreferences;
 import android.inputmethodservice.Keyboard;
 import android.view.KeyEvent;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputConnection;
@@ -45,6 +46,24 @@ public class DefaultSoftKeyboardEN extends DefaultSoftKeyboard {
     /** Auto caps mode */
     private boolean mAutoCaps = false;
 
+    /** The touched point (X) */
+    private int mTouchX = -1;
+    /** The touched point (Y) */
+    private int mTouchY = -1;
+    /** The offset of the last touched point from the center of the key; {@code null} if unknown */
+    private int[] mLastKeyOffset = null;
+
+    /** The listener to record the touched point (the touch event is handled by the keyboard view) */
+    private View.OnTouchListener mTouchListener = new View.OnTouchListener() {
+        public boolean onTouch(View v, MotionEvent event) {
+            if (event.getAction() == MotionEvent.ACTION_DOWN) {
+                mTouchX = (int)event.getX() - v.getPaddingLeft();
+                mTouchY = (int)event.getY() - v.getPaddingTop();
+            }
+            return false;
+        }
+    };
+
 	/**
      * Default constructor
      */
@@ -116,12 +135,49 @@ public class DefaultSoftKeyboardEN extends DefaultSoftKeyboard {
 		}
 	}
 
+    /**
+     * Get the offset of the last touched point from the center of the key.
+     *
+     * @return      The X and Y offsets in the unit of {@link OpenWnnEngineEN#KEY_UNIT}
+     *              as the width and the height of the key; {@code null} if unknown.
+     */
+    public int[] getLastKeyOffset() {
+        return mLastKeyOffset;
+    }
+
+    /**
+     * Record the offset of the touched point from the center of a key.
+     *
+     * @param code  The key code
+     */
+    private void updateLastKeyOffset(int code) {
+        mLastKeyOffset = null;
+        if (mCurrentKeyboard == null || mTouchX < 0) {
+            return;
+        }
+        code = Character.toLowerCase(code);
+        for (Keyboard.Key key : mCurrentKeyboard.getKeys()) {
+            if (key.codes.length > 0 && Character.toLowerCase(key.codes[0]) == code
+                && key.width > 0 && key.height > 0) {
+                mLastKeyOffset = new int[] {
+                    (mTouchX - (key.x + key.width / 2)) * OpenWnnEngineEN.KEY_UNIT / key.width,
+                    (mTouchY - (key.y + key.height / 2)) * OpenWnnEngineEN.KEY_UNIT / key.height
+                };
+                break;
+            }
+        }
+        mTouchX = -1;
+    }
+
     /***********************************************************************
      * from DefaultSoftKeyboard
      ***********************************************************************/
     /** @see com.googlecode.openwnn.legacy.DefaultSoftKeyboard#initView */
     @Override public View initView(OpenWnn parent, int width, int height) {
         View view = super.initView(parent, width, height);
+        if (mKeyboardView != null) {
+            mKeyboardView.setOnTouchListener(mTouchListener);
+        }
 	
     	/* default setting */
     	mCurrentLanguage     = LANG_EN;
@@ -148,6 +204,11 @@ public class DefaultSoftKeyboardEN extends DefaultSoftKeyboard {
         /* auto caps mode */
         mAutoCaps = pref.getBoolean("auto_caps", true);
 
+        /* record the touched points again (the tutorial may have replaced the listener) */
+        if (mKeyboardView != null) {
+            mKeyboardView.setOnTouchListener(mTouchListener);
+        }
+
         switch (editor.inputType & EditorInfo.TYPE_MASK_CLASS) {
         case EditorInfo.TYPE_CLASS_NUMBER:
         case EditorInfo.TYPE_CLASS_DATETIME:
@@ -276,6 +337,7 @@ public class DefaultSoftKeyboardEN extends DefaultSoftKeyboard {
                                                        KeyEvent.KEYCODE_DPAD_RIGHT)));
         default:
             if (primaryCode >= 0) {
+                updateLastKeyOffset(primaryCode);
                 if (mKeyboardView.isShifted()) {
                     primaryCode = Character.toUpperCase(primaryCode);
                 }
@@ -39,6 +39,21 @@ public class OpenWnnEngineEN implements WnnEngine {
     public static final int FREQ_USER = 500;
     /** Limitation of predicted candidates */
     public static final int PREDICT_LIMIT = 300;
+    /** Limitation of candidates scored by the distance of the keys */
+    public static final int KEY_DISTANCE_LIMIT = 50;
+    /** Width of a key in the key layout */
+    public static final int KEY_UNIT = 100;
+    /** Maximum number of the next words kept for a previous word */
+    public static final int NEXT_WORD_LIMIT = 8;
+    /** Maximum number of the previous words in the next word table */
+    private static final int NEXT_WORD_TABLE_SIZE = 256;
+    /** Maximum size of the next word table (in bytes) */
+    private static final int NEXT_WORD_TABLE_BYTES = 128 * 1024;
+
+    /** Rows of the QWERTY keyboard */
+    private static final String[] QWERTY_ROWS = {"qwertyuiop", "asdfghjkl", "zxcvbnm"};
+    /** Offsets of the rows of the QWERTY keyboard (in half of a key) */
+    private static final int[] QWERTY_ROW_OFFSETS = {0, 1, 3};
 
     /** OpenWnn dictionary */
 	private   WnnDictionary mDictionary;
@@ -54,6 +69,20 @@ public class OpenWnnEngineEN implements WnnEngine {
     private int           mOutputNum;
     /** The candidate filter */
     private CandidateFilter mFilter = null;
+    /** Whether the candidates are scored by the distance of the keys */
+    private boolean       mCorrectMistype = false;
+    /** Offsets of the touched points from the centers of the keys (X) */
+    private int[]         mKeyOffsetX = null;
+    /** Offsets of the touched points from the centers of the keys (Y) */
+    private int[]         mKeyOffsetY = null;
+    /** Number of the offsets */
+    private int           mKeyOffsetCount = 0;
+    /** The previously committed word */
+    private WnnWord       mPreviousWord = null;
+    /** The next words of the previous words (least recently used ones are evicted) */
+    private WnnWordCache  mNextWordTable = new WnnWordCache(NEXT_WORD_TABLE_SIZE, NEXT_WORD_TABLE_BYTES);
+    /** The next words being output ({@code null} if the dictionary is searched) */
+    private ArrayList<WnnWord> mNextWords = null;
     
     /**
      * Candidate's case
@@ -95,10 +124,52 @@ public class OpenWnnEngineEN implements WnnEngine {
         mDictionary.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
 
         mDictionary.setApproxPattern(WnnDictionary.APPROX_PATTERN_EN_QWERTY_NEAR);
+        setKeyLayout(mDictionary);
 
         mDictionary.setInUseState( false );
     }
 
+    /**
+     * Set the QWERTY key layout to the dictionary.
+     *
+     * @param dict		The dictionary
+     */
+    private static void setKeyLayout(WnnDictionary dict) {
+        StringBuffer keys = new StringBuffer();
+        for (int i = 0; i < QWERTY_ROWS.length; i++) {
+            keys.append(QWERTY_ROWS[i]);
+        }
+        int[] x = new int[keys.length()];
+        int[] y = new int[keys.length()];
+        int[] center = new int[2];
+        for (int i = 0; i < keys.length(); i++) {
+            getKeyCenter(keys.charAt(i), center);
+            x[i] = center[0];
+            y[i] = center[1];
+        }
+        dict.setKeyLayout(keys.toString(), x, y, KEY_UNIT);
+    }
+
+    /**
+     * Get the center of a key in the QWERTY key layout.
+     *
+     * @param c			The character of the key
+     * @param point		The array to set the X and Y coordinates
+     * @return			{@code true} if the key is found; {@code false} if not.
+     */
+    private static boolean getKeyCenter(char c, int[] point) {
+        c = Character.toLowerCase(c);
+        for (int i = 0; i < QWERTY_ROWS.length; i++) {
+            int j = QWERTY_ROWS[i].indexOf(c);
+            if (j >= 0) {
+                point[0] = j * KEY_UNIT + QWERTY_ROW_OFFSETS[i] * KEY_UNIT / 2;
+                point[1] = i * KEY_UNIT;
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get a candidate.
      *
@@ -107,22 +178,18 @@ public class OpenWnnEngineEN implements WnnEngine {
      */
     private WnnWord getCandidate(int index) {
         WnnWord word;
+        /* the next words of the previous word (added by predict()) */
+        if (mNextWords != null) {
+            return (index < mConvResult.size()) ? mConvResult.get(index) : null;
+        }
+
         /* search the candidate from the dictionaries */
         while (mConvResult.size() < PREDICT_LIMIT && index >= mConvResult.size()) {
             while ((word = mDictionary.getNextWord()) != null) {
-                /* adjust the case of letter */
-                char c = word.candidate.charAt(0);
-                if (mCandidateCase == CASE_LOWER) {
-                    if (Character.isLowerCase(c)) {
-                        break;
-                    }
-                } else if (mCandidateCase == CASE_HEAD_UPPER) {
-                    if (Character.isLowerCase(c)) {
-                        word.candidate = Character.toString(Character.toUpperCase(c)) + word.candidate.substring(1);
-                    }
-                    break;
-                } else {
-                    word.candidate = word.candidate.toUpperCase();
+                /* the dictionary skips the words beginning with ASCII upper case letters (CASE_LOWER) */
+                if (mCandidateCase != CASE_LOWER || Character.isLowerCase(word.candidate.charAt(0))) {
+                    /* adjust the case of letter */
+                    word.candidate = shapeCase(word.candidate);
                     break;
                 }
             }
@@ -154,6 +221,38 @@ public class OpenWnnEngineEN implements WnnEngine {
         return mConvResult.get(index);
     }
 
+    /**
+     * Adjust the case of a candidate to the input string.
+     * <br>
+     * The candidate itself is returned if its case needs no change.
+     *
+     * @param candidate		The candidate
+     * @return				The candidate of the adjusted case
+     */
+    private String shapeCase(String candidate) {
+        switch (mCandidateCase) {
+        case CASE_HEAD_UPPER:
+            char c = candidate.charAt(0);
+            if (!Character.isLowerCase(c)) {
+                return candidate;
+            }
+            char[] chars = candidate.toCharArray();
+            chars[0] = Character.toUpperCase(c);
+            return new String(chars);
+
+        case CASE_UPPER:
+            for (int i = 0; i < candidate.length(); i++) {
+                if (Character.isLowerCase(candidate.charAt(i))) {
+                    return candidate.toUpperCase();
+                }
+            }
+            return candidate;
+
+        default:
+            return candidate;
+        }
+    }
+
     /**
      * Add a word to the candidates list if there is no duplication.
      * 
@@ -177,6 +276,53 @@ public class OpenWnnEngineEN implements WnnEngine {
         mCandTable.clear();
         mOutputNum = 0;
         mSearchKey = null;
+        mNextWords = null;
+    }
+
+    /**
+     * Add a word to the next words of the previous word.
+     * <br>
+     * The word is put at the top of the list.
+     *
+     * @param previous	The previous word
+     * @param word		The next word
+     */
+    private void addNextWord(WnnWord previous, WnnWord word) {
+        ArrayList<WnnWord> old = mNextWordTable.peek(previous.candidate);
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>(NEXT_WORD_LIMIT);
+        words.add(new WnnWord(word.candidate, word.stroke, word.frequency));
+        if (old != null) {
+            for (int i = 0; i < old.size() && words.size() < NEXT_WORD_LIMIT; i++) {
+                if (!old.get(i).candidate.equals(word.candidate)) {
+                    words.add(old.get(i));
+                }
+            }
+        }
+        mNextWordTable.put(previous.candidate, words);
+    }
+
+    /**
+     * Prepare the next words of a word from the learning dictionary.
+     * <br>
+     * This is done when the word is committed, so the candidates after it
+     * are displayed without searching the dictionary.
+     *
+     * @param word		The committed word
+     */
+    private void prepareNextWords(WnnWord word) {
+        if (mNextWordTable.get(word.candidate) != null) {
+            return;
+        }
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>(NEXT_WORD_LIMIT);
+        WnnDictionary dict = mDictionary;
+        dict.setCaseFilter(WnnDictionary.CASE_FILTER_NONE);
+        if (dict.searchWord(WnnDictionary.SEARCH_LINK, WnnDictionary.ORDER_BY_FREQUENCY, "", word) > 0) {
+            WnnWord next;
+            while (words.size() < NEXT_WORD_LIMIT && (next = dict.getNextWord()) != null) {
+                words.add(next);
+            }
+        }
+        mNextWordTable.put(word.candidate, words);
     }
 
     /**
@@ -186,6 +332,7 @@ public class OpenWnnEngineEN implements WnnEngine {
      * @return			{@code true} if the dictionary is changed; {@code false} if not.
      */
     public boolean setDictionary(int type) {
+        mCorrectMistype = (type == DICT_FOR_CORRECT_MISTYPE);
         if (type == DICT_FOR_CORRECT_MISTYPE) {
             mDictionary.clearApproxPattern();
             mDictionary.setApproxPattern(WnnDictionary.APPROX_PATTERN_EN_QWERTY_NEAR);
@@ -231,6 +378,52 @@ public class OpenWnnEngineEN implements WnnEngine {
         return true;
     }
     
+    /**
+     * Set the touched points of the input string.
+     * <br>
+     * The offsets are relative to the centers of the keys, in the unit of {@link #KEY_UNIT}
+     * as the width and the height of a key. They are used by the spell correction
+     * only if they are given for all the characters of the input string.
+     *
+     * @param x			Offsets of the X coordinates ({@code null} if unknown)
+     * @param y			Offsets of the Y coordinates ({@code null} if unknown)
+     * @param count		Number of the offsets
+     */
+    public void setKeyOffsets(int[] x, int[] y, int count) {
+        if (x == null || y == null || count < 0) {
+            mKeyOffsetX = null;
+            mKeyOffsetY = null;
+            mKeyOffsetCount = 0;
+        } else {
+            mKeyOffsetX = x;
+            mKeyOffsetY = y;
+            mKeyOffsetCount = count;
+        }
+    }
+
+    /**
+     * Get the touched points of the search key.
+     *
+     * @param x			The array to set the X coordinates
+     * @param y			The array to set the Y coordinates
+     * @return			{@code true} if the touched points are known; {@code false} if not.
+     */
+    private boolean getTouchPoints(int[] x, int[] y) {
+        int len = mSearchKey.length();
+        if (mKeyOffsetX == null || mKeyOffsetCount != len) {
+            return false;
+        }
+        int[] center = new int[2];
+        for (int i = 0; i < len; i++) {
+            if (!getKeyCenter(mSearchKey.charAt(i), center)) {
+                return false;
+            }
+            x[i] = center[0] + mKeyOffsetX[i];
+            y[i] = center[1] + mKeyOffsetY[i];
+        }
+        return true;
+    }
+
     /**
      * Set the candidate filter
      * 
@@ -256,6 +449,23 @@ public class OpenWnnEngineEN implements WnnEngine {
         if (text == null) { return 0; }
         
         String input = text.toString(2);
+        if (input.length() == 0) {
+            /* the next words of the previous word (prepared by learn()) */
+            if (mPreviousWord == null) {
+                return 0;
+            }
+            ArrayList<WnnWord> words = mNextWordTable.get(mPreviousWord.candidate);
+            if (words == null || words.isEmpty()) {
+                return 0;
+            }
+            mNextWords = words;
+            mInputString = input;
+            mSearchKey = input;
+            for (int i = 0; i < words.size(); i++) {
+                addCandidate(words.get(i));
+            }
+            return (mConvResult.isEmpty()) ? 0 : 1;
+        }
         if (!setSearchKey(input)) {
             return 0;
         }
@@ -264,6 +474,13 @@ public class OpenWnnEngineEN implements WnnEngine {
         WnnDictionary dict = mDictionary;
         dict.setInUseState( true );
 
+        /* skip the words of the other case in the dictionary */
+        if (mCandidateCase == CASE_LOWER) {
+            dict.setCaseFilter(WnnDictionary.CASE_FILTER_LOWER);
+        } else {
+            dict.setCaseFilter(WnnDictionary.CASE_FILTER_NONE);
+        }
+
         dict.clearDictionary();
         dict.setDictionary(0, 400, 550);
         if (input.length() > 1) {
@@ -276,7 +493,18 @@ public class OpenWnnEngineEN implements WnnEngine {
         dict.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
         
         /* search dictionaries */
-        dict.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, mSearchKey);
+        if (mCorrectMistype) {
+            /* score the words by the distance of the keys (and the touched points if known) */
+            int[] x = new int[mSearchKey.length()];
+            int[] y = new int[mSearchKey.length()];
+            if (!getTouchPoints(x, y)) {
+                x = null;
+                y = null;
+            }
+            dict.searchWordByKeyDistance(mSearchKey, x, y, KEY_DISTANCE_LIMIT);
+        } else {
+            dict.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, mSearchKey);
+        }
         return 1;
     }
 
@@ -312,7 +540,16 @@ public class OpenWnnEngineEN implements WnnEngine {
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#learn */
     public boolean learn(WnnWord word) {
-        return ( mDictionary.learnWord(word) == 0 );
+        int ret;
+        if (mPreviousWord != null) {
+            ret = mDictionary.learnWord(word, mPreviousWord);
+            addNextWord(mPreviousWord, word);
+        } else {
+            ret = mDictionary.learnWord(word);
+        }
+        mPreviousWord = word;
+        prepareNextWords(word);
+        return (ret == 0);
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#addWord */
@@ -337,7 +574,9 @@ public class OpenWnnEngineEN implements WnnEngine {
     public void setPreferences(SharedPreferences pref) {}
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#breakSequence */
-    public void breakSequence()  {}
+    public void breakSequence()  {
+        mPreviousWord = null;
+    }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#makeCandidateListOf */
     public int makeCandidateListOf(int clausePosition)  {return 0;}
@@ -351,6 +590,8 @@ public class OpenWnnEngineEN implements WnnEngine {
             dict.setInUseState( true );
             dict.clearLearnDictionary();
             dict.setInUseState( false );
+            mNextWordTable.clear();
+            mPreviousWord = null;
             return true;
 
         case WnnEngine.DICTIONARY_TYPE_USER:
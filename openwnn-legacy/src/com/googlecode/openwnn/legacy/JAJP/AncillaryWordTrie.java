@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.JAJP;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.googlecode.openwnn.legacy.*;
+
+/**
+ * The reversed trie of ancillary words (Fuzokugo).
+ * <br>
+ * The readings of the words are stored from the tail, so all the words
+ * which end at a position of the input are found by walking the input backward once.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class AncillaryWordTrie {
+    /** The node of the trie */
+    private static class Node {
+        /** Child nodes (keyed by the preceding character) */
+        HashMap<Character, Node> children;
+        /** Words whose reading ends here (ordered by frequency) */
+        ArrayList<WnnWord> words;
+    }
+
+    /** The root node */
+    private Node mRoot;
+    /** Number of words */
+    private int mSize;
+
+    /**
+     * Constructor
+     */
+    public AncillaryWordTrie() {
+        clear();
+    }
+
+    /**
+     * Clear the trie.
+     */
+    public void clear() {
+        mRoot = new Node();
+        mSize = 0;
+    }
+
+    /**
+     * Get the number of words.
+     *
+     * @return          The number of words
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Add a word.
+     * <br>
+     * Words of the same reading must be added in descending order of frequency.
+     *
+     * @param word      The word
+     */
+    public void add(WnnWord word) {
+        String stroke = word.stroke;
+        if (stroke == null || stroke.length() == 0) {
+            return;
+        }
+
+        Node node = mRoot;
+        for (int i = stroke.length() - 1; i >= 0; i--) {
+            if (node.children == null) {
+                node.children = new HashMap<Character, Node>();
+            }
+            Character c = Character.valueOf(stroke.charAt(i));
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node();
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        if (node.words == null) {
+            node.words = new ArrayList<WnnWord>();
+        }
+        node.words.add(word);
+        mSize++;
+    }
+
+    /**
+     * Find the words which end at the position of the input.
+     *
+     * @param input     The input string
+     * @param end       The end position of the words
+     * @return          The words indexed by the start position ({@code null} if no word starts there)
+     */
+    public ArrayList<ArrayList<WnnWord>> matchBackward(String input, int end) {
+        ArrayList<ArrayList<WnnWord>> result = new ArrayList<ArrayList<WnnWord>>(end);
+        for (int i = 0; i < end; i++) {
+            result.add(null);
+        }
+        Node node = mRoot;
+        for (int start = end - 1; start >= 0; start--) {
+            if (node.children == null) {
+                break;
+            }
+            node = node.children.get(Character.valueOf(input.charAt(start)));
+            if (node == null) {
+                break;
+            }
+            result.set(start, node.words);
+        }
+        return result;
+    }
+}
@@ -23,7 +23,6 @@ import android.inputmethodservice.Keyboard;
 import android.util.Log;
 import android.view.View;
 import android.content.SharedPreferences;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.List;
 
@@ -99,26 +98,26 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
     };
 
     /** Replace table for full-width HIRAGANA */
-    private static final HashMap<String, String> JP_FULL_HIRAGANA_REPLACE_TABLE = new HashMap<String, String>() {{
-          put("\u3042", "\u3041"); put("\u3044", "\u3043"); put("\u3046", "\u3045"); put("\u3048", "\u3047"); put("\u304a", "\u3049");
-          put("\u3041", "\u3042"); put("\u3043", "\u3044"); put("\u3045", "\u30f4"); put("\u3047", "\u3048"); put("\u3049", "\u304a");
-          put("\u304b", "\u304c"); put("\u304d", "\u304e"); put("\u304f", "\u3050"); put("\u3051", "\u3052"); put("\u3053", "\u3054");
-          put("\u304c", "\u304b"); put("\u304e", "\u304d"); put("\u3050", "\u304f"); put("\u3052", "\u3051"); put("\u3054", "\u3053");
-          put("\u3055", "\u3056"); put("\u3057", "\u3058"); put("\u3059", "\u305a"); put("\u305b", "\u305c"); put("\u305d", "\u305e");
-          put("\u3056", "\u3055"); put("\u3058", "\u3057"); put("\u305a", "\u3059"); put("\u305c", "\u305b"); put("\u305e", "\u305d");
-          put("\u305f", "\u3060"); put("\u3061", "\u3062"); put("\u3064", "\u3063"); put("\u3066", "\u3067"); put("\u3068", "\u3069");
-          put("\u3060", "\u305f"); put("\u3062", "\u3061"); put("\u3063", "\u3065"); put("\u3067", "\u3066"); put("\u3069", "\u3068");
-          put("\u3065", "\u3064"); put("\u30f4", "\u3046");
-          put("\u306f", "\u3070"); put("\u3072", "\u3073"); put("\u3075", "\u3076"); put("\u3078", "\u3079"); put("\u307b", "\u307c");
-          put("\u3070", "\u3071"); put("\u3073", "\u3074"); put("\u3076", "\u3077"); put("\u3079", "\u307a"); put("\u307c", "\u307d");
-          put("\u3071", "\u306f"); put("\u3074", "\u3072"); put("\u3077", "\u3075"); put("\u307a", "\u3078"); put("\u307d", "\u307b");
-          put("\u3084", "\u3083"); put("\u3086", "\u3085"); put("\u3088", "\u3087");
-          put("\u3083", "\u3084"); put("\u3085", "\u3086"); put("\u3087", "\u3088");
-          put("\u308f", "\u308e");
-          put("\u308e", "\u308f");
-          put("\u309b", "\u309c");
-          put("\u309c", "\u309b");
-    }};
+    private static final WnnCharTable JP_FULL_HIRAGANA_REPLACE_TABLE = new WnnCharTable(new String[][] {
+          {"\u3042", "\u3041"}, {"\u3044", "\u3043"}, {"\u3046", "\u3045"}, {"\u3048", "\u3047"}, {"\u304a", "\u3049"},
+          {"\u3041", "\u3042"}, {"\u3043", "\u3044"}, {"\u3045", "\u30f4"}, {"\u3047", "\u3048"}, {"\u3049", "\u304a"},
+          {"\u304b", "\u304c"}, {"\u304d", "\u304e"}, {"\u304f", "\u3050"}, {"\u3051", "\u3052"}, {"\u3053", "\u3054"},
+          {"\u304c", "\u304b"}, {"\u304e", "\u304d"}, {"\u3050", "\u304f"}, {"\u3052", "\u3051"}, {"\u3054", "\u3053"},
+          {"\u3055", "\u3056"}, {"\u3057", "\u3058"}, {"\u3059", "\u305a"}, {"\u305b", "\u305c"}, {"\u305d", "\u305e"},
+          {"\u3056", "\u3055"}, {"\u3058", "\u3057"}, {"\u305a", "\u3059"}, {"\u305c", "\u305b"}, {"\u305e", "\u305d"},
+          {"\u305f", "\u3060"}, {"\u3061", "\u3062"}, {"\u3064", "\u3063"}, {"\u3066", "\u3067"}, {"\u3068", "\u3069"},
+          {"\u3060", "\u305f"}, {"\u3062", "\u3061"}, {"\u3063", "\u3065"}, {"\u3067", "\u3066"}, {"\u3069", "\u3068"},
+          {"\u3065", "\u3064"}, {"\u30f4", "\u3046"},
+          {"\u306f", "\u3070"}, {"\u3072", "\u3073"}, {"\u3075", "\u3076"}, {"\u3078", "\u3079"}, {"\u307b", "\u307c"},
+          {"\u3070", "\u3071"}, {"\u3073", "\u3074"}, {"\u3076", "\u3077"}, {"\u3079", "\u307a"}, {"\u307c", "\u307d"},
+          {"\u3071", "\u306f"}, {"\u3074", "\u3072"}, {"\u3077", "\u3075"}, {"\u307a", "\u3078"}, {"\u307d", "\u307b"},
+          {"\u3084", "\u3083"}, {"\u3086", "\u3085"}, {"\u3088", "\u3087"},
+          {"\u3083", "\u3084"}, {"\u3085", "\u3086"}, {"\u3087", "\u3088"},
+          {"\u308f", "\u308e"},
+          {"\u308e", "\u308f"},
+          {"\u309b", "\u309c"},
+          {"\u309c", "\u309b"},
+    });
 
     /** Toggle cycle table for full-width KATAKANA */
     private static final String[][] JP_FULL_KATAKANA_CYCLE_TABLE = {
@@ -137,24 +136,24 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
     };
 
     /** Replace table for full-width KATAKANA */
-    private static final HashMap<String,String> JP_FULL_KATAKANA_REPLACE_TABLE = new HashMap<String,String>() {{
-        put("\u30a2", "\u30a1"); put("\u30a4", "\u30a3"); put("\u30a6", "\u30a5"); put("\u30a8", "\u30a7"); put("\u30aa", "\u30a9");
-        put("\u30a1", "\u30a2"); put("\u30a3", "\u30a4"); put("\u30a5", "\u30f4"); put("\u30a7", "\u30a8"); put("\u30a9", "\u30aa");
-        put("\u30ab", "\u30ac"); put("\u30ad", "\u30ae"); put("\u30af", "\u30b0"); put("\u30b1", "\u30b2"); put("\u30b3", "\u30b4");
-        put("\u30ac", "\u30ab"); put("\u30ae", "\u30ad"); put("\u30b0", "\u30af"); put("\u30b2", "\u30b1"); put("\u30b4", "\u30b3");
-        put("\u30b5", "\u30b6"); put("\u30b7", "\u30b8"); put("\u30b9", "\u30ba"); put("\u30bb", "\u30bc"); put("\u30bd", "\u30be");
-        put("\u30b6", "\u30b5"); put("\u30b8", "\u30b7"); put("\u30ba", "\u30b9"); put("\u30bc", "\u30bb"); put("\u30be", "\u30bd");
-        put("\u30bf", "\u30c0"); put("\u30c1", "\u30c2"); put("\u30c4", "\u30c3"); put("\u30c6", "\u30c7"); put("\u30c8", "\u30c9");
-        put("\u30c0", "\u30bf"); put("\u30c2", "\u30c1"); put("\u30c3", "\u30c5"); put("\u30c7", "\u30c6"); put("\u30c9", "\u30c8");
-        put("\u30c5", "\u30c4"); put("\u30f4", "\u30a6");
-        put("\u30cf", "\u30d0"); put("\u30d2", "\u30d3"); put("\u30d5", "\u30d6"); put("\u30d8", "\u30d9"); put("\u30db", "\u30dc");
-        put("\u30d0", "\u30d1"); put("\u30d3", "\u30d4"); put("\u30d6", "\u30d7"); put("\u30d9", "\u30da"); put("\u30dc", "\u30dd");
-        put("\u30d1", "\u30cf"); put("\u30d4", "\u30d2"); put("\u30d7", "\u30d5"); put("\u30da", "\u30d8"); put("\u30dd", "\u30db");
-        put("\u30e4", "\u30e3"); put("\u30e6", "\u30e5"); put("\u30e8", "\u30e7");
-        put("\u30e3", "\u30e4"); put("\u30e5", "\u30e6"); put("\u30e7", "\u30e8");
-        put("\u30ef", "\u30ee");
-        put("\u30ee", "\u30ef");
-    }};
+    private static final WnnCharTable JP_FULL_KATAKANA_REPLACE_TABLE = new WnnCharTable(new String[][] {
+        {"\u30a2", "\u30a1"}, {"\u30a4", "\u30a3"}, {"\u30a6", "\u30a5"}, {"\u30a8", "\u30a7"}, {"\u30aa", "\u30a9"},
+        {"\u30a1", "\u30a2"}, {"\u30a3", "\u30a4"}, {"\u30a5", "\u30f4"}, {"\u30a7", "\u30a8"}, {"\u30a9", "\u30aa"},
+        {"\u30ab", "\u30ac"}, {"\u30ad", "\u30ae"}, {"\u30af", "\u30b0"}, {"\u30b1", "\u30b2"}, {"\u30b3", "\u30b4"},
+        {"\u30ac", "\u30ab"}, {"\u30ae", "\u30ad"}, {"\u30b0", "\u30af"}, {"\u30b2", "\u30b1"}, {"\u30b4", "\u30b3"},
+        {"\u30b5", "\u30b6"}, {"\u30b7", "\u30b8"}, {"\u30b9", "\u30ba"}, {"\u30bb", "\u30bc"}, {"\u30bd", "\u30be"},
+        {"\u30b6", "\u30b5"}, {"\u30b8", "\u30b7"}, {"\u30ba", "\u30b9"}, {"\u30bc", "\u30bb"}, {"\u30be", "\u30bd"},
+        {"\u30bf", "\u30c0"}, {"\u30c1", "\u30c2"}, {"\u30c4", "\u30c3"}, {"\u30c6", "\u30c7"}, {"\u30c8", "\u30c9"},
+        {"\u30c0", "\u30bf"}, {"\u30c2", "\u30c1"}, {"\u30c3", "\u30c5"}, {"\u30c7", "\u30c6"}, {"\u30c9", "\u30c8"},
+        {"\u30c5", "\u30c4"}, {"\u30f4", "\u30a6"},
+        {"\u30cf", "\u30d0"}, {"\u30d2", "\u30d3"}, {"\u30d5", "\u30d6"}, {"\u30d8", "\u30d9"}, {"\u30db", "\u30dc"},
+        {"\u30d0", "\u30d1"}, {"\u30d3", "\u30d4"}, {"\u30d6", "\u30d7"}, {"\u30d9", "\u30da"}, {"\u30dc", "\u30dd"},
+        {"\u30d1", "\u30cf"}, {"\u30d4", "\u30d2"}, {"\u30d7", "\u30d5"}, {"\u30da", "\u30d8"}, {"\u30dd", "\u30db"},
+        {"\u30e4", "\u30e3"}, {"\u30e6", "\u30e5"}, {"\u30e8", "\u30e7"},
+        {"\u30e3", "\u30e4"}, {"\u30e5", "\u30e6"}, {"\u30e7", "\u30e8"},
+        {"\u30ef", "\u30ee"},
+        {"\u30ee", "\u30ef"},
+    });
 
     /** Toggle cycle table for half-width KATAKANA */
     private static final String[][] JP_HALF_KATAKANA_CYCLE_TABLE = {
@@ -172,23 +171,23 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
     };
 
     /** Replace table for half-width KATAKANA */
-    private static final HashMap<String,String> JP_HALF_KATAKANA_REPLACE_TABLE = new HashMap<String,String>() {{
-        put("\uff71", "\uff67");  put("\uff72", "\uff68");  put("\uff73", "\uff69");  put("\uff74", "\uff6a");  put("\uff75", "\uff6b");
-        put("\uff67", "\uff71");  put("\uff68", "\uff72");  put("\uff69", "\uff73\uff9e");  put("\uff6a", "\uff74");  put("\uff6b", "\uff75");
-        put("\uff76", "\uff76\uff9e"); put("\uff77", "\uff77\uff9e"); put("\uff78", "\uff78\uff9e"); put("\uff79", "\uff79\uff9e"); put("\uff7a", "\uff7a\uff9e");
-        put("\uff76\uff9e", "\uff76"); put("\uff77\uff9e", "\uff77"); put("\uff78\uff9e", "\uff78"); put("\uff79\uff9e", "\uff79"); put("\uff7a\uff9e", "\uff7a");
-        put("\uff7b", "\uff7b\uff9e"); put("\uff7c", "\uff7c\uff9e"); put("\uff7d", "\uff7d\uff9e"); put("\uff7e", "\uff7e\uff9e"); put("\uff7f", "\uff7f\uff9e");
-        put("\uff7b\uff9e", "\uff7b"); put("\uff7c\uff9e", "\uff7c"); put("\uff7d\uff9e", "\uff7d"); put("\uff7e\uff9e", "\uff7e"); put("\uff7f\uff9e", "\uff7f");
-        put("\uff80", "\uff80\uff9e"); put("\uff81", "\uff81\uff9e"); put("\uff82", "\uff6f");  put("\uff83", "\uff83\uff9e"); put("\uff84", "\uff84\uff9e");
-        put("\uff80\uff9e", "\uff80"); put("\uff81\uff9e", "\uff81"); put("\uff6f", "\uff82\uff9e"); put("\uff83\uff9e", "\uff83"); put("\uff84\uff9e", "\uff84");
-        put("\uff82\uff9e", "\uff82");
-        put("\uff8a", "\uff8a\uff9e"); put("\uff8b", "\uff8b\uff9e"); put("\uff8c", "\uff8c\uff9e"); put("\uff8d", "\uff8d\uff9e"); put("\uff8e", "\uff8e\uff9e");
-        put("\uff8a\uff9e", "\uff8a\uff9f");put("\uff8b\uff9e", "\uff8b\uff9f");put("\uff8c\uff9e", "\uff8c\uff9f");put("\uff8d\uff9e", "\uff8d\uff9f");put("\uff8e\uff9e", "\uff8e\uff9f");
-        put("\uff8a\uff9f", "\uff8a"); put("\uff8b\uff9f", "\uff8b"); put("\uff8c\uff9f", "\uff8c"); put("\uff8d\uff9f", "\uff8d"); put("\uff8e\uff9f", "\uff8e");
-        put("\uff94", "\uff6c");  put("\uff95", "\uff6d");  put("\uff96", "\uff6e");
-        put("\uff6c", "\uff94");  put("\uff6d", "\uff95");  put("\uff6e", "\uff96");
-        put("\uff9c", "\uff9c"); put("\uff73\uff9e", "\uff73");
-    }};
+    private static final WnnCharTable JP_HALF_KATAKANA_REPLACE_TABLE = new WnnCharTable(new String[][] {
+        {"\uff71", "\uff67"},  {"\uff72", "\uff68"},  {"\uff73", "\uff69"},  {"\uff74", "\uff6a"},  {"\uff75", "\uff6b"},
+        {"\uff67", "\uff71"},  {"\uff68", "\uff72"},  {"\uff69", "\uff73\uff9e"},  {"\uff6a", "\uff74"},  {"\uff6b", "\uff75"},
+        {"\uff76", "\uff76\uff9e"}, {"\uff77", "\uff77\uff9e"}, {"\uff78", "\uff78\uff9e"}, {"\uff79", "\uff79\uff9e"}, {"\uff7a", "\uff7a\uff9e"},
+        {"\uff76\uff9e", "\uff76"}, {"\uff77\uff9e", "\uff77"}, {"\uff78\uff9e", "\uff78"}, {"\uff79\uff9e", "\uff79"}, {"\uff7a\uff9e", "\uff7a"},
+        {"\uff7b", "\uff7b\uff9e"}, {"\uff7c", "\uff7c\uff9e"}, {"\uff7d", "\uff7d\uff9e"}, {"\uff7e", "\uff7e\uff9e"}, {"\uff7f", "\uff7f\uff9e"},
+        {"\uff7b\uff9e", "\uff7b"}, {"\uff7c\uff9e", "\uff7c"}, {"\uff7d\uff9e", "\uff7d"}, {"\uff7e\uff9e", "\uff7e"}, {"\uff7f\uff9e", "\uff7f"},
+        {"\uff80", "\uff80\uff9e"}, {"\uff81", "\uff81\uff9e"}, {"\uff82", "\uff6f"},  {"\uff83", "\uff83\uff9e"}, {"\uff84", "\uff84\uff9e"},
+        {"\uff80\uff9e", "\uff80"}, {"\uff81\uff9e", "\uff81"}, {"\uff6f", "\uff82\uff9e"}, {"\uff83\uff9e", "\uff83"}, {"\uff84\uff9e", "\uff84"},
+        {"\uff82\uff9e", "\uff82"},
+        {"\uff8a", "\uff8a\uff9e"}, {"\uff8b", "\uff8b\uff9e"}, {"\uff8c", "\uff8c\uff9e"}, {"\uff8d", "\uff8d\uff9e"}, {"\uff8e", "\uff8e\uff9e"},
+        {"\uff8a\uff9e", "\uff8a\uff9f"},{"\uff8b\uff9e", "\uff8b\uff9f"},{"\uff8c\uff9e", "\uff8c\uff9f"},{"\uff8d\uff9e", "\uff8d\uff9f"},{"\uff8e\uff9e", "\uff8e\uff9f"},
+        {"\uff8a\uff9f", "\uff8a"}, {"\uff8b\uff9f", "\uff8b"}, {"\uff8c\uff9f", "\uff8c"}, {"\uff8d\uff9f", "\uff8d"}, {"\uff8e\uff9f", "\uff8e"},
+        {"\uff94", "\uff6c"},  {"\uff95", "\uff6d"},  {"\uff96", "\uff6e"},
+        {"\uff6c", "\uff94"},  {"\uff6d", "\uff95"},  {"\uff6e", "\uff96"},
+        {"\uff9c", "\uff9c"}, {"\uff73\uff9e", "\uff73"},
+    });
 
     /** Toggle cycle table for full-width alphabet */
     private static final String[][] JP_FULL_ALPHABET_CYCLE_TABLE = {
@@ -206,20 +205,20 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
     };
 
     /** Replace table for full-width alphabet */
-    private static final HashMap<String,String> JP_FULL_ALPHABET_REPLACE_TABLE = new HashMap<String,String>() {{
-        put("\uff21", "\uff41"); put("\uff22", "\uff42"); put("\uff23", "\uff43"); put("\uff24", "\uff44"); put("\uff25", "\uff45"); 
-        put("\uff41", "\uff21"); put("\uff42", "\uff22"); put("\uff43", "\uff23"); put("\uff44", "\uff24"); put("\uff45", "\uff25"); 
-        put("\uff26", "\uff46"); put("\uff27", "\uff47"); put("\uff28", "\uff48"); put("\uff29", "\uff49"); put("\uff2a", "\uff4a"); 
-        put("\uff46", "\uff26"); put("\uff47", "\uff27"); put("\uff48", "\uff28"); put("\uff49", "\uff29"); put("\uff4a", "\uff2a"); 
-        put("\uff2b", "\uff4b"); put("\uff2c", "\uff4c"); put("\uff2d", "\uff4d"); put("\uff2e", "\uff4e"); put("\uff2f", "\uff4f"); 
-        put("\uff4b", "\uff2b"); put("\uff4c", "\uff2c"); put("\uff4d", "\uff2d"); put("\uff4e", "\uff2e"); put("\uff4f", "\uff2f"); 
-        put("\uff30", "\uff50"); put("\uff31", "\uff51"); put("\uff32", "\uff52"); put("\uff33", "\uff53"); put("\uff34", "\uff54"); 
-        put("\uff50", "\uff30"); put("\uff51", "\uff31"); put("\uff52", "\uff32"); put("\uff53", "\uff33"); put("\uff54", "\uff34"); 
-        put("\uff35", "\uff55"); put("\uff36", "\uff56"); put("\uff37", "\uff57"); put("\uff38", "\uff58"); put("\uff39", "\uff59"); 
-        put("\uff55", "\uff35"); put("\uff56", "\uff36"); put("\uff57", "\uff37"); put("\uff58", "\uff38"); put("\uff59", "\uff39"); 
-        put("\uff3a", "\uff5a"); 
-        put("\uff5a", "\uff3a"); 
-    }};
+    private static final WnnCharTable JP_FULL_ALPHABET_REPLACE_TABLE = new WnnCharTable(new String[][] {
+        {"\uff21", "\uff41"}, {"\uff22", "\uff42"}, {"\uff23", "\uff43"}, {"\uff24", "\uff44"}, {"\uff25", "\uff45"},
+        {"\uff41", "\uff21"}, {"\uff42", "\uff22"}, {"\uff43", "\uff23"}, {"\uff44", "\uff24"}, {"\uff45", "\uff25"},
+        {"\uff26", "\uff46"}, {"\uff27", "\uff47"}, {"\uff28", "\uff48"}, {"\uff29", "\uff49"}, {"\uff2a", "\uff4a"},
+        {"\uff46", "\uff26"}, {"\uff47", "\uff27"}, {"\uff48", "\uff28"}, {"\uff49", "\uff29"}, {"\uff4a", "\uff2a"},
+        {"\uff2b", "\uff4b"}, {"\uff2c", "\uff4c"}, {"\uff2d", "\uff4d"}, {"\uff2e", "\uff4e"}, {"\uff2f", "\uff4f"},
+        {"\uff4b", "\uff2b"}, {"\uff4c", "\uff2c"}, {"\uff4d", "\uff2d"}, {"\uff4e", "\uff2e"}, {"\uff4f", "\uff2f"},
+        {"\uff30", "\uff50"}, {"\uff31", "\uff51"}, {"\uff32", "\uff52"}, {"\uff33", "\uff53"}, {"\uff34", "\uff54"},
+        {"\uff50", "\uff30"}, {"\uff51", "\uff31"}, {"\uff52", "\uff32"}, {"\uff53", "\uff33"}, {"\uff54", "\uff34"},
+        {"\uff35", "\uff55"}, {"\uff36", "\uff56"}, {"\uff37", "\uff57"}, {"\uff38", "\uff58"}, {"\uff39", "\uff59"},
+        {"\uff55", "\uff35"}, {"\uff56", "\uff36"}, {"\uff57", "\uff37"}, {"\uff58", "\uff38"}, {"\uff59", "\uff39"},
+        {"\uff3a", "\uff5a"},
+        {"\uff5a", "\uff3a"},
+    });
 
     /** Toggle cycle table for half-width alphabet */
     private static final String[][] JP_HALF_ALPHABET_CYCLE_TABLE = {
@@ -237,20 +236,20 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
     };
 
     /** Replace table for half-width alphabet */
-    private static final HashMap<String,String> JP_HALF_ALPHABET_REPLACE_TABLE = new HashMap<String,String>() {{
-        put("A", "a"); put("B", "b"); put("C", "c"); put("D", "d"); put("E", "e"); 
-        put("a", "A"); put("b", "B"); put("c", "C"); put("d", "D"); put("e", "E"); 
-        put("F", "f"); put("G", "g"); put("H", "h"); put("I", "i"); put("J", "j"); 
-        put("f", "F"); put("g", "G"); put("h", "H"); put("i", "I"); put("j", "J"); 
-        put("K", "k"); put("L", "l"); put("M", "m"); put("N", "n"); put("O", "o"); 
-        put("k", "K"); put("l", "L"); put("m", "M"); put("n", "N"); put("o", "O"); 
-        put("P", "p"); put("Q", "q"); put("R", "r"); put("S", "s"); put("T", "t"); 
-        put("p", "P"); put("q", "Q"); put("r", "R"); put("s", "S"); put("t", "T"); 
-        put("U", "u"); put("V", "v"); put("W", "w"); put("X", "x"); put("Y", "y"); 
-        put("u", "U"); put("v", "V"); put("w", "W"); put("x", "X"); put("y", "Y"); 
-        put("Z", "z"); 
-        put("z", "Z"); 
-    }};
+    private static final WnnCharTable JP_HALF_ALPHABET_REPLACE_TABLE = new WnnCharTable(new String[][] {
+        {"A", "a"}, {"B", "b"}, {"C", "c"}, {"D", "d"}, {"E", "e"},
+        {"a", "A"}, {"b", "B"}, {"c", "C"}, {"d", "D"}, {"e", "E"},
+        {"F", "f"}, {"G", "g"}, {"H", "h"}, {"I", "i"}, {"J", "j"},
+        {"f", "F"}, {"g", "G"}, {"h", "H"}, {"i", "I"}, {"j", "J"},
+        {"K", "k"}, {"L", "l"}, {"M", "m"}, {"N", "n"}, {"O", "o"},
+        {"k", "K"}, {"l", "L"}, {"m", "M"}, {"n", "N"}, {"o", "O"},
+        {"P", "p"}, {"Q", "q"}, {"R", "r"}, {"S", "s"}, {"T", "t"},
+        {"p", "P"}, {"q", "Q"}, {"r", "R"}, {"s", "S"}, {"t", "T"},
+        {"U", "u"}, {"V", "v"}, {"W", "w"}, {"X", "x"}, {"Y", "y"},
+        {"u", "U"}, {"v", "V"}, {"w", "W"}, {"x", "X"}, {"y", "Y"},
+        {"Z", "z"},
+        {"z", "Z"},
+    });
 
     /** Character table for full-width number */
     private static final char[] INSTANT_CHAR_CODE_FULL_NUMBER = 
@@ -579,7 +578,7 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
             } else {
                 if (!mNoInput) {
                     /* Processing to toggle Dakuten, Handakuten, and capital */
-                    HashMap replaceTable = getReplaceTable();
+                    WnnCharTable replaceTable = getReplaceTable();
                     if (replaceTable == null) {
                         Log.e("OpenWnn", "not founds replace table");
                     } else {
@@ -1031,8 +1030,8 @@ public class DefaultSoftKeyboardJAJP extends DefaultSoftKeyboard {
      * 
      * @return      The replace table
      */
-    private HashMap getReplaceTable() {
-        HashMap hashTable = null;
+    private WnnCharTable getReplaceTable() {
+        WnnCharTable hashTable = null;
         switch (mCurrentKeyMode) {
         case KEYMODE_JA_FULL_HIRAGANA:
             hashTable = JP_FULL_HIRAGANA_REPLACE_TABLE;
@@ -18,10 +18,10 @@ package com.googlecode.openwnn.legacy.JAJP;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 
+import com.googlecode.openwnn.legacy.WnnCharTable;
 import com.googlecode.openwnn.legacy.WnnDictionary;
 import com.googlecode.openwnn.legacy.WnnPOS;
 import com.googlecode.openwnn.legacy.WnnWord;
@@ -34,441 +34,484 @@ import com.googlecode.openwnn.legacy.WnnWord;
 public class KanaConverter {
 
 	/** Conversion rule for half-width numeric */
-    private static final HashMap<String,String> mHalfNumericMap = new HashMap<String,String>() {{
-        put( "\u3042", "1");
-        put( "\u3044", "11");
-        put( "\u3046", "111");
-        put( "\u3048", "1111");
-        put( "\u304a", "11111");
-        put( "\u3041", "111111");
-        put( "\u3043", "1111111");
-        put( "\u3045", "11111111");
-        put( "\u3047", "111111111");
-        put( "\u3049", "1111111111");
-        put( "\u304b", "2");
-        put( "\u304d", "22");
-        put( "\u304f", "222");
-        put( "\u3051", "2222");
-        put( "\u3053", "22222");
-        put( "\u3055", "3");
-        put( "\u3057", "33");
-        put( "\u3059", "333");
-        put( "\u305b", "3333");
-        put( "\u305d", "33333");
-        put( "\u305f", "4");
-        put( "\u3061", "44");
-        put( "\u3064", "444");
-        put( "\u3066", "4444");
-        put( "\u3068", "44444");
-        put( "\u3063", "444444");
-        put( "\u306a", "5");
-        put( "\u306b", "55");
-        put( "\u306c", "555");
-        put( "\u306d", "5555");
-        put( "\u306e", "55555");
-        put( "\u306f", "6");
-        put( "\u3072", "66");
-        put( "\u3075", "666");
-        put( "\u3078", "6666");
-        put( "\u307b", "66666");
-        put( "\u307e", "7");
-        put( "\u307f", "77");
-        put( "\u3080", "777");
-        put( "\u3081", "7777");
-        put( "\u3082", "77777");
-        put( "\u3084", "8");
-        put( "\u3086", "88");
-        put( "\u3088", "888");
-        put( "\u3083", "8888");
-        put( "\u3085", "88888");
-        put( "\u3087", "888888");
-        put( "\u3089", "9");
-        put( "\u308a", "99");
-        put( "\u308b", "999");
-        put( "\u308c", "9999");
-        put( "\u308d", "99999");
-        put( "\u308f", "0");
-        put( "\u3092", "00");
-        put( "\u3093", "000");
-        put( "\u308e", "0000");
-        put( "\u30fc", "00000");
-    }};
+    private static final WnnCharTable mHalfNumericMap = new WnnCharTable(new String[][] {
+        {"\u3042", "1"},
+        {"\u3044", "11"},
+        {"\u3046", "111"},
+        {"\u3048", "1111"},
+        {"\u304a", "11111"},
+        {"\u3041", "111111"},
+        {"\u3043", "1111111"},
+        {"\u3045", "11111111"},
+        {"\u3047", "111111111"},
+        {"\u3049", "1111111111"},
+        {"\u304b", "2"},
+        {"\u304d", "22"},
+        {"\u304f", "222"},
+        {"\u3051", "2222"},
+        {"\u3053", "22222"},
+        {"\u3055", "3"},
+        {"\u3057", "33"},
+        {"\u3059", "333"},
+        {"\u305b", "3333"},
+        {"\u305d", "33333"},
+        {"\u305f", "4"},
+        {"\u3061", "44"},
+        {"\u3064", "444"},
+        {"\u3066", "4444"},
+        {"\u3068", "44444"},
+        {"\u3063", "444444"},
+        {"\u306a", "5"},
+        {"\u306b", "55"},
+        {"\u306c", "555"},
+        {"\u306d", "5555"},
+        {"\u306e", "55555"},
+        {"\u306f", "6"},
+        {"\u3072", "66"},
+        {"\u3075", "666"},
+        {"\u3078", "6666"},
+        {"\u307b", "66666"},
+        {"\u307e", "7"},
+        {"\u307f", "77"},
+        {"\u3080", "777"},
+        {"\u3081", "7777"},
+        {"\u3082", "77777"},
+        {"\u3084", "8"},
+        {"\u3086", "88"},
+        {"\u3088", "888"},
+        {"\u3083", "8888"},
+        {"\u3085", "88888"},
+        {"\u3087", "888888"},
+        {"\u3089", "9"},
+        {"\u308a", "99"},
+        {"\u308b", "999"},
+        {"\u308c", "9999"},
+        {"\u308d", "99999"},
+        {"\u308f", "0"},
+        {"\u3092", "00"},
+        {"\u3093", "000"},
+        {"\u308e", "0000"},
+        {"\u30fc", "00000"},
+    });
 
     /** Conversion rule for full-width numeric */
-    private static final HashMap<String,String> mFullNumericMap = new HashMap<String,String>() {{
-        put( "\u3042", "\uff11");
-        put( "\u3044", "\uff11\uff11");
-        put( "\u3046", "\uff11\uff11\uff11");
-        put( "\u3048", "\uff11\uff11\uff11\uff11");
-        put( "\u304a", "\uff11\uff11\uff11\uff11\uff11");
-        put( "\u3041", "\uff11\uff11\uff11\uff11\uff11\uff11");
-        put( "\u3043", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11");
-        put( "\u3045", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11");
-        put( "\u3047", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11");
-        put( "\u3049", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11");
-        put( "\u304b", "\uff12");
-        put( "\u304d", "\uff12\uff12");
-        put( "\u304f", "\uff12\uff12\uff12");
-        put( "\u3051", "\uff12\uff12\uff12\uff12");
-        put( "\u3053", "\uff12\uff12\uff12\uff12\uff12");
-        put( "\u3055", "\uff13");
-        put( "\u3057", "\uff13\uff13");
-        put( "\u3059", "\uff13\uff13\uff13");
-        put( "\u305b", "\uff13\uff13\uff13\uff13");
-        put( "\u305d", "\uff13\uff13\uff13\uff13\uff13");
-        put( "\u305f", "\uff14");
-        put( "\u3061", "\uff14\uff14");
-        put( "\u3064", "\uff14\uff14\uff14");
-        put( "\u3066", "\uff14\uff14\uff14\uff14");
-        put( "\u3068", "\uff14\uff14\uff14\uff14\uff14");
-        put( "\u3063", "\uff14\uff14\uff14\uff14\uff14\uff14");
-        put( "\u306a", "\uff15");
-        put( "\u306b", "\uff15\uff15");
-        put( "\u306c", "\uff15\uff15\uff15");
-        put( "\u306d", "\uff15\uff15\uff15\uff15");
-        put( "\u306e", "\uff15\uff15\uff15\uff15\uff15");
-        put( "\u306f", "\uff16");
-        put( "\u3072", "\uff16\uff16");
-        put( "\u3075", "\uff16\uff16\uff16");
-        put( "\u3078", "\uff16\uff16\uff16\uff16");
-        put( "\u307b", "\uff16\uff16\uff16\uff16\uff16");
-        put( "\u307e", "\uff17");
-        put( "\u307f", "\uff17\uff17");
-        put( "\u3080", "\uff17\uff17\uff17");
-        put( "\u3081", "\uff17\uff17\uff17\uff17");
-        put( "\u3082", "\uff17\uff17\uff17\uff17\uff17");
-        put( "\u3084", "\uff18");
-        put( "\u3086", "\uff18\uff18");
-        put( "\u3088", "\uff18\uff18\uff18");
-        put( "\u3083", "\uff18\uff18\uff18\uff18");
-        put( "\u3085", "\uff18\uff18\uff18\uff18\uff18");
-        put( "\u3087", "\uff18\uff18\uff18\uff18\uff18\uff18");
-        put( "\u3089", "\uff19");
-        put( "\u308a", "\uff19\uff19");
-        put( "\u308b", "\uff19\uff19\uff19");
-        put( "\u308c", "\uff19\uff19\uff19\uff19");
-        put( "\u308d", "\uff19\uff19\uff19\uff19\uff19");
-        put( "\u308f", "\uff10");
-        put( "\u3092", "\uff10\uff10");
-        put( "\u3093", "\uff10\uff10\uff10");
-        put( "\u308e", "\uff10\uff10\uff10\uff10");
-        put( "\u30fc", "\uff10\uff10\uff10\uff10\uff10");
-    }};
+    private static final WnnCharTable mFullNumericMap = new WnnCharTable(new String[][] {
+        {"\u3042", "\uff11"},
+        {"\u3044", "\uff11\uff11"},
+        {"\u3046", "\uff11\uff11\uff11"},
+        {"\u3048", "\uff11\uff11\uff11\uff11"},
+        {"\u304a", "\uff11\uff11\uff11\uff11\uff11"},
+        {"\u3041", "\uff11\uff11\uff11\uff11\uff11\uff11"},
+        {"\u3043", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11"},
+        {"\u3045", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11"},
+        {"\u3047", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11"},
+        {"\u3049", "\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11\uff11"},
+        {"\u304b", "\uff12"},
+        {"\u304d", "\uff12\uff12"},
+        {"\u304f", "\uff12\uff12\uff12"},
+        {"\u3051", "\uff12\uff12\uff12\uff12"},
+        {"\u3053", "\uff12\uff12\uff12\uff12\uff12"},
+        {"\u3055", "\uff13"},
+        {"\u3057", "\uff13\uff13"},
+        {"\u3059", "\uff13\uff13\uff13"},
+        {"\u305b", "\uff13\uff13\uff13\uff13"},
+        {"\u305d", "\uff13\uff13\uff13\uff13\uff13"},
+        {"\u305f", "\uff14"},
+        {"\u3061", "\uff14\uff14"},
+        {"\u3064", "\uff14\uff14\uff14"},
+        {"\u3066", "\uff14\uff14\uff14\uff14"},
+        {"\u3068", "\uff14\uff14\uff14\uff14\uff14"},
+        {"\u3063", "\uff14\uff14\uff14\uff14\uff14\uff14"},
+        {"\u306a", "\uff15"},
+        {"\u306b", "\uff15\uff15"},
+        {"\u306c", "\uff15\uff15\uff15"},
+        {"\u306d", "\uff15\uff15\uff15\uff15"},
+        {"\u306e", "\uff15\uff15\uff15\uff15\uff15"},
+        {"\u306f", "\uff16"},
+        {"\u3072", "\uff16\uff16"},
+        {"\u3075", "\uff16\uff16\uff16"},
+        {"\u3078", "\uff16\uff16\uff16\uff16"},
+        {"\u307b", "\uff16\uff16\uff16\uff16\uff16"},
+        {"\u307e", "\uff17"},
+        {"\u307f", "\uff17\uff17"},
+        {"\u3080", "\uff17\uff17\uff17"},
+        {"\u3081", "\uff17\uff17\uff17\uff17"},
+        {"\u3082", "\uff17\uff17\uff17\uff17\uff17"},
+        {"\u3084", "\uff18"},
+        {"\u3086", "\uff18\uff18"},
+        {"\u3088", "\uff18\uff18\uff18"},
+        {"\u3083", "\uff18\uff18\uff18\uff18"},
+        {"\u3085", "\uff18\uff18\uff18\uff18\uff18"},
+        {"\u3087", "\uff18\uff18\uff18\uff18\uff18\uff18"},
+        {"\u3089", "\uff19"},
+        {"\u308a", "\uff19\uff19"},
+        {"\u308b", "\uff19\uff19\uff19"},
+        {"\u308c", "\uff19\uff19\uff19\uff19"},
+        {"\u308d", "\uff19\uff19\uff19\uff19\uff19"},
+        {"\u308f", "\uff10"},
+        {"\u3092", "\uff10\uff10"},
+        {"\u3093", "\uff10\uff10\uff10"},
+        {"\u308e", "\uff10\uff10\uff10\uff10"},
+        {"\u30fc", "\uff10\uff10\uff10\uff10\uff10"},
+    });
 
     /** Conversion rule for half-width Katakana */
-    private static final HashMap<String,String> mHalfKatakanaMap = new HashMap<String,String>() {{
-        put( "\u3042", "\uff71");
-        put( "\u3044", "\uff72");
-        put( "\u3046", "\uff73");
-        put( "\u3048", "\uff74");
-        put( "\u304a", "\uff75");
-        put( "\u3041", "\uff67");
-        put( "\u3043", "\uff68");
-        put( "\u3045", "\uff69");
-        put( "\u3047", "\uff6a");
-        put( "\u3049", "\uff6b");
-        put( "\u30f4\u3041", "\uff73\uff9e\uff67");
-        put( "\u30f4\u3043", "\uff73\uff9e\uff68");
-        put( "\u30f4", "\uff73\uff9e");
-        put( "\u30f4\u3047", "\uff73\uff9e\uff6a");
-        put( "\u30f4\u3049", "\uff73\uff9e\uff6b");
-        put( "\u304b", "\uff76");
-        put( "\u304d", "\uff77");
-        put( "\u304f", "\uff78");
-        put( "\u3051", "\uff79");
-        put( "\u3053", "\uff7a");
-        put( "\u304c", "\uff76\uff9e");
-        put( "\u304e", "\uff77\uff9e");
-        put( "\u3050", "\uff78\uff9e");
-        put( "\u3052", "\uff79\uff9e");
-        put( "\u3054", "\uff7a\uff9e");
-        put( "\u3055", "\uff7b");
-        put( "\u3057", "\uff7c");
-        put( "\u3059", "\uff7d");
-        put( "\u305b", "\uff7e");
-        put( "\u305d", "\uff7f");
-        put( "\u3056", "\uff7b\uff9e");
-        put( "\u3058", "\uff7c\uff9e");
-        put( "\u305a", "\uff7d\uff9e");
-        put( "\u305c", "\uff7e\uff9e");
-        put( "\u305e", "\uff7f\uff9e");
-        put( "\u305f", "\uff80");
-        put( "\u3061", "\uff81");
-        put( "\u3064", "\uff82");
-        put( "\u3066", "\uff83");
-        put( "\u3068", "\uff84");
-        put( "\u3063", "\uff6f");
-        put( "\u3060", "\uff80\uff9e");
-        put( "\u3062", "\uff81\uff9e");
-        put( "\u3065", "\uff82\uff9e");
-        put( "\u3067", "\uff83\uff9e");
-        put( "\u3069", "\uff84\uff9e");
-        put( "\u306a", "\uff85");
-        put( "\u306b", "\uff86");
-        put( "\u306c", "\uff87");
-        put( "\u306d", "\uff88");
-        put( "\u306e", "\uff89");
-        put( "\u306f", "\uff8a");
-        put( "\u3072", "\uff8b");
-        put( "\u3075", "\uff8c");
-        put( "\u3078", "\uff8d");
-        put( "\u307b", "\uff8e");
-        put( "\u3070", "\uff8a\uff9e");
-        put( "\u3073", "\uff8b\uff9e");
-        put( "\u3076", "\uff8c\uff9e");
-        put( "\u3079", "\uff8d\uff9e");
-        put( "\u307c", "\uff8e\uff9e");
-        put( "\u3071", "\uff8a\uff9f");
-        put( "\u3074", "\uff8b\uff9f");
-        put( "\u3077", "\uff8c\uff9f");
-        put( "\u307a", "\uff8d\uff9f");
-        put( "\u307d", "\uff8e\uff9f");
-        put( "\u307e", "\uff8f");
-        put( "\u307f", "\uff90");
-        put( "\u3080", "\uff91");
-        put( "\u3081", "\uff92");
-        put( "\u3082", "\uff93");
-        put( "\u3084", "\uff94");
-        put( "\u3086", "\uff95");
-        put( "\u3088", "\uff96");
-        put( "\u3083", "\uff6c");
-        put( "\u3085", "\uff6d");
-        put( "\u3087", "\uff6e");
-        put( "\u3089", "\uff97");
-        put( "\u308a", "\uff98");
-        put( "\u308b", "\uff99");
-        put( "\u308c", "\uff9a");
-        put( "\u308d", "\uff9b");
-        put( "\u308f", "\uff9c");
-        put( "\u3092", "\uff66");
-        put( "\u3093", "\uff9d");
-        put( "\u308e", "\uff9c");
-        put( "\u30fc", "\uff70");
-    }};
+    private static final WnnCharTable mHalfKatakanaMap = new WnnCharTable(new String[][] {
+        {"\u3042", "\uff71"},
+        {"\u3044", "\uff72"},
+        {"\u3046", "\uff73"},
+        {"\u3048", "\uff74"},
+        {"\u304a", "\uff75"},
+        {"\u3041", "\uff67"},
+        {"\u3043", "\uff68"},
+        {"\u3045", "\uff69"},
+        {"\u3047", "\uff6a"},
+        {"\u3049", "\uff6b"},
+        {"\u30f4\u3041", "\uff73\uff9e\uff67"},
+        {"\u30f4\u3043", "\uff73\uff9e\uff68"},
+        {"\u30f4", "\uff73\uff9e"},
+        {"\u30f4\u3047", "\uff73\uff9e\uff6a"},
+        {"\u30f4\u3049", "\uff73\uff9e\uff6b"},
+        {"\u304b", "\uff76"},
+        {"\u304d", "\uff77"},
+        {"\u304f", "\uff78"},
+        {"\u3051", "\uff79"},
+        {"\u3053", "\uff7a"},
+        {"\u304c", "\uff76\uff9e"},
+        {"\u304e", "\uff77\uff9e"},
+        {"\u3050", "\uff78\uff9e"},
+        {"\u3052", "\uff79\uff9e"},
+        {"\u3054", "\uff7a\uff9e"},
+        {"\u3055", "\uff7b"},
+        {"\u3057", "\uff7c"},
+        {"\u3059", "\uff7d"},
+        {"\u305b", "\uff7e"},
+        {"\u305d", "\uff7f"},
+        {"\u3056", "\uff7b\uff9e"},
+        {"\u3058", "\uff7c\uff9e"},
+        {"\u305a", "\uff7d\uff9e"},
+        {"\u305c", "\uff7e\uff9e"},
+        {"\u305e", "\uff7f\uff9e"},
+        {"\u305f", "\uff80"},
+        {"\u3061", "\uff81"},
+        {"\u3064", "\uff82"},
+        {"\u3066", "\uff83"},
+        {"\u3068", "\uff84"},
+        {"\u3063", "\uff6f"},
+        {"\u3060", "\uff80\uff9e"},
+        {"\u3062", "\uff81\uff9e"},
+        {"\u3065", "\uff82\uff9e"},
+        {"\u3067", "\uff83\uff9e"},
+        {"\u3069", "\uff84\uff9e"},
+        {"\u306a", "\uff85"},
+        {"\u306b", "\uff86"},
+        {"\u306c", "\uff87"},
+        {"\u306d", "\uff88"},
+        {"\u306e", "\uff89"},
+        {"\u306f", "\uff8a"},
+        {"\u3072", "\uff8b"},
+        {"\u3075", "\uff8c"},
+        {"\u3078", "\uff8d"},
+        {"\u307b", "\uff8e"},
+        {"\u3070", "\uff8a\uff9e"},
+        {"\u3073", "\uff8b\uff9e"},
+        {"\u3076", "\uff8c\uff9e"},
+        {"\u3079", "\uff8d\uff9e"},
+        {"\u307c", "\uff8e\uff9e"},
+        {"\u3071", "\uff8a\uff9f"},
+        {"\u3074", "\uff8b\uff9f"},
+        {"\u3077", "\uff8c\uff9f"},
+        {"\u307a", "\uff8d\uff9f"},
+        {"\u307d", "\uff8e\uff9f"},
+        {"\u307e", "\uff8f"},
+        {"\u307f", "\uff90"},
+        {"\u3080", "\uff91"},
+        {"\u3081", "\uff92"},
+        {"\u3082", "\uff93"},
+        {"\u3084", "\uff94"},
+        {"\u3086", "\uff95"},
+        {"\u3088", "\uff96"},
+        {"\u3083", "\uff6c"},
+        {"\u3085", "\uff6d"},
+        {"\u3087", "\uff6e"},
+        {"\u3089", "\uff97"},
+        {"\u308a", "\uff98"},
+        {"\u308b", "\uff99"},
+        {"\u308c", "\uff9a"},
+        {"\u308d", "\uff9b"},
+        {"\u308f", "\uff9c"},
+        {"\u3092", "\uff66"},
+        {"\u3093", "\uff9d"},
+        {"\u308e", "\uff9c"},
+        {"\u30fc", "\uff70"},
+    });
 
     /** Conversion rule for full-width Katakana */
-    private static final HashMap<String,String> mFullKatakanaMap = new HashMap<String,String>() {{
-        put( "\u3042", "\u30a2");
-        put( "\u3044", "\u30a4");
-        put( "\u3046", "\u30a6");
-        put( "\u3048", "\u30a8");
-        put( "\u304a", "\u30aa");
-        put( "\u3041", "\u30a1");
-        put( "\u3043", "\u30a3");
-        put( "\u3045", "\u30a5");
-        put( "\u3047", "\u30a7");
-        put( "\u3049", "\u30a9");
-        put( "\u30f4\u3041", "\u30f4\u30a1");
-        put( "\u30f4\u3043", "\u30f4\u30a3");
-        put( "\u30f4", "\u30f4");
-        put( "\u30f4\u3047", "\u30f4\u30a7");
-        put( "\u30f4\u3049", "\u30f4\u30a9");
-        put( "\u304b", "\u30ab");
-        put( "\u304d", "\u30ad");
-        put( "\u304f", "\u30af");
-        put( "\u3051", "\u30b1");
-        put( "\u3053", "\u30b3");
-        put( "\u304c", "\u30ac");
-        put( "\u304e", "\u30ae");
-        put( "\u3050", "\u30b0");
-        put( "\u3052", "\u30b2");
-        put( "\u3054", "\u30b4");
-        put( "\u3055", "\u30b5");
-        put( "\u3057", "\u30b7");
-        put( "\u3059", "\u30b9");
-        put( "\u305b", "\u30bb");
-        put( "\u305d", "\u30bd");
-        put( "\u3056", "\u30b6");
-        put( "\u3058", "\u30b8");
-        put( "\u305a", "\u30ba");
-        put( "\u305c", "\u30bc");
-        put( "\u305e", "\u30be");
-        put( "\u305f", "\u30bf");
-        put( "\u3061", "\u30c1");
-        put( "\u3064", "\u30c4");
-        put( "\u3066", "\u30c6");
-        put( "\u3068", "\u30c8");
-        put( "\u3063", "\u30c3");
-        put( "\u3060", "\u30c0");
-        put( "\u3062", "\u30c2");
-        put( "\u3065", "\u30c5");
-        put( "\u3067", "\u30c7");
-        put( "\u3069", "\u30c9");
-        put( "\u306a", "\u30ca");
-        put( "\u306b", "\u30cb");
-        put( "\u306c", "\u30cc");
-        put( "\u306d", "\u30cd");
-        put( "\u306e", "\u30ce");
-        put( "\u306f", "\u30cf");
-        put( "\u3072", "\u30d2");
-        put( "\u3075", "\u30d5");
-        put( "\u3078", "\u30d8");
-        put( "\u307b", "\u30db");
-        put( "\u3070", "\u30d0");
-        put( "\u3073", "\u30d3");
-        put( "\u3076", "\u30d6");
-        put( "\u3079", "\u30d9");
-        put( "\u307c", "\u30dc");
-        put( "\u3071", "\u30d1");
-        put( "\u3074", "\u30d4");
-        put( "\u3077", "\u30d7");
-        put( "\u307a", "\u30da");
-        put( "\u307d", "\u30dd");
-        put( "\u307e", "\u30de");
-        put( "\u307f", "\u30df");
-        put( "\u3080", "\u30e0");
-        put( "\u3081", "\u30e1");
-        put( "\u3082", "\u30e2");
-        put( "\u3084", "\u30e4");
-        put( "\u3086", "\u30e6");
-        put( "\u3088", "\u30e8");
-        put( "\u3083", "\u30e3");
-        put( "\u3085", "\u30e5");
-        put( "\u3087", "\u30e7");
-        put( "\u3089", "\u30e9");
-        put( "\u308a", "\u30ea");
-        put( "\u308b", "\u30eb");
-        put( "\u308c", "\u30ec");
-        put( "\u308d", "\u30ed");
-        put( "\u308f", "\u30ef");
-        put( "\u3092", "\u30f2");
-        put( "\u3093", "\u30f3");
-        put( "\u308e", "\u30ee");
-        put( "\u30fc", "\u30fc");
-    }};
+    private static final WnnCharTable mFullKatakanaMap = new WnnCharTable(new String[][] {
+        {"\u3042", "\u30a2"},
+        {"\u3044", "\u30a4"},
+        {"\u3046", "\u30a6"},
+        {"\u3048", "\u30a8"},
+        {"\u304a", "\u30aa"},
+        {"\u3041", "\u30a1"},
+        {"\u3043", "\u30a3"},
+        {"\u3045", "\u30a5"},
+        {"\u3047", "\u30a7"},
+        {"\u3049", "\u30a9"},
+        {"\u30f4\u3041", "\u30f4\u30a1"},
+        {"\u30f4\u3043", "\u30f4\u30a3"},
+        {"\u30f4", "\u30f4"},
+        {"\u30f4\u3047", "\u30f4\u30a7"},
+        {"\u30f4\u3049", "\u30f4\u30a9"},
+        {"\u304b", "\u30ab"},
+        {"\u304d", "\u30ad"},
+        {"\u304f", "\u30af"},
+        {"\u3051", "\u30b1"},
+        {"\u3053", "\u30b3"},
+        {"\u304c", "\u30ac"},
+        {"\u304e", "\u30ae"},
+        {"\u3050", "\u30b0"},
+        {"\u3052", "\u30b2"},
+        {"\u3054", "\u30b4"},
+        {"\u3055", "\u30b5"},
+        {"\u3057", "\u30b7"},
+        {"\u3059", "\u30b9"},
+        {"\u305b", "\u30bb"},
+        {"\u305d", "\u30bd"},
+        {"\u3056", "\u30b6"},
+        {"\u3058", "\u30b8"},
+        {"\u305a", "\u30ba"},
+        {"\u305c", "\u30bc"},
+        {"\u305e", "\u30be"},
+        {"\u305f", "\u30bf"},
+        {"\u3061", "\u30c1"},
+        {"\u3064", "\u30c4"},
+        {"\u3066", "\u30c6"},
+        {"\u3068", "\u30c8"},
+        {"\u3063", "\u30c3"},
+        {"\u3060", "\u30c0"},
+        {"\u3062", "\u30c2"},
+        {"\u3065", "\u30c5"},
+        {"\u3067", "\u30c7"},
+        {"\u3069", "\u30c9"},
+        {"\u306a", "\u30ca"},
+        {"\u306b", "\u30cb"},
+        {"\u306c", "\u30cc"},
+        {"\u306d", "\u30cd"},
+        {"\u306e", "\u30ce"},
+        {"\u306f", "\u30cf"},
+        {"\u3072", "\u30d2"},
+        {"\u3075", "\u30d5"},
+        {"\u3078", "\u30d8"},
+        {"\u307b", "\u30db"},
+        {"\u3070", "\u30d0"},
+        {"\u3073", "\u30d3"},
+        {"\u3076", "\u30d6"},
+        {"\u3079", "\u30d9"},
+        {"\u307c", "\u30dc"},
+        {"\u3071", "\u30d1"},
+        {"\u3074", "\u30d4"},
+        {"\u3077", "\u30d7"},
+        {"\u307a", "\u30da"},
+        {"\u307d", "\u30dd"},
+        {"\u307e", "\u30de"},
+        {"\u307f", "\u30df"},
+        {"\u3080", "\u30e0"},
+        {"\u3081", "\u30e1"},
+        {"\u3082", "\u30e2"},
+        {"\u3084", "\u30e4"},
+        {"\u3086", "\u30e6"},
+        {"\u3088", "\u30e8"},
+        {"\u3083", "\u30e3"},
+        {"\u3085", "\u30e5"},
+        {"\u3087", "\u30e7"},
+        {"\u3089", "\u30e9"},
+        {"\u308a", "\u30ea"},
+        {"\u308b", "\u30eb"},
+        {"\u308c", "\u30ec"},
+        {"\u308d", "\u30ed"},
+        {"\u308f", "\u30ef"},
+        {"\u3092", "\u30f2"},
+        {"\u3093", "\u30f3"},
+        {"\u308e", "\u30ee"},
+        {"\u30fc", "\u30fc"},
+    });
 
     /** Conversion rule for half-width alphabet */
-    private static final HashMap<String,String> mHalfAlphabetMap = new HashMap<String,String>() {{
-        put( "\u3042", ".");
-        put( "\u3044", "@");
-        put( "\u3046", "-");
-        put( "\u3048", "_");
-        put( "\u304a", "/");
-        put( "\u3041", ":");
-        put( "\u3043", "~");
-        put( "\u304b", "A");
-        put( "\u304d", "B");
-        put( "\u304f", "C");
-        put( "\u3055", "D");
-        put( "\u3057", "E");
-        put( "\u3059", "F");
-        put( "\u305f", "G");
-        put( "\u3061", "H");
-        put( "\u3064", "I");
-        put( "\u306a", "J");
-        put( "\u306b", "K");
-        put( "\u306c", "L");
-        put( "\u306f", "M");
-        put( "\u3072", "N");
-        put( "\u3075", "O");
-        put( "\u307e", "P");
-        put( "\u307f", "Q");
-        put( "\u3080", "R");
-        put( "\u3081", "S");
-        put( "\u3084", "T");
-        put( "\u3086", "U");
-        put( "\u3088", "V");
-        put( "\u3089", "W");
-        put( "\u308a", "X");
-        put( "\u308b", "Y");
-        put( "\u308c", "Z");
-        put( "\u308f", "-");
-    }};
+    private static final WnnCharTable mHalfAlphabetMap = new WnnCharTable(new String[][] {
+        {"\u3042", "."},
+        {"\u3044", "@"},
+        {"\u3046", "-"},
+        {"\u3048", "_"},
+        {"\u304a", "/"},
+        {"\u3041", ":"},
+        {"\u3043", "~"},
+        {"\u304b", "A"},
+        {"\u304d", "B"},
+        {"\u304f", "C"},
+        {"\u3055", "D"},
+        {"\u3057", "E"},
+        {"\u3059", "F"},
+        {"\u305f", "G"},
+        {"\u3061", "H"},
+        {"\u3064", "I"},
+        {"\u306a", "J"},
+        {"\u306b", "K"},
+        {"\u306c", "L"},
+        {"\u306f", "M"},
+        {"\u3072", "N"},
+        {"\u3075", "O"},
+        {"\u307e", "P"},
+        {"\u307f", "Q"},
+        {"\u3080", "R"},
+        {"\u3081", "S"},
+        {"\u3084", "T"},
+        {"\u3086", "U"},
+        {"\u3088", "V"},
+        {"\u3089", "W"},
+        {"\u308a", "X"},
+        {"\u308b", "Y"},
+        {"\u308c", "Z"},
+        {"\u308f", "-"},
+    });
 
     /** Conversion rule for full-width alphabet */
-    private static final HashMap<String,String> mFullAlphabetMap = new HashMap<String,String>() {{
-        put( "\u3042", "\uff0e");
-        put( "\u3044", "\uff20");
-        put( "\u3046", "\u30fc");
-        put( "\u3048", "\uff3f");
-        put( "\u304a", "\uff0f");
-        put( "\u3041", "\uff1a");
-        put( "\u3043", "\u301c");
-        put( "\u304b", "\uff21");
-        put( "\u304d", "\uff22" );
-        put( "\u304f", "\uff23");
-        put( "\u3055", "\uff24" );
-        put( "\u3057", "\uff25" );
-        put( "\u3059", "\uff26" );
-        put( "\u305f", "\uff27");
-        put( "\u3061", "\uff28" );
-        put( "\u3064", "\uff29");
-        put( "\u306a", "\uff2a");
-        put( "\u306b", "\uff2b" );
-        put( "\u306c", "\uff2c" );
-        put( "\u306f", "\uff2d");
-        put( "\u3072", "\uff2e");
-        put( "\u3075", "\uff2f");
-        put( "\u307e", "\uff30");
-        put( "\u307f", "\uff31");
-        put( "\u3080", "\uff32");
-        put( "\u3081", "\uff33" );
-        put( "\u3084", "\uff34" );
-        put( "\u3086", "\uff35" );
-        put( "\u3088", "\uff36" );
-        put( "\u3089", "\uff37" );
-        put( "\u308a", "\uff38" );
-        put( "\u308b", "\uff39");
-        put( "\u308c", "\uff3a" );
-        put( "\u308f", "\u30fc" );
-    }};
+    private static final WnnCharTable mFullAlphabetMap = new WnnCharTable(new String[][] {
+        {"\u3042", "\uff0e"},
+        {"\u3044", "\uff20"},
+        {"\u3046", "\u30fc"},
+        {"\u3048", "\uff3f"},
+        {"\u304a", "\uff0f"},
+        {"\u3041", "\uff1a"},
+        {"\u3043", "\u301c"},
+        {"\u304b", "\uff21"},
+        {"\u304d", "\uff22"},
+        {"\u304f", "\uff23"},
+        {"\u3055", "\uff24"},
+        {"\u3057", "\uff25"},
+        {"\u3059", "\uff26"},
+        {"\u305f", "\uff27"},
+        {"\u3061", "\uff28"},
+        {"\u3064", "\uff29"},
+        {"\u306a", "\uff2a"},
+        {"\u306b", "\uff2b"},
+        {"\u306c", "\uff2c"},
+        {"\u306f", "\uff2d"},
+        {"\u3072", "\uff2e"},
+        {"\u3075", "\uff2f"},
+        {"\u307e", "\uff30"},
+        {"\u307f", "\uff31"},
+        {"\u3080", "\uff32"},
+        {"\u3081", "\uff33"},
+        {"\u3084", "\uff34"},
+        {"\u3086", "\uff35"},
+        {"\u3088", "\uff36"},
+        {"\u3089", "\uff37"},
+        {"\u308a", "\uff38"},
+        {"\u308b", "\uff39"},
+        {"\u308c", "\uff3a"},
+        {"\u308f", "\u30fc"},
+    });
 
     /** Conversion rule for full-width alphabet (QWERTY mode) */
-    private static final HashMap<String,String> mFullAlphabetMapQwety = new HashMap<String,String>() {{
-        put( "a", "\uff41");
-        put( "b", "\uff42");
-        put( "c", "\uff43");
-        put( "d", "\uff44");
-        put( "e", "\uff45");
-        put( "f", "\uff46");
-        put( "g", "\uff47");
-        put( "h", "\uff48");
-        put( "i", "\uff49");
-        put( "j", "\uff4a");
-        put( "k", "\uff4b");
-        put( "l", "\uff4c");
-        put( "m", "\uff4d");
-        put( "n", "\uff4e");
-        put( "o", "\uff4f");
-        put( "p", "\uff50");
-        put( "q", "\uff51");
-        put( "r", "\uff52");
-        put( "s", "\uff53");
-        put( "t", "\uff54");
-        put( "u", "\uff55");
-        put( "v", "\uff56");
-        put( "w", "\uff57");
-        put( "x", "\uff58");
-        put( "y", "\uff59");
-        put( "z", "\uff5a");
-
-        put( "A", "\uff21");
-        put( "B", "\uff22");
-        put( "C", "\uff23");
-        put( "D", "\uff24");
-        put( "E", "\uff25");
-        put( "F", "\uff26");
-        put( "G", "\uff27");
-        put( "H", "\uff28");
-        put( "I", "\uff29");
-        put( "J", "\uff2a");
-        put( "K", "\uff2b");
-        put( "L", "\uff2c");
-        put( "M", "\uff2d");
-        put( "N", "\uff2e");
-        put( "O", "\uff2f");
-        put( "P", "\uff30");
-        put( "Q", "\uff31");
-        put( "R", "\uff32");
-        put( "S", "\uff33");
-        put( "T", "\uff34");
-        put( "U", "\uff35");
-        put( "V", "\uff36");
-        put( "W", "\uff37");
-        put( "X", "\uff38");
-        put( "Y", "\uff39");
-        put( "Z", "\uff3a");
-    }};
+    private static final WnnCharTable mFullAlphabetMapQwety = new WnnCharTable(new String[][] {
+        {"a", "\uff41"},
+        {"b", "\uff42"},
+        {"c", "\uff43"},
+        {"d", "\uff44"},
+        {"e", "\uff45"},
+        {"f", "\uff46"},
+        {"g", "\uff47"},
+        {"h", "\uff48"},
+        {"i", "\uff49"},
+        {"j", "\uff4a"},
+        {"k", "\uff4b"},
+        {"l", "\uff4c"},
+        {"m", "\uff4d"},
+        {"n", "\uff4e"},
+        {"o", "\uff4f"},
+        {"p", "\uff50"},
+        {"q", "\uff51"},
+        {"r", "\uff52"},
+        {"s", "\uff53"},
+        {"t", "\uff54"},
+        {"u", "\uff55"},
+        {"v", "\uff56"},
+        {"w", "\uff57"},
+        {"x", "\uff58"},
+        {"y", "\uff59"},
+        {"z", "\uff5a"},
+
+        {"A", "\uff21"},
+        {"B", "\uff22"},
+        {"C", "\uff23"},
+        {"D", "\uff24"},
+        {"E", "\uff25"},
+        {"F", "\uff26"},
+        {"G", "\uff27"},
+        {"H", "\uff28"},
+        {"I", "\uff29"},
+        {"J", "\uff2a"},
+        {"K", "\uff2b"},
+        {"L", "\uff2c"},
+        {"M", "\uff2d"},
+        {"N", "\uff2e"},
+        {"O", "\uff2f"},
+        {"P", "\uff30"},
+        {"Q", "\uff31"},
+        {"R", "\uff32"},
+        {"S", "\uff33"},
+        {"T", "\uff34"},
+        {"U", "\uff35"},
+        {"V", "\uff36"},
+        {"W", "\uff37"},
+        {"X", "\uff38"},
+        {"Y", "\uff39"},
+        {"Z", "\uff3a"},
+    });
+
+    /** Pseudo candidate: Hiragana (reading) */
+    private static final int PSEUDO_HIRAGANA             = 0;
+    /** Pseudo candidate: full-width Katakana */
+    private static final int PSEUDO_FULL_KATAKANA        = 1;
+    /** Pseudo candidate: half-width Katakana */
+    private static final int PSEUDO_HALF_KATAKANA        = 2;
+    /** Pseudo candidate: half-width numeric (12key) */
+    private static final int PSEUDO_HALF_NUMERIC         = 3;
+    /** Pseudo candidate: half-width numeric with commas (12key) */
+    private static final int PSEUDO_HALF_NUMERIC_COMMA   = 4;
+    /** Pseudo candidate: full-width numeric (12key) */
+    private static final int PSEUDO_FULL_NUMERIC         = 5;
+    /** Pseudo candidate: half-width alphabet in small letters (12key) */
+    private static final int PSEUDO_HALF_ALPHABET_LOWER  = 6;
+    /** Pseudo candidate: half-width alphabet capitalized (12key) */
+    private static final int PSEUDO_HALF_ALPHABET_CAPS   = 7;
+    /** Pseudo candidate: half-width alphabet in capital letters (12key) */
+    private static final int PSEUDO_HALF_ALPHABET        = 8;
+    /** Pseudo candidate: full-width alphabet in small letters (12key) */
+    private static final int PSEUDO_FULL_ALPHABET_LOWER  = 9;
+    /** Pseudo candidate: full-width alphabet capitalized (12key) */
+    private static final int PSEUDO_FULL_ALPHABET_CAPS   = 10;
+    /** Pseudo candidate: full-width alphabet in capital letters (12key) */
+    private static final int PSEUDO_FULL_ALPHABET        = 11;
+    /** Pseudo candidate: Romaji as it is input (Qwerty) */
+    private static final int PSEUDO_ROMAJI               = 12;
+    /** Pseudo candidate: half-width Romaji in small letters (Qwerty) */
+    private static final int PSEUDO_ROMAJI_LOWER         = 13;
+    /** Pseudo candidate: half-width Romaji capitalized (Qwerty) */
+    private static final int PSEUDO_ROMAJI_CAPS          = 14;
+    /** Pseudo candidate: half-width Romaji in capital letters (Qwerty) */
+    private static final int PSEUDO_ROMAJI_UPPER         = 15;
+    /** Pseudo candidate: full-width Romaji as it is input (Qwerty) */
+    private static final int PSEUDO_FULL_ROMAJI          = 16;
+    /** Pseudo candidate: full-width Romaji in small letters (Qwerty) */
+    private static final int PSEUDO_FULL_ROMAJI_LOWER    = 17;
+    /** Pseudo candidate: full-width Romaji capitalized (Qwerty) */
+    private static final int PSEUDO_FULL_ROMAJI_CAPS     = 18;
+    /** Pseudo candidate: full-width Romaji in capital letters (Qwerty) */
+    private static final int PSEUDO_FULL_ROMAJI_UPPER    = 19;
+    /** End of the pseudo candidates */
+    private static final int PSEUDO_END                  = 20;
 
     /** Decimal format using comma */
     private static final DecimalFormat mFormat = new DecimalFormat("###,###");
@@ -478,6 +521,17 @@ public class KanaConverter {
     /** Work area for generating string */
     private StringBuffer mStringBuff;
 
+    /** The input string (Hiragana) of the pseudo candidates */
+    private String mPseudoHiragana = "";
+    /** The input string (Romaji) of the pseudo candidates */
+    private String mPseudoRomaji = "";
+    /** The last step of the pseudo candidates (exclusive) */
+    private int mPseudoEnd = PSEUDO_END;
+    /** The next step of the pseudo candidates */
+    private int mPseudoStep = PSEUDO_END;
+    /** The converted string shared by the steps of a group ({@code null} if failed) */
+    private String mPseudoString = null;
+
     /** part of speech (default) */
     private WnnPOS mPosDefault;
     /** part of speech (number) */
@@ -519,86 +573,166 @@ public class KanaConverter {
         List<WnnWord> list = mAddCandidateList;
 
         list.clear();
-        if (inputHiragana.length() == 0) {
-        	return list;
+        setPseudoCandidateInput(inputHiragana, inputRomaji, keyBoardMode);
+        WnnWord word;
+        while ((word = getNextPseudoCandidate()) != null) {
+            list.add(word);
         }
+        return list;
+    }
 
-        /* Create pseudo candidates for all keyboard type */
-        /* Hiragana(reading) / Full width katakana / Half width katakana */
-        list.add(new WnnWord(inputHiragana, inputHiragana));
-        if (createCandidateString(inputHiragana, mFullKatakanaMap, mStringBuff)) {
-            list.add(new WnnWord(mStringBuff.toString(), inputHiragana, mPosDefault));
+    /**
+     * Set the input string of the pseudo candidates.
+     * <br>
+     * The pseudo candidates are created one by one by {@link #getNextPseudoCandidate()},
+     * so the ones which are never shown are not created.
+     *
+     * @param inputHiragana     The input string (Hiragana)
+     * @param inputRomaji       The input string (Romaji)
+     * @param keyBoardMode      The mode of keyboard
+     */
+    public void setPseudoCandidateInput(String inputHiragana, String inputRomaji, int keyBoardMode) {
+        mPseudoHiragana = inputHiragana;
+        mPseudoRomaji = inputRomaji;
+        mPseudoString = null;
+        if (inputHiragana.length() == 0) {
+            mPseudoStep = PSEUDO_END;
+            mPseudoEnd  = PSEUDO_END;
+        } else if (keyBoardMode == OpenWnnEngineJAJP.KEYBOARD_QWERTY) {
+            /* Hiragana / Katakana, and then the Romaji */
+            mPseudoStep = PSEUDO_HIRAGANA;
+            mPseudoEnd  = PSEUDO_END;
+        } else {
+            /* Hiragana / Katakana, and then the numeric and the alphabet of 12key */
+            mPseudoStep = PSEUDO_HIRAGANA;
+            mPseudoEnd  = PSEUDO_ROMAJI;
         }
-        if (createCandidateString(inputHiragana, mHalfKatakanaMap, mStringBuff)) {
-            list.add(new WnnWord(mStringBuff.toString(), inputHiragana, mPosDefault));
+    }
+
+    /**
+     * Get the next pseudo candidate.
+     *
+     * @return      The candidate; {@code null} if there is no more candidate.
+     */
+    public WnnWord getNextPseudoCandidate() {
+        while (mPseudoStep < mPseudoEnd) {
+            int step = mPseudoStep++;
+            if (step == PSEUDO_HALF_KATAKANA && mPseudoEnd == PSEUDO_END) {
+                /* skip the candidates for 12key */
+                mPseudoStep = PSEUDO_ROMAJI;
+            }
+            WnnWord word = createPseudoCandidate(step);
+            if (word != null) {
+                return word;
+            }
         }
+        return null;
+    }
 
-        if (keyBoardMode == OpenWnnEngineJAJP.KEYBOARD_QWERTY) {
-            /* Create pseudo candidates for Qwerty keyboard */
-            createPseudoCandidateListForQwerty(inputHiragana, inputRomaji);
-        } else {
-            /* Create pseudo candidates for 12key */
-
-        	/* Create pseudo candidates for half width numeric */
-            if (createCandidateString(inputHiragana, mHalfNumericMap, mStringBuff)) {
-                String convHanSuuji = mStringBuff.toString();
-                String convNumComma = convertNumber(convHanSuuji);
-                list.add(new WnnWord(convHanSuuji, inputHiragana, mPosNumber));
-                if (convNumComma != null) {
-                    list.add(new WnnWord(convNumComma, inputHiragana, mPosNumber));
-                }
+    /**
+     * Create a pseudo candidate.
+     *
+     * @param step      The step of the pseudo candidates ({@code PSEUDO_*})
+     * @return          The candidate; {@code null} if it cannot be created.
+     */
+    private WnnWord createPseudoCandidate(int step) {
+        String hiragana = mPseudoHiragana;
+        String str;
+
+        switch (step) {
+        case PSEUDO_HIRAGANA:
+            return new WnnWord(hiragana, hiragana);
+
+        case PSEUDO_FULL_KATAKANA:
+            str = createCandidateString(hiragana, mFullKatakanaMap);
+            return (str == null) ? null : new WnnWord(str, hiragana, mPosDefault);
+
+        case PSEUDO_HALF_KATAKANA:
+            str = createCandidateString(hiragana, mHalfKatakanaMap);
+            return (str == null) ? null : new WnnWord(str, hiragana, mPosDefault);
+
+        case PSEUDO_HALF_NUMERIC:
+            mPseudoString = createCandidateString(hiragana, mHalfNumericMap);
+            return (mPseudoString == null) ? null : new WnnWord(mPseudoString, hiragana, mPosNumber);
+
+        case PSEUDO_HALF_NUMERIC_COMMA:
+            if (mPseudoString == null || (str = convertNumber(mPseudoString)) == null) {
+                return null;
             }
+            return new WnnWord(str, hiragana, mPosNumber);
+
+        case PSEUDO_FULL_NUMERIC:
+            str = createCandidateString(hiragana, mFullNumericMap);
+            return (str == null) ? null : new WnnWord(str, hiragana, mPosNumber);
 
-            /* Create pseudo candidates for full width numeric */
-            if (createCandidateString(inputHiragana, mFullNumericMap, mStringBuff)) {
-                list.add(new WnnWord(mStringBuff.toString(), inputHiragana, mPosNumber));
+        case PSEUDO_HALF_ALPHABET_LOWER:
+            mPseudoString = createCandidateString(hiragana, mHalfAlphabetMap);
+            if (mPseudoString == null) {
+                return null;
             }
+            return new WnnWord(mPseudoString.toLowerCase(), hiragana, mPosSymbol);
 
-            /* Create pseudo candidates for half width alphabet */
-            if (createCandidateString(inputHiragana, mHalfAlphabetMap, mStringBuff)) {
-                String convHanEiji = mStringBuff.toString();
-                String convHanEijiLower = convHanEiji.toLowerCase();
-                list.add(new WnnWord(convHanEijiLower, inputHiragana, mPosSymbol));
-                list.add(new WnnWord(convertCaps(convHanEijiLower), inputHiragana, mPosSymbol));
-                list.add(new WnnWord(convHanEiji, inputHiragana, mPosSymbol));
+        case PSEUDO_HALF_ALPHABET_CAPS:
+            if (mPseudoString == null) {
+                return null;
             }
+            return new WnnWord(convertCaps(mPseudoString.toLowerCase()), hiragana, mPosSymbol);
 
-            /* Create pseudo candidates for full width alphabet */
-            if (createCandidateString(inputHiragana, mFullAlphabetMap, mStringBuff)) {
-                String convZenEiji = mStringBuff.toString();
-                String convZenEijiLower = convZenEiji.toLowerCase(Locale.JAPAN);
-                list.add(new WnnWord(convZenEijiLower, inputHiragana, mPosSymbol));
-                list.add(new WnnWord(convertCaps(convZenEijiLower), inputHiragana, mPosSymbol));
-                list.add(new WnnWord(convZenEiji, inputHiragana, mPosSymbol));
+        case PSEUDO_HALF_ALPHABET:
+            return (mPseudoString == null) ? null : new WnnWord(mPseudoString, hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ALPHABET_LOWER:
+            mPseudoString = createCandidateString(hiragana, mFullAlphabetMap);
+            if (mPseudoString == null) {
+                return null;
             }
-        }
-        return list;
-    }
+            return new WnnWord(mPseudoString.toLowerCase(Locale.JAPAN), hiragana, mPosSymbol);
 
-    /**
-     * Create the pseudo candidate list for Qwerty keyboard
-     * <br>
-     * @param inputHiragana     The input string (Hiragana)
-     * @param inputRomaji       The input string (Romaji)
-     */
-    private void createPseudoCandidateListForQwerty(String inputHiragana, String inputRomaji) {
-        List<WnnWord> list = mAddCandidateList;
+        case PSEUDO_FULL_ALPHABET_CAPS:
+            if (mPseudoString == null) {
+                return null;
+            }
+            return new WnnWord(convertCaps(mPseudoString.toLowerCase(Locale.JAPAN)), hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ALPHABET:
+            return (mPseudoString == null) ? null : new WnnWord(mPseudoString, hiragana, mPosSymbol);
 
-        /* Create pseudo candidates for half width alphabet */
-        String convHanEijiLower = inputRomaji.toLowerCase();
-        list.add(new WnnWord(inputRomaji, inputHiragana, mPosDefault));
-        list.add(new WnnWord(convHanEijiLower, inputHiragana, mPosSymbol));
-        list.add(new WnnWord(convertCaps(convHanEijiLower), inputHiragana, mPosSymbol));
-        list.add(new WnnWord(inputRomaji.toUpperCase(), inputHiragana, mPosSymbol));
-
-        /* Create pseudo candidates for the full width alphabet */
-        if (createCandidateString(inputRomaji, mFullAlphabetMapQwety, mStringBuff)) {
-            String convZenEiji = mStringBuff.toString();
-            String convZenEijiLower = convZenEiji.toLowerCase(Locale.JAPAN);
-            list.add(new WnnWord(convZenEiji, inputHiragana, mPosSymbol));
-            list.add(new WnnWord(convZenEijiLower, inputHiragana, mPosSymbol));
-            list.add(new WnnWord(convertCaps(convZenEijiLower), inputHiragana, mPosSymbol));
-            list.add(new WnnWord(convZenEiji.toUpperCase(Locale.JAPAN), inputHiragana, mPosSymbol));
+        case PSEUDO_ROMAJI:
+            return new WnnWord(mPseudoRomaji, hiragana, mPosDefault);
+
+        case PSEUDO_ROMAJI_LOWER:
+            return new WnnWord(mPseudoRomaji.toLowerCase(), hiragana, mPosSymbol);
+
+        case PSEUDO_ROMAJI_CAPS:
+            return new WnnWord(convertCaps(mPseudoRomaji.toLowerCase()), hiragana, mPosSymbol);
+
+        case PSEUDO_ROMAJI_UPPER:
+            return new WnnWord(mPseudoRomaji.toUpperCase(), hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ROMAJI:
+            mPseudoString = createCandidateString(mPseudoRomaji, mFullAlphabetMapQwety);
+            return (mPseudoString == null) ? null : new WnnWord(mPseudoString, hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ROMAJI_LOWER:
+            if (mPseudoString == null) {
+                return null;
+            }
+            return new WnnWord(mPseudoString.toLowerCase(Locale.JAPAN), hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ROMAJI_CAPS:
+            if (mPseudoString == null) {
+                return null;
+            }
+            return new WnnWord(convertCaps(mPseudoString.toLowerCase(Locale.JAPAN)), hiragana, mPosSymbol);
+
+        case PSEUDO_FULL_ROMAJI_UPPER:
+            if (mPseudoString == null) {
+                return null;
+            }
+            return new WnnWord(mPseudoString.toUpperCase(Locale.JAPAN), hiragana, mPosSymbol);
+
+        default:
+            return null;
         }
     }
 
@@ -606,22 +740,21 @@ public class KanaConverter {
      * Create the candidate string
      * <br>
      * @param input     The input string
-     * @param map       The hash map
-     * @param outBuf    The output string
-     * @return          {@code true} if success
+     * @param map       The conversion table
+     * @return          The converted string; {@code null} if a character cannot be converted.
      */
-    private boolean createCandidateString(String input, HashMap<String,String> map, StringBuffer outBuf) {
-        if (outBuf.length() > 0) {
-            outBuf.delete(0, outBuf.length());
-        }
-        for (int index = 0; index < input.length(); index++) {
-            String convChar = map.get(input.substring(index, index + 1));
+    private String createCandidateString(String input, WnnCharTable map) {
+        StringBuffer outBuf = mStringBuff;
+        outBuf.setLength(0);
+        int length = input.length();
+        for (int index = 0; index < length; index++) {
+            String convChar = map.get(input.charAt(index));
             if (convChar == null) {
-                return false;
+                return null;
             }
             outBuf.append(convChar);
         }
-        return true;
+        return outBuf.toString();
     }
 
     /**
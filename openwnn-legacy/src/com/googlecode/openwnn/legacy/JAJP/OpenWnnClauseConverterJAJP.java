@@ -17,6 +17,7 @@
 package com.googlecode.openwnn.legacy.JAJP;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import com.googlecode.openwnn.legacy.*;
 
@@ -34,24 +35,116 @@ public class OpenWnnClauseConverterJAJP {
     /** Maximum limit length of input */
     public static final int MAX_INPUT_LENGTH = 50;
 
+    /** Default number of entries in a search cache */
+    public static final int DEFAULT_CACHE_SIZE = 512;
+    /** Estimated size of an entry in a search cache (in bytes) */
+    private static final int CACHE_BYTES_PER_ENTRY = 1024;
+
+    /** Ancillary patterns grouped by the left part of speech */
+    private static class AncillaryBuckets {
+        /** Left part of speech of the terminal which the patterns can precede */
+        int terminal;
+        /** Left parts of speech (sorted in ascending order; empty if no pattern can precede the terminal) */
+        int[] lefts;
+        /** Ancillary patterns of each left part of speech */
+        ArrayList<ArrayList<WnnWord>> patterns;
+    }
+
+    /** First letter of the readings of ancillary words */
+    private static final char FZK_HEAD_FIRST = '\u3041';
+    /** Last letter of the readings of ancillary words */
+    private static final char FZK_HEAD_LAST  = '\u3096';
+
+    /** Minimum length of input to search independent words in parallel */
+    private static final int PARALLEL_MIN_LENGTH = 4;
+
+    /** Task searching independent words of some prefixes of the input (for a worker thread) */
+    private class IndependentWordsTask implements Callable<Object> {
+        /** The dictionary owned by this task */
+        private WnnDictionary mDict;
+        /** Search keys ({@code null} if the key need not be searched) */
+        private String[] mKeys;
+        /** Where to store the results */
+        private ArrayList<ArrayList<WnnWord>> mResults;
+        /** Index of the first key to search */
+        private int mFirst;
+        /** Interval of the keys to search */
+        private int mStep;
+        /** Get all words or not */
+        private boolean mAll;
+
+        /**
+         * Constructor
+         *
+         * @param dict		The dictionary owned by this task
+         * @param keys		Search keys
+         * @param results	Where to store the results
+         * @param first		Index of the first key to search
+         * @param step		Interval of the keys to search
+         * @param all		Get all words or not
+         */
+        IndependentWordsTask(WnnDictionary dict, String[] keys, ArrayList<ArrayList<WnnWord>> results,
+                             int first, int step, boolean all) {
+            mDict    = dict;
+            mKeys    = keys;
+            mResults = results;
+            mFirst   = first;
+            mStep    = step;
+            mAll     = all;
+        }
+
+        /** @see java.util.concurrent.Callable#call */
+        public Object call() {
+            for (int i = mFirst; i < mKeys.length; i += mStep) {
+                if (mKeys[i] != null) {
+                    mResults.set(i, searchIndependentWords(mDict, mKeys[i], mAll));
+                }
+            }
+            return null;
+        }
+    }
+
     /** search cache for unique independent words (jiritsugo) */
-    private HashMap<String, ArrayList<WnnWord>> mIndepWordBag;
+    private WnnWordCache mIndepWordBag;
     /** search cache for all independent words (jiritsugo) */
-    private HashMap<String, ArrayList<WnnWord>> mAllIndepWordBag;
+    private WnnWordCache mAllIndepWordBag;
     /** search cache for ancillary words (fuzokugo) */
-    private HashMap<String, ArrayList<WnnWord>> mFzkPatterns;
+    private WnnWordCache mFzkPatterns;
+    /** ancillary words of each suffix grouped for each terminal (ordered by access) */
+    private LinkedHashMap<String, ArrayList<AncillaryBuckets>> mFzkBuckets;
+    /** maximum number of entries in {@code mFzkBuckets} */
+    private int mFzkBucketsLimit = DEFAULT_CACHE_SIZE;
+    /** ancillary words (fuzokugo) compiled from the dictionary */
+    private AncillaryWordTrie mFzkTrie;
+    /** the dictionary which {@code mFzkTrie} is compiled from */
+    private WnnDictionary mFzkTrieDictionary = null;
 
     /** connect matrix for generating a clause */
     private byte[][] mConnectMatrix;
+    /** left parts of speech which can follow each right part of speech (sorted in ascending order) */
+    private int[][] mConnectibleLeft;
 
     /** dictionaries */
     private WnnDictionary mDictionary;
 
+    /** dictionaries for the worker threads (one for each thread); {@code null} if not parallel */
+    private WnnDictionary[] mWorkerDictionaries = null;
+    /** worker threads of parallel conversion */
+    private ExecutorService mExecutor = null;
+
     /** candidates of conversion */
-    private LinkedList mConvertResult;
+    private WnnClauseList mConvertResult;
 
-    /** work area for consecutive clause conversion */
-    private WnnSentence[] mSentenceBuffer;
+    /** lattice for consecutive clause conversion */
+    private WnnClauseLattice mLattice;
+
+    /** beam width of the lattice for N-best conversion */
+    private int mBeamWidth = WnnClauseLattice.DEFAULT_BEAM_WIDTH;
+
+    /** input string of the lattice ({@code null} if the lattice is not valid) */
+    private String mLatticeInput = null;
+    /** end position where making clauses was stopped (for each start position; the start position if not stopped) */
+    private int[] mStopPosition;
 
     /** part of speech (default) */
     private WnnPOS mPosDefault;
@@ -72,12 +165,15 @@ public class OpenWnnClauseConverterJAJP {
      * Constructor
      */
     public OpenWnnClauseConverterJAJP() {
-        mIndepWordBag  = new HashMap<String, ArrayList<WnnWord>>();
-        mAllIndepWordBag  = new HashMap<String, ArrayList<WnnWord>>();
-        mFzkPatterns   = new HashMap();
-        mConvertResult = new LinkedList();
+        mIndepWordBag  = new WnnWordCache(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_SIZE * CACHE_BYTES_PER_ENTRY);
+        mAllIndepWordBag  = new WnnWordCache(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_SIZE * CACHE_BYTES_PER_ENTRY);
+        mFzkPatterns   = new WnnWordCache(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_SIZE * CACHE_BYTES_PER_ENTRY);
+        mFzkBuckets    = new LinkedHashMap<String, ArrayList<AncillaryBuckets>>(16, 0.75f, true);
+        mFzkTrie       = new AncillaryWordTrie();
+        mConvertResult = new WnnClauseList();
 
-        mSentenceBuffer = new WnnSentence[MAX_INPUT_LENGTH];
+        mLattice = new WnnClauseLattice(MAX_INPUT_LENGTH);
+        mStopPosition = new int[MAX_INPUT_LENGTH];
     }
 
     /**
@@ -88,6 +184,12 @@ public class OpenWnnClauseConverterJAJP {
     public void setDictionary(WnnDictionary dict) {
         /* get connect matrix */
         mConnectMatrix = dict.getConnectMatrix();
+        mConnectibleLeft = makeConnectibleLeft(mConnectMatrix);
+
+        /* compile the ancillary words (once for each dictionary) */
+        if (dict != mFzkTrieDictionary) {
+            compileAncillaryWords(dict);
+        }
 
         /* clear dictionary settings */
         mDictionary = dict;
@@ -98,6 +200,8 @@ public class OpenWnnClauseConverterJAJP {
         mIndepWordBag.clear();
         mAllIndepWordBag.clear();
         mFzkPatterns.clear();
+        mFzkBuckets.clear();
+        mLatticeInput = null;
         
         /* get part of speech tags */
         mPosDefault      = dict.getPOS(WnnDictionary.POS_TYPE_MEISI);
@@ -106,6 +210,109 @@ public class OpenWnnClauseConverterJAJP {
         mPosEndOfClause3 = dict.getPOS(WnnDictionary.POS_TYPE_V3);
     }
     
+    /**
+     * Set the beam width for N-best consecutive clause conversion.
+     *
+     * @param width     Number of clauses kept at each position of the lattice
+     */
+    public void setBeamWidth(int width) {
+        mBeamWidth = (width < 1) ? 1 : width;
+    }
+
+    /**
+     * Set the size of the search caches.
+     * <br>
+     * The least recently used entries are evicted if the caches exceed the size.
+     *
+     * @param size      Maximum number of entries in a search cache
+     */
+    public void setCacheSize(int size) {
+        if (size < MAX_INPUT_LENGTH) {
+            size = MAX_INPUT_LENGTH;
+        }
+        mIndepWordBag.setLimit(size, size * CACHE_BYTES_PER_ENTRY);
+        mAllIndepWordBag.setLimit(size, size * CACHE_BYTES_PER_ENTRY);
+        mFzkPatterns.setLimit(size, size * CACHE_BYTES_PER_ENTRY);
+        mFzkBucketsLimit = size;
+        trimAncillaryBuckets();
+    }
+
+    /**
+     * Set the dictionaries for parallel conversion.
+     * <br>
+     * One worker thread is started for each dictionary, and each thread searches
+     * the independent words of some split points of the input with its own dictionary.
+     * The dictionaries must have the same contents as the one given by {@link #setDictionary},
+     * and they must be in use (see {@link WnnDictionary#setInUseState}) while they are set.
+     * The conversion runs sequentially if {@code dicts} has less than two dictionaries.
+     *
+     * @param dicts		The dictionaries for the worker threads; {@code null} to stop the workers.
+     */
+    public void setWorkerDictionaries(WnnDictionary[] dicts) {
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+            mExecutor = null;
+        }
+        mWorkerDictionaries = null;
+
+        if (dicts == null || dicts.length < 2) {
+            return;
+        }
+        mWorkerDictionaries = dicts;
+        mExecutor = Executors.newFixedThreadPool(dicts.length, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "OpenWnnClauseConverterJAJP");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * Get the number of worker threads.
+     *
+     * @return          The number of worker threads; 0 if the conversion runs sequentially.
+     */
+    public int getWorkerCount() {
+        return (mWorkerDictionaries == null) ? 0 : mWorkerDictionaries.length;
+    }
+
+    /**
+     * Invalidate the search caches affected by a learned word.
+     * <br>
+     * The independent words whose reading is a part of {@code stroke} are searched again.
+     * The ancillary patterns are kept since the learning dictionary has no ancillary word.
+     *
+     * @param stroke    The reading of the learned word
+     */
+    public void invalidateCache(String stroke) {
+        if (stroke == null || stroke.length() == 0) {
+            return;
+        }
+        mIndepWordBag.removeSubstringsOf(stroke);
+        mAllIndepWordBag.removeSubstringsOf(stroke);
+        mLatticeInput = null;
+    }
+
+    /**
+     * Get the search cache of independent words.
+     *
+     * @param all       {@code true} if the cache for all words; {@code false} if the cache for unique part of speech words.
+     * @return          The search cache
+     */
+    public WnnWordCache getIndependentWordCache(boolean all) {
+        return (all) ? mAllIndepWordBag : mIndepWordBag;
+    }
+
+    /**
+     * Get the search cache of ancillary patterns.
+     *
+     * @return          The search cache
+     */
+    public WnnWordCache getAncillaryPatternCache() {
+        return mFzkPatterns;
+    }
+
     /**
      * Set the candidate filter
      * 
@@ -113,6 +320,7 @@ public class OpenWnnClauseConverterJAJP {
      */
     public void setFilter(CandidateFilter filter) {
     	mFilter = filter;
+    	mLatticeInput = null;
     }
 
     /**
@@ -150,81 +358,149 @@ public class OpenWnnClauseConverterJAJP {
      * @return			The result of consecutive clause conversion; {@code null} if fail.
      */
     public WnnSentence consecutiveClauseConvert(String input) {
-        LinkedList clauses = new LinkedList();
+        if (!makeLattice(input, 1)) {
+            return null;
+        }
+        return mLattice.getBestSentence();
+    }
+
+    /**
+     * Consecutive clause conversion (N-best).
+     * <br>
+     * The alternatives are made from the same clauses as the best result,
+     * so they cost little more than {@link #consecutiveClauseConvert(String)}.
+     *
+     * @param input		The input string
+     * @param count		Maximum number of results
+     * @return			The results of consecutive clause conversion (ordered by score); {@code null} if fail.
+     */
+    public ArrayList<WnnSentence> consecutiveClauseConvert(String input, int count) {
+        if (!makeLattice(input, mBeamWidth)) {
+            return null;
+        }
+        return mLattice.getSentences(count);
+    }
+
+    /**
+     * Make the lattice of clauses.
+     * <br>
+     * The lattice of the previous input is kept, and only the clauses
+     * after the common prefix of the inputs are made again.
+     *
+     * @param input		The input string
+     * @param beamWidth	Number of clauses kept at each position
+     * @return			{@code true} if success; {@code false} if fail.
+     */
+    private boolean makeLattice(String input, int beamWidth) {
+        /* do nothing if no dictionary is specified or the input is not valid */
+        if (mConnectMatrix == null || mDictionary == null
+            || input.length() == 0 || input.length() > MAX_INPUT_LENGTH) {
+            return false;
+        }
+
+        WnnClauseLattice lattice = mLattice;
+        String prev = mLatticeInput;
+        int valid = 0;
+        if (prev != null && lattice.getBeamWidth() == beamWidth) {
+            if (prev.equals(input)) {
+                /* the lattice can be used as it is */
+                return true;
+            }
 
-        /* clear the cache which is not matched */
-        for (int i = 0; i < input.length(); i++) {
-            mSentenceBuffer[i] = null;
+            /* get the common prefix of the inputs */
+            int len = Math.min(prev.length(), input.length());
+            while (valid < len && prev.charAt(valid) == input.charAt(valid)) {
+                valid++;
+            }
+            /* the clauses at the end of the input have another terminal part of speech */
+            if (valid == prev.length() || valid == input.length()) {
+                valid--;
+            }
         }
-        WnnSentence[] sentence = mSentenceBuffer;
+        mLatticeInput = null;
+        lattice.setBeamWidth(beamWidth);
+        lattice.truncate(valid, input.length());
+
+        WnnClauseList clauses = new WnnClauseList();
 
         /* consecutive clause conversion */
         for (int start = 0; start < input.length(); start++) {
-            if (start != 0 && sentence[start-1] == null) {
+            int startScore = lattice.getForwardScore(start);
+            if (startScore == WnnClauseLattice.NO_PATH) {
                 continue;
             }
 
-            /* limit the length of a clause */
-            int end = input.length();
-            if (end > start + 20) {
-                end = start + 20;
-            }
-            /* make clauses */
-            for ( ; end > start; end--) {
-                int idx = end - 1;
-
-                /* cutting a branch */
-                if (sentence[idx] != null) {
-                    if (start != 0) {
-                        if (sentence[idx].frequency > sentence[start-1].frequency + CLAUSE_COST + FREQ_LEARN) {
-                            /* there may be no way to be the best sequence from the 'start' */
-                            break;
-                        }
-                    } else {
-                        if (sentence[idx].frequency > CLAUSE_COST + FREQ_LEARN) {
-                            /* there may be no way to be the best sequence from the 'start' */
-                            break;
-                        }
-                    }
+            int stop;
+            if (start < valid) {
+                /* make the clauses which end after 'valid' (the others are in the lattice already) */
+                stop = makeClauses(clauses, input, start, valid, startScore);
+                if ((stop > valid) != (mStopPosition[start] > valid)) {
+                    /* the clauses which end at 'valid' or before are not the same as the previous input */
+                    lattice.removeClauses(start);
+                    valid = start;
+                    stop = makeClauses(clauses, input, start, start, startScore);
+                } else if (stop <= valid) {
+                    stop = mStopPosition[start];
                 }
+            } else {
+                stop = makeClauses(clauses, input, start, start, startScore);
+            }
+            mStopPosition[start] = stop;
+        }
+        mLatticeInput = input;
+        return true;
+    }
 
-                String key = input.substring(start, end);
-                clauses.clear();
-                WnnClause bestClause = null;
-                if (end == input.length()) {
-                    /* get the clause which can be the end of the sentence */
-                    singleClauseConvert(clauses, key, mPosEndOfClause1, false);
-                } else {
-                    /* get the clause which is not the end of the sentence */
-                    singleClauseConvert(clauses, key, mPosEndOfClause3, false);
-                }
-                if (clauses.isEmpty()) {
-                    bestClause = defaultClause(key);
-                } else {
-                    bestClause = (WnnClause)clauses.get(0);
-                }
+    /**
+     * Make the clauses which start at a position and add them to the lattice.
+     * <br>
+     * The clauses are made from the longest one, and it is stopped
+     * if the clause cannot be on the best sentence.
+     *
+     * @param clauses		Work area
+     * @param input			Input string
+     * @param start			Start position of the clauses
+     * @param min			The clauses which end at this position or before are not made
+     * @param startScore	The best score from the head of the input to {@code start}
+     * @return				End position where making clauses was stopped; {@code min} if not stopped.
+     */
+    private int makeClauses(WnnClauseList clauses, String input, int start, int min, int startScore) {
+        WnnClauseLattice lattice = mLattice;
 
-                /* make a sub-sentence */
-                WnnSentence ws;
-                if (start == 0) {
-                    ws = new WnnSentence(key, bestClause);
-                } else {
-                    ws = new WnnSentence(sentence[start-1], bestClause);
-                }
-                ws.frequency += CLAUSE_COST;
+        /* limit the length of a clause */
+        int end = input.length();
+        if (end > start + 20) {
+            end = start + 20;
+        }
+        for ( ; end > min; end--) {
+            /* cutting a branch */
+            int boundary = lattice.getBeamBoundary(end);
+            if (boundary != WnnClauseLattice.NO_PATH
+                && boundary > startScore + CLAUSE_COST + FREQ_LEARN) {
+                /* there may be no way to be the best sequence from the 'start' */
+                break;
+            }
 
-                /* update the best sub-sentence on the cache buffer */
-                if (sentence[idx] == null || (sentence[idx].frequency < ws.frequency)) {
-                    sentence[idx] = ws;
-                }
+            String key = input.substring(start, end);
+            clauses.clear();
+            WnnClause bestClause = null;
+            if (end == input.length()) {
+                /* get the clause which can be the end of the sentence */
+                singleClauseConvert(clauses, key, mPosEndOfClause1, false);
+            } else {
+                /* get the clause which is not the end of the sentence */
+                singleClauseConvert(clauses, key, mPosEndOfClause3, false);
+            }
+            if (clauses.isEmpty()) {
+                bestClause = defaultClause(key);
+            } else {
+                bestClause = clauses.get(0);
             }
-        }
 
-        /* return the result of the consecutive clause conversion */
-        if (sentence[input.length() - 1] != null) {
-            return sentence[input.length() - 1];
+            /* add to the lattice */
+            lattice.addClause(start, end, bestClause, bestClause.frequency + CLAUSE_COST);
         }
-        return null;
+        return end;
     }
 
     /**
@@ -254,7 +530,7 @@ public class OpenWnnClauseConverterJAJP {
      * @param all			Get all candidates or not
      * @return				{@code true} if success; {@code false} if fail.
      */
-    private boolean singleClauseConvert(LinkedList clauseList, String input, WnnPOS terminal, boolean all) {
+    private boolean singleClauseConvert(WnnClauseList clauseList, String input, WnnPOS terminal, boolean all) {
         boolean ret = false;
 
         /* get clauses without ancillary word */
@@ -269,19 +545,27 @@ public class OpenWnnClauseConverterJAJP {
             }
         }
 
+        /* search the stems of the split points in parallel */
+        ArrayList<ArrayList<WnnWord>> prefetched = null;
+        ArrayList<ArrayList<WnnWord>> fzkLists = null;
+        if (all && mExecutor != null && input.length() >= PARALLEL_MIN_LENGTH) {
+            fzkLists = newWordLists(input.length());
+            prefetched = searchIndependentWordsInParallel(input, fzkLists);
+        }
+
         /* get clauses with ancillary word */
         int max = CLAUSE_COST * 2;
         for (int split = 1; split < input.length(); split++) {
             /* get ancillary patterns */
-            String str = input.substring(split);
-            ArrayList<WnnWord> fzks = getAncillaryPattern(str);
+            String suffix = input.substring(split);
+            ArrayList<WnnWord> fzks = (fzkLists != null) ? fzkLists.get(split) : getAncillaryPattern(suffix);
             if (fzks == null || fzks.isEmpty()) {
                 continue;
             }
             
             /* get candidates of stem in a clause */
-            str = input.substring(0, split);
-            stems = getIndependentWords(str, all);
+            String str = input.substring(0, split);
+            stems = getIndependentWords(str, all, (prefetched == null) ? null : prefetched.get(split));
             if (stems == null || stems.isEmpty()) {
                 if (mDictionary.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, str) <= 0) {
                     break;
@@ -289,18 +573,20 @@ public class OpenWnnClauseConverterJAJP {
                     continue;
                 }
             }
-            /* make clauses */
+            /* group the ancillary patterns which can precede the terminal */
+            AncillaryBuckets buckets = getAncillaryBuckets(suffix, fzks, terminal);
+            if (buckets == null) {
+                continue;
+            }
+
+            /* make clauses (only of the pairs which can be connected) */
             Iterator<WnnWord> stemsi = stems.iterator();
             while (stemsi.hasNext()) {
                 WnnWord stem = stemsi.next();
                 if (all || stem.frequency > max) {
-                    Iterator<WnnWord> fzksi  = fzks.iterator();
-                    while (fzksi.hasNext()) {
-                        WnnWord fzk = fzksi.next();
-                        if (addClause(clauseList, input, stem, fzk, terminal, all)) {
-                            ret = true;
-                            max = stem.frequency;
-                        }
+                    if (addClauses(clauseList, input, stem, buckets, all)) {
+                        ret = true;
+                        max = stem.frequency;
                     }
                 }
             }
@@ -308,6 +594,196 @@ public class OpenWnnClauseConverterJAJP {
         return ret;
     }
 
+    /**
+     * Search the independent words of the prefixes of the input by the worker threads.
+     * <br>
+     * Only the prefixes which are not in the search cache and
+     * followed by some ancillary patterns are searched.
+     *
+     * @param input			Input string
+     * @param fzkLists		Where to store the ancillary patterns of each split point
+     * @return				The words of each split point ({@code null} if not searched);
+     * 						{@code null} if the workers fail.
+     */
+    private ArrayList<ArrayList<WnnWord>> searchIndependentWordsInParallel(String input,
+                                                                        ArrayList<ArrayList<WnnWord>> fzkLists) {
+        /* list the prefixes to search (the dictionary and the caches are used only in this thread) */
+        String[] keys = new String[input.length()];
+        int count = 0;
+        for (int split = 1; split < input.length(); split++) {
+            ArrayList<WnnWord> fzks = getAncillaryPattern(input.substring(split));
+            fzkLists.set(split, fzks);
+            if (fzks == null || fzks.isEmpty()) {
+                continue;
+            }
+            /* the cache is looked up (and counted) again when the prefix is converted */
+            String key = input.substring(0, split);
+            if (mAllIndepWordBag.peek(key) == null) {
+                keys[split] = key;
+                count++;
+            }
+        }
+        if (count < 2) {
+            return null;
+        }
+
+        /* search by the workers */
+        WnnDictionary[] dicts = mWorkerDictionaries;
+        ArrayList<ArrayList<WnnWord>> results = newWordLists(input.length());
+        ArrayList<IndependentWordsTask> tasks = new ArrayList<IndependentWordsTask>();
+        for (int i = 0; i < dicts.length; i++) {
+            tasks.add(new IndependentWordsTask(dicts[i], keys, results, i, dicts.length, true));
+        }
+        try {
+            List<Future<Object>> futures = mExecutor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+            }
+        } catch (Exception ex) {
+            /* search again in this thread */
+            return null;
+        }
+        return results;
+    }
+
+    /**
+     * Make a list of word lists which are not set yet.
+     *
+     * @param size			The size of the list
+     * @return				The list filled with {@code null}
+     */
+    private static ArrayList<ArrayList<WnnWord>> newWordLists(int size) {
+        ArrayList<ArrayList<WnnWord>> lists = new ArrayList<ArrayList<WnnWord>>(size);
+        for (int i = 0; i < size; i++) {
+            lists.add(null);
+        }
+        return lists;
+    }
+
+    /**
+     * Get the ancillary patterns of a suffix grouped by the left part of speech.
+     * <br>
+     * The groups are made once for each suffix and terminal,
+     * and kept as long as the search cache of ancillary patterns.
+     *
+     * @param suffix		Suffix of the input
+     * @param fzks			Ancillary patterns of the suffix
+     * @param terminal		Part of speech tag at the terminal
+     * @return				Groups of the patterns; {@code null} if no pattern can precede {@code terminal}.
+     */
+    private AncillaryBuckets getAncillaryBuckets(String suffix, ArrayList<WnnWord> fzks, WnnPOS terminal) {
+        ArrayList<AncillaryBuckets> list = mFzkBuckets.get(suffix);
+        if (list == null) {
+            list = new ArrayList<AncillaryBuckets>(3);
+            mFzkBuckets.put(suffix, list);
+            trimAncillaryBuckets();
+        }
+
+        AncillaryBuckets buckets = null;
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).terminal == terminal.left) {
+                buckets = list.get(i);
+                break;
+            }
+        }
+        if (buckets == null) {
+            buckets = bucketAncillaryPatterns(fzks, terminal);
+            list.add(buckets);
+        }
+        return (buckets.lefts.length == 0) ? null : buckets;
+    }
+
+    /**
+     * Evict the least recently used groups of ancillary patterns exceeding the limit.
+     */
+    private void trimAncillaryBuckets() {
+        Iterator<String> it = mFzkBuckets.keySet().iterator();
+        for (int n = mFzkBuckets.size(); n > mFzkBucketsLimit && it.hasNext(); n--) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Group the ancillary patterns by the left part of speech.
+     * <br>
+     * The patterns which cannot precede {@code terminal} are dropped.
+     *
+     * @param fzks			Ancillary patterns
+     * @param terminal		Part of speech tag at the terminal
+     * @return				Groups of the patterns (no group if no pattern remains)
+     */
+    private AncillaryBuckets bucketAncillaryPatterns(ArrayList<WnnWord> fzks, WnnPOS terminal) {
+        TreeMap<Integer, ArrayList<WnnWord>> map = new TreeMap<Integer, ArrayList<WnnWord>>();
+        for (int i = 0; i < fzks.size(); i++) {
+            WnnWord fzk = fzks.get(i);
+            if (!connectible(fzk.partOfSpeech.right, terminal.left)) {
+                continue;
+            }
+            Integer left = Integer.valueOf(fzk.partOfSpeech.left);
+            ArrayList<WnnWord> bucket = map.get(left);
+            if (bucket == null) {
+                bucket = new ArrayList<WnnWord>();
+                map.put(left, bucket);
+            }
+            bucket.add(fzk);
+        }
+        AncillaryBuckets buckets = new AncillaryBuckets();
+        buckets.terminal = terminal.left;
+        buckets.lefts = new int[map.size()];
+        buckets.patterns = new ArrayList<ArrayList<WnnWord>>(map.size());
+        int i = 0;
+        Iterator<Map.Entry<Integer, ArrayList<WnnWord>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, ArrayList<WnnWord>> e = it.next();
+            buckets.lefts[i] = e.getKey().intValue();
+            buckets.patterns.add(e.getValue());
+            i++;
+        }
+        return buckets;
+    }
+
+    /**
+     * Add the clauses of a stem and the ancillary patterns which can follow it.
+     *
+     * @param clauseList	Where to store the results
+     * @param input			Input string
+     * @param stem			Stem of the clause (a independent word)
+     * @param buckets		Ancillary patterns grouped by {@link #getAncillaryBuckets}
+     * @param all			Get all candidates or not
+     * @return				{@code true} if add a clause to the list; {@code false} if not.
+     */
+    private boolean addClauses(WnnClauseList clauseList, String input, WnnWord stem,
+                               AncillaryBuckets buckets, boolean all) {
+        int right = stem.partOfSpeech.right;
+        if (right < 0 || right >= mConnectibleLeft.length) {
+            return false;
+        }
+        int[] connectible = mConnectibleLeft[right];
+        int[] lefts = buckets.lefts;
+        boolean ret = false;
+
+        /* visit the common left parts of speech by merging the sorted lists */
+        int i = 0, j = 0;
+        while (i < lefts.length && j < connectible.length) {
+            if (lefts[i] < connectible[j]) {
+                i++;
+            } else if (lefts[i] > connectible[j]) {
+                j++;
+            } else {
+                ArrayList<WnnWord> fzks = buckets.patterns.get(i);
+                for (int k = 0; k < fzks.size(); k++) {
+                    if (addClause(clauseList, new WnnClause(input, stem, fzks.get(k)), all)) {
+                        ret = true;
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        return ret;
+    }
+
     /**
      * Add valid clause to the candidates list.
      *
@@ -319,7 +795,7 @@ public class OpenWnnClauseConverterJAJP {
      * @param all			Get all candidates or not
      * @return				{@code true} if add the clause to the list; {@code false} if not.
      */
-    private boolean addClause(LinkedList<WnnClause> clauseList, String input, WnnWord stem, WnnWord fzk,
+    private boolean addClause(WnnClauseList clauseList, String input, WnnWord stem, WnnWord fzk,
                               WnnPOS terminal, boolean all) {
         WnnClause clause = null;
         /* check if the part of speech is valid */
@@ -336,40 +812,34 @@ public class OpenWnnClauseConverterJAJP {
         if (clause == null) {
             return false;
         }
+        return addClause(clauseList, clause, all);
+    }
+
+    /**
+     * Add a clause to the candidates list.
+     *
+     * @param clauseList	Where to store the results
+     * @param clause		The clause (the parts of speech are checked already)
+     * @param all			Get all candidates or not
+     * @return				{@code true} if add the clause to the list; {@code false} if not.
+     */
+    private boolean addClause(WnnClauseList clauseList, WnnClause clause, boolean all) {
         if (mFilter != null && !mFilter.isAllowed(clause)) {
         	return false;
         }
 
         /* store to the list */
-        if (clauseList.isEmpty()) {
-            /* add if the list is empty */
-            clauseList.add(0, clause);
-            return true;
-        } else {
-            if (!all) {
-                /* reserve only the best clause */
-                WnnClause best = (WnnClause)clauseList.get(0);
-                if (best.frequency < clause.frequency) {
-                    clauseList.set(0, clause);
-                    return true;
-                }
-            } else {
-                /* reserve all clauses */
-                Iterator clauseListi = clauseList.iterator();
-                int index = 0;
-                while (clauseListi.hasNext()) {
-                    WnnClause clausei = (WnnClause)clauseListi.next();
-                    if (clausei.frequency < clause.frequency) {
-                        break;
-                    }
-                    index++;
-                }
-                clauseList.add(index, clause);
-                return true;
+        if (!all && !clauseList.isEmpty()) {
+            /* reserve only the best clause */
+            WnnClause best = clauseList.get(0);
+            if (best.frequency >= clause.frequency) {
+                return false;
             }
+            clauseList.clear();
         }
-
-        return false;
+        /* reserve all clauses (ordered by the list) */
+        clauseList.add(clause);
+        return true;
     }
 
     /**
@@ -389,6 +859,51 @@ public class OpenWnnClauseConverterJAJP {
         return false;
     }
 
+    /**
+     * Make the lists of left parts of speech which can follow each right part of speech.
+     *
+     * @param matrix	The connect matrix
+     * @return			The lists of left parts of speech (indexed by the right part of speech)
+     */
+    private static int[][] makeConnectibleLeft(byte[][] matrix) {
+        if (matrix == null) {
+            return new int[0][];
+        }
+
+        /* count the connectible pairs */
+        int rcount = 0;
+        for (int left = 0; left < matrix.length; left++) {
+            if (matrix[left] != null && matrix[left].length > rcount) {
+                rcount = matrix[left].length;
+            }
+        }
+        int[] count = new int[rcount];
+        for (int left = 0; left < matrix.length; left++) {
+            byte[] row = matrix[left];
+            for (int right = 0; row != null && right < row.length; right++) {
+                if (row[right] != 0) {
+                    count[right]++;
+                }
+            }
+        }
+
+        /* make the lists */
+        int[][] result = new int[rcount][];
+        for (int right = 0; right < rcount; right++) {
+            result[right] = new int[count[right]];
+            count[right] = 0;
+        }
+        for (int left = 0; left < matrix.length; left++) {
+            byte[] row = matrix[left];
+            for (int right = 0; row != null && right < row.length; right++) {
+                if (row[right] != 0) {
+                    result[right][count[right]++] = left;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Get all exact matched ancillary words(Fuzokugo) list.
      *
@@ -400,44 +915,57 @@ public class OpenWnnClauseConverterJAJP {
             return null;
         }
 
-        HashMap<String,ArrayList<WnnWord>> fzkPat = mFzkPatterns;
+        WnnWordCache fzkPat = mFzkPatterns;
         ArrayList<WnnWord> fzks = fzkPat.get(input);
         if (fzks != null) {
             return fzks;
         }
 
-        /* set dictionaries */
-        WnnDictionary dict = mDictionary;
-        dict.clearDictionary();
-        dict.clearApproxPattern();                    
-        dict.setDictionary(6, 400, 500);
+        /* use the compiled ancillary words if available */
+        ArrayList<ArrayList<ArrayList<WnnWord>>> matches = null;
+        if (mFzkTrie.size() > 0) {
+            matches = new ArrayList<ArrayList<ArrayList<WnnWord>>>(input.length() + 1);
+            for (int end = 0; end <= input.length(); end++) {
+                matches.add(null);
+            }
+        } else {
+            /* set dictionaries */
+            WnnDictionary dict = mDictionary;
+            dict.clearDictionary();
+            dict.clearApproxPattern();                    
+            dict.setDictionary(6, 400, 500);
+        }
+
+        /* patterns of each suffix (keep them while concatenating even if evicted from the cache) */
+        ArrayList<ArrayList<WnnWord>> suffixFzks = newWordLists(input.length());
 
         for (int start = input.length() - 1; start >= 0; start--) {
             String key = input.substring(start);
 
             fzks = fzkPat.get(key);
             if (fzks != null) {
+                suffixFzks.set(start, fzks);
                 continue;
             }
 
             fzks = new ArrayList<WnnWord>();
-            mFzkPatterns.put(key, fzks);
+            suffixFzks.set(start, fzks);
 
             /* search ancillary words */
-            dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, key);
-            WnnWord word;
-            while ((word = dict.getNextWord()) != null) {
-                fzks.add(word);
+            ArrayList<WnnWord> words = searchAncillaryWords(input, start, input.length(), matches);
+            if (words != null) {
+                fzks.addAll(words);
             }
 
             /* concatenate sequence of ancillary words */
             for (int end = input.length() - 1; end > start; end--) {
-                ArrayList<WnnWord> followFzks = fzkPat.get(input.substring(end));
+                ArrayList<WnnWord> followFzks = suffixFzks.get(end);
                 if (followFzks == null ||  followFzks.isEmpty()) {
                     continue;
                 }
-                dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input.substring(start, end));
-                while ((word = dict.getNextWord()) != null) {
+                words = searchAncillaryWords(input, start, end, matches);
+                for (int i = 0; words != null && i < words.size(); i++) {
+                    WnnWord word = words.get(i);
                     Iterator<WnnWord> followFzksi = followFzks.iterator();
                     while (followFzksi.hasNext()) {
                         WnnWord follow = followFzksi.next();
@@ -447,10 +975,72 @@ public class OpenWnnClauseConverterJAJP {
                     }
                 }
             }
+            fzkPat.put(key, fzks);
         }
         return fzks;
     }
 
+    /**
+     * Get the ancillary words which match a part of the input exactly.
+     *
+     * @param input		Input string
+     * @param start		Start position of the part
+     * @param end		End position of the part
+     * @param matches	Results of the compiled ancillary words (indexed by end and start position);
+     * 					{@code null} to search the dictionary.
+     * @return			List of ancillary words; {@code null} if no word matches.
+     */
+    private ArrayList<WnnWord> searchAncillaryWords(String input, int start, int end,
+                                                    ArrayList<ArrayList<ArrayList<WnnWord>>> matches) {
+        if (matches != null) {
+            /* all the words which end at 'end' are found by a backward walk */
+            if (matches.get(end) == null) {
+                matches.set(end, mFzkTrie.matchBackward(input, end));
+            }
+            return matches.get(end).get(start);
+        }
+
+        WnnDictionary dict = mDictionary;
+        if (dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input.substring(start, end)) <= 0) {
+            return null;
+        }
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+        WnnWord word;
+        while ((word = dict.getNextWord()) != null) {
+            words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Compile the ancillary words (Fuzokugo) of the dictionary.
+     * <br>
+     * All the words of the ancillary word dictionary are read by a prefix search
+     * for each Hiragana letter, and stored into the reversed trie.
+     * The dictionary is searched at every conversion if no word is read.
+     *
+     * @param dict		The dictionary
+     */
+    private void compileAncillaryWords(WnnDictionary dict) {
+        AncillaryWordTrie trie = mFzkTrie;
+        trie.clear();
+
+        dict.clearDictionary();
+        dict.clearApproxPattern();
+        dict.setDictionary(6, 400, 500);
+        for (char c = FZK_HEAD_FIRST; c <= FZK_HEAD_LAST; c++) {
+            if (dict.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, String.valueOf(c)) <= 0) {
+                continue;
+            }
+            WnnWord word;
+            while ((word = dict.getNextWord()) != null) {
+                trie.add(word);
+            }
+        }
+        dict.clearDictionary();
+        mFzkTrieDictionary = dict;
+    }
+
     /**
      * Get all exact matched independent words(Jiritsugo) list.
      *
@@ -459,6 +1049,18 @@ public class OpenWnnClauseConverterJAJP {
      * @return			List of words; {@code null} if {@code input.length() == 0}.
      */
     private ArrayList<WnnWord> getIndependentWords(String input, boolean all) {
+        return getIndependentWords(input, all, null);
+    }
+
+    /**
+     * Get all exact matched independent words(Jiritsugo) list.
+     *
+     * @param input    Search key
+     * @param all      {@code true} if list all words; {@code false} if list words which has an unique part of speech tag.
+     * @param searched The words searched by a worker thread (used if not cached); {@code null} to search the dictionary.
+     * @return			List of words; {@code null} if {@code input.length() == 0}.
+     */
+    private ArrayList<WnnWord> getIndependentWords(String input, boolean all, ArrayList<WnnWord> searched) {
         if (input.length() == 0) {
             return null;
         }
@@ -466,52 +1068,71 @@ public class OpenWnnClauseConverterJAJP {
         ArrayList<WnnWord> words = (all)? mAllIndepWordBag.get(input) : mIndepWordBag.get(input);
         
         if (words == null) {
-            /* set dictionaries */
-            WnnDictionary dict = mDictionary;
-            dict.clearDictionary();
-            dict.clearApproxPattern();                    
-            dict.setDictionary(4, 0, 10);   
-            dict.setDictionary(5, 400, 500);
-            dict.setDictionary(WnnDictionary.INDEX_USER_DICTIONARY, FREQ_USER, FREQ_USER); 
-            dict.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
+            words = (searched != null) ? searched : searchIndependentWords(mDictionary, input, all);
 
-            words = new ArrayList<WnnWord>();
-            WnnWord word;
+            /* store to the cache */
             if (all) {
-            	mAllIndepWordBag.put(input, words);
-                dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input);
-                /* store all words */
-                while ((word = dict.getNextWord()) != null) {
-                    if (input.equals(word.stroke)) {
+                mAllIndepWordBag.put(input, words);
+            } else {
+                mIndepWordBag.put(input, words);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Search the exact matched independent words(Jiritsugo) from the dictionary.
+     * <br>
+     * This method does not use the search caches, so it can be called from the worker threads.
+     *
+     * @param dict     The dictionary to search
+     * @param input    Search key
+     * @param all      {@code true} if list all words; {@code false} if list words which has an unique part of speech tag.
+     * @return			List of words
+     */
+    private ArrayList<WnnWord> searchIndependentWords(WnnDictionary dict, String input, boolean all) {
+        /* set dictionaries */
+        dict.clearDictionary();
+        dict.clearApproxPattern();                    
+        dict.setDictionary(4, 0, 10);   
+        dict.setDictionary(5, 400, 500);
+        dict.setDictionary(WnnDictionary.INDEX_USER_DICTIONARY, FREQ_USER, FREQ_USER); 
+        dict.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
+
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+        WnnWord word;
+        if (all) {
+            dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input);
+            /* store all words */
+            while ((word = dict.getNextWord()) != null) {
+                if (input.equals(word.stroke)) {
+                    words.add(word);
+                }
+            }
+        } else {
+            dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input);
+            /* store a word which has an unique part of speech tag */
+            while ((word = dict.getNextWord()) != null) {
+                if (input.equals(word.stroke)) {
+                    Iterator<WnnWord> list = words.iterator();
+                    boolean found = false;
+                    while (list.hasNext()) {
+                        WnnWord w = (WnnWord)list.next();
+                            if (w.partOfSpeech.right == word.partOfSpeech.right) {
+                                found = true;
+                                break;
+                            }
+                    }
+                    if (!found) {
                         words.add(word);
                     }
-                }
-            } else {
-            	mIndepWordBag.put(input, words);
-                dict.searchWord(WnnDictionary.SEARCH_EXACT, WnnDictionary.ORDER_BY_FREQUENCY, input);
-                /* store a word which has an unique part of speech tag */
-                while ((word = dict.getNextWord()) != null) {
-                    if (input.equals(word.stroke)) {
-                        Iterator<WnnWord> list = words.iterator();
-                        boolean found = false;
-                        while (list.hasNext()) {
-                            WnnWord w = (WnnWord)list.next();
-                                if (w.partOfSpeech.right == word.partOfSpeech.right) {
-                                    found = true;
-                                    break;
-                                }
-                        }
-                        if (!found) {
-                            words.add(word);
-                        }
-                        if (word.frequency < 400) {
-                            break;
-                        }
+                    if (word.frequency < 400) {
+                        break;
                     }
                 }
             }
-            addAutoGeneratedCandidates(input, words, all);
         }
+        addAutoGeneratedCandidates(input, words, all);
         return words;
     }
     
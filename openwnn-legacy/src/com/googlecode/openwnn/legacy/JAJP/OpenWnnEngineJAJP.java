@@ -19,18 +19,19 @@ package com.googlecode.openwnn.legacy.JAJP;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Arrays;
 
 import com.googlecode.openwnn.legacy.CandidateFilter;
 import com.googlecode.openwnn.legacy.ComposingText;
 import com.googlecode.openwnn.legacy.OpenWnnDictionaryImpl;
 import com.googlecode.openwnn.legacy.StrSegmentClause;
+import com.googlecode.openwnn.legacy.WnnCacheSnapshot;
 import com.googlecode.openwnn.legacy.WnnClause;
 import com.googlecode.openwnn.legacy.WnnDictionary;
 import com.googlecode.openwnn.legacy.WnnEngine;
 import com.googlecode.openwnn.legacy.WnnSentence;
 import com.googlecode.openwnn.legacy.WnnWord;
+import com.googlecode.openwnn.legacy.WnnWordCache;
 
 import android.content.SharedPreferences;
 
@@ -81,6 +82,18 @@ public class OpenWnnEngineJAJP implements WnnEngine {
     /** OpenWnn dictionary */
 	private WnnDictionary mDictionaryJP;
 
+    /** Path of the dictionary library */
+    private String mDictionaryLibPath;
+    /** Writable dictionary file name */
+    private String mWritableDictionaryName;
+    /** Dictionaries for the worker threads of the clause converter */
+    private WnnDictionary[] mWorkerDictionaries = null;
+
+    /** Maximum number of entries saved from each search cache */
+    private static final int SNAPSHOT_ENTRIES = 256;
+    /** Snapshot of the search caches of the clause converter ({@code null} if not used) */
+    private WnnCacheSnapshot mCacheSnapshot = null;
+
 	/** Word list */
     private ArrayList<WnnWord> mConvResult;
 
@@ -98,7 +111,7 @@ public class OpenWnnEngineJAJP implements WnnEngine {
 	
     /**
      * Where to get the next candidates from.<br>
-     * (0:prefix search from the dictionary, 1:single clause converter, 2:Kana converter)
+     * (0:prefix search from the dictionary, 1:single clause converter, 2,3:Kana converter)
      */
     private int mGetCandidateFrom;
     
@@ -130,13 +143,16 @@ public class OpenWnnEngineJAJP implements WnnEngine {
      */
     public OpenWnnEngineJAJP(String writableDictionaryName) {
         /* load Japanese dictionary library */
-        mDictionaryJP = new OpenWnnDictionaryImpl(
-        		"/data/data/com.googlecode.openwnn.legacy/lib/libWnnJpnDic.so",
-        		writableDictionaryName );
+        mDictionaryLibPath = "/data/data/com.googlecode.openwnn.legacy/lib/libWnnJpnDic.so";
+        mDictionaryJP = new OpenWnnDictionaryImpl(mDictionaryLibPath, writableDictionaryName);
         if (!mDictionaryJP.isActive()) {
-        	mDictionaryJP = new OpenWnnDictionaryImpl(
-        			"/system/lib/libWnnJpnDic.so",
-        			writableDictionaryName );
+        	mDictionaryLibPath = "/system/lib/libWnnJpnDic.so";
+        	mDictionaryJP = new OpenWnnDictionaryImpl(mDictionaryLibPath, writableDictionaryName);
+        }
+        mWritableDictionaryName = writableDictionaryName;
+        if (writableDictionaryName != null) {
+            mCacheSnapshot = new WnnCacheSnapshot(writableDictionaryName + ".cache",
+                                                  new String[] {mDictionaryLibPath, writableDictionaryName});
         }
 
         /* clear dictionary settings */
@@ -239,16 +255,20 @@ public class OpenWnnEngineJAJP implements WnnEngine {
         
         /* get candidates from Kana converter */
         if (mGetCandidateFrom == 2) {
-			List<WnnWord> addCandidateList
-			= mKanaConverter.createPseudoCandidateList(mInputHiragana, mInputRomaji, mKeyboardType);
-			
-			Iterator<WnnWord> it = addCandidateList.iterator();
-			while(it.hasNext()) {
-				addCandidate(it.next());
-			}
-
+            mKanaConverter.setPseudoCandidateInput(mInputHiragana, mInputRomaji, mKeyboardType);
             mGetCandidateFrom = 3;
         }
+        if (mGetCandidateFrom == 3) {
+            /* create the pseudo candidates only as many as requested */
+            while (index >= mConvResult.size()) {
+                if ((word = mKanaConverter.getNextPseudoCandidate()) == null) {
+                    /* end of candidates from Kana converter */
+                    mGetCandidateFrom = 4;
+                    break;
+                }
+                addCandidate(word);
+            }
+        }
 
         if (index >= mConvResult.size()) {
             return null;
@@ -365,15 +385,99 @@ public class OpenWnnEngineJAJP implements WnnEngine {
         clearPreviousWord();
         mClauseConverter.setDictionary(mDictionaryJP);
         mKanaConverter.setDictionary(mDictionaryJP);
+
+        /* warm up the search caches with the previous session's */
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.loadInBackground(3);
+        }
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#close */
-    public void close() {}
+    public void close() {
+        /* the engine is closed for every input field, so the saves are delayed and gathered */
+        saveCacheSnapshot(WnnCacheSnapshot.SAVE_DELAY);
+    }
+
+    /**
+     * Release the resources of the engine.
+     * <br>
+     * This is called when the IME is destroyed.  The worker threads and
+     * their dictionaries are kept while the engine is closed and opened again
+     * for the next input field, so they are released only here.
+     * The search caches are saved to the snapshot without delay.
+     */
+    public void destroy() {
+        saveCacheSnapshot(0);
+        releaseWorkerDictionaries();
+    }
+
+    /**
+     * Save the search caches to the snapshot in the background.
+     *
+     * @param delay		Delay of the save (in milliseconds)
+     */
+    private void saveCacheSnapshot(long delay) {
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.saveInBackground(getSearchCaches(), SNAPSHOT_ENTRIES, delay);
+        }
+    }
+
+    /**
+     * Get the search caches of the clause converter.
+     *
+     * @return			The search caches
+     */
+    private WnnWordCache[] getSearchCaches() {
+        return new WnnWordCache[] {
+            mClauseConverter.getIndependentWordCache(false),
+            mClauseConverter.getIndependentWordCache(true),
+            mClauseConverter.getAncillaryPatternCache()
+        };
+    }
+
+    /**
+     * Clear the search caches and the cache snapshot.
+     */
+    private void clearSearchCaches() {
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.delete();
+        }
+        mClauseConverter.setDictionary(mDictionaryJP);
+    }
+
+    /**
+     * Discard the cache snapshot which is not applied yet.
+     * <br>
+     * This is called when the search caches are invalidated.
+     */
+    private void discardCacheSnapshot() {
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.discard();
+        }
+    }
+
+    /**
+     * Add the entries of the cache snapshot to the search caches if it has been loaded.
+     */
+    private void applyCacheSnapshot() {
+        if (mCacheSnapshot == null) {
+            return;
+        }
+        WnnWordCache[] loaded = mCacheSnapshot.takeLoaded();
+        if (loaded == null) {
+            return;
+        }
+        WnnWordCache[] caches = getSearchCaches();
+        for (int i = 0; i < caches.length && i < loaded.length; i++) {
+            caches[i].merge(loaded[i]);
+        }
+    }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#predict */
     public int predict(ComposingText text, int minLen, int maxLen) {
         clearCandidates();
         if (text == null) { return 0; }
+        applyCacheSnapshot();
 
         /* set mInputHiragana and mInputRomaji */
         int len = setSearchKey(text, maxLen);
@@ -409,6 +513,7 @@ public class OpenWnnEngineJAJP implements WnnEngine {
     	if (text == null) {
 			return 0;
 		}
+        applyCacheSnapshot();
 
         mDictionaryJP.setInUseState( true );
 
@@ -488,6 +593,7 @@ public class OpenWnnEngineJAJP implements WnnEngine {
     /** @see com.googlecode.openwnn.legacy.WnnEngine#learn */
     public boolean learn(WnnWord word) {
         int ret = -1;
+        discardCacheSnapshot();
         if (word.partOfSpeech.right == 0) {
             word.partOfSpeech = mDictionaryJP.getPOS(WnnDictionary.POS_TYPE_MEISI);
         }
@@ -503,6 +609,7 @@ public class OpenWnnEngineJAJP implements WnnEngine {
                     ret = dict.learnWord(wd);
                 }
                 mPreviousWord = wd;
+                mClauseConverter.invalidateCache(wd.stroke);
                 if (ret != 0) {
                     break;
                 }
@@ -514,7 +621,7 @@ public class OpenWnnEngineJAJP implements WnnEngine {
                 ret = dict.learnWord(word);
             }
             mPreviousWord = word;
-            mClauseConverter.setDictionary(dict);
+            mClauseConverter.invalidateCache(word.stroke);
         }
 
         return (ret == 0);
@@ -525,6 +632,8 @@ public class OpenWnnEngineJAJP implements WnnEngine {
         mDictionaryJP.setInUseState( true );
         mDictionaryJP.addWordToUserDictionary(word);
         mDictionaryJP.setInUseState( false );
+        discardCacheSnapshot();
+        mClauseConverter.invalidateCache(word.stroke);
         return 0;
     }
 
@@ -533,11 +642,90 @@ public class OpenWnnEngineJAJP implements WnnEngine {
         mDictionaryJP.setInUseState( true );
         mDictionaryJP.removeWordFromUserDictionary(word);
         mDictionaryJP.setInUseState( false );
+        discardCacheSnapshot();
+        mClauseConverter.invalidateCache(word.stroke);
         return false;
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#setPreferences */
-    public void setPreferences(SharedPreferences pref) {}
+    public void setPreferences(SharedPreferences pref) {
+        /* set the size of the search caches for conversion */
+        int size;
+        try {
+            size = Integer.parseInt(pref.getString("opt_conversion_cache_size",
+                                                   Integer.toString(OpenWnnClauseConverterJAJP.DEFAULT_CACHE_SIZE)));
+        } catch (NumberFormatException ex) {
+            size = OpenWnnClauseConverterJAJP.DEFAULT_CACHE_SIZE;
+        }
+        mClauseConverter.setCacheSize(size);
+
+        /* set the number of threads for conversion (sequential by default) */
+        int threads;
+        try {
+            threads = Integer.parseInt(pref.getString("opt_conversion_threads", "1"));
+        } catch (NumberFormatException ex) {
+            threads = 1;
+        }
+        setConversionThreads(threads);
+    }
+
+    /**
+     * Set the number of threads for single clause conversion.
+     * <br>
+     * A dictionary is opened for each thread, and it is kept open until the number
+     * is changed or the engine is destroyed.  The number is limited to the number
+     * of processors, so the conversion runs sequentially if the number is less than
+     * two or the device has only one processor.
+     *
+     * @param count		The number of threads (0 or less: the number of processors)
+     */
+    private void setConversionThreads(int count) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (count <= 0 || count > processors) {
+            count = processors;
+        }
+        if (count < 2) {
+            count = 0;
+        }
+        int current = (mWorkerDictionaries == null) ? 0 : mWorkerDictionaries.length;
+        if (count == current) {
+            return;
+        }
+
+        releaseWorkerDictionaries();
+        if (count == 0) {
+            return;
+        }
+
+        /* open the dictionaries for the workers (kept in use while the workers run) */
+        WnnDictionary[] dicts = new WnnDictionary[count];
+        for (int i = 0; i < count; i++) {
+            dicts[i] = new OpenWnnDictionaryImpl(mDictionaryLibPath, mWritableDictionaryName);
+            if (!dicts[i].isActive()) {
+                /* release the opened dictionaries and run sequentially */
+                for (int j = 0; j < i; j++) {
+                    dicts[j].setInUseState(false);
+                }
+                return;
+            }
+            dicts[i].setInUseState(true);
+        }
+        mWorkerDictionaries = dicts;
+        mClauseConverter.setWorkerDictionaries(dicts);
+    }
+
+    /**
+     * Stop the worker threads and release their dictionaries.
+     */
+    private void releaseWorkerDictionaries() {
+        mClauseConverter.setWorkerDictionaries(null);
+        if (mWorkerDictionaries != null) {
+            for (int i = 0; i < mWorkerDictionaries.length; i++) {
+                mWorkerDictionaries[i].setInUseState(false);
+            }
+            mWorkerDictionaries = null;
+        }
+    }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#breakSequence */
     public void breakSequence()  {
@@ -566,12 +754,14 @@ public class OpenWnnEngineJAJP implements WnnEngine {
             mDictionaryJP.setInUseState( true );
             mDictionaryJP.clearLearnDictionary();
             mDictionaryJP.setInUseState( false );
+            clearSearchCaches();
             return true;
 
         case WnnEngine.DICTIONARY_TYPE_USER:
             mDictionaryJP.setInUseState( true );
             mDictionaryJP.clearUserDictionary();
             mDictionaryJP.setInUseState( false );
+            clearSearchCaches();
             return true;
         }
         return false;
@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.JAJP;
+
+import com.googlecode.openwnn.legacy.ComposingText;
+import com.googlecode.openwnn.legacy.StrSegment;
+
+/**
+ * The compiled Romaji-to-Kana table for Japanese IME.
+ * <br>
+ * The Romaji strings are stored in a trie in reverse order, so the segments
+ * before the cursor are matched from the last one without building the key strings.
+ * The Hiragana table of {@link Romkan} is the only definition; the full-width and
+ * half-width Katakana outputs are derived from it when the trie is built.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class RomkanTrie {
+    /** Output type (Hiragana) */
+    public static final int TYPE_HIRAGANA      = 0;
+    /** Output type (full-width Katakana) */
+    public static final int TYPE_FULL_KATAKANA = 1;
+    /** Output type (half-width Katakana) */
+    public static final int TYPE_HALF_KATAKANA = 2;
+    /** Number of the output types */
+    private static final int TYPE_COUNT = 3;
+
+    /** Maximum number of the segments matched */
+    private static final int MAX_SEGMENTS = 3;
+    /** The index of the root node */
+    private static final int ROOT = 0;
+
+    /** The first character of the Hiragana block for conversion */
+    private static final char HIRAGANA_FIRST = '\u3041';
+    /** The last character of the Hiragana block for conversion */
+    private static final char HIRAGANA_LAST  = '\u3094';
+    /** Difference between Hiragana and full-width Katakana */
+    private static final int KATAKANA_OFFSET = 0x60;
+    /** The symbols which are also used in full-width Katakana */
+    private static final String FULL_KATAKANA_SYMBOLS = "\u30fc\u3002\u3001\u30fb\uff1f";
+    /** The symbols which have half-width forms */
+    private static final String HALF_KATAKANA_SYMBOLS_FROM = "\u30fc\u3002\u3001\u30fb";
+    /** The half-width forms of {@code HALF_KATAKANA_SYMBOLS_FROM} */
+    private static final String HALF_KATAKANA_SYMBOLS_TO   = "\uff70\uff61\uff64\uff65";
+    /** Half-width Katakana of the Hiragana from {@code HIRAGANA_FIRST} to {@code HIRAGANA_LAST} */
+    private static final String[] HALF_KATAKANA = {
+        "\uff67", "\uff71", "\uff68", "\uff72", "\uff69", "\uff73",
+        "\uff6a", "\uff74", "\uff6b", "\uff75", "\uff76", "\uff76\uff9e",
+        "\uff77", "\uff77\uff9e", "\uff78", "\uff78\uff9e", "\uff79", "\uff79\uff9e",
+        "\uff7a", "\uff7a\uff9e", "\uff7b", "\uff7b\uff9e", "\uff7c", "\uff7c\uff9e",
+        "\uff7d", "\uff7d\uff9e", "\uff7e", "\uff7e\uff9e", "\uff7f", "\uff7f\uff9e",
+        "\uff80", "\uff80\uff9e", "\uff81", "\uff81\uff9e", "\uff6f", "\uff82",
+        "\uff82\uff9e", "\uff83", "\uff83\uff9e", "\uff84", "\uff84\uff9e", "\uff85",
+        "\uff86", "\uff87", "\uff88", "\uff89", "\uff8a", "\uff8a\uff9e",
+        "\uff8a\uff9f", "\uff8b", "\uff8b\uff9e", "\uff8b\uff9f", "\uff8c", "\uff8c\uff9e",
+        "\uff8c\uff9f", "\uff8d", "\uff8d\uff9e", "\uff8d\uff9f", "\uff8e", "\uff8e\uff9e",
+        "\uff8e\uff9f", "\uff8f", "\uff90", "\uff91", "\uff92", "\uff93",
+        "\uff6c", "\uff94", "\uff6d", "\uff95", "\uff6e", "\uff96",
+        "\uff97", "\uff98", "\uff99", "\uff9a", "\uff9b", "\uff9c",
+        "\uff9c", "\uff72", "\uff74", "\uff66", "\uff9d", "\uff73\uff9e"
+    };
+
+    /**
+     * The output of a node.
+     * <br>
+     * The strings used to replace the segments are prepared in advance.
+     */
+    private static class Output {
+        /** The whole string (when the output is one character) */
+        String whole;
+        /** All the characters except the last one */
+        String head;
+        /** The last character */
+        String tail;
+        /** {@code whole} in upper case */
+        String wholeUpper;
+        /** {@code head} in upper case */
+        String headUpper;
+        /** {@code tail} in upper case */
+        String tailUpper;
+
+        /**
+         * Constructor
+         *
+         * @param str       The output string
+         */
+        Output(String str) {
+            String upper = str.toUpperCase();
+            if (str.length() == 1) {
+                whole      = str;
+                wholeUpper = upper;
+            } else {
+                head      = str.substring(0, str.length() - 1);
+                tail      = str.substring(str.length() - 1);
+                headUpper = upper.substring(0, upper.length() - 1);
+                tailUpper = upper.substring(upper.length() - 1);
+            }
+        }
+    }
+
+    /** The shared instance built from the table of {@link Romkan} */
+    private static RomkanTrie mDefault = null;
+
+    /** Characters of the nodes */
+    private char[] mLabel;
+    /** The first child of the nodes (-1 if none) */
+    private int[] mFirstChild;
+    /** The next sibling of the nodes (-1 if none) */
+    private int[] mNextSibling;
+    /** The outputs of the nodes for each type ({@code null} if none) */
+    private Output[][] mOutput;
+    /** Number of the nodes */
+    private int mCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param table     The Romaji-to-Hiragana table ({{Romaji, Hiragana}, ...})
+     */
+    public RomkanTrie(String[][] table) {
+        int capacity = 1;
+        for (int i = 0; i < table.length; i++) {
+            capacity += table[i][0].length();
+        }
+        mLabel       = new char[capacity];
+        mFirstChild  = new int[capacity];
+        mNextSibling = new int[capacity];
+        mOutput      = new Output[TYPE_COUNT][capacity];
+        newNode('\0');
+
+        for (int n = 0; n < table.length; n++) {
+            String key = table[n][0].toLowerCase();
+            int node = ROOT;
+            for (int i = key.length() - 1; i >= 0; i--) {
+                int child = findChild(node, key.charAt(i));
+                if (child < 0) {
+                    child = newNode(key.charAt(i));
+                    mNextSibling[child] = mFirstChild[node];
+                    mFirstChild[node] = child;
+                }
+                node = child;
+            }
+
+            String hiragana = table[n][1];
+            mOutput[TYPE_HIRAGANA][node] = new Output(hiragana);
+            String katakana = toFullKatakana(hiragana);
+            if (katakana != null) {
+                mOutput[TYPE_FULL_KATAKANA][node] = new Output(katakana);
+            }
+            katakana = toHalfKatakana(hiragana);
+            if (katakana != null) {
+                mOutput[TYPE_HALF_KATAKANA][node] = new Output(katakana);
+            }
+        }
+    }
+
+    /**
+     * Get the shared instance built from the table of {@link Romkan}.
+     *
+     * @return          The instance
+     */
+    public static synchronized RomkanTrie getDefault() {
+        if (mDefault == null) {
+            mDefault = new RomkanTrie(Romkan.romkanTable);
+        }
+        return mDefault;
+    }
+
+    /**
+     * Convert the Romaji before the cursor of the layer 1.
+     * <br>
+     * The longest Romaji of up to three segments before the cursor is replaced.
+     * If the last letter is in upper case, the output is also in upper case.
+     *
+     * @param text      The input/output text
+     * @param type      The output type
+     * @return          {@code true} if the Romaji is converted; {@code false} if not.
+     */
+    public boolean convert(ComposingText text, int type) {
+        int cursor = text.getCursor(ComposingText.LAYER1);
+        if (cursor <= 0) {
+            return false;
+        }
+
+        Output[] outputs = mOutput[type];
+        Output match = null;
+        int start = 0;
+        StrSegment last = text.getStrSegment(ComposingText.LAYER1, cursor - 1);
+        boolean upper = false;
+        boolean first = true;
+        int node = ROOT;
+
+        /* walk the trie from the last segment */
+        search:
+        for (int n = 1; n <= MAX_SEGMENTS && n <= cursor; n++) {
+            String str = text.getStrSegment(ComposingText.LAYER1, cursor - n).string;
+            for (int i = str.length() - 1; i >= 0; i--) {
+                char c = str.charAt(i);
+                if (first) {
+                    upper = Character.isUpperCase(c);
+                    first = false;
+                }
+                node = findChild(node, Character.toLowerCase(c));
+                if (node < 0) {
+                    break search;
+                }
+            }
+            if (outputs[node] != null) {
+                match = outputs[node];
+                start = cursor - n;
+            }
+        }
+        if (match == null) {
+            return false;
+        }
+
+        StrSegment from = text.getStrSegment(ComposingText.LAYER1, start);
+        StrSegment[] out;
+        if (match.whole != null) {
+            out = new StrSegment[1];
+            out[0] = new StrSegment((upper ? match.wholeUpper : match.whole), from.from, last.to);
+        } else {
+            out = new StrSegment[2];
+            out[0] = new StrSegment((upper ? match.headUpper : match.head), from.from, last.to - 1);
+            out[1] = new StrSegment((upper ? match.tailUpper : match.tail), last.to, last.to);
+        }
+        text.replaceStrSegment(ComposingText.LAYER1, out, cursor - start);
+        return true;
+    }
+
+    /**
+     * Add a node.
+     *
+     * @param c         The character of the node
+     * @return          The index of the node
+     */
+    private int newNode(char c) {
+        int node = mCount++;
+        mLabel[node]       = c;
+        mFirstChild[node]  = -1;
+        mNextSibling[node] = -1;
+        return node;
+    }
+
+    /**
+     * Find the child of a node.
+     *
+     * @param node      The index of the node
+     * @param c         The character of the child
+     * @return          The index of the child; -1 if not found.
+     */
+    private int findChild(int node, char c) {
+        for (int child = mFirstChild[node]; child >= 0; child = mNextSibling[child]) {
+            if (mLabel[child] == c) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convert the output of Hiragana into full-width Katakana.
+     *
+     * @param hiragana  The output of Hiragana
+     * @return          The output of full-width Katakana; {@code null} if it has no Katakana form.
+     */
+    private static String toFullKatakana(String hiragana) {
+        StringBuffer buf = new StringBuffer(hiragana.length());
+        for (int i = 0; i < hiragana.length(); i++) {
+            char c = hiragana.charAt(i);
+            if (c >= HIRAGANA_FIRST && c <= HIRAGANA_LAST) {
+                buf.append((char)(c + KATAKANA_OFFSET));
+            } else if (isKatakana(c) || isAsciiLetter(c) || FULL_KATAKANA_SYMBOLS.indexOf(c) >= 0) {
+                buf.append(c);
+            } else {
+                return null;
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Convert the output of Hiragana into half-width Katakana.
+     *
+     * @param hiragana  The output of Hiragana
+     * @return          The output of half-width Katakana; {@code null} if it has no Katakana form.
+     */
+    private static String toHalfKatakana(String hiragana) {
+        StringBuffer buf = new StringBuffer(hiragana.length() * 2);
+        for (int i = 0; i < hiragana.length(); i++) {
+            char c = hiragana.charAt(i);
+            if (isKatakana(c)) {
+                c -= KATAKANA_OFFSET;
+            }
+            int symbol = HALF_KATAKANA_SYMBOLS_FROM.indexOf(c);
+            if (c >= HIRAGANA_FIRST && c <= HIRAGANA_LAST) {
+                buf.append(HALF_KATAKANA[c - HIRAGANA_FIRST]);
+            } else if (symbol >= 0) {
+                buf.append(HALF_KATAKANA_SYMBOLS_TO.charAt(symbol));
+            } else if (isAsciiLetter(c)) {
+                buf.append(c);
+            } else {
+                return null;
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Whether the character is a Katakana which has a Hiragana form (ex. "\u30f4" in the table).
+     *
+     * @param c         The character
+     * @return          {@code true} if a Katakana; {@code false} if not.
+     */
+    private static boolean isKatakana(char c) {
+        return (c >= HIRAGANA_FIRST + KATAKANA_OFFSET && c <= HIRAGANA_LAST + KATAKANA_OFFSET);
+    }
+
+    /**
+     * Whether the character is an ASCII letter.
+     *
+     * @param c         The character
+     * @return          {@code true} if an ASCII letter; {@code false} if not.
+     */
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -16,6 +16,10 @@
 
 package com.googlecode.openwnn.legacy;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
 import android.content.ContentValues;
 import android.database.DatabaseUtils;
 import android.database.SQLException;
@@ -91,6 +95,16 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
                   " from " + TABLE_NAME_DIC + " where %s = ? and %s = ? and %s order by " +
                              COLUMN_NAME_TYPE + " DESC, %s";
 
+    /** Query for the links within a key string */
+    protected static final String LINKED_WORDS_QUERY =
+        "select " + COLUMN_NAME_PREVIOUS_STROKE + "," +
+                    COLUMN_NAME_PREVIOUS_CANDIDATE + "," +
+                    COLUMN_NAME_STROKE + "," +
+                    COLUMN_NAME_CANDIDATE +
+         " from " + TABLE_NAME_DIC + " where " + COLUMN_NAME_TYPE + "=" + TYPE_NAME_LEARN +
+          " and " + COLUMN_NAME_PREVIOUS_STROKE + " is not null" +
+          " and ? like '%' || " + COLUMN_NAME_PREVIOUS_STROKE + " || " + COLUMN_NAME_STROKE + " || '%'";
+
     /** The max words of user dictionary */
     protected static final int MAX_WORDS_IN_USER_DICTIONARY     = 100;
     /** The max words of learning dictionary */
@@ -170,6 +184,25 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
     /** The string array used by query operation (for "selection") */
     protected String mFastQueryArgs[] = new String[ FAST_QUERY_LENGTH * (MAX_PATTERN_OF_APPROX+1) ];
 
+    /** The key string of the common prefix search ({@code null} if the other search) */
+    protected String mCommonPrefixKey = null;
+    /** The minimum length of the prefixes of the common prefix search */
+    protected int mCommonPrefixMinLength = 0;
+
+    /** The words of the key distance search merged with the user/learn dictionary ({@code null} if the other search) */
+    protected ArrayList<WnnWord> mKeyDistanceResult = null;
+    /** The index of the next word in {@code mKeyDistanceResult} */
+    protected int mKeyDistanceIndex = 0;
+    /** Comparator of the words in descending order of the frequency (the order of the equal words is kept) */
+    protected static final Comparator<WnnWord> FREQUENCY_COMPARATOR = new Comparator<WnnWord>() {
+            public int compare( WnnWord w1, WnnWord w2 ) {
+                return w2.frequency - w1.frequency;
+            }
+        };
+
+    /** The case filter of the search results */
+    protected int mCaseFilter = WnnDictionary.CASE_FILTER_NONE;
+
     /** The Frequency offset of user dictionary */
     protected int mFrequencyOffsetOfUserDictionary = -1;
     /** The Frequency offset of learn dictionary */
@@ -527,6 +560,12 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
      * @see com.googlecode.openwnn.legacy.WnnDictionary#searchWord
      */
     public int searchWord( int operation, int order, String keyString ) {
+        if( operation == WnnDictionary.SEARCH_COMMON_PREFIX ) {
+            return searchCommonPrefix( order, keyString, 1 );
+        }
+        mCommonPrefixKey = null;
+        mKeyDistanceResult = null;
+
         /* Unset the previous word information */
         OpenWnnDictionaryImplJni.clearResult( this.mWnnWork );
 
@@ -575,6 +614,8 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
         if( wnnWord == null || wnnWord.partOfSpeech == null ) {
             return -1;
         }
+        mCommonPrefixKey = null;
+        mKeyDistanceResult = null;
 
         /* Search to user/learn dictionary with link information */
         if( mDbDic != null && ( mFrequencyOffsetOfUserDictionary  >= 0 ||
@@ -613,6 +654,149 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
         }
     }
 
+    /**
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#searchCommonPrefix
+     */
+    public int searchCommonPrefix( int order, String keyString, int minLength ) {
+        /* Unset the previous word information */
+        OpenWnnDictionaryImplJni.clearResult( this.mWnnWork );
+
+        if( minLength < 1 ) {
+            minLength = 1;
+        }
+        mCommonPrefixKey       = keyString;
+        mCommonPrefixMinLength = minLength;
+        mKeyDistanceResult     = null;
+
+        /* Search to user/learn dictionary (the words are checked by getNextWord()) */
+        if( mDbDic != null && keyString.length() >= minLength &&
+            ( mFrequencyOffsetOfUserDictionary  >= 0 ||
+              mFrequencyOffsetOfLearnDictionary >= 0 ) ) {
+            try {
+                createQuery( keyString.substring( 0, minLength ), null, WnnDictionary.SEARCH_PREFIX, order );
+                if( mDbCursor != null ) {
+                    mDbCursor.moveToFirst();
+                }
+            } catch( SQLException e ) {
+                if( mDbCursor != null ) {
+                    mDbCursor.deactivate();
+                }
+                mCountCursor = 0;
+            }
+        } else {
+            mCountCursor = 0;
+        }
+
+        /* Search to fixed dictionary */
+        if( this.mWnnWork != 0 ) {
+            int ret = OpenWnnDictionaryImplJni.searchCommonPrefix( this.mWnnWork, order, keyString, minLength );
+            if (mCountCursor > 0) {
+                ret = 1;
+            }
+            return ret;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#searchWordByKeyDistance
+     */
+    public int searchWordByKeyDistance( String keyString, int[] x, int[] y, int maxCount ) {
+        mCommonPrefixKey = null;
+        mKeyDistanceResult = null;
+
+        /* Unset the previous word information */
+        OpenWnnDictionaryImplJni.clearResult( this.mWnnWork );
+
+        if( this.mWnnWork == 0 ) {
+            return -1;
+        }
+
+        /* Search to fixed dictionary (the best words are kept in the internal work area) */
+        int ret = OpenWnnDictionaryImplJni.searchWordByKeyDistance( this.mWnnWork, keyString, x, y, maxCount );
+
+        /* Search to user/learn dictionary */
+        if( mDbDic != null && keyString.length() > 0 && maxCount > 0 &&
+            ( mFrequencyOffsetOfUserDictionary  >= 0 ||
+              mFrequencyOffsetOfLearnDictionary >= 0 ) ) {
+            try {
+                createQuery( keyString, null, WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY );
+                if( mDbCursor != null ) {
+                    mDbCursor.moveToFirst();
+                }
+            } catch( SQLException e ) {
+                if( mDbCursor != null ) {
+                    mDbCursor.deactivate();
+                }
+                mCountCursor = 0;
+            }
+        } else {
+            mCountCursor = 0;
+        }
+        if( mCountCursor <= 0 ) {
+            return ret;
+        }
+
+        /* Score the words of the user/learn dictionary by the same penalty, and merge them into the best words */
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+        WnnWord word;
+        while( ( word = getNextUserWord( 0 ) ) != null ) {
+            int penalty = OpenWnnDictionaryImplJni.getKeyDistancePenalty( this.mWnnWork, keyString, word.stroke, x, y );
+            if( penalty < 0 ) {
+                continue;
+            }
+            word.frequency = Math.max( word.frequency - penalty, 0 );
+            words.add( word );
+        }
+        if( ret > 0 ) {
+            while( ( word = getNextWord( 0 ) ) != null ) {
+                words.add( word );
+            }
+        }
+        Collections.sort( words, FREQUENCY_COMPARATOR );
+        while( words.size() > maxCount ) {
+            words.remove( words.size() - 1 );
+        }
+
+        mKeyDistanceResult = words;
+        mKeyDistanceIndex  = 0;
+        return ( words.size() > 0 ) ? 1 : 0;
+    }
+
+    /**
+     * Check whether a word of the user/learn dictionary matches to the common prefix search.
+     *
+     * @param stroke    The key string of the word
+     * @return          {@code true} if the key string is a prefix of the search key; {@code false} if not.
+     */
+    protected boolean isCommonPrefix( String stroke ) {
+        String key = mCommonPrefixKey;
+        int len = stroke.length();
+        if( len < mCommonPrefixMinLength || len > key.length() ) {
+            return false;
+        }
+        /* the first characters are matched by the query (with the approximate patterns) */
+        return key.regionMatches( true, mCommonPrefixMinLength, stroke, mCommonPrefixMinLength,
+                                  len - mCommonPrefixMinLength );
+    }
+
+    /**
+     * Check whether a word of the user/learn dictionary matches to the case filter.
+     * <br>
+     * As the native library, only the ASCII characters are checked.
+     *
+     * @param candidate The candidate of the word
+     * @return          {@code true} if the word matches; {@code false} if not.
+     */
+    protected boolean isCaseMatched( String candidate ) {
+        if( mCaseFilter == WnnDictionary.CASE_FILTER_NONE || candidate == null || candidate.length( ) == 0 ) {
+            return true;
+        }
+        char c = candidate.charAt( 0 );
+        return ( c >= 0x80 || ( c >= 'a' && c <= 'z' ) );
+    }
+
     /**
      * @see com.googlecode.openwnn.legacy.WnnDictionary#getNextWord
      */
@@ -625,49 +809,21 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
      */
     public WnnWord getNextWord( int length ) {
         if( this.mWnnWork != 0 ) {
-            if( mDbDic != null && mDbCursor != null && mCountCursor > 0 ) {
-                /* If the user/learn dictionary is queried, get the result from the user/learn dictionary */
-                WnnWord result = new WnnWord( );
-                try {
-                    /* Skip results if that is not contained the type of search or length of stroke is not equal specified length */
-                    while( mCountCursor > 0 &&
-                           ( ( mFrequencyOffsetOfUserDictionary < 0  && mDbCursor.getInt( 4 ) == TYPE_NAME_USER      ) ||
-                             ( mFrequencyOffsetOfLearnDictionary < 0 && mDbCursor.getInt( 4 ) == TYPE_NAME_LEARN     ) ||
-                             ( length > 0                            && mDbCursor.getString( 0 ).length( ) != length ) ) ) {
-                        mDbCursor.moveToNext();
-                        mCountCursor--;
-                    }
-
-                    if( mCountCursor > 0 ) {
-                        /* Get the information of word */
-                        result.stroke               = mDbCursor.getString( 0 );
-                        result.candidate            = mDbCursor.getString( 1 );
-                        result.partOfSpeech.left    = mDbCursor.getInt( 2 );
-                        result.partOfSpeech.right   = mDbCursor.getInt( 3 );
-
-                        if( mDbCursor.getInt( 4 ) == TYPE_NAME_USER ) {
-                            result.frequency        = mFrequencyOffsetOfUserDictionary;
-                        } else {
-                            result.frequency        = mFrequencyOffsetOfLearnDictionary;
-                        }
-
-                        /* Move cursor to next result. If the next result is not exist, deactivate the cursor */
-                        mDbCursor.moveToNext();
-                        if( --mCountCursor <= 0 ) {
-                            mDbCursor.deactivate();
-                        }
-
+            if( mKeyDistanceResult != null ) {
+                /* Get the result from the merged words of the key distance search */
+                while( mKeyDistanceIndex < mKeyDistanceResult.size() ) {
+                    WnnWord result = mKeyDistanceResult.get( mKeyDistanceIndex++ );
+                    if( length <= 0 || result.stroke.length() == length ) {
                         return result;
-                    } else {
-                        /* if no result is found, terminate the searching of user/learn dictionary */
-                        mDbCursor.deactivate();
-                        result = null;
                     }
-                } catch( SQLException e ) {
-                    mDbCursor.deactivate();
-                    mCountCursor = 0;
-                    result = null;
                 }
+                return null;
+            }
+
+            /* If the user/learn dictionary is queried, get the result from the user/learn dictionary */
+            WnnWord word = getNextUserWord( length );
+            if( word != null ) {
+                return word;
             }
 
             /* Get the result from fixed dictionary */
@@ -694,6 +850,59 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
         }
     }
 
+    /**
+     * Get the next word of the user/learn dictionary queried.
+     *
+     * @param length    The length of the key string of the word (0 if any length)
+     * @return          The word; {@code null} if no more word is found.
+     */
+    protected WnnWord getNextUserWord( int length ) {
+        if( mDbDic != null && mDbCursor != null && mCountCursor > 0 ) {
+            WnnWord result = new WnnWord( );
+            try {
+                /* Skip results if that is not contained the type of search or length of stroke is not equal specified length */
+                while( mCountCursor > 0 &&
+                       ( ( mFrequencyOffsetOfUserDictionary < 0  && mDbCursor.getInt( 4 ) == TYPE_NAME_USER      ) ||
+                         ( mFrequencyOffsetOfLearnDictionary < 0 && mDbCursor.getInt( 4 ) == TYPE_NAME_LEARN     ) ||
+                         ( length > 0                            && mDbCursor.getString( 0 ).length( ) != length ) ||
+                         ( mCommonPrefixKey != null              && !isCommonPrefix( mDbCursor.getString( 0 ) ) ) ||
+                         !isCaseMatched( mDbCursor.getString( 1 ) ) ) ) {
+                    mDbCursor.moveToNext();
+                    mCountCursor--;
+                }
+
+                if( mCountCursor > 0 ) {
+                    /* Get the information of word */
+                    result.stroke               = mDbCursor.getString( 0 );
+                    result.candidate            = mDbCursor.getString( 1 );
+                    result.partOfSpeech.left    = mDbCursor.getInt( 2 );
+                    result.partOfSpeech.right   = mDbCursor.getInt( 3 );
+
+                    if( mDbCursor.getInt( 4 ) == TYPE_NAME_USER ) {
+                        result.frequency        = mFrequencyOffsetOfUserDictionary;
+                    } else {
+                        result.frequency        = mFrequencyOffsetOfLearnDictionary;
+                    }
+
+                    /* Move cursor to next result. If the next result is not exist, deactivate the cursor */
+                    mDbCursor.moveToNext();
+                    if( --mCountCursor <= 0 ) {
+                        mDbCursor.deactivate();
+                    }
+
+                    return result;
+                } else {
+                    /* if no result is found, terminate the searching of user/learn dictionary */
+                    mDbCursor.deactivate();
+                }
+            } catch( SQLException e ) {
+                mDbCursor.deactivate();
+                mCountCursor = 0;
+            }
+        }
+        return null;
+    }
+
     /**
      * @see com.googlecode.openwnn.legacy.WnnDictionary#getUserDictionaryWords
      */
@@ -737,6 +946,39 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
         return null;
     }
 
+    /**
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#getLinkedWords
+     */
+    public WnnWord[][] getLinkedWords( String keyString ) {
+        if( mDbDic == null ) {
+            return new WnnWord[ 0 ][];
+        }
+
+        SQLiteCursor cursor = null;
+        try {
+            /* The links within the key string (LIKE ignores the case) */
+            cursor = ( SQLiteCursor )mDbDic.rawQuery( LINKED_WORDS_QUERY, new String[] { keyString } );
+            int numOfLinks = cursor.getCount();
+            WnnWord[][] links = new WnnWord[ numOfLinks ][];
+
+            cursor.moveToFirst();
+            for( int i = 0 ; i < numOfLinks ; i++ ) {
+                links[ i ] = new WnnWord[] {
+                    new WnnWord( cursor.getString( 1 ), cursor.getString( 0 ) ),
+                    new WnnWord( cursor.getString( 3 ), cursor.getString( 2 ) ) };
+                cursor.moveToNext();
+            }
+            return links;
+        } catch( SQLException e ) {
+            /* An error occurs */
+            return null;
+        } finally {
+            if( cursor != null ) {
+                cursor.close( );
+            }
+        }
+    }
+
     /**
      * @see com.googlecode.openwnn.legacy.WnnDictionary#clearApproxPattern
      */
@@ -768,6 +1010,32 @@ public class OpenWnnDictionaryImpl implements WnnDictionary {
         }
     }
 
+    /**
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#setKeyLayout
+     */
+    public int setKeyLayout( String keys, int[] x, int[] y, int keyWidth ) {
+        if( this.mWnnWork != 0 ) {
+            return OpenWnnDictionaryImplJni.setKeyLayout( this.mWnnWork, keys, x, y, keyWidth );
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#setCaseFilter
+     */
+    public int setCaseFilter( int filter ) {
+        if( this.mWnnWork != 0 ) {
+            int ret = OpenWnnDictionaryImplJni.setCaseFilter( this.mWnnWork, filter );
+            if( ret == 0 ) {
+                mCaseFilter = filter;
+            }
+            return ret;
+        } else {
+            return -1;
+        }
+    }
+
     /**
      * @see com.googlecode.openwnn.legacy.WnnDictionary#getConnectMatrix
      */
@@ -60,6 +60,56 @@ public class OpenWnnDictionaryImplJni {
      * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
      */
     public static final int APPROX_PATTERN_JAJP_12KEY_NORMAL        = WnnDictionary.APPROX_PATTERN_JAJP_12KEY_NORMAL;
+    /**
+     * Constant about the approximate pattern (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_Z_ZH
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_Z_ZH            = WnnDictionary.APPROX_PATTERN_ZH_FUZZY_Z_ZH;
+    /**
+     * Constant about the approximate pattern (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_C_CH
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_C_CH            = WnnDictionary.APPROX_PATTERN_ZH_FUZZY_C_CH;
+    /**
+     * Constant about the approximate pattern (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_S_SH
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_S_SH            = WnnDictionary.APPROX_PATTERN_ZH_FUZZY_S_SH;
+    /**
+     * Constant about the approximate pattern (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_N_L
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_N_L             = WnnDictionary.APPROX_PATTERN_ZH_FUZZY_N_L;
+    /**
+     * Constant about the approximate pattern (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_NG
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setApproxPattern
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_NG              = WnnDictionary.APPROX_PATTERN_ZH_FUZZY_NG;
+
+    /**
+     * Constant about the case filter (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#CASE_FILTER_NONE
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setCaseFilter
+     */
+    public static final int CASE_FILTER_NONE                        = WnnDictionary.CASE_FILTER_NONE;
+    /**
+     * Constant about the case filter (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#CASE_FILTER_LOWER
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#setCaseFilter
+     */
+    public static final int CASE_FILTER_LOWER                       = WnnDictionary.CASE_FILTER_LOWER;
 
     /**
      * Constant about the search operation (for JNI native library)
@@ -82,6 +132,13 @@ public class OpenWnnDictionaryImplJni {
      * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#searchWord
      */
     public static final int SEARCH_LINK                            = WnnDictionary.SEARCH_LINK;
+    /**
+     * Constant about the search operation (for JNI native library)
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#SEARCH_COMMON_PREFIX
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#searchCommonPrefix
+     */
+    public static final int SEARCH_COMMON_PREFIX                   = WnnDictionary.SEARCH_COMMON_PREFIX;
 
     /**
      * Constant about the sort order (for JNI native library)
@@ -228,6 +285,80 @@ public class OpenWnnDictionaryImplJni {
      */
     public static final native int searchWord(long work, int operation, int order, String keyString );
 
+    /**
+     * Search words whose key string is a prefix of the specified key string.
+     * <br>
+     * The shortest prefix is searched once, and the words whose key string is a prefix
+     * of the key string are retrieved in the specified order by {@code getNextWord()}.
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#searchCommonPrefix
+     * @param work          The internal work area
+     * @param order         The sort order (see "Constant about the sort order")
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_FREQUENCY
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_KEY
+     * @param keyString     The key string
+     * @param minLength     The minimum length of the prefixes
+     * @return              0 if no result is found; 1 if a result is found; <0 if an error occur
+     */
+    public static final native int searchCommonPrefix(long work, int order, String keyString, int minLength );
+
+    /**
+     * Set the key layout for the search by the distance of the keys.
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#setKeyLayout
+     * @param work          The internal work area
+     * @param keys          The characters of the keys
+     * @param x             The X coordinates of the centers of the keys
+     * @param y             The Y coordinates of the centers of the keys
+     * @param keyWidth      The width of a key
+     * @return              0 if processing complete; <0 if an error occur
+     */
+    public static final native int setKeyLayout(long work, String keys, int[] x, int[] y, int keyWidth );
+
+    /**
+     * Search words by the distance of the keys.
+     * <br>
+     * Only the best {@code maxCount} words are kept in the internal work area,
+     * and they are retrieved in the order of the score by {@code getNextWord()}.
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#searchWordByKeyDistance
+     * @param work          The internal work area
+     * @param keyString     The key string
+     * @param x             The X coordinates of the typed points (can be null)
+     * @param y             The Y coordinates of the typed points (can be null)
+     * @param maxCount      The maximum number of the words
+     * @return              0 if no result is found; 1 if a result is found; <0 if an error occur
+     */
+    public static final native int searchWordByKeyDistance(long work, String keyString, int[] x, int[] y, int maxCount );
+
+    /**
+     * Get the penalty of the distance of the keys for a key string of a word.
+     * <br>
+     * The penalty is the same as the one {@code searchWordByKeyDistance()} subtracts
+     * from the frequency of a word of the fixed dictionary.
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#searchWordByKeyDistance
+     * @param work          The internal work area
+     * @param keyString     The key string
+     * @param stroke        The key string of the word
+     * @param x             The X coordinates of the typed points (can be null)
+     * @param y             The Y coordinates of the typed points (can be null)
+     * @return              The penalty (>=0); <0 if an error occur
+     */
+    public static final native int getKeyDistancePenalty(long work, String keyString, String stroke, int[] x, int[] y );
+
+    /**
+     * Set the case filter of the search results.
+     *
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#setCaseFilter
+     * @param work          The internal work area
+     * @param filter        The case filter
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#CASE_FILTER_NONE
+     * @see com.googlecode.openwnn.legacy.OpenWnnDictionaryImplJni#CASE_FILTER_LOWER
+     * @return              0 if processing complete; <0 if an error occur
+     */
+    public static final native int setCaseFilter(long work, int filter );
+
     /**
      * Retrieve a word information.
      * A word information is stored to the internal work area. To retrieve a detail information,
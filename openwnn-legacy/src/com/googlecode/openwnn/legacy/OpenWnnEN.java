@@ -108,6 +108,15 @@ public class OpenWnnEN extends OpenWnn {
     /** Tutorial */
     private TutorialEN mTutorial;
 
+    /** Maximum number of the touched points kept for the spell correction */
+    private static final int KEY_OFFSET_MAX = 50;
+    /** Offsets of the touched points of the composing text (X) */
+    private int[] mKeyOffsetX = new int[KEY_OFFSET_MAX];
+    /** Offsets of the touched points of the composing text (Y) */
+    private int[] mKeyOffsetY = new int[KEY_OFFSET_MAX];
+    /** Number of the touched points; -1 if they do not match the composing text */
+    private int mKeyOffsetCount = 0;
+
     /** Whether tutorial mode or not */
     private boolean mEnableTutorial;
 
@@ -199,6 +208,34 @@ public class OpenWnnEN extends OpenWnn {
         return mSelf;
     }
 
+    /**
+     * Add the touched point of the soft keyboard for the character to be appended.
+     * <br>
+     * The touched points are given to the engine only while they are recorded
+     * for all the characters of the composing text.
+     */
+    private void updateKeyOffsets() {
+        int size = mComposingText.size(1);
+        if (size == 0) {
+            mKeyOffsetCount = 0;
+        }
+
+        int[] offset = null;
+        if (mInputViewManager instanceof DefaultSoftKeyboardEN) {
+            offset = ((DefaultSoftKeyboardEN) mInputViewManager).getLastKeyOffset();
+        }
+        if (offset != null && mKeyOffsetCount == size && size < KEY_OFFSET_MAX
+            && mComposingText.getCursor(1) == size) {
+            mKeyOffsetX[mKeyOffsetCount] = offset[0];
+            mKeyOffsetY[mKeyOffsetCount] = offset[1];
+            mKeyOffsetCount++;
+            mConverterEN.setKeyOffsets(mKeyOffsetX, mKeyOffsetY, mKeyOffsetCount);
+        } else {
+            mKeyOffsetCount = -1;
+            mConverterEN.setKeyOffsets(null, null, 0);
+        }
+    }
+
     /**
      * Insert a character into the composing text.
      *
@@ -212,6 +249,8 @@ public class OpenWnnEN extends OpenWnn {
             commitText(1);
             commitText(seg.string);
             mComposingText.clear();
+            /* display the next words of the committed word */
+            updateComposingText(1);
         } else if (mWordSeparators.contains(seg.string)) {
             /* if the character is a separator, remove an auto-inserted space and commit the composing text. */
             if (mPreviousEventCode == OpenWnnEvent.SELECT_CANDIDATE) {
@@ -220,6 +259,7 @@ public class OpenWnnEN extends OpenWnn {
             commitText(1);
             commitText(seg.string);
             mComposingText.clear();
+            mConverterEN.breakSequence();
         } else {
             mComposingText.insertStrSegment(0, 1, seg);
             updateComposingText(1);
@@ -323,6 +363,7 @@ public class OpenWnnEN extends OpenWnn {
             mComposingText.clear();
         }
         /* initialize the engine's state */
+        mConverterEN.breakSequence();
         fitInputType(pref, attribute);
         
         ((DefaultSoftKeyboard) mInputViewManager).resetCurrentKeyboard();
@@ -479,6 +520,7 @@ public class OpenWnnEN extends OpenWnn {
                 commitText(new String(ev.chars));           
             }else{
                 setSymbolMode(null);
+                updateKeyOffsets();
                 insertCharToComposingText(ev.chars);
                 ret = true;
                 mPreviousEventCode = ev.code;
@@ -713,6 +755,18 @@ public class OpenWnnEN extends OpenWnn {
             }
         } else {
             /* if there is no composing string. */
+            switch (key) {
+            case KeyEvent.KEYCODE_DEL:
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+            case KeyEvent.KEYCODE_DPAD_UP:
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+                /* editing the committed text breaks the sequence of words */
+                mConverterEN.breakSequence();
+                break;
+            default:
+                break;
+            }
             if (mCandidatesViewManager.getCurrentView().isShown()) {
             	if (key == KeyEvent.KEYCODE_BACK) {
             		if (mCandidatesViewManager.getViewType() == CandidatesViewManager.VIEW_TYPE_FULL) {
@@ -237,7 +237,7 @@ public class OpenWnnEvent {
     /** Mapping table for toggle input */
     public String[]  toggleTable = null;
     /** Mapping table for toggle input */
-    public HashMap<?,?> replaceTable = null;
+    public WnnCharTable replaceTable = null;
     /** Word's information */
     public WnnWord  word = null;
     /** Error code */ 
@@ -298,7 +298,7 @@ public class OpenWnnEvent {
      * @param code          The code
      * @param replaceTable  The replace table
      */
-    public OpenWnnEvent(int code, HashMap<?,?> replaceTable) {
+    public OpenWnnEvent(int code, WnnCharTable replaceTable) {
         this.code = code;
         this.replaceTable = replaceTable;
     }
@@ -468,6 +468,15 @@ public class OpenWnnJAJP extends OpenWnn {
         }
     }
 
+    /** @see com.googlecode.openwnn.legacy.OpenWnn#onDestroy */
+    @Override public void onDestroy() {
+        super.onDestroy();
+
+        if (mConverterJAJP != null) {
+            mConverterJAJP.destroy();
+        }
+    }
+
     /** @see com.googlecode.openwnn.legacy.OpenWnn#onCreateInputView */
     @Override public View onCreateInputView() {
         int hiddenState = getResources().getConfiguration().hardKeyboardHidden;
@@ -782,7 +791,7 @@ public class OpenWnnJAJP extends OpenWnn {
                 && !(mEngineState.isConvertState())) {
 
                 String search = mComposingText.getStrSegment(ComposingText.LAYER1, cursor - 1).string;
-                String c = (String)ev.replaceTable.get(search);
+                String c = ev.replaceTable.get(search);
                 if (c != null) {
                     mComposingText.delete(1, false);
                     appendStrSegment(new StrSegment(c));
@@ -432,6 +432,15 @@ public class OpenWnnZHCN extends OpenWnn {
         }
     }
 
+    /** @see com.googlecode.openwnn.legacy.OpenWnn#onDestroy */
+    @Override public void onDestroy() {
+        super.onDestroy();
+
+        if (mConverterZHCN != null) {
+            mConverterZHCN.destroy();
+        }
+    }
+
     /** @see com.googlecode.openwnn.legacy.OpenWnn#onCreateInputView */
     @Override public View onCreateInputView() {
         int hiddenState = getResources().getConfiguration().hardKeyboardHidden;
@@ -746,7 +755,7 @@ public class OpenWnnZHCN extends OpenWnn {
                 && !(mEngineState.isConvertState())) {
 
                 String search = mComposingText.getStrSegment(ComposingText.LAYER1, cursor - 1).string;
-                String c = (String)ev.replaceTable.get(search);
+                String c = ev.replaceTable.get(search);
                 if (c != null) {
                     mComposingText.delete(1, false);
                     appendStrSegment(new StrSegment(c));
@@ -69,4 +69,13 @@ public class StrSegment  {
         this.from = from;
         this.to = to;
     }
+
+    /**
+     * Make a copy of the segment.
+     *
+     * @return          The copy
+     */
+    public StrSegment copy() {
+        return new StrSegment(string, from, to);
+    }
 }
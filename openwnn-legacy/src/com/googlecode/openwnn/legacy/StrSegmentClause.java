@@ -36,4 +36,11 @@ public class StrSegmentClause extends StrSegment {
         super(clause.candidate, from, to);
         this.clause = clause;
     }
+
+    /** @see com.googlecode.openwnn.legacy.StrSegment#copy */
+    public StrSegment copy() {
+        StrSegmentClause ss = new StrSegmentClause(clause, from, to);
+        ss.string = string;
+        return ss;
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+/**
+ * The compact table of bigram scores.
+ * <br>
+ * A pair of words is kept as a 64-bit key made from the hash codes of the candidates
+ * (open addressing), so the table does not hold the strings.
+ * Different pairs may share a key, which is acceptable for scoring.
+ * No pair is added when the table is full; the owner clears it with
+ * the information which depends on it.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnBigramTable {
+    /** The key of an empty slot */
+    private static final long EMPTY = 0;
+
+    /** Keys of the pairs */
+    private long[] mKeys;
+    /** Scores of the pairs */
+    private short[] mScores;
+    /** Number of the pairs */
+    private int mSize = 0;
+    /** Maximum number of the pairs */
+    private int mMaxSize;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize   Maximum number of the pairs
+     */
+    public WnnBigramTable(int maxSize) {
+        int capacity = 16;
+        while (capacity < maxSize * 2) {
+            capacity <<= 1;
+        }
+        mKeys   = new long[capacity];
+        mScores = new short[capacity];
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Set the score of a pair of words.
+     *
+     * @param previous  The candidate of the preceding word
+     * @param next      The candidate of the following word
+     * @param score     The score
+     * @return          {@code true} if the score is set; {@code false} if the table is full.
+     */
+    public boolean put(String previous, String next, int score) {
+        long key = makeKey(previous, next);
+        int index = find(key);
+        if (mKeys[index] == EMPTY) {
+            if (mSize >= mMaxSize) {
+                return false;
+            }
+            mKeys[index] = key;
+            mSize++;
+        }
+        if (score > Short.MAX_VALUE) {
+            score = Short.MAX_VALUE;
+        } else if (score < Short.MIN_VALUE) {
+            score = Short.MIN_VALUE;
+        }
+        mScores[index] = (short)score;
+        return true;
+    }
+
+    /**
+     * Get the score of a pair of words.
+     *
+     * @param previous  The candidate of the preceding word
+     * @param next      The candidate of the following word
+     * @return          The score; 0 if the pair is not in the table.
+     */
+    public int get(String previous, String next) {
+        long key = makeKey(previous, next);
+        int index = find(key);
+        return (mKeys[index] == EMPTY) ? 0 : mScores[index];
+    }
+
+    /**
+     * Get the number of the pairs.
+     *
+     * @return          The number of the pairs
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Get the maximum number of the pairs.
+     *
+     * @return          The maximum number of the pairs
+     */
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Clear the table.
+     */
+    public void clear() {
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = EMPTY;
+        }
+        mSize = 0;
+    }
+
+    /**
+     * Find the slot of a key.
+     *
+     * @param key       The key
+     * @return          Index of the slot which has the key, or the empty slot to put it.
+     */
+    private int find(long key) {
+        int mask = mKeys.length - 1;
+        int index = (int)(key ^ (key >>> 32)) * 0x9e3779b9 & mask;
+        while (mKeys[index] != EMPTY && mKeys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Make the key of a pair of words.
+     *
+     * @param previous  The candidate of the preceding word
+     * @param next      The candidate of the following word
+     * @return          The key
+     */
+    private static long makeKey(String previous, String next) {
+        long key = ((long)previous.hashCode() << 32) | (next.hashCode() & 0xffffffffL);
+        return (key == EMPTY) ? 1 : key;
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The snapshot file of search caches.
+ * <br>
+ * The most recently used entries of the caches are saved when the engine is closed,
+ * and loaded once when the engine is initialized next time.
+ * The snapshot has a stamp made from the files which the cached results depend on
+ * (the dictionaries) and from the options which change the results (the preferences),
+ * and it is rejected if one of them is changed.
+ * The snapshot is also rejected if the format version or the checksum does not match.
+ * <br>
+ * The file is read and written in the background by one thread, so the caller does not wait for it.
+ * The caches are saved only if they are changed since the last save.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnCacheSnapshot {
+    /** Magic number of the snapshot file */
+    private static final int MAGIC = 0x574e4e43;
+    /** Version of the snapshot format */
+    public static final int VERSION = 2;
+    /** Delay of a save in the background (in milliseconds; the saves within it are done once) */
+    public static final long SAVE_DELAY = 5000;
+
+    /** The snapshot file */
+    private File mFile;
+    /** The files which the cached results depend on */
+    private String[] mDependencies;
+    /** The options which the cached results depend on */
+    private volatile String mOptions = "";
+    /** Lock of the snapshot file */
+    private final Object mFileLock = new Object();
+    /** Incremented when the snapshot file is deleted (the pending saves are canceled) */
+    private int mSaveGeneration = 0;
+    /** Number of changes of the caches at the last save */
+    private long mSavedModCount = 0;
+    /** The save waiting for the delay ({@code null} if none) */
+    private ScheduledFuture<?> mPendingSave = null;
+    /** The thread reading and writing the snapshot file ({@code null} if not started) */
+    private ScheduledExecutorService mExecutor = null;
+
+    /** The caches loaded in the background ({@code null} if not loaded) */
+    private volatile WnnWordCache[] mLoaded = null;
+    /** The options of the loaded caches */
+    private String mLoadedOptions = null;
+    /** Incremented when the loaded caches are discarded (the pending load is canceled) */
+    private int mLoadGeneration = 0;
+    /** Whether the snapshot has been loaded (or is being loaded) */
+    private boolean mLoadStarted = false;
+
+    /**
+     * Constructor
+     *
+     * @param path          Path of the snapshot file
+     * @param dependencies  Paths of the files which the cached results depend on
+     */
+    public WnnCacheSnapshot(String path, String[] dependencies) {
+        mFile = new File(path);
+        mDependencies = dependencies;
+    }
+
+    /**
+     * Set the options which the cached results depend on.
+     * <br>
+     * The caches which are saved with other options are not taken.
+     *
+     * @param options       The options (for example, the values of the preferences)
+     */
+    public void setOptions(String options) {
+        mOptions = (options == null) ? "" : options;
+    }
+
+    /**
+     * Save the caches.
+     *
+     * @param caches        The caches
+     * @param maxEntries    Maximum number of entries to save from each cache
+     * @return              {@code true} if success; {@code false} if fail.
+     */
+    public boolean save(WnnWordCache[] caches, int maxEntries) {
+        byte[] data = serialize(caches, mOptions, maxEntries);
+        if (data == null) {
+            return false;
+        }
+        synchronized (mFileLock) {
+            return write(data);
+        }
+    }
+
+    /**
+     * Save the caches in the background.
+     * <br>
+     * Nothing is saved if the caches are not changed since the last save.
+     * The most recently used entries are copied before this method returns
+     * (the word lists are shared), so the caches can be changed while the file
+     * is written.  A save waiting for the delay is replaced by a new one.
+     *
+     * @param caches        The caches
+     * @param maxEntries    Maximum number of entries to save from each cache
+     * @param delay         Delay of the save (in milliseconds)
+     */
+    public synchronized void saveInBackground(WnnWordCache[] caches, final int maxEntries, long delay) {
+        long modCount = 0;
+        for (int i = 0; i < caches.length; i++) {
+            modCount += caches[i].getModCount();
+        }
+        if (modCount == mSavedModCount) {
+            return;
+        }
+        mSavedModCount = modCount;
+
+        final WnnWordCache[] copies = new WnnWordCache[caches.length];
+        for (int i = 0; i < caches.length; i++) {
+            copies[i] = caches[i].copy(maxEntries);
+        }
+        final String options = mOptions;
+        final int generation;
+        synchronized (mFileLock) {
+            generation = mSaveGeneration;
+        }
+        if (mPendingSave != null) {
+            mPendingSave.cancel(false);
+        }
+        mPendingSave = getExecutor().schedule(new Runnable() {
+                public void run() {
+                    byte[] data = serialize(copies, options, maxEntries);
+                    if (data == null) {
+                        return;
+                    }
+                    synchronized (mFileLock) {
+                        if (generation == mSaveGeneration) {
+                            write(data);
+                        }
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the thread reading and writing the snapshot file.
+     * <br>
+     * The thread is a daemon, so it does not keep the process alive.
+     *
+     * @return              The executor of the thread
+     */
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (mExecutor == null) {
+            mExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "WnnCacheSnapshot");
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                });
+        }
+        return mExecutor;
+    }
+
+    /**
+     * Make the content of the snapshot file.
+     *
+     * @param caches        The caches
+     * @param options       The options of the caches
+     * @param maxEntries    Maximum number of entries to save from each cache
+     * @return              The content; {@code null} if fail.
+     */
+    private byte[] serialize(WnnWordCache[] caches, String options, int maxEntries) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CheckedOutputStream checked = new CheckedOutputStream(bytes, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(makeStamp());
+            out.writeUTF(options);
+            out.writeInt(caches.length);
+            for (int i = 0; i < caches.length; i++) {
+                caches[i].write(out, maxEntries);
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the content to the snapshot file.
+     * <br>
+     * The caller must hold {@code mFileLock}.
+     *
+     * @param data          The content
+     * @return              {@code true} if success; {@code false} if fail.
+     */
+    private boolean write(byte[] data) {
+        File tmp = new File(mFile.getPath() + ".tmp");
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(tmp);
+            out.write(data);
+            out.close();
+            out = null;
+
+            /* replace the snapshot */
+            return tmp.renameTo(mFile);
+        } catch (IOException ex) {
+            tmp.delete();
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the caches.
+     * <br>
+     * The caches are not checked against the options.
+     *
+     * @param count     The number of caches
+     * @param options   Where to store the options of the caches (the first element)
+     * @return          The caches; {@code null} if there is no valid snapshot.
+     */
+    private WnnWordCache[] load(int count, String[] options) {
+        synchronized (mFileLock) {
+            if (!mFile.exists()) {
+                return null;
+            }
+
+            DataInputStream in = null;
+            try {
+                CheckedInputStream checked = new CheckedInputStream(
+                        new BufferedInputStream(new FileInputStream(mFile)), new CRC32());
+                in = new DataInputStream(checked);
+                if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != makeStamp()) {
+                    /* stale snapshot */
+                    return null;
+                }
+                options[0] = in.readUTF();
+                if (in.readInt() != count) {
+                    return null;
+                }
+
+                WnnWordCache[] caches = new WnnWordCache[count];
+                for (int i = 0; i < count; i++) {
+                    caches[i] = new WnnWordCache(Integer.MAX_VALUE, Integer.MAX_VALUE);
+                    caches[i].read(in);
+                }
+                long sum = checked.getChecksum().getValue();
+                if (in.readLong() != sum) {
+                    /* broken snapshot */
+                    return null;
+                }
+                return caches;
+            } catch (IOException ex) {
+                return null;
+            } finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    } catch (IOException ex) {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the caches in the background.
+     * <br>
+     * The snapshot is loaded only at the first call; the caches in memory
+     * are newer after that.  The result can be got by {@link #takeLoaded()}.
+     *
+     * @param count     The number of caches
+     */
+    public synchronized void loadInBackground(final int count) {
+        if (mLoadStarted) {
+            return;
+        }
+        mLoadStarted = true;
+        mLoaded = null;
+        final int generation = mLoadGeneration;
+        getExecutor().execute(new Runnable() {
+                public void run() {
+                    String[] options = new String[1];
+                    WnnWordCache[] caches = load(count, options);
+                    synchronized (WnnCacheSnapshot.this) {
+                        if (generation == mLoadGeneration) {
+                            mLoaded = caches;
+                            mLoadedOptions = options[0];
+                        }
+                    }
+                }
+            });
+    }
+
+    /**
+     * Take the caches loaded in the background.
+     * <br>
+     * The caches are returned only once, and only if they were saved with the current options.
+     *
+     * @return          The caches; {@code null} if not loaded (yet).
+     */
+    public WnnWordCache[] takeLoaded() {
+        if (mLoaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            WnnWordCache[] caches = mLoaded;
+            mLoaded = null;
+            if (caches == null || !mOptions.equals(mLoadedOptions)) {
+                return null;
+            }
+            return caches;
+        }
+    }
+
+    /**
+     * Discard the loaded caches.
+     * <br>
+     * This must be called when the cached results are invalidated (for example,
+     * a word is learned), since the caches loaded after that may have the old results.
+     * The load in progress is also canceled.
+     */
+    public synchronized void discard() {
+        mLoadGeneration++;
+        mLoaded = null;
+    }
+
+    /**
+     * Delete the snapshot file.
+     * <br>
+     * The loaded caches and the pending saves are also discarded.
+     */
+    public void delete() {
+        discard();
+        synchronized (this) {
+            /* the caches are saved again even if they are not changed */
+            mSavedModCount = -1;
+        }
+        synchronized (mFileLock) {
+            mSaveGeneration++;
+            mFile.delete();
+        }
+    }
+
+    /**
+     * Make the stamp of the files which the cached results depend on.
+     *
+     * @return          The stamp
+     */
+    private long makeStamp() {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < mDependencies.length; i++) {
+            if (mDependencies[i] == null) {
+                continue;
+            }
+            File file = new File(mDependencies[i]);
+            long[] values = {file.length(), file.lastModified()};
+            crc.update(mDependencies[i].getBytes());
+            for (int j = 0; j < values.length; j++) {
+                for (int k = 0; k < 64; k += 8) {
+                    crc.update((int)(values[j] >>> k));
+                }
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+/**
+ * The compact conversion table of characters.
+ * <br>
+ * The table is kept as arrays instead of a {@code HashMap}.
+ * The value of a key of one character is looked up by the index of the character
+ * if the keys are in a narrow range, or by the binary search of the sorted keys.
+ * The keys of two or more characters (ex. a Katakana with a voiced mark) are
+ * looked up by the binary search.
+ * If a key appears more than once, the last value is used.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnCharTable {
+    /** Maximum ratio of the range of the keys to the number of the keys for the direct index */
+    private static final int DIRECT_INDEX_RATIO = 4;
+
+    /** The smallest key of one character (for the direct index) */
+    private char mFirst;
+    /** Values indexed by the key minus {@code mFirst} ({@code null} if the binary search is used) */
+    private String[] mDirect = null;
+    /** Sorted keys of one character (for the binary search) */
+    private char[] mCharKeys;
+    /** Values of {@code mCharKeys} */
+    private String[] mCharValues;
+    /** Sorted keys of two or more characters */
+    private String[] mStringKeys;
+    /** Values of {@code mStringKeys} */
+    private String[] mStringValues;
+
+    /**
+     * Constructor
+     *
+     * @param pairs     The pairs of a key and a value ({{key, value}, ...})
+     */
+    public WnnCharTable(String[][] pairs) {
+        int charCount = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i][0].length() == 1) {
+                charCount++;
+            }
+        }
+        String[] charKeys     = new String[charCount];
+        String[] charValues   = new String[charCount];
+        String[] stringKeys   = new String[pairs.length - charCount];
+        String[] stringValues = new String[pairs.length - charCount];
+        int c = 0;
+        int s = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            String key = pairs[i][0];
+            if (key.length() == 0) {
+                throw new IllegalArgumentException("empty key");
+            }
+            if (key.length() == 1) {
+                charKeys[c] = key;
+                charValues[c++] = pairs[i][1];
+            } else {
+                stringKeys[s] = key;
+                stringValues[s++] = pairs[i][1];
+            }
+        }
+
+        int size = sort(charKeys, charValues);
+        mCharKeys = new char[size];
+        mCharValues = new String[size];
+        for (int i = 0; i < size; i++) {
+            mCharKeys[i] = charKeys[i].charAt(0);
+            mCharValues[i] = charValues[i];
+        }
+        if (size > 0) {
+            int range = mCharKeys[size - 1] - mCharKeys[0] + 1;
+            if (range <= size * DIRECT_INDEX_RATIO) {
+                mFirst = mCharKeys[0];
+                mDirect = new String[range];
+                for (int i = 0; i < size; i++) {
+                    mDirect[mCharKeys[i] - mFirst] = mCharValues[i];
+                }
+            }
+        }
+
+        size = sort(stringKeys, stringValues);
+        mStringKeys = new String[size];
+        mStringValues = new String[size];
+        System.arraycopy(stringKeys, 0, mStringKeys, 0, size);
+        System.arraycopy(stringValues, 0, mStringValues, 0, size);
+    }
+
+    /**
+     * Sort the keys and remove the duplicated keys (the last value remains).
+     *
+     * @param keys      The keys
+     * @param values    The values of the keys
+     * @return          The number of the keys after removing the duplicated keys
+     */
+    private static int sort(String[] keys, String[] values) {
+        /* stable insertion sort (the tables are small) */
+        for (int i = 1; i < keys.length; i++) {
+            String key = keys[i];
+            String value = values[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j].compareTo(key) > 0) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (size > 0 && keys[size - 1].equals(keys[i])) {
+                size--;
+            }
+            keys[size] = keys[i];
+            values[size] = values[i];
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Get the value of a character.
+     *
+     * @param key       The character
+     * @return          The value; {@code null} if the character is not in the table.
+     */
+    public String get(char key) {
+        if (mDirect != null) {
+            int index = key - mFirst;
+            return (index >= 0 && index < mDirect.length) ? mDirect[index] : null;
+        }
+
+        int low = 0;
+        int high = mCharKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = mCharKeys[mid];
+            if (c < key) {
+                low = mid + 1;
+            } else if (c > key) {
+                high = mid - 1;
+            } else {
+                return mCharValues[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the value of a string.
+     *
+     * @param key       The string
+     * @return          The value; {@code null} if the string is not in the table.
+     */
+    public String get(String key) {
+        if (key == null || key.length() == 0) {
+            return null;
+        }
+        if (key.length() == 1) {
+            return get(key.charAt(0));
+        }
+
+        int low = 0;
+        int high = mStringKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = mStringKeys[mid].compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mStringValues[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of the keys.
+     *
+     * @return          The number of the keys
+     */
+    public int size() {
+        return mCharKeys.length + mStringKeys.length;
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * The lattice class for consecutive clause conversion.
+ * <br>
+ * A node of the lattice is a clause which covers a part of the input.
+ * The best score from the head of the input to each position is calculated
+ * while the nodes are added (Viterbi forward pass), and the N-best sentences
+ * are enumerated from the tail of the input by A* search using those scores.
+ * <br>
+ * If a {@link Transition} is set, the score of connecting two clauses
+ * (for example, a bigram of words) is added to the score of the sentence.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnClauseLattice {
+    /** Default beam width (number of nodes kept at each position) */
+    public static final int DEFAULT_BEAM_WIDTH = 4;
+    /** Score of a position which cannot be reached */
+    public static final int NO_PATH = Integer.MIN_VALUE;
+
+    /**
+     * The score of a transition between clauses.
+     */
+    public interface Transition {
+        /**
+         * Get the score of connecting two clauses.
+         *
+         * @param previous  The preceding clause
+         * @param clause    The following clause
+         * @return          The score (added to the score of the sentence)
+         */
+        public int getScore(WnnClause previous, WnnClause clause);
+    }
+
+    /** The node of the lattice */
+    private static class Node {
+        /** Start position of the clause */
+        int start;
+        /** End position of the clause */
+        int end;
+        /** The clause */
+        WnnClause clause;
+        /** Score of the clause */
+        int score;
+        /** The best score from the head of the input to the end of the clause */
+        int forward;
+        /** The preceding node on the best path ({@code null} if the clause is at the head) */
+        Node prev;
+    }
+
+    /** The partial path from the tail of the input (for A* search) */
+    private static class Path {
+        /** The head node of the path */
+        Node node;
+        /** The following path */
+        Path next;
+        /** Start position of the path */
+        int position;
+        /** Score from the position to the tail of the input */
+        int score;
+        /** Estimated score of the whole sentence */
+        int estimate;
+    }
+
+    /** Comparator of the paths (best first) */
+    private static final Comparator<Path> PATH_COMPARATOR = new Comparator<Path>() {
+        public int compare(Path p1, Path p2) {
+            if (p1.estimate > p2.estimate) {
+                return -1;
+            } else if (p1.estimate < p2.estimate) {
+                return 1;
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * Nodes which end at each position (ordered by score).
+     * <br>
+     * Only the first {@code mBeamWidth} nodes are in the beam.  The nodes pushed out
+     * of the beam are kept to restore the beam when the following clauses are removed.
+     */
+    private ArrayList<ArrayList<Node>> mNodes;
+    /** The best score from the head of the input to each position */
+    private int[] mForward;
+    /** Length of the input */
+    private int mLength = 0;
+    /** Beam width */
+    private int mBeamWidth = DEFAULT_BEAM_WIDTH;
+    /** Score of the transitions ({@code null} if not used) */
+    private Transition mTransition = null;
+
+    /**
+     * Constructor
+     *
+     * @param maxLength     Maximum length of the input
+     */
+    public WnnClauseLattice(int maxLength) {
+        mNodes = new ArrayList<ArrayList<Node>>(maxLength + 1);
+        for (int i = 0; i <= maxLength; i++) {
+            mNodes.add(new ArrayList<Node>());
+        }
+        mForward = new int[maxLength + 1];
+        clear(0);
+    }
+
+    /**
+     * Set the beam width.
+     * <br>
+     * At most {@code width} clauses which end at the same position are kept in the lattice.
+     *
+     * @param width     The beam width (1 or more)
+     */
+    public void setBeamWidth(int width) {
+        mBeamWidth = (width < 1) ? 1 : width;
+    }
+
+    /**
+     * Set the score of the transitions between clauses.
+     * <br>
+     * The lattice must be cleared after changing it.
+     *
+     * @param transition    The score of the transitions; {@code null} not to use.
+     */
+    public void setTransition(Transition transition) {
+        mTransition = transition;
+    }
+
+    /**
+     * Get the beam width.
+     *
+     * @return          The beam width
+     */
+    public int getBeamWidth() {
+        return mBeamWidth;
+    }
+
+    /**
+     * Clear the lattice.
+     *
+     * @param length    Length of the input
+     */
+    public void clear(int length) {
+        for (int i = 0; i < mNodes.size(); i++) {
+            mNodes.get(i).clear();
+            mForward[i] = NO_PATH;
+        }
+        mForward[0] = 0;
+        mLength = length;
+    }
+
+    /**
+     * Truncate the lattice.
+     * <br>
+     * The clauses which end at {@code position} or before are kept,
+     * so the conversion can be continued from there for a new input.
+     *
+     * @param position  The last position of the clauses to keep
+     * @param length    Length of the new input
+     */
+    public void truncate(int position, int length) {
+        if (position <= 0) {
+            clear(length);
+            return;
+        }
+        for (int i = position + 1; i < mNodes.size(); i++) {
+            mNodes.get(i).clear();
+            mForward[i] = NO_PATH;
+        }
+        mLength = length;
+    }
+
+    /**
+     * Remove the clauses which start at the position or after.
+     * <br>
+     * The lattice becomes the same as the one before those clauses were added,
+     * so the conversion can be continued from the position.
+     *
+     * @param start     The first start position of the clauses to remove
+     */
+    public void removeClauses(int start) {
+        for (int i = start + 1; i < mNodes.size(); i++) {
+            ArrayList<Node> nodes = mNodes.get(i);
+            for (int j = nodes.size() - 1; j >= 0; j--) {
+                if (nodes.get(j).start >= start) {
+                    nodes.remove(j);
+                }
+            }
+            mForward[i] = nodes.isEmpty() ? NO_PATH : nodes.get(0).forward;
+        }
+    }
+
+    /**
+     * Get the length of the input.
+     *
+     * @return          Length of the input
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * Get the best score from the head of the input to the position.
+     *
+     * @param position  The position
+     * @return          The best score; {@link #NO_PATH} if the position cannot be reached.
+     */
+    public int getForwardScore(int position) {
+        return mForward[position];
+    }
+
+    /**
+     * Get the lowest score to enter the beam at the position.
+     *
+     * @param position  The position
+     * @return          The lowest score; {@link #NO_PATH} if the beam is not full.
+     */
+    public int getBeamBoundary(int position) {
+        ArrayList<Node> nodes = mNodes.get(position);
+        if (nodes.size() < mBeamWidth) {
+            return NO_PATH;
+        }
+        return nodes.get(mBeamWidth - 1).forward;
+    }
+
+    /**
+     * Add a clause to the lattice.
+     * <br>
+     * The clauses must be added in ascending order of the start position.
+     *
+     * @param start     Start position of the clause
+     * @param end       End position of the clause
+     * @param clause    The clause
+     * @param score     Score of the clause
+     * @return          {@code true} if the clause is added; {@code false} if it is out of the beam.
+     */
+    public boolean addClause(int start, int end, WnnClause clause, int score) {
+        if (mForward[start] == NO_PATH) {
+            return false;
+        }
+
+        /* find the best preceding clause */
+        Node prev = null;
+        int total = score;
+        if (start > 0) {
+            ArrayList<Node> prevNodes = mNodes.get(start);
+            prev = prevNodes.get(0);
+            total = prev.forward + score;
+            if (mTransition != null) {
+                total += mTransition.getScore(prev.clause, clause);
+                for (int i = 1; i < prevNodes.size() && i < mBeamWidth; i++) {
+                    Node n = prevNodes.get(i);
+                    int t = n.forward + score + mTransition.getScore(n.clause, clause);
+                    if (t > total) {
+                        prev = n;
+                        total = t;
+                    }
+                }
+            }
+        }
+
+        /* find the place to insert (after the nodes which have the same score) */
+        ArrayList<Node> nodes = mNodes.get(end);
+        int index = 0;
+        while (index < nodes.size() && index < mBeamWidth) {
+            if (nodes.get(index).forward < total) {
+                break;
+            }
+            index++;
+        }
+        if (index >= mBeamWidth) {
+            return false;
+        }
+
+        Node node = new Node();
+        node.start   = start;
+        node.end     = end;
+        node.clause  = clause;
+        node.score   = score;
+        node.forward = total;
+        node.prev    = prev;
+        nodes.add(index, node);
+
+        if (mForward[end] < total) {
+            mForward[end] = total;
+        }
+        return true;
+    }
+
+    /**
+     * Get the best sentence (the result of Viterbi search).
+     *
+     * @return          The best sentence; {@code null} if the tail of the input cannot be reached.
+     */
+    public WnnSentence getBestSentence() {
+        if (mLength == 0 || mForward[mLength] == NO_PATH) {
+            return null;
+        }
+
+        /* trace back the best nodes */
+        Path path = null;
+        for (Node n = mNodes.get(mLength).get(0); n != null; n = n.prev) {
+            Path p = new Path();
+            p.node = n;
+            p.next = path;
+            path = p;
+        }
+        return createSentence(path, mForward[mLength]);
+    }
+
+    /**
+     * Get the N-best sentences (the result of A* search).
+     * <br>
+     * Sentences which have the same string as a better one are omitted.
+     *
+     * @param count     Maximum number of sentences
+     * @return          The sentences (ordered by score)
+     */
+    public ArrayList<WnnSentence> getSentences(int count) {
+        ArrayList<WnnSentence> result = new ArrayList<WnnSentence>();
+        if (mLength == 0 || mForward[mLength] == NO_PATH || count <= 0) {
+            return result;
+        }
+
+        HashMap<String, WnnSentence> check = new HashMap<String, WnnSentence>();
+        PriorityQueue<Path> queue = new PriorityQueue<Path>(16, PATH_COMPARATOR);
+
+        Path tail = new Path();
+        tail.position = mLength;
+        tail.score    = 0;
+        tail.estimate = mForward[mLength];
+        queue.add(tail);
+
+        /* limit the search in case there are many paths which make the same string */
+        int limit = count * (mLength + 1) * mBeamWidth;
+        while (!queue.isEmpty() && result.size() < count && limit-- > 0) {
+            Path path = queue.poll();
+            if (path.position == 0) {
+                WnnSentence sentence = createSentence(path, path.score);
+                if (!check.containsKey(sentence.candidate)) {
+                    check.put(sentence.candidate, sentence);
+                    result.add(sentence);
+                }
+                continue;
+            }
+
+            /* expand the path with the nodes which end at the head of it */
+            ArrayList<Node> nodes = mNodes.get(path.position);
+            for (int i = 0; i < nodes.size() && i < mBeamWidth; i++) {
+                Node node = nodes.get(i);
+                if (mForward[node.start] == NO_PATH) {
+                    continue;
+                }
+                Path p = new Path();
+                p.node     = node;
+                p.next     = path;
+                p.position = node.start;
+                p.score    = path.score + node.score;
+                if (mTransition != null && path.node != null) {
+                    p.score += mTransition.getScore(node.clause, path.node.clause);
+                }
+                p.estimate = node.forward - node.score + p.score;
+                queue.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create a sentence from a path.
+     *
+     * @param path      The path from the head of the input
+     * @param score     Score of the sentence
+     * @return          The sentence
+     */
+    private WnnSentence createSentence(Path path, int score) {
+        WnnSentence sentence = null;
+        for (Path p = path; p != null && p.node != null; p = p.next) {
+            WnnClause clause = p.node.clause;
+            if (sentence == null) {
+                sentence = new WnnSentence(clause.stroke, clause);
+            } else {
+                sentence = new WnnSentence(sentence, clause);
+            }
+        }
+        if (sentence != null) {
+            sentence.frequency = score;
+        }
+        return sentence;
+    }
+}
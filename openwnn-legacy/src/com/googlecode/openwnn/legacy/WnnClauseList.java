@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ranked list class of clauses.
+ * <br>
+ * Clauses are kept in a binary heap ordered by frequency, so adding a clause costs O(log n).
+ * The list is sorted lazily; only the clauses which are read by {@link #get(int)}
+ * or the iterator are taken out of the heap in order.
+ * Clauses which have the same frequency are listed in the order of addition.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnClauseList {
+    /** Initial capacity of the list */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Clauses taken out of the heap (in order) */
+    private WnnClause[] mSorted;
+    /** Sequence numbers of the sorted clauses */
+    private int[] mSortedSeq;
+    /** Number of the sorted clauses */
+    private int mSortedSize = 0;
+
+    /** Heap of the clauses not sorted yet (the best one is at the top) */
+    private WnnClause[] mHeap;
+    /** Sequence numbers of the clauses in the heap */
+    private int[] mHeapSeq;
+    /** Number of the clauses in the heap */
+    private int mHeapSize = 0;
+
+    /** Sequence number of the next clause */
+    private int mSequence = 0;
+
+    /**
+     * Constructor
+     */
+    public WnnClauseList() {
+        mSorted    = new WnnClause[INITIAL_CAPACITY];
+        mSortedSeq = new int[INITIAL_CAPACITY];
+        mHeap      = new WnnClause[INITIAL_CAPACITY];
+        mHeapSeq   = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Add a clause.
+     *
+     * @param clause    The clause
+     */
+    public void add(WnnClause clause) {
+        if (mSortedSize > 0 && mSorted[mSortedSize - 1].frequency < clause.frequency) {
+            /* the clause goes among the sorted ones; sort again from the beginning */
+            for (int i = 0; i < mSortedSize; i++) {
+                push(mSorted[i], mSortedSeq[i]);
+                mSorted[i] = null;
+            }
+            mSortedSize = 0;
+        }
+        push(clause, mSequence++);
+    }
+
+    /**
+     * Get the clause at the rank.
+     *
+     * @param index     The rank (0 is the best clause)
+     * @return          The clause
+     * @throws IndexOutOfBoundsException    if {@code index} is out of range
+     */
+    public WnnClause get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size());
+        }
+        while (mSortedSize <= index) {
+            if (mSortedSize == mSorted.length) {
+                mSorted    = grow(mSorted);
+                mSortedSeq = grow(mSortedSeq);
+            }
+            mSortedSeq[mSortedSize] = mHeapSeq[0];
+            mSorted[mSortedSize++]  = pop();
+        }
+        return mSorted[index];
+    }
+
+    /**
+     * Get the number of clauses.
+     *
+     * @return          The number of clauses
+     */
+    public int size() {
+        return mSortedSize + mHeapSize;
+    }
+
+    /**
+     * Whether the list is empty.
+     *
+     * @return          {@code true} if the list is empty; {@code false} if not.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Clear the list.
+     */
+    public void clear() {
+        for (int i = 0; i < mSortedSize; i++) {
+            mSorted[i] = null;
+        }
+        for (int i = 0; i < mHeapSize; i++) {
+            mHeap[i] = null;
+        }
+        mSortedSize = 0;
+        mHeapSize = 0;
+        mSequence = 0;
+    }
+
+    /**
+     * Get the iterator of the clauses (in order of rank).
+     * <br>
+     * The clauses are sorted as the iterator proceeds.
+     *
+     * @return          The iterator
+     */
+    public Iterator<WnnClause> iterator() {
+        return new Iterator<WnnClause>() {
+            private int mIndex = 0;
+
+            public boolean hasNext() {
+                return mIndex < size();
+            }
+
+            public WnnClause next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(mIndex++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Push a clause into the heap.
+     *
+     * @param clause    The clause
+     * @param seq       The sequence number of the clause
+     */
+    private void push(WnnClause clause, int seq) {
+        if (mHeapSize == mHeap.length) {
+            mHeap    = grow(mHeap);
+            mHeapSeq = grow(mHeapSeq);
+        }
+
+        /* sift up */
+        int i = mHeapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!isBetter(clause, seq, mHeap[parent], mHeapSeq[parent])) {
+                break;
+            }
+            mHeap[i]    = mHeap[parent];
+            mHeapSeq[i] = mHeapSeq[parent];
+            i = parent;
+        }
+        mHeap[i]    = clause;
+        mHeapSeq[i] = seq;
+    }
+
+    /**
+     * Pop the best clause from the heap.
+     *
+     * @return          The best clause
+     */
+    private WnnClause pop() {
+        WnnClause top = mHeap[0];
+        int size = --mHeapSize;
+        WnnClause last = mHeap[size];
+        int lastSeq = mHeapSeq[size];
+        mHeap[size] = null;
+
+        /* sift down */
+        int i = 0;
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size
+                && isBetter(mHeap[child + 1], mHeapSeq[child + 1], mHeap[child], mHeapSeq[child])) {
+                child++;
+            }
+            if (!isBetter(mHeap[child], mHeapSeq[child], last, lastSeq)) {
+                break;
+            }
+            mHeap[i]    = mHeap[child];
+            mHeapSeq[i] = mHeapSeq[child];
+            i = child;
+        }
+        if (size > 0) {
+            mHeap[i]    = last;
+            mHeapSeq[i] = lastSeq;
+        }
+        return top;
+    }
+
+    /**
+     * Compare the ranks of clauses.
+     *
+     * @param c1        The clause
+     * @param seq1      The sequence number of {@code c1}
+     * @param c2        The clause to be compared
+     * @param seq2      The sequence number of {@code c2}
+     * @return          {@code true} if {@code c1} is ranked before {@code c2}; {@code false} if not.
+     */
+    private static boolean isBetter(WnnClause c1, int seq1, WnnClause c2, int seq2) {
+        if (c1.frequency != c2.frequency) {
+            return c1.frequency > c2.frequency;
+        }
+        return seq1 < seq2;
+    }
+
+    /**
+     * Double the capacity of an array.
+     *
+     * @param array     The array
+     * @return          The new array
+     */
+    private static WnnClause[] grow(WnnClause[] array) {
+        WnnClause[] result = new WnnClause[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    /**
+     * Double the capacity of an array.
+     *
+     * @param array     The array
+     * @return          The new array
+     */
+    private static int[] grow(int[] array) {
+        int[] result = new int[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+}
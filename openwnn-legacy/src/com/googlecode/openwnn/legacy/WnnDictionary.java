@@ -63,6 +63,50 @@ public interface WnnDictionary {
      * ex. "&#x306F;" to "&#x3070;"/"&#x3071;", "&#x3064;" to "&#x3063;"/"&#x3065;"
      */
     public static final int APPROX_PATTERN_JAJP_12KEY_NORMAL        = 4;
+    /**
+     * Predefined approximate pattern set (fuzzy PinYin; "z" to the initial "zh").
+     *
+     * The initials of the Chinese readings are capital letters.
+     * ex. "z" to "Zh"
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_Z_ZH            = 5;
+    /**
+     * Predefined approximate pattern set (fuzzy PinYin; "c" to the initial "ch").
+     *
+     * The initials of the Chinese readings are capital letters.
+     * ex. "c" to "Ch"
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_C_CH            = 6;
+    /**
+     * Predefined approximate pattern set (fuzzy PinYin; "s" to the initial "sh").
+     *
+     * The initials of the Chinese readings are capital letters.
+     * ex. "s" to "Sh"
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_S_SH            = 7;
+    /**
+     * Predefined approximate pattern set (fuzzy PinYin; the initials "n" and "l").
+     *
+     * The initials of the Chinese readings are capital letters.
+     * ex. "n" to "L", "l" to "N"
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_N_L             = 8;
+    /**
+     * Predefined approximate pattern set (fuzzy PinYin; "n" to the final "ng").
+     *
+     * The initials of the Chinese readings are capital letters.
+     * ex. "n" to "ng"
+     */
+    public static final int APPROX_PATTERN_ZH_FUZZY_NG              = 9;
+
+    /** Case filter (all words are retrieved). */
+    public static final int CASE_FILTER_NONE                        = 0;
+    /**
+     * Case filter (only the words whose candidates begin with a lower case letter).
+     *
+     * The words beginning with the other ASCII characters are skipped in the dictionary.
+     */
+    public static final int CASE_FILTER_LOWER                       = 1;
 
     /** Search operation mode (exact matching). */
     public static final int SEARCH_EXACT                            = 0;
@@ -70,6 +114,8 @@ public interface WnnDictionary {
     public static final int SEARCH_PREFIX                           = 1;
     /** Search operation mode (link search). */
     public static final int SEARCH_LINK                             = 2;
+    /** Search operation mode (common prefix matching; the key strings of the words are prefixes of the key). */
+    public static final int SEARCH_COMMON_PREFIX                    = 3;
 
     /** Sort order (frequency in descending). */
     public static final int ORDER_BY_FREQUENCY                      = 0;
@@ -180,11 +226,67 @@ public interface WnnDictionary {
      * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_EN_TOLOWER
      * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_EN_QWERTY_NEAR
      * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_EN_QWERTY_NEAR_UPPER
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_Z_ZH
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_C_CH
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_S_SH
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_N_L
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#APPROX_PATTERN_ZH_FUZZY_NG
      *
      * @return                  0 if success; minus value(error code) if fail.
      */
     public int setApproxPattern( int approxPattern );
 
+    /**
+     * Sets the key layout for {@link #searchWordByKeyDistance}.
+     *
+     * The center of each key is given in any unit, and {@code keyWidth} is
+     * the width of a key in the same unit.
+     *
+     * @param keys      The characters of the keys
+     * @param x         The X coordinates of the centers of the keys
+     * @param y         The Y coordinates of the centers of the keys
+     * @param keyWidth  The width of a key
+     *
+     * @return          0 if success; minus value(error code) if fail.
+     */
+    public int setKeyLayout( String keys, int[] x, int[] y, int keyWidth );
+
+    /**
+     * Search words by the distance of the keys.
+     * <p>
+     * The words whose key strings start with {@code keyString} (with the approximate patterns)
+     * are scored by their frequency minus the distance between the typed points and
+     * the keys of their key strings on the layout set by {@link #setKeyLayout}, and
+     * only the best {@code maxCount} words are kept (the words of the user and learning
+     * dictionaries are scored and kept in the same way). The typed points are the touched
+     * coordinates if {@code x} and {@code y} are given, otherwise the centers of the typed keys.
+     * The score is returned as the frequency of the word.
+     * <p>
+     * To get the searched word's information, use {@link #getNextWord()}.
+     *
+     * @param keyString     The key string
+     * @param x             The X coordinates of the typed points (can be null)
+     * @param y             The Y coordinates of the typed points (can be null)
+     * @param maxCount      The maximum number of the words
+     *
+     * @return              0 if no word is found; 1 if some words found; minus value if a error occurs.
+     */
+    public int searchWordByKeyDistance( String keyString, int[] x, int[] y, int maxCount );
+
+    /**
+     * Sets the case filter of the search results.
+     *
+     * The words which do not match the filter are skipped by {@link #getNextWord()},
+     * and are not counted in {@link #searchWordByKeyDistance}.
+     *
+     * @param filter    The case filter
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#CASE_FILTER_NONE
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#CASE_FILTER_LOWER
+     *
+     * @return          0 if success; minus value(error code) if fail.
+     */
+    public int setCaseFilter( int filter );
+
     /**
      * Search words from dictionaries with specified conditions.
      * <p>
@@ -214,6 +316,7 @@ public interface WnnDictionary {
      * @param operation     The search operation
      * @see com.googlecode.openwnn.legacy.WnnDictionary#SEARCH_EXACT
      * @see com.googlecode.openwnn.legacy.WnnDictionary#SEARCH_PREFIX
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#SEARCH_COMMON_PREFIX
      * @param order         The sort order
      * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_FREQUENCY
      * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_KEY
@@ -243,6 +346,44 @@ public interface WnnDictionary {
      */
     public int searchWord(int operation, int order, String keyString, WnnWord wnnWord );
 
+    /**
+     * Search words whose key string is a prefix of the specified key string.
+     * <p>
+     * All the prefixes of {@code keyString} which are {@code minLength} or longer are searched
+     * in one pass, and the words of all the prefixes are output together in {@code order}
+     * (the caller can group them by the length of the key string).
+     * The words in the user and learning dictionaries are output first, as {@link #searchWord}.
+     * {@code searchWord(SEARCH_COMMON_PREFIX, order, keyString)} is the same as
+     * {@code searchCommonPrefix(order, keyString, 1)}.
+     * <p>
+     * To get the searched word's information, use {@link #getNextWord()}.
+     *
+     * @param order         The sort order
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_FREQUENCY
+     * @see com.googlecode.openwnn.legacy.WnnDictionary#ORDER_BY_KEY
+     * @param keyString     The key string
+     * @param minLength     The minimum length of the prefixes
+     *
+     * @return              0 if no word is found; 1 if some words found; minus value if a error occurs.
+     */
+    public int searchCommonPrefix(int order, String keyString, int minLength );
+
+    /**
+     * Get the links learned in the learning dictionary within a key string.
+     * <p>
+     * The pairs of the preceding word and the following word whose readings are
+     * consecutive in {@code keyString} (ignoring the case) are got by one search,
+     * so the caller need not search the links of each preceding word by
+     * {@link #searchWord(int, int, String, WnnWord)}.
+     * The learning dictionary is searched even if it is not set by {@link #setDictionary}.
+     *
+     * @param keyString     The key string
+     *
+     * @return              The pairs ({@code [i][0]} is the preceding word and {@code [i][1]} is the following word);
+     *                      {@code null} if an error occurs.
+     */
+    public WnnWord[][] getLinkedWords(String keyString );
+
     /**
      * Retrieve a searched word information.
      *
@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The search cache class of word lists.
+ * <br>
+ * This cache is bounded by the number of entries and the estimated memory size.
+ * When one of the limits is exceeded, the least recently used entries are evicted.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnWordCache {
+    /** Estimated size of an entry (in bytes) */
+    private static final int ENTRY_OVERHEAD = 48;
+    /** Estimated size of a word (in bytes) */
+    private static final int WORD_OVERHEAD = 64;
+
+    /** The cache entry */
+    private static class Entry {
+        /** The word list */
+        ArrayList<WnnWord> words;
+        /** The estimated size of the entry (in bytes) */
+        int size;
+
+        /**
+         * Constructor
+         *
+         * @param words     The word list
+         * @param size      The estimated size of the entry
+         */
+        Entry(ArrayList<WnnWord> words, int size) {
+            this.words = words;
+            this.size  = size;
+        }
+    }
+
+    /** The entries (ordered by access) */
+    private LinkedHashMap<String, Entry> mMap;
+    /** Maximum number of entries */
+    private int mMaxEntries;
+    /** Maximum size of entries (in bytes) */
+    private int mMaxBytes;
+    /** Current size of entries (in bytes) */
+    private int mBytes = 0;
+
+    /** Number of cache hits */
+    private int mHitCount = 0;
+    /** Number of cache misses */
+    private int mMissCount = 0;
+    /** Number of evicted entries */
+    private int mEvictionCount = 0;
+    /** Number of changes of the entries */
+    private int mModCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries    Maximum number of entries
+     * @param maxBytes      Maximum size of entries (in bytes)
+     */
+    public WnnWordCache(int maxEntries, int maxBytes) {
+        mMap = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        mMaxEntries = maxEntries;
+        mMaxBytes   = maxBytes;
+    }
+
+    /**
+     * Get the word list.
+     *
+     * @param key       The key
+     * @return          The word list; {@code null} if not cached.
+     */
+    public ArrayList<WnnWord> get(String key) {
+        Entry entry = mMap.get(key);
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        return entry.words;
+    }
+
+    /**
+     * Get the word list without counting a hit or a miss.
+     * <br>
+     * This is used to read the entry again which has been looked up by {@link #get}.
+     *
+     * @param key       The key
+     * @return          The word list; {@code null} if not cached.
+     */
+    public ArrayList<WnnWord> peek(String key) {
+        Entry entry = mMap.get(key);
+        return (entry == null) ? null : entry.words;
+    }
+
+    /**
+     * Store the word list.
+     * <br>
+     * The size of the list is estimated at this time, so the list should not be modified after storing.
+     *
+     * @param key       The key
+     * @param words     The word list
+     */
+    public void put(String key, ArrayList<WnnWord> words) {
+        Entry entry = new Entry(words, sizeOf(key, words));
+        Entry old = mMap.put(key, entry);
+        if (old != null) {
+            mBytes -= old.size;
+        }
+        mBytes += entry.size;
+        mModCount++;
+        trim();
+    }
+
+    /**
+     * Remove the word list.
+     *
+     * @param key       The key
+     * @return          The removed word list; {@code null} if not cached.
+     */
+    public ArrayList<WnnWord> remove(String key) {
+        Entry entry = mMap.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        mBytes -= entry.size;
+        mModCount++;
+        return entry.words;
+    }
+
+    /**
+     * Remove the word lists whose key is a part of the string.
+     * <br>
+     * This is used to drop the results which may be changed by learning a word.
+     *
+     * @param str       The string (ex. the reading of a learned word)
+     * @return          The number of removed entries
+     */
+    public int removeSubstringsOf(String str) {
+        int count = 0;
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (str.indexOf(e.getKey()) >= 0) {
+                it.remove();
+                mBytes -= e.getValue().size;
+                count++;
+            }
+        }
+        mModCount += count;
+        return count;
+    }
+
+    /**
+     * Remove the word lists whose key is a prefix of the string.
+     * <br>
+     * This is used to drop the results of the prefix searches which may be changed by learning a word.
+     *
+     * @param str           The string (ex. the reading of a learned word)
+     * @param ignoreCase    {@code true} to ignore the case of the keys
+     * @return              The number of removed entries
+     */
+    public int removePrefixesOf(String str, boolean ignoreCase) {
+        int count = 0;
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            String key = e.getKey();
+            if (str.regionMatches(ignoreCase, 0, key, 0, key.length())) {
+                it.remove();
+                mBytes -= e.getValue().size;
+                count++;
+            }
+        }
+        mModCount += count;
+        return count;
+    }
+
+    /**
+     * Add the entries of another cache.
+     * <br>
+     * The entries which are already in this cache are not replaced.
+     *
+     * @param cache     The cache to add
+     */
+    public void merge(WnnWordCache cache) {
+        Iterator<Map.Entry<String, Entry>> it = cache.mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!mMap.containsKey(e.getKey())) {
+                Entry entry = e.getValue();
+                mMap.put(e.getKey(), new Entry(entry.words, entry.size));
+                mBytes += entry.size;
+                mModCount++;
+            }
+        }
+        trim();
+    }
+
+    /**
+     * Copy the entries to a map.
+     * <br>
+     * The order of use is not changed.
+     *
+     * @param map       The map to store the entries
+     */
+    public void copyTo(Map<String, ArrayList<WnnWord>> map) {
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            map.put(e.getKey(), e.getValue().words);
+        }
+    }
+
+    /**
+     * Copy the most recently used entries to a new cache.
+     * <br>
+     * The word lists are shared, since they are not modified after storing.
+     * The order of use is not changed.
+     *
+     * @param maxEntries    Maximum number of entries to copy
+     * @return              The new cache (without limits)
+     */
+    public WnnWordCache copy(int maxEntries) {
+        WnnWordCache cache = new WnnWordCache(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        int skip = mMap.size() - maxEntries;
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (skip-- > 0) {
+                continue;
+            }
+            Entry entry = e.getValue();
+            cache.mMap.put(e.getKey(), new Entry(entry.words, entry.size));
+            cache.mBytes += entry.size;
+        }
+        return cache;
+    }
+
+    /**
+     * Write the most recently used entries to a stream.
+     * <br>
+     * The entries are written from the least recently used one,
+     * so {@link #read} restores the order of use.
+     *
+     * @param out           The stream
+     * @param maxEntries    Maximum number of entries to write
+     * @throws IOException  if an I/O error occurs
+     */
+    public void write(DataOutputStream out, int maxEntries) throws IOException {
+        int skip = mMap.size() - maxEntries;
+        out.writeInt((skip > 0) ? maxEntries : mMap.size());
+
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (skip-- > 0) {
+                continue;
+            }
+            out.writeUTF(e.getKey());
+            ArrayList<WnnWord> words = e.getValue().words;
+            int count = (words == null) ? 0 : words.size();
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                WnnWord word = words.get(i);
+                out.writeInt(word.id);
+                out.writeUTF((word.candidate == null) ? "" : word.candidate);
+                out.writeUTF((word.stroke == null) ? "" : word.stroke);
+                out.writeInt(word.frequency);
+                out.writeInt(word.partOfSpeech.left);
+                out.writeInt(word.partOfSpeech.right);
+                out.writeInt(word.attribute);
+            }
+        }
+    }
+
+    /**
+     * Read the entries from a stream.
+     *
+     * @param in            The stream
+     * @throws IOException  if an I/O error occurs or the data is broken
+     */
+    public void read(DataInputStream in) throws IOException {
+        int entries = in.readInt();
+        if (entries < 0) {
+            throw new IOException("invalid number of entries: " + entries);
+        }
+        for (int n = 0; n < entries; n++) {
+            String key = in.readUTF();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("invalid number of words: " + count);
+            }
+            ArrayList<WnnWord> words = new ArrayList<WnnWord>(count);
+            for (int i = 0; i < count; i++) {
+                int id           = in.readInt();
+                String candidate = in.readUTF();
+                String stroke    = in.readUTF();
+                int frequency    = in.readInt();
+                int left         = in.readInt();
+                int right        = in.readInt();
+                int attribute    = in.readInt();
+                words.add(new WnnWord(id, candidate, stroke, new WnnPOS(left, right), frequency, attribute));
+            }
+            put(key, words);
+        }
+    }
+
+    /**
+     * Clear all entries.
+     */
+    public void clear() {
+        if (!mMap.isEmpty()) {
+            mModCount++;
+        }
+        mMap.clear();
+        mBytes = 0;
+    }
+
+    /**
+     * Change the limits of the cache.
+     *
+     * @param maxEntries    Maximum number of entries
+     * @param maxBytes      Maximum size of entries (in bytes)
+     */
+    public void setLimit(int maxEntries, int maxBytes) {
+        mMaxEntries = maxEntries;
+        mMaxBytes   = maxBytes;
+        trim();
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return          The number of entries
+     */
+    public int size() {
+        return mMap.size();
+    }
+
+    /**
+     * Get the estimated size of entries.
+     *
+     * @return          The size of entries (in bytes)
+     */
+    public int getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * Get the number of cache hits.
+     *
+     * @return          The number of cache hits
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Get the number of cache misses.
+     *
+     * @return          The number of cache misses
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Get the hit rate of the cache.
+     *
+     * @return          The ratio of hits to lookups (0 if not looked up yet)
+     */
+    public float getHitRate() {
+        int lookups = mHitCount + mMissCount;
+        return (lookups == 0) ? 0.0f : (float)mHitCount / lookups;
+    }
+
+    /**
+     * Get the number of evicted entries.
+     *
+     * @return          The number of evicted entries
+     */
+    public int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Get the number of changes of the entries.
+     * <br>
+     * This is used to find whether the cache is changed since a time (for example, it was saved).
+     *
+     * @return          The number of changes
+     */
+    public int getModCount() {
+        return mModCount;
+    }
+
+    /**
+     * Reset the counters.
+     */
+    public void resetCount() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+    /**
+     * Evict the least recently used entries until the cache fits in the limits.
+     */
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> it = mMap.entrySet().iterator();
+        while ((mMap.size() > mMaxEntries || mBytes > mMaxBytes) && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            it.remove();
+            mBytes -= entry.size;
+            mEvictionCount++;
+            mModCount++;
+        }
+    }
+
+    /**
+     * Estimate the size of an entry.
+     *
+     * @param key       The key
+     * @param words     The word list
+     * @return          The estimated size (in bytes)
+     */
+    private static int sizeOf(String key, ArrayList<WnnWord> words) {
+        int size = ENTRY_OVERHEAD + key.length() * 2;
+        if (words != null) {
+            for (int i = 0; i < words.size(); i++) {
+                WnnWord word = words.get(i);
+                size += WORD_OVERHEAD;
+                if (word.candidate != null) {
+                    size += word.candidate.length() * 2;
+                }
+                if (word.stroke != null) {
+                    size += word.stroke.length() * 2;
+                }
+            }
+        }
+        return size;
+    }
+}
@@ -18,7 +18,6 @@ package com.googlecode.openwnn.legacy.ZH;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 
 import com.googlecode.openwnn.legacy.*;
@@ -46,17 +45,28 @@ public class ConsonantPrediction {
     private List<String> mInputPinyinList;
     /** Whether exact match search or not */
     private boolean mExactMatchMode = false;
-    
-    /** Search cache */
-    private ArrayList<WnnWord> mSearchCache[];
+
+    /** Maximum number of entries in the index */
+    private static final int INDEX_SIZE = 32;
+    /** Maximum size of the index (in bytes) */
+    private static final int INDEX_BYTES = 512 * 1024;
+
+    /** Index from the initials of the syllables to the words whose initials start with them (kept across searches) */
+    private WnnWordCache mIndex;
+    /** Initials of the words being fetched from the dictionary ({@code null} if not fetching) */
+    private String mFetchKey;
+    /** Words fetched from the dictionary whose initials start with {@code mFetchKey} */
+    private ArrayList<WnnWord> mFetchWords;
     /** Number of words fetched from the dictionary */
     private int mFetchNumFromDict;
-    /** Number of words in the cache */
-    private int mCacheNum;
-    /** Search key */
-    private String mSearchKey;
-    /** Iterator of candidates from cache */
-    private Iterator<WnnWord> mCacheIt;
+    /** Whether the words are still fetched from the dictionary in the current search */
+    private boolean mFetching;
+    /** Words of the current search */
+    private ArrayList<WnnWord> mWords;
+    /** Position of the next word in {@code mWords} */
+    private int mWordIndex;
+    /** End positions of the syllables of a word's reading (work area) */
+    private int[] mStrokeBoundary = new int[MAX_KANJI_LENGTH * PinyinParser.PINYIN_MAX_LENGTH];
     
     /**
      * Constructor
@@ -65,20 +75,42 @@ public class ConsonantPrediction {
     	mCheckDuplication = new HashMap<String, WnnWord>();
         mCandidateList = new ArrayList<WnnWord>();
         mInputPinyinList = new ArrayList<String>();
-        mSearchCache = new ArrayList[MAX_KANJI_LENGTH];
+        mIndex = new WnnWordCache(INDEX_SIZE, INDEX_BYTES);
         clearCache();
     }
 
     /**
      * Set dictionaries to convert.
+     * <br>
+     * The index is kept if the dictionary is not changed.
      * 
      * @param dict		Dictionaries to convert
      */
     public void setDictionary(WnnDictionary dict) {
-        mDictionary = dict;
-        clearCache();
+        if (dict != mDictionary) {
+            mDictionary = dict;
+            clearCache();
+        }
     }
     
+    /**
+     * Invalidate the index affected by a learned word.
+     * <br>
+     * Only the words of the initials which are a prefix of the initials of
+     * {@code stroke} are discarded.
+     *
+     * @param stroke	The reading of the learned word
+     */
+    public void invalidateCache(String stroke) {
+    	String initials = getInitials(stroke);
+    	mIndex.removePrefixesOf(initials, false);
+    	if (mFetchKey != null && initials.startsWith(mFetchKey)) {
+    		mFetchKey = null;
+    	}
+    	mWords = null;
+    	mFetching = false;
+    }
+
     /**
      * Clear the work buffers to convert.
      */
@@ -89,16 +121,16 @@ public class ConsonantPrediction {
     }
     
     /**
-     * Clear the cache to convert.
+     * Clear the index.
+     * <br>
+     * This is used when the words in the dictionary are changed other than by learning.
      */
-    private void clearCache() {
-    	mSearchKey = "";
-    	ArrayList<WnnWord>[] cache = mSearchCache;
-    	for (int i = 0; i < cache.length; i++) {
-    		cache[i] = null;
-    	}
-        mCacheNum = 0;
-        mCacheIt = null;
+    public void clearCache() {
+    	mIndex.clear();
+    	mFetchKey = null;
+        mFetchWords = null;
+        mWords = null;
+        mFetching = false;
     }
 
     /**
@@ -125,6 +157,19 @@ public class ConsonantPrediction {
         	return null;
         }
         
+        /* use the words of the initials in the index */
+        String initials = getInitials(pinyinList, pinyinList.size());
+        ArrayList<WnnWord> words = mIndex.get(initials);
+        if (words == null) {
+        	words = filterIndex(initials);
+        }
+        if (words != null) {
+        	mWords = words;
+        	mWordIndex = 0;
+        	mFetching = false;
+        	return nextCandidate();
+        }
+
         /* set the dictionary for consonant prediction */
         WnnDictionary dict = mDictionary;
         dict.clearDictionary();
@@ -134,36 +179,66 @@ public class ConsonantPrediction {
         dict.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
         dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_EN_TOUPPER);
 
-        /* get the iterator from the cache */
-        String searchKey = pinyinList.get(0);
-        if (searchKey.equals(mSearchKey)) {
-        	/* can use the cache */
-            int pinyinLen = pinyinList.size();
-            ArrayList<WnnWord> cache = (mSearchCache.length > pinyinLen) ? mSearchCache[pinyinLen] : null;
-            if (cache == null) {
-            	mCacheIt = null; /* not matched */
-            } else {
-            	mCacheIt = cache.iterator();
-            }
-        } else {
-        	/* cannot use the cache. (search again) */
-        	clearCache();
-        	mSearchKey = searchKey;
+        if (!initials.equals(mFetchKey)) {
+        	/* cannot continue the previous fetch (search again) */
+        	mFetchKey = initials;
+        	mFetchWords = new ArrayList<WnnWord>();
+        	mFetchNumFromDict = 0;
         }
-        
-        /* get the first candidate */
-        if (mCacheNum < 0) {
-        	/* If all the matched words from the dictionary is fetched already, use the cache. */
-        	return nextCandidate();
-        } else if (dict.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY,
-                            searchKey) > 0) {
-            mFetchNumFromDict = 0;
-        	return nextCandidate();
+        mWords = mFetchWords;
+        mWordIndex = 0;
+        mFetching = true;
+
+        /* get the words of the first initial, and skip the words fetched already */
+        if (dict.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY,
+                            initials.substring(0, 1)) > 0) {
+        	for (int i = 0; i < mFetchNumFromDict; i++) {
+        		if (dict.getNextWord() == null) {
+        			endFetch();
+        			break;
+        		}
+        	}
+        } else {
+        	endFetch();
         }
-        
-        /* no more candidate found */
-        mCacheNum = -1;
-        return null;
+        return nextCandidate();
+    }
+
+    /**
+     * Make the words of the initials from the words of their prefix in the index.
+     *
+     * @param initials	The initials
+     * @return			The words; {@code null} if no prefix is in the index.
+     */
+    private ArrayList<WnnWord> filterIndex(String initials) {
+    	for (int len = initials.length() - 1; len > 0; len--) {
+    		ArrayList<WnnWord> base = mIndex.peek(initials.substring(0, len));
+    		if (base != null) {
+    			ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+    			for (int i = 0; i < base.size(); i++) {
+    				WnnWord word = base.get(i);
+    				if (getInitials(word.stroke).startsWith(initials)) {
+    					words.add(word);
+    				}
+    			}
+    			mIndex.put(initials, words);
+    			return words;
+    		}
+    	}
+    	return null;
+    }
+
+    /**
+     * Finish fetching the words from the dictionary.
+     * <br>
+     * All the words of the initials are fetched, so they are stored into the index.
+     */
+    private void endFetch() {
+    	if (mFetchKey != null) {
+    		mIndex.put(mFetchKey, mFetchWords);
+    		mFetchKey = null;
+    	}
+    	mFetching = false;
     }
     
     /**
@@ -188,83 +263,103 @@ public class ConsonantPrediction {
      */
     public WnnWord nextCandidate() {      
         List<String> pinyinList = mInputPinyinList;
-        
-        /* use cache if there are some more candidates */
-        if (mCacheIt != null) {
-        	 while (mCacheIt.hasNext()) {
-        		 WnnWord word = mCacheIt.next();
-        		 List<String> pinyinList2 = PinyinParser.getPinyinList(word.stroke);
-        		 if (matchPinyin(pinyinList, pinyinList2, mExactMatchMode)) {
-        			 return word;
-        		 }
-        	 }
-        	 return null;
-        }
-        if (mCacheNum < 0) {
-        	/* End of matched word */
+        if (mWords == null) {
         	return null;
         }
-    
-        /* move the search cursor to the position of the next word. */
-        WnnDictionary dict = mDictionary;  
-        while (mFetchNumFromDict < mCacheNum) {
-        	if (dict.getNextWord() == null) {
-        		mFetchNumFromDict = -1;
+
+        while (true) {
+        	/* use the words in the list */
+        	while (mWordIndex < mWords.size()) {
+        		WnnWord word = mWords.get(mWordIndex++);
+        		if (matchPinyin(pinyinList, word.stroke, mExactMatchMode) && addCandidate(word)) {
+        			return word;
+        		}
+        	}
+        	if (!mFetching) {
+        		/* End of matched word */
         		return null;
         	}
-        	mFetchNumFromDict++;
+
+        	/* fetch the next word of the initials from the dictionary */
+        	WnnWord word;
+        	do {
+        		word = mDictionary.getNextWord();
+        		if (word == null) {
+        			/* no more words in the dictionary */
+        			endFetch();
+        			return null;
+        		}
+        		mFetchNumFromDict++;
+        	} while (!getInitials(word.stroke).startsWith(mFetchKey));
+        	mFetchWords.add(word);
         }
+    }
+    
+    /**
+     * Get the initials of syllables.
+     *
+     * @param syllables	The syllables
+     * @param count		The number of syllables to use
+     * @return			The initials (in lower case)
+     */
+    private static String getInitials(List<String> syllables, int count) {
+    	char[] initials = new char[count];
+    	for (int i = 0; i < count; i++) {
+    		initials[i] = Character.toLowerCase(syllables.get(i).charAt(0));
+    	}
+    	return new String(initials);
+    }
 
-        /* fetch words from the dictionary and store into the cache */
-        WnnWord word;
-    	while ((word = dict.getNextWord()) != null) {
-    		mFetchNumFromDict++;
-    		
-    		/* store to the cache */
-    		List<String> pinyinList2 = PinyinParser.getPinyinList(word.stroke);
-    		int len = pinyinList2.size();
-    		if (len >= mSearchCache.length) {
-    			len = mSearchCache.length - 1;
-    		}
-    		for (int i = 1; i <= len; i++) {
-    			ArrayList<WnnWord> cache = mSearchCache[i];
-    			if (cache == null) {
-    				cache = new ArrayList<WnnWord>();
-    				mSearchCache[i] = cache;
-    			}
-    			cache.add(word);
-    		}
-    		mCacheNum++;
-    		
-    		/* check if the word is matched */
-    		if (matchPinyin(pinyinList, pinyinList2, mExactMatchMode)) {
-    			if (addCandidate(word)) {
-                    return word;  				
-    			}
-    		}
+    /**
+     * Get the initials of the syllables of a word's reading.
+     *
+     * @param stroke	The reading of a word
+     * @return			The initials (in lower case)
+     */
+    private String getInitials(String stroke) {
+    	int count = parseStroke(stroke);
+    	int[] ends = mStrokeBoundary;
+    	char[] initials = new char[count];
+    	int start = 0;
+    	for (int i = 0; i < count; i++) {
+    		initials[i] = Character.toLowerCase(stroke.charAt(start));
+    		start = ends[i];
     	}
-    	
-    	/* no more words in the dictionary */
-    	mCacheNum = -1;
-    	return null;
+    	return new String(initials);
     }
-    
+
+    /**
+     * Divide the reading of a word into syllables.
+     * <br>
+     * The end positions of the syllables are stored into {@code mStrokeBoundary}.
+     *
+     * @param stroke	The reading of a word
+     * @return			The number of syllables
+     */
+    private int parseStroke(String stroke) {
+    	if (mStrokeBoundary.length < stroke.length()) {
+    		mStrokeBoundary = new int[stroke.length() * 2];
+    	}
+    	return PinyinParser.parse(stroke, mStrokeBoundary);
+    }
+
     /** 	     
-     * Compare the pinyin lists.
+     * Compare the pinyin list and the reading of a word.
      * <br>
      * When the comparison mode is exact matching, this method returns {@code true}
      * if the lists match exactly.
      * When the mode is prefix matching, it returns {@code true}
-     * if the prefix part of {@code pinyin2} list matches to {@code pinyin1} list.
+     * if the prefix part of the syllables of {@code stroke} matches to {@code pinyin} list.
      * 
-     * @param pinyin1	The pinyin list to be compared.
-     * @param pinyin2	The pinyin list to be compared.
+     * @param pinyin	The pinyin list to be compared.
+     * @param stroke	The reading of a word.
      * @param exact		Comparison mode. {@code true}:exact matching, {@code false}:prefix matching.
      * @return			{@code true} if the lists match.
      */
-    private boolean matchPinyin(List<String> pinyin1, List<String> pinyin2, boolean exact) {
-    	int len1 = pinyin1.size();
-    	int len2 = pinyin2.size();
+    private boolean matchPinyin(List<String> pinyin, String stroke, boolean exact) {
+    	int len1 = pinyin.size();
+    	int len2 = parseStroke(stroke);
+    	int[] ends = mStrokeBoundary;
     	
     	/* check the length of the lists */
 		if (exact) {
@@ -278,18 +373,13 @@ public class ConsonantPrediction {
 		}
 		
 		/* check each pinyin in the lists */
-		int i;
-		for (i = 0; i < len1; i++) {
-			String p1 = pinyin1.get(i);
-			String p2 = pinyin2.get(i);
-			if (p1.length() > p2.length()
-                || !p1.equals(p2.substring(0, p1.length()))) {
-				break;
+		int start = 0;
+		for (int i = 0; i < len1; i++) {
+			if (!PinyinParser.getSyllable(stroke, start, ends[i]).startsWith(pinyin.get(i))) {
+				return false;
 			}
+			start = ends[i];
 		}
-		if (i == len1) {
-			return true;
-		}
-		return false;
+		return true;
     }
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.ZH;
+
+import com.googlecode.openwnn.legacy.*;
+
+/**
+ * The rule set of fuzzy PinYin.
+ * <br>
+ * The rules are given to the dictionary as the predefined approximate patterns,
+ * so the alternatives are expanded in one search.
+ * The approximate patterns can only replace a character of the key with a string
+ * (ex. "z" to "Zh"), so the key is normalized to the shorter form before searching
+ * (ex. "zhang" to "zang"), and the found words are checked by the number of the rules
+ * applied to them (the edit cost).
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class FuzzyPinyin {
+    /** Rule: "z" and "zh" */
+    public static final int RULE_Z_ZH   = 0x01;
+    /** Rule: "c" and "ch" */
+    public static final int RULE_C_CH   = 0x02;
+    /** Rule: "s" and "sh" */
+    public static final int RULE_S_SH   = 0x04;
+    /** Rule: "n" and "l" */
+    public static final int RULE_N_L    = 0x08;
+    /** Rule: "an" and "ang" */
+    public static final int RULE_AN_ANG = 0x10;
+    /** Rule: "en" and "eng" */
+    public static final int RULE_EN_ENG = 0x20;
+    /** Rule: "in" and "ing" */
+    public static final int RULE_IN_ING = 0x40;
+    /** All the rules */
+    public static final int RULE_ALL    = 0x7f;
+
+    /** Maximum number of the rules applied to a word */
+    public static final int MAX_COST = 2;
+
+    /** The enabled rules */
+    private int mRules = 0;
+
+    /**
+     * Constructor
+     */
+    public FuzzyPinyin() {
+    }
+
+    /**
+     * Set the enabled rules.
+     *
+     * @param rules     The rules ({@code RULE_*} combined; 0 to disable)
+     */
+    public void setRules(int rules) {
+        mRules = rules & RULE_ALL;
+    }
+
+    /**
+     * Get the enabled rules.
+     *
+     * @return          The rules
+     */
+    public int getRules() {
+        return mRules;
+    }
+
+    /**
+     * Whether any rule is enabled.
+     *
+     * @return          {@code true} if enabled; {@code false} if not.
+     */
+    public boolean isEnabled() {
+        return mRules != 0;
+    }
+
+    /**
+     * Set the approximate patterns of the enabled rules to the dictionary.
+     *
+     * @param dict      The dictionary
+     */
+    public void setApproxPatterns(WnnDictionary dict) {
+        if ((mRules & RULE_Z_ZH) != 0) {
+            dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_ZH_FUZZY_Z_ZH);
+        }
+        if ((mRules & RULE_C_CH) != 0) {
+            dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_ZH_FUZZY_C_CH);
+        }
+        if ((mRules & RULE_S_SH) != 0) {
+            dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_ZH_FUZZY_S_SH);
+        }
+        if ((mRules & RULE_N_L) != 0) {
+            dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_ZH_FUZZY_N_L);
+        }
+        if ((mRules & (RULE_AN_ANG | RULE_EN_ENG | RULE_IN_ING)) != 0) {
+            dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_ZH_FUZZY_NG);
+        }
+    }
+
+    /**
+     * Normalize the search key to the shorter forms of the rules.
+     * <br>
+     * "zh", "ch", "sh" become "z", "c", "s", and the final "ang", "eng", "ing"
+     * become "an", "en", "in" (unless the "g" can be the initial of the next syllable).
+     *
+     * @param input     The search key
+     * @return          The normalized key
+     */
+    public String normalize(String input) {
+        if (mRules == 0) {
+            return input;
+        }
+        int len = input.length();
+        StringBuffer key = new StringBuffer(len);
+        for (int i = 0; i < len; i++) {
+            char c = input.charAt(i);
+            if (i > 0 && isOptionalH(input, i)) {
+                continue;
+            }
+            if (i > 1 && isOptionalG(input, i)
+                && (i + 1 == len || !isVowel(input.charAt(i + 1)))) {
+                continue;
+            }
+            key.append(c);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get the edit cost of a word.
+     * <br>
+     * The cost is the number of the rules applied to match the input to the reading.
+     *
+     * @param input     The input string
+     * @param stroke    The reading of the word
+     * @param exact     {@code true} if the whole reading must match; {@code false} if the input is a prefix.
+     * @return          The cost; -1 if the word does not match within {@link #MAX_COST}.
+     */
+    public int getCost(String input, String stroke, boolean exact) {
+        return match(input, 0, stroke, 0, 0, exact);
+    }
+
+    /**
+     * Match the rest of the input to the rest of the reading.
+     *
+     * @param input     The input string
+     * @param i         The position in the input
+     * @param stroke    The reading of the word
+     * @param j         The position in the reading
+     * @param cost      The cost so far
+     * @param exact     {@code true} if the whole reading must match
+     * @return          The minimum cost; -1 if not matched.
+     */
+    private int match(String input, int i, String stroke, int j, int cost, boolean exact) {
+        if (cost > MAX_COST) {
+            return -1;
+        }
+        if (i == input.length()) {
+            return (!exact || j == stroke.length()) ? cost : -1;
+        }
+
+        int best = -1;
+        if (j < stroke.length()) {
+            char in = Character.toLowerCase(input.charAt(i));
+            char st = stroke.charAt(j);
+            if (in == Character.toLowerCase(st)) {
+                best = match(input, i + 1, stroke, j + 1, cost, exact);
+                if (best == cost) {
+                    return best;
+                }
+            } else if ((mRules & RULE_N_L) != 0
+                       && ((in == 'n' && st == 'L') || (in == 'l' && st == 'N'))) {
+                best = match(input, i + 1, stroke, j + 1, cost + 1, exact);
+            }
+        }
+
+        /* an "h" or a "g" which is only in the input or only in the reading */
+        int skip = -1;
+        if (i > 0 && (isOptionalH(input, i) || (i > 1 && isOptionalG(input, i)))) {
+            skip = match(input, i + 1, stroke, j, cost + 1, exact);
+            if (skip >= 0 && (best < 0 || skip < best)) {
+                best = skip;
+            }
+        }
+        if (j > 0 && j < stroke.length() && (isOptionalH(stroke, j) || (j > 1 && isOptionalG(stroke, j)))) {
+            skip = match(input, i, stroke, j + 1, cost + 1, exact);
+            if (skip >= 0 && (best < 0 || skip < best)) {
+                best = skip;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Whether the character is the "h" of an enabled "zh", "ch" or "sh" rule.
+     *
+     * @param str       The string
+     * @param pos       The position of the character (greater than 0)
+     * @return          {@code true} if the "h" is optional; {@code false} if not.
+     */
+    private boolean isOptionalH(String str, int pos) {
+        if (Character.toLowerCase(str.charAt(pos)) != 'h') {
+            return false;
+        }
+        switch (Character.toLowerCase(str.charAt(pos - 1))) {
+        case 'z':
+            return (mRules & RULE_Z_ZH) != 0;
+        case 'c':
+            return (mRules & RULE_C_CH) != 0;
+        case 's':
+            return (mRules & RULE_S_SH) != 0;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Whether the character is the "g" of an enabled "ang", "eng" or "ing" rule.
+     *
+     * @param str       The string
+     * @param pos       The position of the character (greater than 1)
+     * @return          {@code true} if the "g" is optional; {@code false} if not.
+     */
+    private boolean isOptionalG(String str, int pos) {
+        if (str.charAt(pos) != 'g' || str.charAt(pos - 1) != 'n') {
+            return false;
+        }
+        switch (Character.toLowerCase(str.charAt(pos - 2))) {
+        case 'a':
+            return (mRules & RULE_AN_ANG) != 0;
+        case 'e':
+            return (mRules & RULE_EN_ENG) != 0;
+        case 'i':
+            return (mRules & RULE_IN_ING) != 0;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Whether the character is a vowel of PinYin.
+     *
+     * @param c         The character
+     * @return          {@code true} if a vowel; {@code false} if not.
+     */
+    private static boolean isVowel(char c) {
+        switch (Character.toLowerCase(c)) {
+        case 'a':
+        case 'e':
+        case 'i':
+        case 'o':
+        case 'u':
+        case 'v':
+            return true;
+        default:
+            return false;
+        }
+    }
+}
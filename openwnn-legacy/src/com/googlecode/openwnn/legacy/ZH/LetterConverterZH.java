@@ -16,11 +16,11 @@
 
 package com.googlecode.openwnn.legacy.ZH;
 
-import java.util.HashMap;
 
 import com.googlecode.openwnn.legacy.ComposingText;
 import com.googlecode.openwnn.legacy.LetterConverter;
 import com.googlecode.openwnn.legacy.StrSegment;
+import com.googlecode.openwnn.legacy.WnnCharTable;
 
 import android.content.SharedPreferences;
 
@@ -30,23 +30,23 @@ import android.content.SharedPreferences;
  * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
  */
 public class LetterConverterZH implements LetterConverter {
-    /** HashMap for symbol conversion (Chinese mode) */
-    private static final HashMap<String, String> convTable = new HashMap<String, String>() {{
-        put(".", "\u3002"); put(",", "\uff0c"); put("?", "\uff1f"); put("(", "\uff08"); put(")", "\uff09");
-        put("~", "\uff5e"); put("\"", "\u201c"); put("'", "\u2018"); put(":", "\uff1a"); put(";", "\uff1b");
-        put("!", "\uff01"); put("^", "\u2026\u2026"); put("\u00a5", "\uffe5"); put("$", "\uffe5"); put("\\", "\u3001");
-        put("[", "\u3010"); put("]", "\u3011"); put("_", "\u2014\u2014"); put("{", "\u3014"); put("}", "\u3015");
-        put("`", "\u00b7"); put("<", "\u300a"); put(">", "\u300b"); 
-    }};
+    /** Table for symbol conversion (Chinese mode) */
+    private static final WnnCharTable convTable = new WnnCharTable(new String[][] {
+        {".", "\u3002"}, {",", "\uff0c"}, {"?", "\uff1f"}, {"(", "\uff08"}, {")", "\uff09"},
+        {"~", "\uff5e"}, {"\"", "\u201c"}, {"'", "\u2018"}, {":", "\uff1a"}, {";", "\uff1b"},
+        {"!", "\uff01"}, {"^", "\u2026\u2026"}, {"\u00a5", "\uffe5"}, {"$", "\uffe5"}, {"\\", "\u3001"},
+        {"[", "\u3010"}, {"]", "\u3011"}, {"_", "\u2014\u2014"}, {"{", "\u3014"}, {"}", "\u3015"},
+        {"`", "\u00b7"}, {"<", "\u300a"}, {">", "\u300b"},
+    });
 
-    /** HashMap for symbol conversion(when the shift key is pressed) (Chinese mode) */
-    private static final HashMap<String, String> convTableShifted = new HashMap<String, String>() {{
-        put(".", "\u3002"); put(",", "\uff0c"); put("?", "\uff1f"); put("(", "\uff08"); put(")", "\uff09");
-        put("~", "\uff5e"); put("\"", "\u201c"); put("'", "\u2018"); put(":", "\uff1a"); put(";", "\uff1b");
-        put("!", "\uff01"); put("^", "\u2026\u2026"); put("\u00a5", "\uffe5"); put("$", "\uffe5"); put("\\", "\u3001");
-        put("[", "\u3010"); put("]", "\u3011"); put("_", "\u2014\u2014"); put("{", "\u3014"); put("}", "\u3015");
-        put("`", "\u00b7"); put("<", "\u300a"); put(">", "\u300b"); 
-    }};
+    /** Table for symbol conversion(when the shift key is pressed) (Chinese mode) */
+    private static final WnnCharTable convTableShifted = new WnnCharTable(new String[][] {
+        {".", "\u3002"}, {",", "\uff0c"}, {"?", "\uff1f"}, {"(", "\uff08"}, {")", "\uff09"},
+        {"~", "\uff5e"}, {"\"", "\u201c"}, {"'", "\u2018"}, {":", "\uff1a"}, {";", "\uff1b"},
+        {"!", "\uff01"}, {"^", "\u2026\u2026"}, {"\u00a5", "\uffe5"}, {"$", "\uffe5"}, {"\\", "\u3001"},
+        {"[", "\u3010"}, {"]", "\u3011"}, {"_", "\u2014\u2014"}, {"{", "\u3014"}, {"}", "\u3015"},
+        {"`", "\u00b7"}, {"<", "\u300a"}, {">", "\u300b"},
+    });
 
     /***********************************************************************
      * LetterConverter's interface
@@ -86,9 +86,9 @@ public class LetterConverterZH implements LetterConverter {
                 key.append(str[i].string);
             }
             if (shift == 0) {
-                match = (String) LetterConverterZH.convTable.get(key.toString().toLowerCase());
+                match = LetterConverterZH.convTable.get(key.toString().toLowerCase());
             } else {
-                match = (String) LetterConverterZH.convTableShifted.get(key.toString().toLowerCase());
+                match = LetterConverterZH.convTableShifted.get(key.toString().toLowerCase());
             }
             if (match != null) {
                 StrSegment[] out;
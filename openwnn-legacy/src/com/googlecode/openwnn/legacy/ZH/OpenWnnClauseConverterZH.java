@@ -17,9 +17,9 @@
 package com.googlecode.openwnn.legacy.ZH;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 import com.googlecode.openwnn.legacy.*;
 
@@ -51,10 +51,20 @@ public class OpenWnnClauseConverterZH {
     private WnnDictionary mDictionary;
 
     /** candidates of conversion */
-    private LinkedList<WnnClause> mConvertResult;
+    private WnnClauseList mConvertResult;
 
-    /** work area for consecutive clause conversion */
-    private WnnSentence[] mSentenceBuffer;
+    /** lattice for consecutive clause conversion */
+    private WnnClauseLattice mLattice;
+
+    /** beam width of the lattice for N-best conversion */
+    private int mBeamWidth = WnnClauseLattice.DEFAULT_BEAM_WIDTH;
+
+    /** input string of the lattice ({@code null} if the lattice is not valid) */
+    private String mLatticeInput = null;
+    /** end position where making clauses was stopped (for each start position) */
+    private int[] mStopPosition;
+    /** end position where no prefix matched word was found (for each start position; {@code Integer.MAX_VALUE} if not found) */
+    private int[] mNoMatchPosition;
 
     /** part of speech (default) */
     private WnnPOS mPosDefault;
@@ -67,6 +77,28 @@ public class OpenWnnClauseConverterZH {
 
     /** cost value of a clause */
     private static final int CLAUSE_COST = -1000;
+
+    /** score of a transition learned in the learning dictionary (link mode) */
+    private static final int LINK_SCORE = 300;
+    /** maximum number of entries in the bigram table (link mode) */
+    private static final int BIGRAM_TABLE_SIZE = 2048;
+    /** maximum number of spans expanded with all the candidates at each position (link mode) */
+    private static final int LINK_SPAN_LIMIT = 8;
+
+    /** whether the link mode is enabled or not */
+    private boolean mLinkMode = false;
+    /** bigram table of the links in the learning dictionary */
+    private WnnBigramTable mBigramTable;
+    /** input string whose links are in the bigram table ({@code null} if no link is loaded) */
+    private String mLinksInput = null;
+    /** spans of the linked words at each position (bit {@code (end - start - 1)} is set for a span) */
+    private long[] mLinkSpans;
+    /** transition score of the lattice (link mode) */
+    private WnnClauseLattice.Transition mLinkTransition = new WnnClauseLattice.Transition() {
+            public int getScore(WnnClause previous, WnnClause clause) {
+                return getLinkScore(previous, clause);
+            }
+        };
     
     /** The candidate filter */
     private CandidateFilter mFilter;
@@ -77,9 +109,15 @@ public class OpenWnnClauseConverterZH {
     public OpenWnnClauseConverterZH() {
         mIndepWordBag  = new HashMap<String, ArrayList<WnnWord>>();
         mAllIndepWordBag  = new HashMap<String, ArrayList<WnnWord>>();
-        mConvertResult = new LinkedList<WnnClause>();
+        mConvertResult = new WnnClauseList();
 
-        mSentenceBuffer = new WnnSentence[MAX_INPUT_LENGTH];
+        mLattice = new WnnClauseLattice(MAX_INPUT_LENGTH);
+        mStopPosition = new int[MAX_INPUT_LENGTH];
+        mNoMatchPosition = new int[MAX_INPUT_LENGTH];
+        Arrays.fill(mNoMatchPosition, Integer.MAX_VALUE);
+
+        mBigramTable = new WnnBigramTable(BIGRAM_TABLE_SIZE);
+        mLinkSpans = new long[MAX_INPUT_LENGTH];
     }
 
     /**
@@ -94,6 +132,8 @@ public class OpenWnnClauseConverterZH {
         /* clear work areas */
         mIndepWordBag.clear();
         mAllIndepWordBag.clear();
+        mLatticeInput = null;
+        clearLinks();
 
         /* clear dictionary settings */
         mDictionary = dict;
@@ -107,6 +147,170 @@ public class OpenWnnClauseConverterZH {
         mPosEndOfClause3 = dict.getPOS(WnnDictionary.POS_TYPE_V3);
     }
     
+    /**
+     * Set the beam width for N-best consecutive clause conversion.
+     *
+     * @param width     Number of clauses kept at each position of the lattice
+     */
+    public void setBeamWidth(int width) {
+        mBeamWidth = (width < 1) ? 1 : width;
+    }
+
+    /**
+     * Enable or disable the link mode of consecutive clause conversion.
+     * <br>
+     * In the link mode, some clauses are kept for each part of the input,
+     * and a pair of clauses which was learned in the learning dictionary
+     * (link information) gets a higher score.
+     * A part of the input is tried as a clause while there is a word
+     * which starts with it.
+     *
+     * @param enable    {@code true} to enable the link mode
+     */
+    public void setLinkMode(boolean enable) {
+        if (mLinkMode != enable) {
+            mLinkMode = enable;
+            mLattice.setTransition(enable ? mLinkTransition : null);
+            mLatticeInput = null;
+        }
+    }
+
+    /**
+     * Invalidate the search caches affected by a learned word.
+     * <br>
+     * The words whose key is a part of {@code stroke} are searched again.
+     *
+     * @param stroke    The reading of the learned word
+     */
+    public void invalidateCache(String stroke) {
+        if (stroke == null || stroke.length() == 0) {
+            return;
+        }
+        String str = stroke.toLowerCase();
+        removeSubstringsOf(mIndepWordBag, str);
+        removeSubstringsOf(mAllIndepWordBag, str);
+        mLatticeInput = null;
+        clearLinks();
+    }
+
+    /**
+     * Clear the link information got from the learning dictionary.
+     */
+    private void clearLinks() {
+        mBigramTable.clear();
+        mLinksInput = null;
+        Arrays.fill(mLinkSpans, 0);
+    }
+
+    /**
+     * Load the links within the input from the learning dictionary.
+     * <br>
+     * The links are got by one search before making the lattice, and
+     * the spans of the linked words in the input are marked to be
+     * expanded with all the candidates.
+     *
+     * @param input     The input string
+     * @return          The first position whose marked spans are changed; the length of the input if not changed.
+     */
+    private int loadLinks(String input) {
+        if (input.equals(mLinksInput)) {
+            return input.length();
+        }
+        mBigramTable.clear();
+        mLinksInput = input;
+
+        long[] spans = new long[MAX_INPUT_LENGTH];
+        WnnWord[][] links = mDictionary.getLinkedWords(input);
+        if (links != null) {
+            String str = input.toLowerCase();
+            for (int i = 0; i < links.length; i++) {
+                WnnWord previous = links[i][0];
+                WnnWord word = links[i][1];
+                if (previous.stroke == null || word.stroke == null
+                    || previous.stroke.length() == 0 || word.stroke.length() == 0) {
+                    continue;
+                }
+                if (mBigramTable.size() < mBigramTable.getMaxSize()) {
+                    mBigramTable.put(previous.candidate, word.candidate, LINK_SCORE);
+                }
+
+                String prevKey = previous.stroke.toLowerCase();
+                String link = prevKey + word.stroke.toLowerCase();
+                for (int pos = str.indexOf(link); pos >= 0; pos = str.indexOf(link, pos + 1)) {
+                    int mid = pos + prevKey.length();
+                    markLinkSpan(spans, pos, mid);
+                    markLinkSpan(spans, mid, pos + link.length());
+                }
+            }
+        }
+
+        int changed = input.length();
+        for (int start = 0; start < input.length(); start++) {
+            if (spans[start] != mLinkSpans[start]) {
+                changed = start;
+                break;
+            }
+        }
+        mLinkSpans = spans;
+        return changed;
+    }
+
+    /**
+     * Mark a span of a linked word (link mode).
+     *
+     * @param spans     The spans at each position
+     * @param start     The start position of the span
+     * @param end       The end position of the span
+     */
+    private static void markLinkSpan(long[] spans, int start, int end) {
+        long bit = 1L << (end - start - 1);
+        if ((spans[start] & bit) == 0 && Long.bitCount(spans[start]) < LINK_SPAN_LIMIT) {
+            spans[start] |= bit;
+        }
+    }
+
+    /**
+     * Check whether a span is of a linked word (link mode).
+     *
+     * @param start     The start position of the span
+     * @param end       The end position of the span
+     * @return          {@code true} if the span is marked; {@code false} if not.
+     */
+    private boolean isLinkSpan(int start, int end) {
+        return (mLinkSpans[start] & (1L << (end - start - 1))) != 0;
+    }
+
+    /**
+     * Get the score of a transition between clauses (link mode).
+     * <br>
+     * The links within the input are loaded in the bigram table before making the lattice.
+     *
+     * @param previous  The preceding clause
+     * @param clause    The following clause
+     * @return          The score of the transition
+     */
+    private int getLinkScore(WnnClause previous, WnnClause clause) {
+        if (previous.candidate == null || clause.candidate == null) {
+            return 0;
+        }
+        return mBigramTable.get(previous.candidate, clause.candidate);
+    }
+
+    /**
+     * Remove the cached words whose key is a part of the string.
+     *
+     * @param cache     The search cache
+     * @param str       The string (lower case)
+     */
+    private void removeSubstringsOf(HashMap<String, ArrayList<WnnWord>> cache, String str) {
+        Iterator<String> keys = cache.keySet().iterator();
+        while (keys.hasNext()) {
+            if (str.indexOf(keys.next().toLowerCase()) >= 0) {
+                keys.remove();
+            }
+        }
+    }
+
     /**
      * Set the candidate filter
      * 
@@ -114,6 +318,7 @@ public class OpenWnnClauseConverterZH {
      */
     public void setFilter(CandidateFilter filter) {
     	mFilter = filter;
+    	mLatticeInput = null;
     }
 
     /**
@@ -151,17 +356,92 @@ public class OpenWnnClauseConverterZH {
      * @return			The result of consecutive clause conversion; {@code null} if fail.
      */
     public WnnSentence consecutiveClauseConvert(String input) {
-        LinkedList<WnnClause> clauses = new LinkedList<WnnClause>();
+        if (!makeLattice(input, 1)) {
+            return null;
+        }
+        return mLattice.getBestSentence();
+    }
 
-        /* clear the cache which is not matched */
-        for (int i = 0; i < input.length(); i++) {
-            mSentenceBuffer[i] = null;
+    /**
+     * Consecutive clause conversion (N-best).
+     * <br>
+     * The alternatives are made from the same clauses as the best result,
+     * so they cost little more than {@link #consecutiveClauseConvert(String)}.
+     *
+     * @param input		The input string
+     * @param count		Maximum number of results
+     * @return			The results of consecutive clause conversion (ordered by score); {@code null} if fail.
+     */
+    public ArrayList<WnnSentence> consecutiveClauseConvert(String input, int count) {
+        if (!makeLattice(input, mBeamWidth)) {
+            return null;
+        }
+        return mLattice.getSentences(count);
+    }
+
+    /**
+     * Make the lattice of clauses.
+     * <br>
+     * The lattice of the previous input is kept, and only the clauses
+     * after the common prefix of the inputs are made again.
+     *
+     * @param input		The input string
+     * @param beamWidth	Number of clauses kept at each position
+     * @return			{@code true} if success; {@code false} if fail.
+     */
+    private boolean makeLattice(String input, int beamWidth) {
+    	/* do nothing if no dictionary is specified or the input is not valid */
+    	if (mConnectMatrix == null || mDictionary == null
+    		|| input.length() == 0 || input.length() > MAX_INPUT_LENGTH) {
+    		return false;
+    	}
+        if (mLinkMode && beamWidth < mBeamWidth) {
+            /* keep some clauses at each position to choose by the links */
+            beamWidth = mBeamWidth;
+        }
+        int maxScore = CLAUSE_COST + FREQ_LEARN + (mLinkMode ? LINK_SCORE : 0);
+
+        WnnClauseLattice lattice = mLattice;
+        String prev = mLatticeInput;
+        int valid = 0;
+        if (prev != null && lattice.getBeamWidth() == beamWidth) {
+            if (prev.equals(input)) {
+                /* the lattice can be used as it is */
+                return true;
+            }
+
+            /* get the common prefix of the inputs */
+            int len = Math.min(prev.length(), input.length());
+            while (valid < len && prev.charAt(valid) == input.charAt(valid)) {
+                valid++;
+            }
+            /* the clauses at the end of the input have another terminal part of speech */
+            if (valid == prev.length() || valid == input.length()) {
+                valid--;
+            }
         }
-        WnnSentence[] sentence = mSentenceBuffer;
+        if (mLinkMode) {
+            /* the clauses from the position whose linked spans are changed are made again */
+            int changed = loadLinks(input);
+            if (valid > changed) {
+                valid = changed;
+            }
+        }
+        if (valid <= 0) {
+            /* make all the clauses again */
+            valid = 0;
+            Arrays.fill(mNoMatchPosition, Integer.MAX_VALUE);
+        }
+        mLatticeInput = null;
+        lattice.setBeamWidth(beamWidth);
+        lattice.truncate(valid, input.length());
+
+        WnnClauseList clauses = new WnnClauseList();
 
         /* consecutive clause conversion */
         for (int start = 0; start < input.length(); start++) {
-            if (start != 0 && sentence[start-1] == null) {
+            int startScore = lattice.getForwardScore(start);
+            if (startScore == WnnClauseLattice.NO_PATH) {
                 continue;
             }
 
@@ -170,68 +450,77 @@ public class OpenWnnClauseConverterZH {
             if (endLimit > start + 20) {
                 endLimit = start + 20;
             }
-            /* make clauses */
-            boolean prefixMatch = true;
-            for (int end = start + 1 ; end <= endLimit; end++) {
-                int idx = end - 1;
+            /* resume making clauses (the clauses which end at 'valid' or before are in the lattice already) */
+            int end = start + 1;
+            if (end <= valid) {
+                if (mStopPosition[start] <= valid) {
+                    /* stopped before the changed part */
+                    continue;
+                }
+                end = valid + 1;
+            }
+            if (mNoMatchPosition[start] >= end) {
+                mNoMatchPosition[start] = Integer.MAX_VALUE;
+            }
+            mStopPosition[start] = Integer.MAX_VALUE;
 
+            /* make clauses */
+            boolean prefixMatch = (mNoMatchPosition[start] >= end);
+            for ( ; end <= endLimit; end++) {
                 /* cutting a branch */
-                if (sentence[idx] != null) {
-                    if (start != 0) {
-                        if (sentence[idx].frequency > sentence[start-1].frequency + CLAUSE_COST + FREQ_LEARN) {
-                            /* there may be no way to be the best sequence from the 'start' */
-                            break;
-                        }
-                    } else {
-                        if (sentence[idx].frequency > CLAUSE_COST + FREQ_LEARN) {
-                            /* there may be no way to be the best sequence from the 'start' */
-                            break;
-                        }
-                    }
+                int boundary = lattice.getBeamBoundary(end);
+                if (boundary != WnnClauseLattice.NO_PATH
+                    && boundary > startScore + maxScore) {
+                    /* there may be no way to be the best sequence from the 'start' */
+                    mStopPosition[start] = end;
+                    break;
                 }
 
                 String key = input.substring(start, end);
+                WnnPOS terminal = (end == input.length()) ? mPosEndOfClause1 : mPosEndOfClause3;
+                if (mLinkMode && isLinkSpan(start, end)) {
+                    /* a linked word may be in any of the candidates */
+                    if (prefixMatch && getIndependentWords(key, false).isEmpty()) {
+                        /* no word starts with the key */
+                        prefixMatch = false;
+                        mNoMatchPosition[start] = end;
+                    }
+                    clauses.clear();
+                    if (!prefixMatch || !singleClauseConvert(clauses, key, terminal, true)) {
+                        WnnClause clause = defaultClause(key);
+                        lattice.addClause(start, end, clause, clause.frequency + CLAUSE_COST);
+                        continue;
+                    }
+                    /* add the best clauses to the lattice */
+                    for (int i = 0; i < clauses.size() && i < beamWidth; i++) {
+                        WnnClause clause = clauses.get(i);
+                        lattice.addClause(start, end, clause, clause.frequency + CLAUSE_COST);
+                    }
+                    continue;
+                }
+
             	WnnClause bestClause = null;
                 if (prefixMatch) {
                 	clauses.clear();
-                	if (end == input.length()) {
-                		/* get the clause which can be the end of the sentence */
-                		singleClauseConvert(clauses, key, mPosEndOfClause1, false);
-                	} else {
-                		/* get the clause which is not the end of the sentence */
-                		singleClauseConvert(clauses, key, mPosEndOfClause3, false);
-                	}
+                	/* get the clause which can be at the position (the end of the sentence or not) */
+                	singleClauseConvert(clauses, key, terminal, false);
                 	if (clauses.isEmpty()) {
                 		prefixMatch = false;
+                		mNoMatchPosition[start] = end;
                 		bestClause = defaultClause(key);
                 	} else {
-                		bestClause = (WnnClause)clauses.get(0);
+                		bestClause = clauses.get(0);
                 	}
                 } else {
                 	bestClause = defaultClause(key);
                 }
 
-                /* make a sub-sentence */
-                WnnSentence ws;
-                if (start == 0) {
-                    ws = new WnnSentence(bestClause.stroke, bestClause);
-                } else {
-                    ws = new WnnSentence(sentence[start-1], bestClause);
-                }
-                ws.frequency += CLAUSE_COST;
-
-                /* update the best sub-sentence on the cache buffer */
-                if (sentence[idx] == null || (sentence[idx].frequency < ws.frequency)) {
-                    sentence[idx] = ws;
-                }
+                /* add to the lattice */
+                lattice.addClause(start, end, bestClause, bestClause.frequency + CLAUSE_COST);
             }
         }
-
-        /* return the result of the consecutive clause conversion */
-        if (sentence[input.length() - 1] != null) {
-            return sentence[input.length() - 1];
-        }
-        return null;
+        mLatticeInput = input;
+        return true;
     }
 
     /**
@@ -243,7 +532,7 @@ public class OpenWnnClauseConverterZH {
      * @param all			Get all candidates or not
      * @return				{@code true} if a clause is add to the list; {@code false} if no clause is add to the list.
      */
-    private boolean singleClauseConvert(LinkedList<WnnClause> clauseList, String input, WnnPOS terminal, boolean all) {
+    private boolean singleClauseConvert(WnnClauseList clauseList, String input, WnnPOS terminal, boolean all) {
         boolean ret = false;
 
         /* get clauses without ancillary word */
@@ -279,7 +568,7 @@ public class OpenWnnClauseConverterZH {
      * @param all			Get all candidates or not
      * @return				{@code true} if add the clause to the list; {@code false} if not.
      */
-    private boolean addClause(LinkedList<WnnClause> clauseList, String input, WnnWord stem, WnnWord fzk,
+    private boolean addClause(WnnClauseList clauseList, String input, WnnWord stem, WnnWord fzk,
                               WnnPOS terminal, boolean all) {
         WnnClause clause = null;
         /* check if the part of speech is valid */
@@ -301,35 +590,17 @@ public class OpenWnnClauseConverterZH {
         }
 
         /* store to the list */
-        if (clauseList.isEmpty()) {
-            /* add if the list is empty */
-            clauseList.add(0, clause);
-            return true;
-        } else {
-            if (!all) {
-                /* reserve only the best clause */
-                WnnClause best = (WnnClause)clauseList.get(0);
-                if (best.frequency < clause.frequency) {
-                    clauseList.set(0, clause);
-                    return true;
-                }
-            } else {
-                /* reserve all clauses */
-                Iterator<?> clauseListi = clauseList.iterator();
-                int index = 0;
-                while (clauseListi.hasNext()) {
-                    WnnClause clausei = (WnnClause)clauseListi.next();
-                    if (clausei.frequency < clause.frequency) {
-                        break;
-                    }
-                    index++;
-                }
-                clauseList.add(index, clause);
-                return true;
+        if (!all && !clauseList.isEmpty()) {
+            /* reserve only the best clause */
+            WnnClause best = clauseList.get(0);
+            if (best.frequency >= clause.frequency) {
+                return false;
             }
+            clauseList.clear();
         }
-
-        return false;
+        /* reserve all clauses (ordered by the list) */
+        clauseList.add(clause);
+        return true;
     }
 
     /**
@@ -62,6 +62,8 @@ public class OpenWnnEngineZH implements WnnEngine {
     public static final int MAX_OUTPUT_LENGTH = 50;
     /** Limitation of predicted candidates */
     public static final int PREDICT_LIMIT = 300;
+    /** Number of the results of consecutive clause conversion (N-best) */
+    private static final int CONVERT_RESULT_COUNT = 5;
 
 
     /** Score(frequency value) of word in the learning dictionary */
@@ -105,20 +107,49 @@ public class OpenWnnEngineZH implements WnnEngine {
     /** A result of consecutive clause conversion */
     private WnnSentence mConvertSentence;
 
+    /** The results of consecutive clause conversion (N-best; the first one is {@code mConvertSentence}; {@code null} if not used) */
+    private ArrayList<WnnSentence> mConvertSentences;
+
+    /** Beam width of consecutive clause conversion (1: only the best result, without the alternatives) */
+    private int mBeamWidth = 1;
+
     /** Consonant predict converter */
     protected ConsonantPrediction mConsonantPredictConverter;
     
     /** Length of the search key */
     private int mSearchLength;
+    /** Segmentation lattice of the input */
+    private PinyinLattice mPinyinLattice;
+    /** Lengths of the prefixes of the input to search (in descending order) */
+    private int[] mSearchPrefixes;
+    /** Words of each prefix in {@code mSearchPrefixes} */
+    private ArrayList<ArrayList<WnnWord>> mSearchPrefixWords;
+    /** Index of the next prefix in {@code mSearchPrefixes} */
+    private int mSearchPrefixIndex;
+    /** Index of the next word in {@code mSearchCacheArray} */
+    private int mSearchWordIndex;
     
+    /** Maximum number of entries in the search cache */
+    private static final int SEARCH_CACHE_SIZE = 512;
+    /** Maximum size of the search cache (in bytes) */
+    private static final int SEARCH_CACHE_BYTES = SEARCH_CACHE_SIZE * 1024;
+
     /* Cache for results of search */
-    private HashMap<String,ArrayList<WnnWord>> mSearchCache;
+    private WnnWordCache mSearchCache;
     private ArrayList<WnnWord> mSearchCacheArray;
     private ArrayList<WnnWord> mNoWord;
     
+    /** Maximum number of entries saved from the search cache */
+    private static final int SNAPSHOT_ENTRIES = 256;
+    /** Snapshot of the search cache ({@code null} if not used) */
+    private WnnCacheSnapshot mCacheSnapshot = null;
+
     /** The candidate filter */
     private CandidateFilter mFilter;
 
+    /** The rule set of fuzzy PinYin */
+    private FuzzyPinyin mFuzzyPinyin;
+
     /**
      * Constructor
      *
@@ -127,9 +158,14 @@ public class OpenWnnEngineZH implements WnnEngine {
      */
     public OpenWnnEngineZH(String dicLib, String dicFilePath) {
         /* load Chinese dictionary library */
-        mDictionaryZH = new OpenWnnDictionaryImpl("/data/data/com.googlecode.openwnn.legacy/lib/" + dicLib, dicFilePath);
+        String dicLibPath = "/data/data/com.googlecode.openwnn.legacy/lib/" + dicLib;
+        mDictionaryZH = new OpenWnnDictionaryImpl(dicLibPath, dicFilePath);
         if (!mDictionaryZH.isActive()) {
-        	mDictionaryZH = new OpenWnnDictionaryImpl("/system/lib/" + dicLib, dicFilePath);
+        	dicLibPath = "/system/lib/" + dicLib;
+        	mDictionaryZH = new OpenWnnDictionaryImpl(dicLibPath, dicFilePath);
+        }
+        if (dicFilePath != null) {
+            mCacheSnapshot = new WnnCacheSnapshot(dicFilePath + ".cache", new String[] {dicLibPath, dicFilePath});
         }
 
         /* clear dictionary settings */
@@ -140,13 +176,15 @@ public class OpenWnnEngineZH implements WnnEngine {
         /* work buffers */
         mConvResult = new ArrayList<WnnWord>();
         mCandTable = new HashMap<String, WnnWord>();
-        mSearchCache = new HashMap<String, ArrayList<WnnWord>>();
+        mSearchCache = new WnnWordCache(SEARCH_CACHE_SIZE, SEARCH_CACHE_BYTES);
         mNoWord = new ArrayList<WnnWord>();
+        mPinyinLattice = new PinyinLattice();
         
         /* converters */
         mClauseConverter = new OpenWnnClauseConverterZH();
         mConsonantPredictConverter = new ConsonantPrediction();
         mFilter = new CandidateFilter();
+        mFuzzyPinyin = new FuzzyPinyin();
     }
 
     /**
@@ -172,9 +210,106 @@ public class OpenWnnEngineZH implements WnnEngine {
             dict.setDictionary(WnnDictionary.INDEX_USER_DICTIONARY, FREQ_USER, FREQ_USER);
             dict.setDictionary(WnnDictionary.INDEX_LEARN_DICTIONARY, FREQ_LEARN, FREQ_LEARN);
             dict.setApproxPattern(WnnDictionary.APPROX_PATTERN_EN_TOUPPER);
+            mFuzzyPinyin.setApproxPatterns(dict);
         }
     }
 
+    /**
+     * Get the words whose reading is a prefix of the input.
+     * <br>
+     * The prefixes which are not in the search cache are searched together by one
+     * common prefix search (from the longest one to the shortest one), and the words
+     * are grouped by the length of the reading and stored into the search cache.
+     * While the fuzzy rules are enabled, the key is normalized as {@link #predict}
+     * does, and a word is grouped into the longest prefix which matches its reading
+     * by the rules.
+     *
+     * @param ends      End positions of the prefixes (in descending order)
+     * @return          The words of each prefix (in order of frequency)
+     */
+    private ArrayList<ArrayList<WnnWord>> searchPrefixWords(int[] ends) {
+        String input = mInputPinyin;
+        ArrayList<ArrayList<WnnWord>> result = new ArrayList<ArrayList<WnnWord>>(ends.length);
+        int longest = -1;
+        int shortest = -1;
+        for (int i = 0; i < ends.length; i++) {
+            ArrayList<WnnWord> words = mSearchCache.get(input.substring(0, ends[i]));
+            result.add(words);
+            if (words == null) {
+                if (longest < 0) {
+                    longest = i;
+                }
+                shortest = i;
+            }
+        }
+        if (longest < 0) {
+            return result;
+        }
+
+        /* the lists of the prefixes to search (indexed by the length) */
+        int maxLength = ends[longest];
+        int minLength = ends[shortest];
+        ArrayList<ArrayList<WnnWord>> buckets = new ArrayList<ArrayList<WnnWord>>(maxLength + 1);
+        for (int len = 0; len <= maxLength; len++) {
+            buckets.add(null);
+        }
+        for (int i = longest; i <= shortest; i++) {
+            if (result.get(i) == null) {
+                buckets.set(ends[i], new ArrayList<WnnWord>());
+            }
+        }
+
+        if (minLength <= PinyinParser.PINYIN_MAX_LENGTH) {
+            /* the single Kanji dictionary matches to the short prefixes */
+            mDictionaryZH.setDictionary(2, 400, 500);
+        }
+        FuzzyPinyin fuzzy = mFuzzyPinyin;
+        String key = input.substring(0, maxLength);
+        String[] prefixes = null;
+        if (fuzzy.isEnabled()) {
+            key = fuzzy.normalize(key);
+            minLength = Math.min(fuzzy.normalize(input.substring(0, minLength)).length(), key.length());
+            prefixes = new String[ends.length];
+            for (int i = longest; i <= shortest; i++) {
+                if (result.get(i) == null) {
+                    prefixes[i] = input.substring(0, ends[i]);
+                }
+            }
+        }
+        if (mDictionaryZH.searchCommonPrefix(WnnDictionary.ORDER_BY_FREQUENCY, key, minLength) > 0) {
+            WnnWord word;
+            while ((word = mDictionaryZH.getNextWord()) != null) {
+                if (prefixes != null) {
+                    /* the longest prefix which matches within the edit cost */
+                    for (int i = longest; i <= shortest; i++) {
+                        if (prefixes[i] != null && fuzzy.getCost(prefixes[i], word.stroke, true) >= 0) {
+                            buckets.get(ends[i]).add(word);
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                int len = word.stroke.length();
+                if (len <= maxLength && buckets.get(len) != null) {
+                    buckets.get(len).add(word);
+                }
+            }
+        }
+
+        for (int i = longest; i <= shortest; i++) {
+            if (result.get(i) != null) {
+                continue;
+            }
+            ArrayList<WnnWord> words = buckets.get(ends[i]);
+            if (words.isEmpty()) {
+                words = mNoWord;
+            }
+            mSearchCache.put(input.substring(0, ends[i]), words);
+            result.set(i, words);
+        }
+        return result;
+    }
+
     /**
      * Set the candidate filter
      * 
@@ -210,13 +345,24 @@ public class OpenWnnEngineZH implements WnnEngine {
                 while (index >= mConvResult.size()) {
                     if ((word = mDictionaryZH.getNextWord()) == null) {
                         if (!mExactMatchMode && mSearchLength > 1) {
+                            /* list the prefixes which are divided into PinYin */
+                            mPinyinLattice.set(mInputPinyin);
+                            mSearchPrefixes = mPinyinLattice.getPrefixEnds();
+                            mSearchPrefixWords = searchPrefixWords(mSearchPrefixes);
+                            mSearchPrefixIndex = 0;
+                            mSearchCacheArray = null;
                             mGetCandidateFrom = 1;
                         } else {
                             mGetCandidateFrom = 2;
                         }
                         break;
                     }
-                    if (mSearchLength == word.stroke.length()
+                    if (mFuzzyPinyin.isEnabled()) {
+                        /* the words found by the fuzzy rules within the edit cost */
+                        if (mFuzzyPinyin.getCost(mInputPinyin, word.stroke, mExactMatchMode) >= 0) {
+                            addCandidate(word);
+                        }
+                    } else if (mSearchLength == word.stroke.length()
                         || (!mExactMatchMode && (mSearchLength == mInputPinyin.length()))) {
                         addCandidate(word);
                     }
@@ -225,48 +371,17 @@ public class OpenWnnEngineZH implements WnnEngine {
         }
         
         if (mGetCandidateFrom == 1) {
-            /* get common prefix matching words from the dictionaries */
+            /* get common prefix matching words (from the longest prefix) */
             while (index >= mConvResult.size()) {
-                if ((word = mDictionaryZH.getNextWord()) == null) {
-                    if (--mSearchLength > 0) {
-                        String input = mInputPinyin.substring(0, mSearchLength);
-                        if (mSearchLength == PinyinParser.PINYIN_MAX_LENGTH) {
-                            /* if length of the key is less than PinyinParser.PINYIN_MAX_LENGTH,
-                             * use the single Kanji dictionary.
-                             */
-                            mDictionaryZH.setDictionary(2, 400, 500); /* single Kanji dictionary */
-                        }
-
-                        ArrayList<WnnWord> cache = mSearchCache.get(input);
-                        if (cache != null) {
-                            if (cache != mNoWord) {
-                                Iterator<WnnWord> cachei = cache.iterator();
-                                while (cachei.hasNext()) {
-                                    addCandidate(cachei.next());
-                                }
-                                mSearchCacheArray = cache;
-                                mDictionaryZH.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, input);
-                            }
-                        } else {
-                            if (PinyinParser.isPinyin(input)
-                                    && mDictionaryZH.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY, input) > 0) {
-                                mSearchCacheArray = new ArrayList<WnnWord>();
-                            } else {
-                                mSearchCacheArray = mNoWord;                                
-                            }
-                            mSearchCache.put(input, mSearchCacheArray);
-                        }
-                        continue;
-                    } else {
-                        mGetCandidateFrom = 2;
-                        break;
-                    }
-                }
-                if (mSearchLength == word.stroke.length()
-                        || (!mExactMatchMode && (mSearchLength == mInputPinyin.length()))) {
-                    if (addCandidate(word)) {
-                        mSearchCacheArray.add(word);
-                    }                    
+                if (mSearchCacheArray != null && mSearchWordIndex < mSearchCacheArray.size()) {
+                    addCandidate(mSearchCacheArray.get(mSearchWordIndex++));
+                } else if (mSearchPrefixIndex < mSearchPrefixes.length) {
+                    mSearchLength = mSearchPrefixes[mSearchPrefixIndex++];
+                    mSearchCacheArray = mSearchPrefixWords.get(mSearchPrefixIndex - 1);
+                    mSearchWordIndex = 0;
+                } else {
+                    mGetCandidateFrom = 2;
+                    break;
                 }
             }
         }
@@ -328,6 +443,76 @@ public class OpenWnnEngineZH implements WnnEngine {
         return true;
     }
 
+    /**
+     * Invalidate the search caches affected by a learned word.
+     * <br>
+     * Only the results whose search key is a prefix of {@code stroke} are discarded.
+     *
+     * @param stroke	The reading of the learned word
+     */
+    private void invalidateCache(String stroke) {
+        if (stroke == null || stroke.length() == 0) {
+            return;
+        }
+        mClauseConverter.invalidateCache(stroke);
+        mConsonantPredictConverter.invalidateCache(stroke);
+
+        mSearchCache.removePrefixesOf(stroke, true);
+    }
+
+    /**
+     * Save the search cache to the snapshot.
+     * <br>
+     * The results of the standard Chinese dictionary are saved.
+     *
+     * @param delay		Delay of the save (in milliseconds)
+     */
+    private void saveCacheSnapshot(long delay) {
+        if (mCacheSnapshot == null || mDictType != DIC_LANG_ZH) {
+            return;
+        }
+        /* an empty list means no word */
+        mCacheSnapshot.saveInBackground(new WnnWordCache[] {mSearchCache}, SNAPSHOT_ENTRIES, delay);
+    }
+
+    /**
+     * Discard the cache snapshot which is not applied yet.
+     * <br>
+     * This is called when the search caches are invalidated.
+     */
+    private void discardCacheSnapshot() {
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.discard();
+        }
+    }
+
+    /**
+     * Add the entries of the cache snapshot to the search cache if it has been loaded.
+     */
+    private void applyCacheSnapshot() {
+        if (mCacheSnapshot == null) {
+            return;
+        }
+        WnnWordCache[] loaded = mCacheSnapshot.takeLoaded();
+        if (loaded == null || loaded.length < 1 || mDictType != DIC_LANG_ZH) {
+            return;
+        }
+        mSearchCache.merge(loaded[0]);
+    }
+
+    /**
+     * Clear the search caches and the cache snapshot.
+     */
+    private void clearSearchCaches() {
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.delete();
+        }
+        mSearchCache.clear();
+        mClauseConverter.setDictionary(mDictionaryZH);
+        mConsonantPredictConverter.setDictionary(mDictionaryZH);
+        mConsonantPredictConverter.clearCache();
+    }
+
     /**
      * Clear work area that hold candidates information.
      */
@@ -347,11 +532,24 @@ public class OpenWnnEngineZH implements WnnEngine {
      * @return			{@code true} if the dictionary is changed; {@code false} if not.
      */
     public boolean setDictionary(int type) {
-        mDictType = type;
-        mSearchCache.clear();
+        if (mDictType != type) {
+            mDictType = type;
+            mSearchCache.clear();
+        }
         return true;
     }
 
+    /**
+     * Get the search cache of the prefix matching words.
+     * <br>
+     * The hit rate and the other counters of the cache can be got from it.
+     *
+     * @return			The search cache
+     */
+    public WnnWordCache getSearchCache() {
+        return mSearchCache;
+    }
+
     /**
      * Set the search key and the search mode from {@link ComposingText}.
      *
@@ -402,17 +600,35 @@ public class OpenWnnEngineZH implements WnnEngine {
         clearPreviousWord();
         mClauseConverter.setDictionary(mDictionaryZH);
         mConsonantPredictConverter.setDictionary(mDictionaryZH);
+
+        /* warm up the search cache with the previous session's */
+        if (mCacheSnapshot != null) {
+            mCacheSnapshot.loadInBackground(1);
+        }
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#close */
     public void close() {
         mDictionaryZH.setInUseState(false);   	
+        /* the engine is closed for every input field, so the saves are delayed and gathered */
+        saveCacheSnapshot(WnnCacheSnapshot.SAVE_DELAY);
+    }
+
+    /**
+     * Release the resources of the engine.
+     * <br>
+     * This is called when the IME is destroyed.
+     * The search cache is saved to the snapshot without delay.
+     */
+    public void destroy() {
+        saveCacheSnapshot(0);
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#predict */
     public int predict(ComposingText text, int minLen, int maxLen) {
         clearCandidates();
         if (text == null) { return 0; }
+        applyCacheSnapshot();
 
         /* set mInputPinyin and mInputRomaji */
         int len = setSearchKey(text, maxLen);
@@ -431,7 +647,7 @@ public class OpenWnnEngineZH implements WnnEngine {
                                             mInputPinyin, mPreviousWord);
         } else {
         	mDictionaryZH.searchWord(WnnDictionary.SEARCH_PREFIX, WnnDictionary.ORDER_BY_FREQUENCY,
-        			mInputPinyin);
+        			mFuzzyPinyin.normalize(mInputPinyin));
             return 1;
         }
     }
@@ -443,6 +659,7 @@ public class OpenWnnEngineZH implements WnnEngine {
         if (text == null) {
             return 0;
         }
+        applyCacheSnapshot();
 
         mDictionaryZH.setInUseState(true);
 
@@ -466,12 +683,32 @@ public class OpenWnnEngineZH implements WnnEngine {
             input = text.toString(ComposingText.LAYER1);
         }
 
-        WnnSentence sentence = null;
+        ArrayList<WnnSentence> sentences = null;
         if (input.length() != 0) {
-            sentence = mClauseConverter.consecutiveClauseConvert(input);
+            if (mBeamWidth > 1) {
+                sentences = mClauseConverter.consecutiveClauseConvert(input, CONVERT_RESULT_COUNT);
+            } else {
+                WnnSentence best = mClauseConverter.consecutiveClauseConvert(input);
+                if (best != null) {
+                    sentences = new ArrayList<WnnSentence>();
+                    sentences.add(best);
+                }
+            }
         }
         if (head != null) {
-            sentence = new WnnSentence(head, sentence);
+            if (sentences == null || sentences.isEmpty()) {
+                WnnSentence tail = null;
+                sentences = new ArrayList<WnnSentence>();
+                sentences.add(new WnnSentence(head, tail));
+            } else {
+                for (int i = 0; i < sentences.size(); i++) {
+                    sentences.set(i, new WnnSentence(head, sentences.get(i)));
+                }
+            }
+        }
+        WnnSentence sentence = null;
+        if (sentences != null && !sentences.isEmpty()) {
+            sentence = sentences.get(0);
         }
         if (sentence == null) {
             return 0;
@@ -492,6 +729,7 @@ public class OpenWnnEngineZH implements WnnEngine {
         text.replaceStrSegment(ComposingText.LAYER2, ss, 
                                text.getCursor(ComposingText.LAYER2));
         mConvertSentence = sentence;
+        mConvertSentences = (mBeamWidth > 1) ? sentences : null;
 
         return 0;
     }
@@ -523,6 +761,7 @@ public class OpenWnnEngineZH implements WnnEngine {
     /** @see com.googlecode.openwnn.legacy.WnnEngine#learn */
     public boolean learn(WnnWord word) {
         int ret = -1;
+        discardCacheSnapshot();
         if (word.partOfSpeech.right == 0) {
             word.partOfSpeech = mDictionaryZH.getPOS(WnnDictionary.POS_TYPE_MEISI);
         }
@@ -538,6 +777,7 @@ public class OpenWnnEngineZH implements WnnEngine {
                     ret = dict.learnWord(wd);
                 }
                 mPreviousWord = wd;
+                invalidateCache(wd.stroke);
                 if (ret != 0) {
                     break;
                 }
@@ -549,9 +789,7 @@ public class OpenWnnEngineZH implements WnnEngine {
                 ret = dict.learnWord(word);
             }
             mPreviousWord = word;
-            mClauseConverter.setDictionary(dict);
-            mConsonantPredictConverter.setDictionary(dict);
-            mSearchCache.clear();
+            invalidateCache(word.stroke);
         }
 
         return (ret == 0);
@@ -562,6 +800,8 @@ public class OpenWnnEngineZH implements WnnEngine {
         mDictionaryZH.setInUseState( true );
         mDictionaryZH.addWordToUserDictionary(word);
         mDictionaryZH.setInUseState( false );
+        discardCacheSnapshot();
+        invalidateCache(word.stroke);
         return 0;
     }
 
@@ -570,17 +810,75 @@ public class OpenWnnEngineZH implements WnnEngine {
         mDictionaryZH.setInUseState( true );
         mDictionaryZH.removeWordFromUserDictionary(word);
         mDictionaryZH.setInUseState( false );
+        discardCacheSnapshot();
+        invalidateCache(word.stroke);
         return false;
     }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#setPreferences */
-    public void setPreferences(SharedPreferences pref) {}
+    public void setPreferences(SharedPreferences pref) {
+        /* use the links in the learning dictionary for consecutive clause conversion */
+        mClauseConverter.setLinkMode(pref.getBoolean("opt_zhcn_link_conversion", false));
+        /* list the clauses of the N-best results as the candidates of a clause */
+        int width;
+        try {
+            width = Integer.parseInt(pref.getString("opt_zhcn_conversion_beam_width", "1"));
+        } catch (NumberFormatException ex) {
+            width = 1;
+        }
+        mBeamWidth = (width < 1) ? 1 : width;
+        if (mBeamWidth > 1) {
+            mClauseConverter.setBeamWidth(mBeamWidth);
+        }
+        /* fuzzy PinYin (z/zh, c/ch, s/sh, n/l, an/ang, en/eng, in/ing) for prediction */
+        int rules = pref.getBoolean("opt_zhcn_fuzzy_pinyin", false) ? FuzzyPinyin.RULE_ALL : 0;
+        if (rules != mFuzzyPinyin.getRules()) {
+            mFuzzyPinyin.setRules(rules);
+            mSearchCache.clear();
+        }
+        if (mCacheSnapshot != null) {
+            /* the search results depend on the fuzzy rules */
+            mCacheSnapshot.setOptions("fuzzy=" + rules);
+        }
+    }
 
     /** @see com.googlecode.openwnn.legacy.WnnEngine#breakSequence */
     public void breakSequence()  {
         clearPreviousWord();
     }
 
+    /**
+     * Add the clauses of the N-best results of consecutive clause conversion
+     * which cover the same part of the input as a clause of the best result.
+     * <br>
+     * They are the candidates of the clause in the context, so they come
+     * before the candidates of single clause conversion.
+     *
+     * @param clausePosition	Position of the clause in the best result
+     */
+    private void addAlternativeClauses(int clausePosition) {
+        if (mConvertSentences == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < clausePosition; i++) {
+            start += mConvertSentence.elements.get(i).stroke.length();
+        }
+        int length = mConvertSentence.elements.get(clausePosition).stroke.length();
+
+        for (int i = 0; i < mConvertSentences.size(); i++) {
+            int pos = 0;
+            Iterator<WnnClause> it = mConvertSentences.get(i).elements.iterator();
+            while (it.hasNext() && pos <= start) {
+                WnnClause clause = it.next();
+                if (pos == start && clause.stroke.length() == length) {
+                    addCandidate(clause);
+                }
+                pos += clause.stroke.length();
+            }
+        }
+    }
+
     /** @see com.googlecode.openwnn.legacy.WnnEngine#makeCandidateListOf */
     public int makeCandidateListOf(int clausePosition)  {
         clearCandidates();
@@ -590,6 +888,7 @@ public class OpenWnnEngineZH implements WnnEngine {
         }
         mSingleClauseMode = true;
         WnnClause clause = mConvertSentence.elements.get(clausePosition);
+        addAlternativeClauses(clausePosition);
         mInputPinyin = clause.stroke;
 
         return 1;
@@ -602,12 +901,14 @@ public class OpenWnnEngineZH implements WnnEngine {
             mDictionaryZH.setInUseState( true );
             mDictionaryZH.clearLearnDictionary();
             mDictionaryZH.setInUseState( false );
+            clearSearchCaches();
             return true;
 
         case WnnEngine.DICTIONARY_TYPE_USER:
             mDictionaryZH.setInUseState( true );
             mDictionaryZH.clearUserDictionary();
             mDictionaryZH.setInUseState( false );
+            clearSearchCaches();
             return true;
         }
         return false;
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.ZH;
+
+/**
+ * The segmentation lattice class of PinYin.
+ * <br>
+ * {@link PinyinParser#getPinyinList} takes only the longest syllable at each position,
+ * so a string like "xian" is always divided as "Xian" (not "Xi'An").
+ * This class keeps all the syllables at each position, and finds
+ * the prefixes of the string which can be divided into PinYin in any way.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class PinyinLattice {
+    /** The input string */
+    private String mInput = "";
+    /** End positions of the syllables which start at each position (in descending order) */
+    private int[][] mEnds;
+    /** Whether each syllable is a PinYin ({@code false} if a consonant) */
+    private boolean[][] mPinyin;
+
+    /**
+     * Constructor
+     */
+    public PinyinLattice() {
+        mEnds = new int[0][];
+        mPinyin = new boolean[0][];
+    }
+
+    /**
+     * Make the lattice of a string.
+     * <br>
+     * A character which is not a part of any syllable makes a syllable by itself
+     * (as {@link PinyinParser#parse}), which is not a PinYin.
+     *
+     * @param input     The input string
+     */
+    public void set(String input) {
+        int len = input.length();
+        mInput = input;
+        mEnds = new int[len][];
+        mPinyin = new boolean[len][];
+
+        int[] ends = new int[PinyinParser.PINYIN_MAX_LENGTH];
+        boolean[] pinyin = new boolean[PinyinParser.PINYIN_MAX_LENGTH];
+        for (int start = 0; start < len; start++) {
+            int count = PinyinParser.matchSyllables(input, start, ends, pinyin);
+            if (count == 0) {
+                ends[0] = start + 1;
+                pinyin[0] = false;
+                count = 1;
+            }
+            mEnds[start] = new int[count];
+            mPinyin[start] = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                /* the longest syllable first */
+                mEnds[start][i] = ends[count - 1 - i];
+                mPinyin[start][i] = pinyin[count - 1 - i];
+            }
+        }
+    }
+
+    /**
+     * Get the input string.
+     *
+     * @return          The input string
+     */
+    public String getInput() {
+        return mInput;
+    }
+
+    /**
+     * Get the end positions of the prefixes which are divided into PinYin syllables.
+     * <br>
+     * These are the keys to search the words which match to a prefix of the input.
+     * The whole string is not included.
+     *
+     * @return          The end positions (in descending order)
+     */
+    public int[] getPrefixEnds() {
+        int len = mInput.length();
+        boolean[] reach = new boolean[len + 1];
+        reach[0] = true;
+        for (int start = 0; start < len; start++) {
+            if (!reach[start]) {
+                continue;
+            }
+            for (int i = 0; i < mEnds[start].length; i++) {
+                if (mPinyin[start][i]) {
+                    reach[mEnds[start][i]] = true;
+                }
+            }
+        }
+
+        int count = 0;
+        for (int end = len - 1; end > 0; end--) {
+            if (reach[end]) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        count = 0;
+        for (int end = len - 1; end > 0; end--) {
+            if (reach[end]) {
+                result[count++] = end;
+            }
+        }
+        return result;
+    }
+}
@@ -17,12 +17,16 @@
 package com.googlecode.openwnn.legacy.ZH;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
 /**
  * The pinyin parser class for Chinese IME.
+ * <br>
+ * The syllables are compiled into a character trie at the class loading,
+ * so a string is divided by a linear walk without making substrings.
+ * A syllable matches if its first letter is either lower or upper case
+ * and the rest are lower case (ex. "zhong" and "Zhong" but not "ZHONG").
  * 
  * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
  */
@@ -31,462 +35,288 @@ public class PinyinParser {
 	public static final int PINYIN_MAX_LENGTH = 6;
 
 	/** Consonants of PinYin */
-	private static HashMap<String, String> mConsonantMap = new HashMap<String, String>() {{
-		put("b", "B"); put("B", "B");
-		put("p", "P"); put("P", "P");
-		put("m", "M"); put("M", "M");
-		put("f", "F"); put("F", "F");
-		put("d", "D"); put("D", "D");
-		put("t", "T"); put("T", "T");
-		put("n", "N"); put("N", "N");
-		put("l", "L"); put("L", "L");
-		put("g", "G"); put("G", "G");
-		put("k", "K"); put("K", "K");
-		put("h", "H"); put("H", "H");
-		put("j", "J"); put("J", "J");
-		put("q", "Q"); put("Q", "Q");
-		put("x", "X"); put("X", "X");
-		put("zh", "Zh"); put("Zh", "Zh");
-		put("ch", "Ch"); put("Ch", "Ch");
-		put("sh", "Sh"); put("Sh", "Sh");
-		put("r", "R"); put("R", "R");
-		put("z", "Z"); put("Z", "Z");
-		put("c", "C"); put("C", "C");
-		put("s", "S"); put("S", "S");
-		put("y", "Y"); put("Y", "Y");
-		put("w", "W"); put("W", "W");
-	}};
+	private static final String[] CONSONANT_TABLE = {
+		"b", "p", "m", "f", "d", "t", "n", "l", "g", "k",
+		"h", "j", "q", "x", "zh", "ch", "sh", "r", "z", "c",
+		"s", "y", "w"
+	};
 
 	/**  PinYin table */
-	private static final HashMap<String, String> mPinyinMap = new HashMap<String, String>() {{
-		put("a", "A"); put("A", "A");
-		put("o", "O"); put("O", "O");
-		put("e", "E"); put("E", "E");
-		put("ai", "Ai"); put("Ai", "Ai");
-		put("ei", "Ei"); put("Ei", "Ei");
-		put("ao", "Ao"); put("Ao", "Ao");
-		put("ou", "Ou"); put("Ou", "Ou");
-		put("er", "Er"); put("Er", "Er");
-		put("an", "An"); put("An", "An");
-		put("en", "En"); put("En", "En");
-		put("ang", "Ang"); put("Ang", "Ang");
-		put("eng", "Eng"); put("Eng", "Eng");
-		put("yi", "Yi"); put("Yi", "Yi");
-		put("ye", "Ye"); put("Ye", "Ye");
-		put("yin", "Yin"); put("Yin", "Yin");
-		put("ying", "Ying"); put("Ying", "Ying");
-		put("wu", "Wu"); put("Wu", "Wu");
-		put("yu", "Yu"); put("Yu", "Yu");
-		put("yue", "Yue"); put("Yue", "Yue");
-		put("yuan", "Yuan"); put("Yuan", "Yuan");
-		put("yun", "Yun"); put("Yun", "Yun");
-
-		put("ba", "Ba"); put("Ba", "Ba");
-		put("bo", "Bo"); put("Bo", "Bo");
-		put("bai", "Bai"); put("Bai", "Bai");
-		put("bei", "Bei"); put("Bei", "Bei");
-		put("bao", "Bao"); put("Bao", "Bao");
-		put("ban", "Ban"); put("Ban", "Ban");
-		put("ben", "Ben"); put("Ben", "Ben");
-		put("bang", "Bang"); put("Bang", "Bang");
-		put("beng", "Beng"); put("Beng", "Beng");
-		put("bi", "Bi"); put("Bi", "Bi");
-		put("bie", "Bie"); put("Bie", "Bie");
-		put("biao", "Biao"); put("Biao", "Biao");
-		put("bian", "Bian"); put("Bian", "Bian");
-		put("bin", "Bin"); put("Bin", "Bin");
-		put("bing", "Bing"); put("Bing", "Bing");
-		put("bu", "Bu"); put("Bu", "Bu");
-
-		put("pa", "Pa"); put("Pa", "Pa");
-		put("po", "Po"); put("Po", "Po");
-		put("pai", "Pai"); put("Pai", "Pai");
-		put("pei", "Pei"); put("Pei", "Pei");
-		put("pao", "Pao"); put("Pao", "Pao");
-		put("pou", "Pou"); put("Pou", "Pou");
-		put("pan", "Pan"); put("Pan", "Pan");
-		put("pen", "Pen"); put("Pen", "Pen");
-		put("pang", "Pang"); put("Pang", "Pang");
-		put("peng", "Peng"); put("Peng", "Peng");
-		put("pi", "Pi"); put("Pi", "Pi");
-		put("pie", "Pie"); put("Pie", "Pie");
-		put("piao", "Piao"); put("Piao", "Piao");
-		put("pian", "Pian"); put("Pian", "Pian");
-		put("pin", "Pin"); put("Pin", "Pin");
-		put("ping", "Ping"); put("Ping", "Ping");
-		put("pu", "Pu"); put("Pu", "Pu");
-
-		put("ma", "Ma"); put("Ma", "Ma");
-		put("mo", "Mo"); put("Mo", "Mo");
-		put("me", "Me"); put("Me", "Me");
-		put("mai", "Mai"); put("Mai", "Mai");
-		put("mei", "Mei"); put("Mei", "Mei");
-		put("mao", "Mao"); put("Mao", "Mao");
-		put("mou", "Mou"); put("Mou", "Mou");
-		put("man", "Man"); put("Man", "Man");
-		put("men", "Men"); put("Men", "Men");
-		put("mang", "Mang"); put("Mang", "Mang");
-		put("meng", "Meng"); put("Meng", "Meng");
-		put("mi", "Mi"); put("Mi", "Mi");
-		put("mie", "Mie"); put("Mie", "Mie");
-		put("miao", "Miao"); put("Miao", "Miao");
-		put("miu", "Miu"); put("Miu", "Miu");
-		put("mian", "Mian"); put("Mian", "Mian");
-		put("min", "Min"); put("Min", "Min");
-		put("ming", "Ming"); put("Ming", "Ming");
-		put("mu", "Mu"); put("Mu", "Mu");
-
-		put("fa", "Fa"); put("Fa", "Fa");
-		put("fo", "Fo"); put("Fo", "Fo");
-		put("fei", "Fei"); put("Fei", "Fei");
-		put("fou", "Fou"); put("Fou", "Fou");
-		put("fan", "Fan"); put("Fan", "Fan");
-		put("fen", "Fen"); put("Fen", "Fen");
-		put("fang", "Fang"); put("Fang", "Fang");
-		put("feng", "Feng"); put("Feng", "Feng");
-		put("fu", "Fu"); put("Fu", "Fu");
-
-		put("da", "Da"); put("Da", "Da");
-		put("de", "De"); put("De", "De");
-		put("dai", "Dai"); put("Dai", "Dai");
-		put("dei", "Dei"); put("Dei", "Dei");
-		put("dao", "Dao"); put("Dao", "Dao");
-		put("dou", "Dou"); put("Dou", "Dou");
-		put("dan", "Dan"); put("Dan", "Dan");
-		put("dang", "Dang"); put("Dang", "Dang");
-		put("deng", "Deng"); put("Deng", "Deng");
-		put("di", "Di"); put("Di", "Di");
-		put("die", "Die"); put("Die", "Die");
-		put("diao", "Diao"); put("Diao", "Diao");
-		put("diu", "Diu"); put("Diu", "Diu");
-		put("dian", "Dian"); put("Dian", "Dian");
-		put("ding", "Ding"); put("Ding", "Ding");
-		put("du", "Du"); put("Du", "Du");
-		put("duo", "Duo"); put("Duo", "Duo");
-		put("dui", "Dui"); put("Dui", "Dui");
-		put("duan", "Duan"); put("Duan", "Duan");
-		put("dun", "Dun"); put("Dun", "Dun");
-		put("dong", "Dong"); put("Dong", "Dong");
-
-		put("ta", "Ta"); put("Ta", "Ta");
-		put("te", "Te"); put("Te", "Te");
-		put("tai", "Tai"); put("Tai", "Tai");
-		put("tao", "Tao"); put("Tao", "Tao");
-		put("tou", "Tou"); put("Tou", "Tou");
-		put("tan", "Tan"); put("Tan", "Tan");
-		put("tang", "Tang"); put("Tang", "Tang");
-		put("teng", "Teng"); put("Teng", "Teng");
-		put("ti", "Ti"); put("Ti", "Ti");
-		put("tie", "Tie"); put("Tie", "Tie");
-		put("tiao", "Tiao"); put("Tiao", "Tiao");
-		put("tian", "Tian"); put("Tian", "Tian");
-		put("ting", "Ting"); put("Ting", "Ting");
-		put("tu", "Tu"); put("Tu", "Tu");
-		put("tuo", "Tuo"); put("Tuo", "Tuo");
-		put("tui", "Tui"); put("Tui", "Tui");
-		put("tuan", "Tuan"); put("Tuan", "Tuan");
-		put("tun", "Tun"); put("Tun", "Tun");
-		put("tong", "Tong"); put("Tong", "Tong");
-
-		put("na", "Na"); put("Na", "Na");
-		put("ne", "Ne"); put("Ne", "Ne");
-		put("nai", "Nai"); put("Nai", "Nai");
-		put("nei", "Nei"); put("Nei", "Nei");
-		put("nao", "Nao"); put("Nao", "Nao");
-		put("nou", "Nou"); put("Nou", "Nou");
-		put("nan", "Nan"); put("Nan", "Nan");
-		put("nen", "Nen"); put("Nen", "Nen");
-		put("nang", "Nang"); put("Nang", "Nang");
-		put("neng", "Neng"); put("Neng", "Neng");
-		put("ni", "Ni"); put("Ni", "Ni");
-		put("nie", "Nie"); put("Nie", "Nie");
-		put("niao", "Niao"); put("Niao", "Niao");
-		put("niu", "Niu"); put("Niu", "Niu");
-		put("nian", "Nian"); put("Nian", "Nian");
-		put("nin", "Nin"); put("Nin", "Nin");
-		put("niang", "Niang"); put("Niang", "Niang");
-		put("ning", "Ning"); put("Ning", "Ning");
-		put("nu", "Nu"); put("Nu", "Nu");
-		put("nuo", "Nuo"); put("Nuo", "Nuo");
-		put("nuan", "Nuan"); put("Nuan", "Nuan");
-		put("nong", "Nong"); put("Nong", "Nong");
-		put("nv", "Nv"); put("Nv", "Nv");
-		put("nve", "Nve"); put("Nve", "Nve");
-
-		put("la", "La"); put("La", "La");
-		put("le", "Le"); put("Le", "Le");
-		put("lai", "Lai"); put("Lai", "Lai");
-		put("lei", "Lei"); put("Lei", "Lei");
-		put("lao", "Lao"); put("Lao", "Lao");
-		put("lou", "Lou"); put("Lou", "Lou");
-		put("lan", "Lan"); put("Lan", "Lan");
-		put("lang", "Lang"); put("Lang", "Lang");
-		put("leng", "Leng"); put("Leng", "Leng");
-		put("li", "Li"); put("Li", "Li");
-		put("lia", "Lia"); put("Lia", "Lia");
-		put("lie", "Lie"); put("Lie", "Lie");
-		put("liao", "Liao"); put("Liao", "Liao");
-		put("liu", "Liu"); put("Liu", "Liu");
-		put("lian", "Lian"); put("Lian", "Lian");
-		put("lin", "Lin"); put("Lin", "Lin");
-		put("liang", "Liang"); put("Liang", "Liang");
-		put("ling", "Ling"); put("Ling", "Ling");
-		put("lu", "Lu"); put("Lu", "Lu");
-		put("luo", "Luo"); put("Luo", "Luo");
-		put("luan", "Luan"); put("Luan", "Luan");
-		put("lun", "Lun"); put("Lun", "Lun");
-		put("long", "Long"); put("Long", "Long");
-		put("lv", "Lv"); put("Lv", "Lv");
-		put("lve", "Lve"); put("Lve", "Lve");
-
-		put("ga", "Ga"); put("Ga", "Ga");
-		put("ge", "Ge"); put("Ge", "Ge");
-		put("gai", "Gai"); put("Gai", "Gai");
-		put("gei", "Gei"); put("Gei", "Gei");
-		put("gao", "Gao"); put("Gao", "Gao");
-		put("gou", "Gou"); put("Gou", "Gou");
-		put("gan", "Gan"); put("Gan", "Gan");
-		put("gen", "Gen"); put("Gen", "Gen");
-		put("gang", "Gang"); put("Gang", "Gang");
-		put("geng", "Geng"); put("Geng", "Geng");
-		put("gu", "Gu"); put("Gu", "Gu");
-		put("gua", "Gua"); put("Gua", "Gua");
-		put("guo", "Guo"); put("Guo", "Guo");
-		put("guai", "Guai"); put("Guai", "Guai");
-		put("gui", "Gui"); put("Gui", "Gui");
-		put("guan", "Guan"); put("Guan", "Guan");
-		put("gun", "Gun"); put("Gun", "Gun");
-		put("guang", "Guang"); put("Guang", "Guang");
-		put("gong", "Gong"); put("Gong", "Gong");
-
-		put("ka", "Ka"); put("Ka", "Ka");
-		put("ke", "Ke"); put("Ke", "Ke");
-		put("kai", "Kai"); put("Kai", "Kai");
-		put("kao", "Kao"); put("Kao", "Kao");
-		put("kou", "Kou"); put("Kou", "Kou");
-		put("kan", "Kan"); put("Kan", "Kan");
-		put("ken", "Ken"); put("Ken", "Ken");
-		put("kang", "Kang"); put("Kang", "Kang");
-		put("keng", "Keng"); put("Keng", "Keng");
-		put("ku", "Ku"); put("Ku", "Ku");
-		put("kua", "Kua"); put("Kua", "Kua");
-		put("kuo", "Kuo"); put("Kuo", "Kuo");
-		put("kuai", "Kuai"); put("Kuai", "Kuai");
-		put("kui", "Kui"); put("Kui", "Kui");
-		put("kuan", "Kuan"); put("Kuan", "Kuan");
-		put("kun", "Kun"); put("Kun", "Kun");
-		put("kuang", "Kuang"); put("Kuang", "Kuang");
-		put("kong", "Kong"); put("Kong", "Kong");
-
-		put("ha", "Ha"); put("Ha", "Ha");
-		put("he", "He"); put("He", "He");
-		put("hai", "Hai"); put("Hai", "Hai");
-		put("hei", "Hei"); put("Hei", "Hei");
-		put("hao", "Hao"); put("Hao", "Hao");
-		put("hou", "Hou"); put("Hou", "Hou");
-		put("han", "Han"); put("Han", "Han");
-		put("hen", "Hen"); put("Hen", "Hen");
-		put("hang", "Hang"); put("Hang", "Hang");
-		put("heng", "Heng"); put("Heng", "Heng");
-		put("hu", "Hu"); put("Hu", "Hu");
-		put("hua", "Hua"); put("Hua", "Hua");
-		put("huo", "Huo"); put("Huo", "Huo");
-		put("huai", "Huai"); put("Huai", "Huai");
-		put("hui", "Hui"); put("Hui", "Hui");
-		put("huan", "Huan"); put("Huan", "Huan");
-		put("hun", "Hun"); put("Hun", "Hun");
-		put("huang", "Huang"); put("Huang", "Huang");
-		put("hong", "Hong"); put("Hong", "Hong");
-
-		put("ji", "Ji"); put("Ji", "Ji");
-		put("jia", "Jia"); put("Jia", "Jia");
-		put("jie", "Jie"); put("Jie", "Jie");
-		put("jiao", "Jiao"); put("Jiao", "Jiao");
-		put("jiu", "Jiu"); put("Jiu", "Jiu");
-		put("jian", "Jian"); put("Jian", "Jian");
-		put("jin", "Jin"); put("Jin", "Jin");
-		put("jiang", "Jiang"); put("Jiang", "Jiang");
-		put("jing", "Jing"); put("Jing", "Jing");
-		put("ju", "Ju"); put("Ju", "Ju");
-		put("jue", "Jue"); put("Jue", "Jue");
-		put("juan", "Juan"); put("Juan", "Juan");
-		put("jun", "Jun"); put("Jun", "Jun");
-		put("jiong", "Jiong"); put("Jiong", "Jiong");
-
-		put("qi", "Qi"); put("Qi", "Qi");
-		put("qia", "Qia"); put("Qia", "Qia");
-		put("qie", "Qie"); put("Qie", "Qie");
-		put("qiao", "Qiao"); put("Qiao", "Qiao");
-		put("qiu", "Qiu"); put("Qiu", "Qiu");
-		put("qian", "Qian"); put("Qian", "Qian");
-		put("qin", "Qin"); put("Qin", "Qin");
-		put("qiang", "Qiang"); put("Qiang", "Qiang");
-		put("qing", "Qing"); put("Qing", "Qing");
-		put("qu", "Qu"); put("Qu", "Qu");
-		put("que", "Que"); put("Que", "Que");
-		put("quan", "Quan"); put("Quan", "Quan");
-		put("qun", "Qun"); put("Qun", "Qun");
-		put("qiong", "Qiong"); put("Qiong", "Qiong");
-
-		put("xi", "Xi"); put("Xi", "Xi");
-		put("xia", "Xia"); put("Xia", "Xia");
-		put("xie", "Xie"); put("Xie", "Xie");
-		put("xiao", "Xiao"); put("Xiao", "Xiao");
-		put("xiu", "Xiu"); put("Xiu", "Xiu");
-		put("xian", "Xian"); put("Xian", "Xian");
-		put("xin", "Xin"); put("Xin", "Xin");
-		put("xiang", "Xiang"); put("Xiang", "Xiang");
-		put("xing", "Xing"); put("Xing", "Xing");
-		put("xu", "Xu"); put("Xu", "Xu");
-		put("xue", "Xue"); put("Xue", "Xue");
-		put("xuan", "Xuan"); put("Xuan", "Xuan");
-		put("xun", "Xun"); put("Xun", "Xun");
-		put("xiong", "Xiong"); put("Xiong", "Xiong");
-
-		put("zha", "Zha"); put("Zha", "Zha");
-		put("zhe", "Zhe"); put("Zhe", "Zhe");
-		put("zhai", "Zhai"); put("Zhai", "Zhai");
-		put("zhei", "Zhei"); put("Zhei", "Zhei");
-		put("zhao", "Zhao"); put("Zhao", "Zhao");
-		put("zhou", "Zhou"); put("Zhou", "Zhou");
-		put("zhan", "Zhan"); put("Zhan", "Zhan");
-		put("zhen", "Zhen"); put("Zhen", "Zhen");
-		put("zhang", "Zhang"); put("Zhang", "Zhang");
-		put("zheng", "Zheng"); put("Zheng", "Zheng");
-		put("zhi", "Zhi"); put("Zhi", "Zhi");
-		put("zhu", "Zhu"); put("Zhu", "Zhu");
-		put("zhua", "Zhua"); put("Zhua", "Zhua");
-		put("zhuo", "Zhuo"); put("Zhuo", "Zhuo");
-		put("zhuai", "Zhuai"); put("Zhuai", "Zhuai");
-		put("zhui", "Zhui"); put("Zhui", "Zhui");
-		put("zhuan", "Zhuan"); put("Zhuan", "Zhuan");
-		put("zhun", "Zhun"); put("Zhun", "Zhun");
-		put("zhuang", "Zhuang"); put("Zhuang", "Zhuang");
-		put("zhong", "Zhong"); put("Zhong", "Zhong");
-
-		put("cha", "Cha"); put("Cha", "Cha");
-		put("che", "Che"); put("Che", "Che");
-		put("chai", "Chai"); put("Chai", "Chai");
-		put("chao", "Chao"); put("Chao", "Chao");
-		put("chou", "Chou"); put("Chou", "Chou");
-		put("chan", "Chan"); put("Chan", "Chan");
-		put("chen", "Chen"); put("Chen", "Chen");
-		put("chang", "Chang"); put("Chang", "Chang");
-		put("cheng", "Cheng"); put("Cheng", "Cheng");
-		put("chi", "Chi"); put("Chi", "Chi");
-		put("chu", "Chu"); put("Chu", "Chu");
-		put("chua", "Chua"); put("Chua", "Chua");
-		put("chuo", "Chuo"); put("Chuo", "Chuo");
-		put("chuai", "Chuai"); put("Chuai", "Chuai");
-		put("chui", "Chui"); put("Chui", "Chui");
-		put("chuan", "Chuan"); put("Chuan", "Chuan");
-		put("chun", "Chun"); put("Chun", "Chun");
-		put("chuang", "Chuang"); put("Chuang", "Chuang");
-		put("chong", "Chong"); put("Chong", "Chong");
-
-		put("sha", "Sha"); put("Sha", "Sha");
-		put("she", "She"); put("She", "She");
-		put("shai", "Shai"); put("Shai", "Shai");
-		put("shei", "Shei"); put("Shei", "Shei");
-		put("shao", "Shao"); put("Shao", "Shao");
-		put("shou", "Shou"); put("Shou", "Shou");
-		put("shan", "Shan"); put("Shan", "Shan");
-		put("shen", "Shen"); put("Shen", "Shen");
-		put("shang", "Shang"); put("Shang", "Shang");
-		put("sheng", "Sheng"); put("Sheng", "Sheng");
-		put("shi", "Shi"); put("Shi", "Shi");
-		put("shu", "Shu"); put("Shu", "Shu");
-		put("shua", "Shua"); put("Shua", "Shua");
-		put("shuo", "Shuo"); put("Shuo", "Shuo");
-		put("shuai", "Shuai"); put("Shuai", "Shuai");
-		put("shui", "Shui"); put("Shui", "Shui");
-		put("shuan", "Shuan"); put("Shuan", "Shuan");
-		put("shun", "Shun"); put("Shun", "Shun");
-		put("shuang", "Shuang"); put("Shuang", "Shuang");
-
-		put("re", "Re"); put("Re", "Re");
-		put("rao", "Rao"); put("Rao", "Rao");
-		put("rou", "Rou"); put("Rou", "Rou");
-		put("ran", "Ran"); put("Ran", "Ran");
-		put("ren", "Ren"); put("Ren", "Ren");
-		put("rang", "Rang"); put("Rang", "Rang");
-		put("reng", "Reng"); put("Reng", "Reng");
-		put("ri", "Ri"); put("Ri", "Ri");
-		put("ru", "Ru"); put("Ru", "Ru");
-		put("ruo", "Ruo"); put("Ruo", "Ruo");
-		put("rui", "Rui"); put("Rui", "Rui");
-		put("ruan", "Ruan"); put("Ruan", "Ruan");
-		put("run", "Run"); put("Run", "Run");
-		put("rong", "Rong"); put("Rong", "Rong");
-
-		put("za", "Za"); put("Za", "Za");
-		put("ze", "Ze"); put("Ze", "Ze");
-		put("zai", "Zai"); put("Zai", "Zai");
-		put("zei", "Zei"); put("Zei", "Zei");
-		put("zao", "Zao"); put("Zao", "Zao");
-		put("zou", "Zou"); put("Zou", "Zou");
-		put("zan", "Zan"); put("Zan", "Zan");
-		put("zen", "Zen"); put("Zen", "Zen");
-		put("zang", "Zang"); put("Zang", "Zang");
-		put("zeng", "Zeng"); put("Zeng", "Zeng");
-		put("zi", "Zi"); put("Zi", "Zi");
-		put("zu", "Zu"); put("Zu", "Zu");
-		put("zuo", "Zuo"); put("Zuo", "Zuo");
-		put("zui", "Zui"); put("Zui", "Zui");
-		put("zuan", "Zuan"); put("Zuan", "Zuan");
-		put("zun", "Zun"); put("Zun", "Zun");
-		put("zong", "Zong"); put("Zong", "Zong");
-
-		put("ca", "Ca"); put("Ca", "Ca");
-		put("ce", "Ce"); put("Ce", "Ce");
-		put("cai", "Cai"); put("Cai", "Cai");
-		put("cao", "Cao"); put("Cao", "Cao");
-		put("cou", "Cou"); put("Cou", "Cou");
-		put("can", "Can"); put("Can", "Can");
-		put("cen", "Cen"); put("Cen", "Cen");
-		put("cang", "Cang"); put("Cang", "Cang");
-		put("ceng", "Ceng"); put("Ceng", "Ceng");
-		put("ci", "Ci"); put("Ci", "Ci");
-		put("cu", "Cu"); put("Cu", "Cu");
-		put("cuo", "Cuo"); put("Cuo", "Cuo");
-		put("cui", "Cui"); put("Cui", "Cui");
-		put("cuan", "Cuan"); put("Cuan", "Cuan");
-		put("cun", "Cun"); put("Cun", "Cun");
-		put("cong", "Cong"); put("Cong", "Cong");
-
-		put("sa", "Sa"); put("Sa", "Sa");
-		put("se", "Se"); put("Se", "Se");
-		put("sai", "Sai"); put("Sai", "Sai");
-		put("sao", "Sao"); put("Sao", "Sao");
-		put("sou", "Sou"); put("Sou", "Sou");
-		put("san", "San"); put("San", "San");
-		put("sen", "Sen"); put("Sen", "Sen");
-		put("sang", "Sang"); put("Sang", "Sang");
-		put("seng", "Seng"); put("Seng", "Seng");
-		put("si", "Si"); put("Si", "Si");
-		put("su", "Su"); put("Su", "Su");
-		put("suo", "Suo"); put("Suo", "Suo");
-		put("sui", "Sui"); put("Sui", "Sui");
-		put("suan", "Suan"); put("Suan", "Suan");
-		put("sun", "Sun"); put("Sun", "Sun");
-		put("song", "Song"); put("Song", "Song");
-
-		put("ya", "Ya"); put("Ya", "Ya");
-		put("yao", "Yao"); put("Yao", "Yao");
-		put("you", "You"); put("You", "You");
-		put("yan", "Yan"); put("Yan", "Yan");
-		put("yang", "Yang"); put("Yang", "Yang");
-		put("yong", "Yong"); put("Yong", "Yong");
-
-		put("wa", "Wa"); put("Wa", "Wa");
-		put("wo", "Wo"); put("Wo", "Wo");
-		put("wai", "Wai"); put("Wai", "Wai");
-		put("wei", "Wei"); put("Wei", "Wei");
-		put("wan", "Wan"); put("Wan", "Wan");
-		put("wen", "Wen"); put("Wen", "Wen");
-		put("wang", "Wang"); put("Wang", "Wang");
-		put("weng", "Weng"); put("Weng", "Weng");
-	}};
+	private static final String[] PINYIN_TABLE = {
+		"a", "o", "e", "ai", "ei", "ao", "ou", "er", "an", "en",
+		"ang", "eng", "yi", "ye", "yin", "ying", "wu", "yu", "yue", "yuan",
+		"yun",
+
+		"ba", "bo", "bai", "bei", "bao", "ban", "ben", "bang", "beng", "bi",
+		"bie", "biao", "bian", "bin", "bing", "bu",
+
+		"pa", "po", "pai", "pei", "pao", "pou", "pan", "pen", "pang", "peng",
+		"pi", "pie", "piao", "pian", "pin", "ping", "pu",
+
+		"ma", "mo", "me", "mai", "mei", "mao", "mou", "man", "men", "mang",
+		"meng", "mi", "mie", "miao", "miu", "mian", "min", "ming", "mu",
+
+		"fa", "fo", "fei", "fou", "fan", "fen", "fang", "feng", "fu",
+
+		"da", "de", "dai", "dei", "dao", "dou", "dan", "dang", "deng", "di",
+		"die", "diao", "diu", "dian", "ding", "du", "duo", "dui", "duan", "dun",
+		"dong",
+
+		"ta", "te", "tai", "tao", "tou", "tan", "tang", "teng", "ti", "tie",
+		"tiao", "tian", "ting", "tu", "tuo", "tui", "tuan", "tun", "tong",
+
+		"na", "ne", "nai", "nei", "nao", "nou", "nan", "nen", "nang", "neng",
+		"ni", "nie", "niao", "niu", "nian", "nin", "niang", "ning", "nu", "nuo",
+		"nuan", "nong", "nv", "nve",
+
+		"la", "le", "lai", "lei", "lao", "lou", "lan", "lang", "leng", "li",
+		"lia", "lie", "liao", "liu", "lian", "lin", "liang", "ling", "lu", "luo",
+		"luan", "lun", "long", "lv", "lve",
+
+		"ga", "ge", "gai", "gei", "gao", "gou", "gan", "gen", "gang", "geng",
+		"gu", "gua", "guo", "guai", "gui", "guan", "gun", "guang", "gong",
+
+		"ka", "ke", "kai", "kao", "kou", "kan", "ken", "kang", "keng", "ku",
+		"kua", "kuo", "kuai", "kui", "kuan", "kun", "kuang", "kong",
+
+		"ha", "he", "hai", "hei", "hao", "hou", "han", "hen", "hang", "heng",
+		"hu", "hua", "huo", "huai", "hui", "huan", "hun", "huang", "hong",
+
+		"ji", "jia", "jie", "jiao", "jiu", "jian", "jin", "jiang", "jing", "ju",
+		"jue", "juan", "jun", "jiong",
+
+		"qi", "qia", "qie", "qiao", "qiu", "qian", "qin", "qiang", "qing", "qu",
+		"que", "quan", "qun", "qiong",
+
+		"xi", "xia", "xie", "xiao", "xiu", "xian", "xin", "xiang", "xing", "xu",
+		"xue", "xuan", "xun", "xiong",
+
+		"zha", "zhe", "zhai", "zhei", "zhao", "zhou", "zhan", "zhen", "zhang", "zheng",
+		"zhi", "zhu", "zhua", "zhuo", "zhuai", "zhui", "zhuan", "zhun", "zhuang", "zhong",
+
+		"cha", "che", "chai", "chao", "chou", "chan", "chen", "chang", "cheng", "chi",
+		"chu", "chua", "chuo", "chuai", "chui", "chuan", "chun", "chuang", "chong",
+
+		"sha", "she", "shai", "shei", "shao", "shou", "shan", "shen", "shang", "sheng",
+		"shi", "shu", "shua", "shuo", "shuai", "shui", "shuan", "shun", "shuang",
+
+		"re", "rao", "rou", "ran", "ren", "rang", "reng", "ri", "ru", "ruo",
+		"rui", "ruan", "run", "rong",
+
+		"za", "ze", "zai", "zei", "zao", "zou", "zan", "zen", "zang", "zeng",
+		"zi", "zu", "zuo", "zui", "zuan", "zun", "zong",
+
+		"ca", "ce", "cai", "cao", "cou", "can", "cen", "cang", "ceng", "ci",
+		"cu", "cuo", "cui", "cuan", "cun", "cong",
+
+		"sa", "se", "sai", "sao", "sou", "san", "sen", "sang", "seng", "si",
+		"su", "suo", "sui", "suan", "sun", "song",
+
+		"ya", "yao", "you", "yan", "yang", "yong",
+
+		"wa", "wo", "wai", "wei", "wan", "wen", "wang", "weng"
+	};
+
+	/** Type of a node (no syllable ends at the node) */
+	private static final byte TYPE_NONE = 0;
+	/** Type of a node (a consonant ends at the node) */
+	private static final byte TYPE_CONSONANT = 1;
+	/** Type of a node (a PinYin ends at the node) */
+	private static final byte TYPE_PINYIN = 2;
+
+	/** Number of letters in the trie ('a' to 'z') */
+	private static final int LETTER_COUNT = 26;
+
+	/** Transition table of the trie ({@code node * LETTER_COUNT + letter}; 0 if no child) */
+	private static int[] mTrieNext;
+	/** Type of each node */
+	private static byte[] mTrieType;
+	/** Syllable (capitalized) which ends at each node */
+	private static String[] mTrieSyllable;
+
+	/** Strings of ASCII characters (for the characters which are not a part of a syllable) */
+	private static final String[] mCharString = new String[128];
+
+	/** The last string checked by {@link #isPinyin(String)} */
+	private static String mCheckedString = null;
+	/** Whether each prefix of {@code mCheckedString} is divided into PinYin (indexed by the length) */
+	private static boolean[] mCheckedResult = new boolean[PINYIN_MAX_LENGTH * 8 + 1];
+
+	static {
+		/* make the trie */
+		int size = 1;
+		for (int i = 0; i < CONSONANT_TABLE.length; i++) {
+			size += CONSONANT_TABLE[i].length();
+		}
+		for (int i = 0; i < PINYIN_TABLE.length; i++) {
+			size += PINYIN_TABLE[i].length();
+		}
+		mTrieNext = new int[size * LETTER_COUNT];
+		mTrieType = new byte[size];
+		mTrieSyllable = new String[size];
+
+		int[] count = {1};
+		for (int i = 0; i < CONSONANT_TABLE.length; i++) {
+			addSyllable(CONSONANT_TABLE[i], TYPE_CONSONANT, count);
+		}
+		for (int i = 0; i < PINYIN_TABLE.length; i++) {
+			addSyllable(PINYIN_TABLE[i], TYPE_PINYIN, count);
+		}
+
+		for (char c = 0; c < mCharString.length; c++) {
+			mCharString[c] = String.valueOf(c);
+		}
+	}
+
+	/**
+	 * Add a syllable to the trie.
+	 *
+	 * @param syllable	The syllable (lower case)
+	 * @param type		Type of the syllable
+	 * @param count		Number of nodes in the trie (updated)
+	 */
+	private static void addSyllable(String syllable, byte type, int[] count) {
+		int node = 0;
+		for (int i = 0; i < syllable.length(); i++) {
+			int index = node * LETTER_COUNT + (syllable.charAt(i) - 'a');
+			if (mTrieNext[index] == 0) {
+				mTrieNext[index] = count[0]++;
+			}
+			node = mTrieNext[index];
+		}
+		if (mTrieType[node] < type) {
+			mTrieType[node] = type;
+		}
+		mTrieSyllable[node] = Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1);
+	}
+
+	/**
+	 * Get the child node of the trie.
+	 *
+	 * @param node		The node
+	 * @param c			The character
+	 * @param first		Whether {@code c} is the first letter of a syllable
+	 * @return			The child node; 0 if there is no child.
+	 */
+	private static int nextNode(int node, char c, boolean first) {
+		int letter;
+		if ('a' <= c && c <= 'z') {
+			letter = c - 'a';
+		} else if (first && 'A' <= c && c <= 'Z') {
+			letter = c - 'A';
+		} else {
+			return 0;
+		}
+		return mTrieNext[node * LETTER_COUNT + letter];
+	}
+
+	/**
+	 * Get the end of the longest syllable which starts at the position.
+	 *
+	 * @param input		The input string
+	 * @param start		The start position
+	 * @return			The end position; {@code start} if no syllable matches.
+	 */
+	private static int matchSyllable(CharSequence input, int start) {
+		int limit = start + PINYIN_MAX_LENGTH;
+		if (limit > input.length()) {
+			limit = input.length();
+		}
+		int end = start;
+		int node = 0;
+		for (int i = start; i < limit; i++) {
+			node = nextNode(node, input.charAt(i), (i == start));
+			if (node == 0) {
+				break;
+			}
+			if (mTrieType[node] != TYPE_NONE) {
+				end = i + 1;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Get all the syllables which start at the position.
+	 *
+	 * @param input		The input string
+	 * @param start		The start position
+	 * @param ends		Where to store the end positions of the syllables (in ascending order;
+	 * 					the length must be {@link #PINYIN_MAX_LENGTH} or more)
+	 * @param pinyin	Where to store whether each syllable is a PinYin ({@code false} if a consonant)
+	 * @return			The number of syllables
+	 */
+	static int matchSyllables(CharSequence input, int start, int[] ends, boolean[] pinyin) {
+		int limit = start + PINYIN_MAX_LENGTH;
+		if (limit > input.length()) {
+			limit = input.length();
+		}
+		int count = 0;
+		int node = 0;
+		for (int i = start; i < limit; i++) {
+			node = nextNode(node, input.charAt(i), (i == start));
+			if (node == 0) {
+				break;
+			}
+			if (mTrieType[node] != TYPE_NONE) {
+				ends[count] = i + 1;
+				pinyin[count] = (mTrieType[node] == TYPE_PINYIN);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Divide a string into PinYin syllables.
+	 * <br>
+	 * The longest syllable (PinYin or consonant) is taken from the head of the string.
+	 * A character which is not a part of any syllable makes a syllable by itself.
+	 *
+	 * @param input		The input string
+	 * @param ends		Where to store the end position of each syllable
+	 * 					(the length must be {@code input.length()} or more)
+	 * @return			The number of syllables
+	 */
+	public static final int parse(CharSequence input, int[] ends) {
+		int count = 0;
+		int start = 0;
+		int len = input.length();
+		while (start < len) {
+			int end = matchSyllable(input, start);
+			if (end == start) {
+				end = start + 1;
+			}
+			ends[count++] = end;
+			start = end;
+		}
+		return count;
+	}
+
+	/**
+	 * Get a syllable divided by {@link #parse(CharSequence, int[])}.
+	 *
+	 * @param input		The input string
+	 * @param start		The start position of the syllable
+	 * @param end		The end position of the syllable
+	 * @return			The syllable (capitalized if it is a PinYin or a consonant)
+	 */
+	public static final String getSyllable(String input, int start, int end) {
+		int node = 0;
+		for (int i = start; i < end; i++) {
+			node = nextNode(node, input.charAt(i), (i == start));
+			if (node == 0) {
+				break;
+			}
+		}
+		if (node != 0 && mTrieType[node] != TYPE_NONE) {
+			return mTrieSyllable[node];
+		}
+		if (end == start + 1 && input.charAt(start) < mCharString.length) {
+			return mCharString[input.charAt(start)];
+		}
+		return input.substring(start, end);
+	}
 
 	/**
 	 * Divide a string into list of PinYin.
@@ -495,35 +325,15 @@ public class PinyinParser {
 	 * @return 		The list of PinYin
 	 */
 	public static final List<String> getPinyinList(String input) {
-		List<String> list = new ArrayList<String>();
-		HashMap<String,String> pinyinMap = mPinyinMap;
-		HashMap<String,String> consonantMap = mConsonantMap;
+		int[] ends = new int[input.length()];
+		int count = parse(input, ends);
 
+		List<String> list = new ArrayList<String>(count);
 		int start = 0;
-		while (start < input.length()) {
-			int end = start + PINYIN_MAX_LENGTH;
-			if (end > input.length()) {
-				end = input.length();
-			}
-			for (; end > start; end--) {
-				String key = input.substring(start, end);
-				String match;
-				if ((match = pinyinMap.get(key)) != null) {
-					list.add(match); 
-					break;
-				} else if ((match = consonantMap.get(key)) != null) {
-					list.add(match);
-					break;
-				}    			
-			}
-			if (start == end) {
-				list.add(input.substring(start, start+1));
-				start++;
-			} else {
-				start = end;
-			}
+		for (int i = 0; i < count; i++) {
+			list.add(getSyllable(input, start, ends[i]));
+			start = ends[i];
 		}
-
 		return list;
 	}
 
@@ -545,21 +355,50 @@ public class PinyinParser {
 
 	/**
 	 * Check whether the specified string is pinyin or not.
+	 * <br>
+	 * The result for every prefix of the string is kept, so checking
+	 * the prefixes of the same string again costs nothing.
 	 * 
 	 * @param input		The string
 	 * @return			{@code true} if string is pinyin; {@code false} if otherwise
 	 */
-	public static final boolean isPinyin(String input) {
-		if (input.length() == 0) {
+	public static final synchronized boolean isPinyin(String input) {
+		int len = input.length();
+		if (len == 0) {
 			return true;
 		}
-		for (int end = ((input.length() > PINYIN_MAX_LENGTH)? PINYIN_MAX_LENGTH : input.length()); end > 0; end--) {
-			String key = input.substring(0, end);
-			if (mPinyinMap.containsKey(key) && isPinyin(input.substring(end))) {
-				return true;
+		if (mCheckedString == null || !mCheckedString.startsWith(input)) {
+			/* check all the prefixes (whether the prefix is a sequence of PinYin) */
+			if (mCheckedResult.length <= len) {
+				mCheckedResult = new boolean[len * 2 + 1];
 			}
+			boolean[] result = mCheckedResult;
+			result[0] = true;
+			for (int i = 1; i <= len; i++) {
+				result[i] = false;
+			}
+			for (int start = 0; start < len; start++) {
+				if (!result[start]) {
+					continue;
+				}
+				int limit = start + PINYIN_MAX_LENGTH;
+				if (limit > len) {
+					limit = len;
+				}
+				int node = 0;
+				for (int i = start; i < limit; i++) {
+					node = nextNode(node, input.charAt(i), (i == start));
+					if (node == 0) {
+						break;
+					}
+					if (mTrieType[node] == TYPE_PINYIN) {
+						result[i + 1] = true;
+					}
+				}
+			}
+			mCheckedString = input;
 		}
-		return false;
+		return mCheckedResult[len];
 	}
 
 	/**
@@ -569,6 +408,17 @@ public class PinyinParser {
 	 * @return			{@code true} if string is single pinyin; {@code false} if otherwise
 	 */
 	public static final boolean isSinglePinyin(String input) {
-		return mPinyinMap.containsKey(input);
+		int len = input.length();
+		if (len == 0 || len > PINYIN_MAX_LENGTH) {
+			return false;
+		}
+		int node = 0;
+		for (int i = 0; i < len; i++) {
+			node = nextNode(node, input.charAt(i), (i == 0));
+			if (node == 0) {
+				return false;
+			}
+		}
+		return (mTrieType[node] == TYPE_PINYIN);
 	}
 }
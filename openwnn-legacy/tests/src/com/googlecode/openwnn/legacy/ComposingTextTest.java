@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the composing text.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class ComposingTextTest extends TestCase {
+    /** The text */
+    private ComposingText mText;
+
+    /** @see junit.framework.TestCase#setUp */
+    protected void setUp() throws Exception {
+        super.setUp();
+        mText = new ComposingText();
+        mText.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("a"));
+        mText.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("b"));
+    }
+
+    /**
+     * Modifying a snapshot does not change the source text, and vice versa.
+     */
+    public void testSnapshotIsIndependent() {
+        ComposingText snapshot = mText.createSnapshot();
+        assertEquals("ab", snapshot.toString(ComposingText.LAYER1));
+
+        snapshot.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("c"));
+        snapshot.getStrSegment(ComposingText.LAYER1, 0).string = "x";
+        assertEquals("xbc", snapshot.toString(ComposingText.LAYER1));
+        assertEquals("ab", mText.toString(ComposingText.LAYER1));
+        assertEquals(2, mText.size(ComposingText.LAYER1));
+
+        ComposingText other = mText.createSnapshot();
+        mText.delete(ComposingText.LAYER1, false);
+        assertEquals("a", mText.toString(ComposingText.LAYER1));
+        assertEquals("ab", other.toString(ComposingText.LAYER1));
+    }
+
+    /**
+     * A snapshot is applied only if the source text is not modified after it was created.
+     */
+    public void testApplySnapshot() {
+        ComposingText snapshot = mText.createSnapshot();
+        snapshot.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("c"));
+        assertTrue(mText.isSnapshotCurrent(snapshot));
+        assertTrue(mText.applySnapshot(snapshot));
+        assertEquals("abc", mText.toString(ComposingText.LAYER1));
+
+        /* the source text is modified */
+        ComposingText stale = mText.createSnapshot();
+        stale.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("d"));
+        mText.insertStrSegment(ComposingText.LAYER0, ComposingText.LAYER1, new StrSegment("e"));
+        assertFalse(mText.isSnapshotCurrent(stale));
+        assertFalse(mText.applySnapshot(stale));
+        assertEquals("abce", mText.toString(ComposingText.LAYER1));
+
+        /* getting a layer is a modification */
+        stale = mText.createSnapshot();
+        mText.getStringLayer(ComposingText.LAYER1);
+        assertFalse(mText.applySnapshot(stale));
+
+        /* a snapshot of another text */
+        assertFalse(new ComposingText().applySnapshot(mText.createSnapshot()));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.JAJP;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.googlecode.openwnn.legacy.*;
+
+/**
+ * Tests of the Clause Converter for Japanese IME.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class OpenWnnClauseConverterJAJPTest extends TestCase {
+    /** Letters of the independent words */
+    private static final String STEM_LETTERS = "\u3042\u3044\u3046\u304b";
+    /** Letters of the ancillary words */
+    private static final String FZK_LETTERS  = "\u306b\u3092";
+    /** Number of the parts of speech */
+    private static final int POS_COUNT = 6;
+
+    /**
+     * Make a dictionary of random words.
+     *
+     * @param random    The random numbers
+     * @return          The dictionary
+     */
+    private TestDictionary createDictionary(Random random) {
+        TestDictionary dict = new TestDictionary(POS_COUNT);
+        for (int left = 1; left < POS_COUNT; left++) {
+            for (int right = 1; right < POS_COUNT; right++) {
+                dict.setConnection(left, right, random.nextInt(3) > 0);
+            }
+        }
+        for (int i = 0; i < 120; i++) {
+            dict.addWord(4 + random.nextInt(2), randomString(random, STEM_LETTERS, 4), "W" + i,
+                         random.nextInt(POS_COUNT), random.nextInt(POS_COUNT), random.nextInt(101));
+        }
+        for (int i = 0; i < 10; i++) {
+            String stroke = randomString(random, FZK_LETTERS, 2);
+            dict.addWord(6, stroke, stroke, random.nextInt(POS_COUNT), random.nextInt(POS_COUNT), random.nextInt(101));
+        }
+        return dict;
+    }
+
+    /**
+     * Make a random string.
+     *
+     * @param random    The random numbers
+     * @param letters   The letters of the string
+     * @param max       Maximum length of the string
+     * @return          The string
+     */
+    private String randomString(Random random, String letters, int max) {
+        StringBuffer str = new StringBuffer();
+        for (int len = 1 + random.nextInt(max); len > 0; len--) {
+            str.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return str.toString();
+    }
+
+    /**
+     * Get the string of the results of consecutive clause conversion.
+     *
+     * @param converter The converter
+     * @param input     The input string
+     * @param nbest     {@code true} for N-best conversion
+     * @return          The candidates and the scores of the results
+     */
+    private String convert(OpenWnnClauseConverterJAJP converter, String input, boolean nbest) {
+        ArrayList<WnnSentence> sentences = new ArrayList<WnnSentence>();
+        if (nbest) {
+            sentences = converter.consecutiveClauseConvert(input, 5);
+        } else {
+            sentences.add(converter.consecutiveClauseConvert(input));
+        }
+        StringBuffer result = new StringBuffer();
+        for (int i = 0; i < sentences.size(); i++) {
+            WnnSentence s = sentences.get(i);
+            result.append(s.candidate).append('/').append(s.frequency).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * The lattice reused for an extended or edited input gives the same results as a new one.
+     */
+    public void testIncrementalConversion() {
+        Random random = new Random(1);
+        String letters = STEM_LETTERS + FZK_LETTERS;
+        for (int run = 0; run < 100; run++) {
+            TestDictionary dict = createDictionary(random);
+            OpenWnnClauseConverterJAJP converter = new OpenWnnClauseConverterJAJP();
+            converter.setDictionary(dict);
+
+            StringBuffer input = new StringBuffer(randomString(random, letters, 4));
+            for (int step = 0; step < 25; step++) {
+                int op = random.nextInt(10);
+                if (op < 5 && input.length() < 40) {
+                    input.append(letters.charAt(random.nextInt(letters.length())));
+                } else if (op < 7 && input.length() > 1) {
+                    input.setLength(input.length() - 1);
+                } else {
+                    input.setCharAt(random.nextInt(input.length()), letters.charAt(random.nextInt(letters.length())));
+                }
+                String str = input.toString();
+                boolean nbest = random.nextBoolean();
+
+                OpenWnnClauseConverterJAJP full = new OpenWnnClauseConverterJAJP();
+                full.setDictionary(dict);
+                assertEquals("run " + run + " step " + step + " " + str,
+                             convert(full, str, nbest), convert(converter, str, nbest));
+            }
+        }
+    }
+
+    /**
+     * The worker threads give the same candidates as the sequential conversion,
+     * and their dictionaries are kept open by the caller.
+     */
+    public void testParallelConversion() {
+        String letters = STEM_LETTERS + FZK_LETTERS;
+        int searched = 0;
+        for (int run = 0; run < 20; run++) {
+            OpenWnnClauseConverterJAJP sequential = new OpenWnnClauseConverterJAJP();
+            sequential.setDictionary(createDictionary(new Random(run)));
+            OpenWnnClauseConverterJAJP parallel = new OpenWnnClauseConverterJAJP();
+            parallel.setDictionary(createDictionary(new Random(run)));
+            TestDictionary[] workers = new TestDictionary[] {
+                createDictionary(new Random(run)), createDictionary(new Random(run))
+            };
+            for (int i = 0; i < workers.length; i++) {
+                workers[i].setInUseState(true);
+            }
+            parallel.setWorkerDictionaries(workers);
+
+            Random random = new Random(run);
+            for (int i = 0; i < 10; i++) {
+                String input = randomString(random, letters, 8);
+                assertEquals(input, candidates(sequential.convert(input)), candidates(parallel.convert(input)));
+            }
+            for (int i = 0; i < workers.length; i++) {
+                assertTrue(workers[i].isInUse());
+                searched += workers[i].getSearchCount();
+            }
+            parallel.setWorkerDictionaries(null);
+        }
+        assertTrue(searched > 0);
+    }
+
+    /**
+     * Get the string of the candidates of single clause conversion.
+     *
+     * @param candidates    The candidates
+     * @return              The candidates and the scores
+     */
+    private String candidates(Iterator<?> candidates) {
+        StringBuffer result = new StringBuffer();
+        while (candidates != null && candidates.hasNext()) {
+            WnnClause clause = (WnnClause)candidates.next();
+            result.append(clause.candidate).append('/').append(clause.frequency).append(' ');
+        }
+        return result.toString();
+    }
+}
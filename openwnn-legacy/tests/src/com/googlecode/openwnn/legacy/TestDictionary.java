@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * The dictionary on memory for the tests.
+ * <br>
+ * The words are searched by a linear scan, and the frequency (0 to 100)
+ * of a word is mapped to the range given by {@link #setDictionary(int, int, int)}.
+ * The approximate patterns, the case filter and the key layout are ignored.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class TestDictionary implements WnnDictionary {
+    /** Number of the dictionary indexes (except the user and the learning dictionary) */
+    private static final int INDEX_COUNT = 8;
+
+    /** A word in the dictionary */
+    private static class Entry {
+        /** The dictionary index */
+        int index;
+        /** The word */
+        WnnWord word;
+    }
+
+    /** Comparator of the words (higher frequency first) */
+    private static final Comparator<WnnWord> FREQUENCY_COMPARATOR = new Comparator<WnnWord>() {
+        public int compare(WnnWord w1, WnnWord w2) {
+            return w2.frequency - w1.frequency;
+        }
+    };
+
+    /** The words */
+    private ArrayList<Entry> mEntries = new ArrayList<Entry>();
+    /** The links (following words of a candidate) */
+    private HashMap<String, ArrayList<WnnWord>> mLinks = new HashMap<String, ArrayList<WnnWord>>();
+    /** The links (pairs of the preceding word and the following word) */
+    private ArrayList<WnnWord[]> mLinkPairs = new ArrayList<WnnWord[]>();
+    /** The frequency ranges of the dictionaries ({@code null} if unused) */
+    private int[][] mRange = new int[INDEX_COUNT][];
+    /** Base frequency of the user dictionary (-1 if unused) */
+    private int mUserBase = -1;
+    /** Base frequency of the learning dictionary (-1 if unused) */
+    private int mLearnBase = -1;
+    /** The connect matrix */
+    private byte[][] mConnectMatrix;
+    /** The part of speech returned by {@link #getPOS(int)} */
+    private WnnPOS mPOS = new WnnPOS(1, 1);
+
+    /** Results of the last search */
+    private ArrayList<WnnWord> mResult = new ArrayList<WnnWord>();
+    /** Position of the next result */
+    private int mResultPosition = 0;
+
+    /** "in use" state */
+    private boolean mInUse = false;
+    /** Number of the searches */
+    private int mSearchCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param posCount  Number of the parts of speech (all of them can be connected)
+     */
+    public TestDictionary(int posCount) {
+        mConnectMatrix = new byte[posCount][posCount];
+        for (int i = 0; i < posCount; i++) {
+            for (int j = 0; j < posCount; j++) {
+                mConnectMatrix[i][j] = 1;
+            }
+        }
+    }
+
+    /**
+     * Add a word.
+     *
+     * @param index     The dictionary index ({@link #INDEX_LEARN_DICTIONARY} for the learning dictionary)
+     * @param stroke    The reading
+     * @param candidate The notation
+     * @param left      The part of speech at left side
+     * @param right     The part of speech at right side
+     * @param frequency The frequency (0 to 100)
+     */
+    public void addWord(int index, String stroke, String candidate, int left, int right, int frequency) {
+        Entry e = new Entry();
+        e.index = index;
+        e.word = new WnnWord(candidate, stroke, new WnnPOS(left, right), frequency);
+        mEntries.add(e);
+    }
+
+    /**
+     * Add a link of the learning dictionary.
+     *
+     * @param previousStroke  The reading of the preceding word
+     * @param previous  The notation of the preceding word
+     * @param stroke    The reading of the following word
+     * @param candidate The notation of the following word
+     */
+    public void addLink(String previousStroke, String previous, String stroke, String candidate) {
+        ArrayList<WnnWord> links = mLinks.get(previous);
+        if (links == null) {
+            links = new ArrayList<WnnWord>();
+            mLinks.put(previous, links);
+        }
+        WnnWord word = new WnnWord(candidate, stroke, new WnnPOS(mPOS.left, mPOS.right));
+        links.add(word);
+        mLinkPairs.add(new WnnWord[] {new WnnWord(previous, previousStroke), word});
+    }
+
+    /**
+     * Set whether two parts of speech can be connected.
+     *
+     * @param left      The part of speech at left side of the following word
+     * @param right     The part of speech at right side of the preceding word
+     * @param connect   {@code true} if they can be connected
+     */
+    public void setConnection(int left, int right, boolean connect) {
+        mConnectMatrix[left][right] = (byte)(connect ? 1 : 0);
+    }
+
+    /**
+     * Whether the dictionary is in use.
+     *
+     * @return          {@code true} if in use; {@code false} if not.
+     */
+    public boolean isInUse() {
+        return mInUse;
+    }
+
+    /**
+     * Get the number of the searches.
+     *
+     * @return          The number of the searches
+     */
+    public int getSearchCount() {
+        return mSearchCount;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#isActive */
+    public boolean isActive() {
+        return true;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setInUseState */
+    public void setInUseState(boolean flag) {
+        mInUse = flag;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#clearDictionary */
+    public int clearDictionary() {
+        mRange = new int[INDEX_COUNT][];
+        mUserBase = -1;
+        mLearnBase = -1;
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setDictionary */
+    public int setDictionary(int index, int base, int high) {
+        if (index == INDEX_USER_DICTIONARY) {
+            mUserBase = base;
+        } else if (index == INDEX_LEARN_DICTIONARY) {
+            mLearnBase = base;
+        } else if (index >= 0 && index < INDEX_COUNT) {
+            mRange[index] = (base < 0) ? null : new int[] {base, high};
+        } else {
+            return -1;
+        }
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#clearApproxPattern */
+    public void clearApproxPattern() {
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setApproxPattern(String, String) */
+    public int setApproxPattern(String src, String dst) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setApproxPattern(int) */
+    public int setApproxPattern(int approxPattern) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setKeyLayout */
+    public int setKeyLayout(String keys, int[] x, int[] y, int keyWidth) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#searchWordByKeyDistance */
+    public int searchWordByKeyDistance(String keyString, int[] x, int[] y, int maxCount) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#setCaseFilter */
+    public int setCaseFilter(int filter) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#searchWord(int, int, String) */
+    public int searchWord(int operation, int order, String keyString) {
+        mSearchCount++;
+        mResult.clear();
+        mResultPosition = 0;
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry e = mEntries.get(i);
+            int frequency = getFrequency(e);
+            if (frequency < 0) {
+                continue;
+            }
+            boolean match;
+            switch (operation) {
+            case SEARCH_EXACT:
+                match = e.word.stroke.equals(keyString);
+                break;
+            case SEARCH_PREFIX:
+                match = e.word.stroke.startsWith(keyString);
+                break;
+            case SEARCH_COMMON_PREFIX:
+                match = keyString.startsWith(e.word.stroke);
+                break;
+            default:
+                match = false;
+                break;
+            }
+            if (match) {
+                mResult.add(new WnnWord(e.word.candidate, e.word.stroke,
+                                        new WnnPOS(e.word.partOfSpeech.left, e.word.partOfSpeech.right), frequency));
+            }
+        }
+        Collections.sort(mResult, FREQUENCY_COMPARATOR);
+        return mResult.size();
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#searchWord(int, int, String, WnnWord) */
+    public int searchWord(int operation, int order, String keyString, WnnWord wnnWord) {
+        if (operation != SEARCH_LINK) {
+            return searchWord(operation, order, keyString);
+        }
+        mSearchCount++;
+        mResult.clear();
+        mResultPosition = 0;
+        ArrayList<WnnWord> links = mLinks.get(wnnWord.candidate);
+        if (links != null && mLearnBase >= 0) {
+            for (int i = 0; i < links.size(); i++) {
+                WnnWord w = links.get(i);
+                if (w.stroke.startsWith(keyString)) {
+                    mResult.add(new WnnWord(w.candidate, w.stroke,
+                                            new WnnPOS(w.partOfSpeech.left, w.partOfSpeech.right), mLearnBase));
+                }
+            }
+        }
+        return mResult.size();
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#searchCommonPrefix */
+    public int searchCommonPrefix(int order, String keyString, int minLength) {
+        searchWord(SEARCH_COMMON_PREFIX, order, keyString);
+        for (int i = mResult.size() - 1; i >= 0; i--) {
+            if (mResult.get(i).stroke.length() < minLength) {
+                mResult.remove(i);
+            }
+        }
+        return mResult.size();
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getLinkedWords */
+    public WnnWord[][] getLinkedWords(String keyString) {
+        mSearchCount++;
+        String key = keyString.toLowerCase();
+        ArrayList<WnnWord[]> result = new ArrayList<WnnWord[]>();
+        for (int i = 0; i < mLinkPairs.size(); i++) {
+            WnnWord[] pair = mLinkPairs.get(i);
+            if (key.indexOf((pair[0].stroke + pair[1].stroke).toLowerCase()) >= 0) {
+                result.add(pair);
+            }
+        }
+        return result.toArray(new WnnWord[result.size()][]);
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getNextWord() */
+    public WnnWord getNextWord() {
+        return getNextWord(0);
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getNextWord(int) */
+    public WnnWord getNextWord(int length) {
+        while (mResultPosition < mResult.size()) {
+            WnnWord word = mResult.get(mResultPosition++);
+            if (length <= 0 || word.stroke.length() == length) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getUserDictionaryWords */
+    public WnnWord[] getUserDictionaryWords() {
+        return new WnnWord[0];
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getConnectMatrix */
+    public byte[][] getConnectMatrix() {
+        return mConnectMatrix;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#getPOS */
+    public WnnPOS getPOS(int type) {
+        return new WnnPOS(mPOS.left, mPOS.right);
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#clearUserDictionary */
+    public int clearUserDictionary() {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#clearLearnDictionary */
+    public int clearLearnDictionary() {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#addWordToUserDictionary(WnnWord[]) */
+    public int addWordToUserDictionary(WnnWord[] word) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#addWordToUserDictionary(WnnWord) */
+    public int addWordToUserDictionary(WnnWord word) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#removeWordFromUserDictionary(WnnWord[]) */
+    public int removeWordFromUserDictionary(WnnWord[] word) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#removeWordFromUserDictionary(WnnWord) */
+    public int removeWordFromUserDictionary(WnnWord word) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#learnWord(WnnWord) */
+    public int learnWord(WnnWord word) {
+        return 0;
+    }
+
+    /** @see com.googlecode.openwnn.legacy.WnnDictionary#learnWord(WnnWord, WnnWord) */
+    public int learnWord(WnnWord word, WnnWord previousWord) {
+        return 0;
+    }
+
+    /**
+     * Get the frequency of a word in the current search condition.
+     *
+     * @param e         The word
+     * @return          The frequency; -1 if the dictionary of the word is not used.
+     */
+    private int getFrequency(Entry e) {
+        if (e.index == INDEX_USER_DICTIONARY) {
+            return mUserBase;
+        } else if (e.index == INDEX_LEARN_DICTIONARY) {
+            return mLearnBase;
+        } else if (e.index < 0 || e.index >= INDEX_COUNT || mRange[e.index] == null) {
+            return -1;
+        }
+        int[] range = mRange[e.index];
+        return range[0] + (range[1] - range[0]) * e.word.frequency / 100;
+    }
+}
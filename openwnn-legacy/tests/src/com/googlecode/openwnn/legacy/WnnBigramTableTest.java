@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the table of bigram scores.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnBigramTableTest extends TestCase {
+    /**
+     * A full table keeps its pairs and refuses a new one.
+     */
+    public void testPutToFullTable() {
+        WnnBigramTable table = new WnnBigramTable(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(table.put("a", "b" + i, 10 + i));
+        }
+        assertFalse(table.put("a", "c", 20));
+        assertEquals(4, table.size());
+        assertEquals(0, table.get("a", "c"));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(10 + i, table.get("a", "b" + i));
+        }
+
+        /* the score of a pair in the table can be changed */
+        assertTrue(table.put("a", "b0", 30));
+        assertEquals(30, table.get("a", "b0"));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(0, table.get("a", "b0"));
+    }
+}
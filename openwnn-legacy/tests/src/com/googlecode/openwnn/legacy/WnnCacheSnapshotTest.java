@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the snapshot file of search caches.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class WnnCacheSnapshotTest extends TestCase {
+    /** Path of the snapshot file */
+    private String mPath;
+
+    /** @see junit.framework.TestCase#setUp */
+    protected void setUp() throws Exception {
+        super.setUp();
+        File file = File.createTempFile("snapshot", ".cache");
+        file.delete();
+        mPath = file.getPath();
+    }
+
+    /** @see junit.framework.TestCase#tearDown */
+    protected void tearDown() throws Exception {
+        new File(mPath).delete();
+        super.tearDown();
+    }
+
+    /**
+     * Wait for the caches loaded in the background.
+     *
+     * @param snapshot  The snapshot
+     * @return          The caches; {@code null} if not loaded in time.
+     */
+    private WnnWordCache[] waitForLoaded(WnnCacheSnapshot snapshot) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            WnnWordCache[] caches = snapshot.takeLoaded();
+            if (caches != null) {
+                return caches;
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+
+    /**
+     * The saved caches are loaded once, with the same options.
+     */
+    public void testSaveAndLoad() throws Exception {
+        WnnWordCache cache = new WnnWordCache(16, 1024);
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+        words.add(new WnnWord("\u4e2d\u56fd", "zhongguo"));
+        cache.put("zhongguo", words);
+
+        WnnCacheSnapshot snapshot = new WnnCacheSnapshot(mPath, new String[0]);
+        snapshot.setOptions("a");
+        assertTrue(snapshot.save(new WnnWordCache[] {cache}, 16));
+
+        WnnCacheSnapshot next = new WnnCacheSnapshot(mPath, new String[0]);
+        next.setOptions("a");
+        next.loadInBackground(1);
+        WnnWordCache[] loaded = waitForLoaded(next);
+        assertNotNull(loaded);
+        assertEquals(1, loaded.length);
+        assertEquals("\u4e2d\u56fd", loaded[0].get("zhongguo").get(0).candidate);
+
+        /* the caches are taken only once, and not loaded again */
+        next.loadInBackground(1);
+        Thread.sleep(200);
+        assertNull(next.takeLoaded());
+
+        /* the snapshot of other options is not taken */
+        next = new WnnCacheSnapshot(mPath, new String[0]);
+        next.setOptions("b");
+        next.loadInBackground(1);
+        Thread.sleep(200);
+        assertNull(next.takeLoaded());
+    }
+
+    /**
+     * Wait for the snapshot file saved in the background.
+     *
+     * @return          {@code true} if the file is saved in time.
+     */
+    private boolean waitForSaved() throws InterruptedException {
+        File file = new File(mPath);
+        for (int i = 0; i < 100; i++) {
+            if (file.exists()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    /**
+     * The caches are saved in the background only if they are changed.
+     */
+    public void testSaveOnlyChanged() throws Exception {
+        WnnWordCache cache = new WnnWordCache(16, 1024);
+        WnnCacheSnapshot snapshot = new WnnCacheSnapshot(mPath, new String[0]);
+
+        /* nothing has been cached */
+        snapshot.saveInBackground(new WnnWordCache[] {cache}, 16, 0);
+        Thread.sleep(200);
+        assertFalse(new File(mPath).exists());
+
+        ArrayList<WnnWord> words = new ArrayList<WnnWord>();
+        words.add(new WnnWord("\u4e2d\u56fd", "zhongguo"));
+        cache.put("zhongguo", words);
+        snapshot.saveInBackground(new WnnWordCache[] {cache}, 16, 0);
+        assertTrue(waitForSaved());
+
+        /* not changed since the last save */
+        new File(mPath).delete();
+        cache.get("zhongguo");
+        snapshot.saveInBackground(new WnnWordCache[] {cache}, 16, 0);
+        Thread.sleep(200);
+        assertFalse(new File(mPath).exists());
+
+        /* a waiting save is replaced by the next one */
+        cache.remove("zhongguo");
+        snapshot.saveInBackground(new WnnWordCache[] {cache}, 16, 10000);
+        cache.put("zhongguo", words);
+        snapshot.saveInBackground(new WnnWordCache[] {cache}, 16, 0);
+        assertTrue(waitForSaved());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.ZH;
+
+import junit.framework.TestCase;
+
+import com.googlecode.openwnn.legacy.*;
+
+/**
+ * Tests of the consonant predict converter for Chinese IME.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class ConsonantPredictionTest extends TestCase {
+    /** The dictionary */
+    private TestDictionary mDictionary;
+    /** The converter */
+    private ConsonantPrediction mConverter;
+
+    /** @see junit.framework.TestCase#setUp */
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDictionary = new TestDictionary(2);
+        mDictionary.addWord(0, "zhongguo", "\u4e2d\u56fd", 1, 1, 90);
+        mDictionary.addWord(0, "zuguo", "\u7956\u56fd", 1, 1, 80);
+        mDictionary.addWord(0, "zhongwen", "\u4e2d\u6587", 1, 1, 70);
+
+        mConverter = new ConsonantPrediction();
+        mConverter.setDictionary(mDictionary);
+    }
+
+    /**
+     * The words of the initials are searched once, and kept across the searches.
+     */
+    public void testIndexIsKept() {
+        assertEquals("\u4e2d\u56fd", mConverter.convert("zg", false).candidate);
+        assertEquals("\u7956\u56fd", mConverter.nextCandidate().candidate);
+        assertNull(mConverter.nextCandidate());
+        int count = mDictionary.getSearchCount();
+
+        /* another search of other initials */
+        assertEquals("\u4e2d\u6587", mConverter.convert("zw", false).candidate);
+        assertNull(mConverter.nextCandidate());
+        assertEquals(count + 1, mDictionary.getSearchCount());
+
+        /* the index is used again, also for the longer initials */
+        assertEquals("\u4e2d\u56fd", mConverter.convert("zhg", false).candidate);
+        assertNull(mConverter.nextCandidate());
+        assertNull(mConverter.convert("zgr", false));
+        assertEquals(count + 1, mDictionary.getSearchCount());
+    }
+
+    /**
+     * Learning a word discards only the words of the matching initials.
+     */
+    public void testInvalidateCache() {
+        mConverter.convert("zg", false);
+        while (mConverter.nextCandidate() != null) {
+        }
+        mConverter.convert("zw", false);
+        while (mConverter.nextCandidate() != null) {
+        }
+        int count = mDictionary.getSearchCount();
+
+        mConverter.invalidateCache("zuguo");
+        assertEquals("\u4e2d\u6587", mConverter.convert("zw", false).candidate);
+        assertEquals(count, mDictionary.getSearchCount());
+        assertEquals("\u4e2d\u56fd", mConverter.convert("zg", false).candidate);
+        assertEquals(count + 1, mDictionary.getSearchCount());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2008,2009  OMRON SOFTWARE Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlecode.openwnn.legacy.ZH;
+
+import junit.framework.TestCase;
+
+import com.googlecode.openwnn.legacy.*;
+
+/**
+ * Tests of the Clause Converter for Chinese IME.
+ *
+ * @author Copyright (C) 2009 OMRON SOFTWARE CO., LTD.  All Rights Reserved.
+ */
+public class OpenWnnClauseConverterZHTest extends TestCase {
+    /** The dictionary */
+    private TestDictionary mDictionary;
+    /** The converter */
+    private OpenWnnClauseConverterZH mConverter;
+
+    /** @see junit.framework.TestCase#setUp */
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDictionary = new TestDictionary(2);
+        mDictionary.addWord(0, "zhong", "\u4e2d", 1, 1, 80);
+        mDictionary.addWord(0, "guo", "\u56fd", 1, 1, 80);
+        mDictionary.addWord(0, "zhongguo", "\u4e2d\u56fd", 1, 1, 90);
+        mDictionary.addWord(0, "ren", "\u4eba", 1, 1, 80);
+        mDictionary.addWord(1, "hao", "\u597d", 1, 1, 50);
+
+        mConverter = new OpenWnnClauseConverterZH();
+        mConverter.setDictionary(mDictionary);
+    }
+
+    /**
+     * An input of some clauses is converted to the words of the dictionary.
+     */
+    public void testConsecutiveClauseConvert() {
+        WnnSentence sentence = mConverter.consecutiveClauseConvert("zhongguoren");
+        assertNotNull(sentence);
+        assertEquals("\u4e2d\u56fd\u4eba", sentence.candidate);
+        assertEquals(2, sentence.elements.size());
+
+        /* the result does not depend on the previous input */
+        sentence = mConverter.consecutiveClauseConvert("zhongguorenhao");
+        assertEquals("\u4e2d\u56fd\u4eba\u597d", sentence.candidate);
+        sentence = mConverter.consecutiveClauseConvert("zhongguoren");
+        assertEquals("\u4e2d\u56fd\u4eba", sentence.candidate);
+    }
+
+    /**
+     * The link mode also converts an input of some clauses.
+     */
+    public void testConsecutiveClauseConvertLinkMode() {
+        mConverter.setLinkMode(true);
+        WnnSentence sentence = mConverter.consecutiveClauseConvert("zhongguoren");
+        assertNotNull(sentence);
+        assertEquals("\u4e2d\u56fd\u4eba", sentence.candidate);
+    }
+
+    /**
+     * A learned link within the input is preferred in the link mode.
+     */
+    public void testLinkMode() {
+        mDictionary.addWord(0, "ren", "\u8ba4", 1, 1, 70);
+        mDictionary.addLink("guo", "\u56fd", "ren", "\u8ba4");
+
+        WnnSentence sentence = mConverter.consecutiveClauseConvert("guoren");
+        assertEquals("\u56fd\u4eba", sentence.candidate);
+
+        mConverter.setLinkMode(true);
+        sentence = mConverter.consecutiveClauseConvert("guoren");
+        assertEquals("\u56fd\u8ba4", sentence.candidate);
+
+        /* the links are loaded again for the changed input */
+        sentence = mConverter.consecutiveClauseConvert("guorenhao");
+        assertEquals("\u56fd\u8ba4\u597d", sentence.candidate);
+        sentence = mConverter.consecutiveClauseConvert("guoguo");
+        assertEquals("\u56fd\u56fd", sentence.candidate);
+    }
+}